@@ -0,0 +1,37 @@
+// OperationLog.java
+package com.example.helper.Common.Annotation;
+
+import com.example.helper.Common.Enum.BusinessTypeEnum;
+import com.example.helper.Common.Enum.OperationTypeEnum;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 操作日志注解
+ *
+ * <p>标注在控制器方法上，由 OperationLogAspect 记录业务类型、操作类型、耗时、IP 与执行结果，异步批量写入 system_logs。
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OperationLog {
+
+    /** 业务类型 */
+    BusinessTypeEnum businessType();
+
+    /** 操作类型 */
+    OperationTypeEnum operationType();
+
+    /** 模块名称，为空时使用业务类型描述 */
+    String module() default "";
+
+    /** 是否记录请求参数 */
+    boolean saveParams() default true;
+
+    /** 是否记录返回结果 */
+    boolean saveResult() default false;
+}
@@ -0,0 +1,179 @@
+// OperationLogAspect.java
+package com.example.helper.Common.Aspect;
+
+import com.example.helper.Common.Annotation.OperationLog;
+import com.example.helper.Common.Event.OperationLogEvent;
+import com.example.helper.Common.Util.LoggingUtil;
+import com.example.helper.Service.OperationLogWriter;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 操作日志切面
+ *
+ * <p>请求线程只采集耗时、IP、请求头和参数引用，交给 OperationLogWriter 异步写入，不做序列化，也不访问数据库。
+ *
+ * <p>返回 SseEmitter 等 ResponseBodyEmitter 的方法在返回时响应尚未结束，改为在连接完成、出错或超时时记录，耗时覆盖整个流式响应，结果不记录。
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class OperationLogAspect {
+
+    private static final String USER_ID_HEADER = "User-Id";
+
+    private final OperationLogWriter operationLogWriter;
+
+    @Around("@annotation(operationLog)")
+    public Object around(ProceedingJoinPoint joinPoint, OperationLog operationLog)
+            throws Throwable {
+        if (!operationLogWriter.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        // 请求信息在请求线程采集，流式响应结束时回调所在的线程没有请求上下文
+        RequestInfo request = capture(joinPoint, operationLog);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            record(operationLog, request, null, e, start);
+            throw e;
+        }
+        if (result instanceof ResponseBodyEmitter emitter) {
+            recordOnCompletion(operationLog, request, emitter, start);
+        } else {
+            record(operationLog, request, result, null, start);
+        }
+        return result;
+    }
+
+    // 超时与出错时容器随后还会回调完成，只记录最先到达的一次
+    private void recordOnCompletion(
+            OperationLog operationLog, RequestInfo request, ResponseBodyEmitter emitter, long start) {
+        AtomicBoolean recorded = new AtomicBoolean();
+        emitter.onTimeout(
+                () -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        record(operationLog, request, null, new AsyncRequestTimeoutException(), start);
+                    }
+                });
+        emitter.onError(
+                error -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        record(operationLog, request, null, error, start);
+                    }
+                });
+        emitter.onCompletion(
+                () -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        record(operationLog, request, null, null, start);
+                    }
+                });
+    }
+
+    private RequestInfo capture(ProceedingJoinPoint joinPoint, OperationLog operationLog) {
+        String userId = null;
+        String userAgent = null;
+        String ipAddress = null;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            userId = request.getHeader(USER_ID_HEADER);
+            userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+            ipAddress = LoggingUtil.getClientIpAddress();
+        }
+
+        String module =
+                operationLog.module().isEmpty()
+                        ? operationLog.businessType().getDescription()
+                        : operationLog.module();
+        String methodName =
+                joinPoint.getSignature().getDeclaringType().getSimpleName()
+                        + "."
+                        + joinPoint.getSignature().getName();
+
+        return new RequestInfo(
+                module,
+                methodName,
+                userId,
+                ipAddress,
+                userAgent,
+                operationLog.saveParams() ? loggableArgs(joinPoint.getArgs()) : null);
+    }
+
+    private void record(
+            OperationLog operationLog,
+            RequestInfo request,
+            Object result,
+            Throwable exception,
+            long start) {
+        long executeTime = (System.nanoTime() - start) / 1_000_000;
+        operationLogWriter.submit(
+                new OperationLogEvent(
+                        operationLog.businessType(),
+                        operationLog.operationType(),
+                        request.module(),
+                        request.methodName(),
+                        request.userId(),
+                        request.ipAddress(),
+                        request.userAgent(),
+                        request.params(),
+                        operationLog.saveResult() ? result : null,
+                        exception,
+                        executeTime,
+                        LocalDateTime.now()));
+    }
+
+    // 请求、响应、流与上传文件等不可序列化的参数只记录类型名
+    private static Object[] loggableArgs(Object[] args) {
+        Object[] loggable = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg instanceof ServletRequest
+                    || arg instanceof ServletResponse
+                    || arg instanceof WebRequest
+                    || arg instanceof MultipartFile
+                    || arg instanceof InputStream
+                    || arg instanceof OutputStream
+                    || arg instanceof Reader
+                    || arg instanceof Writer
+                    || arg instanceof BindingResult) {
+                loggable[i] = "[" + arg.getClass().getSimpleName() + "]";
+            } else {
+                loggable[i] = arg;
+            }
+        }
+        return loggable;
+    }
+
+    private record RequestInfo(
+            String module,
+            String methodName,
+            String userId,
+            String ipAddress,
+            String userAgent,
+            Object[] params) {}
+}
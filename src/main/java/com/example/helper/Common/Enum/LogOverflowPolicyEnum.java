@@ -0,0 +1,20 @@
+// LogOverflowPolicyEnum.java
+package com.example.helper.Common.Enum;
+
+import lombok.Getter;
+
+/** 操作日志缓冲区溢出策略枚举 */
+@Getter
+public enum LogOverflowPolicyEnum {
+    DROP("DROP", "缓冲区满时丢弃"),
+    SAMPLE("SAMPLE", "缓冲区超过水位后按比例采样成功日志，满时丢弃"),
+    BLOCK("BLOCK", "缓冲区满时短暂等待，超时后丢弃");
+
+    private final String code;
+    private final String description;
+
+    LogOverflowPolicyEnum(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+}
@@ -0,0 +1,29 @@
+// LogRollupGranularityEnum.java
+package com.example.helper.Common.Enum;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/** 日志统计汇总粒度枚举 */
+@Getter
+public enum LogRollupGranularityEnum {
+    MINUTE("MINUTE", "按分钟汇总", ChronoUnit.MINUTES),
+    HOUR("HOUR", "按小时汇总", ChronoUnit.HOURS);
+
+    private final String code;
+    private final String description;
+    private final ChronoUnit unit;
+
+    LogRollupGranularityEnum(String code, String description, ChronoUnit unit) {
+        this.code = code;
+        this.description = description;
+        this.unit = unit;
+    }
+
+    /** 时间所在汇总区间的起点 */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+}
@@ -0,0 +1,21 @@
+// MealChangeTypeEnum.java
+package com.example.helper.Common.Enum;
+
+import lombok.Getter;
+
+/** 菜品变更类型枚举 */
+@Getter
+public enum MealChangeTypeEnum {
+    CREATE("CREATE", "创建"),
+    UPDATE("UPDATE", "更新"),
+    DELETE("DELETE", "删除"),
+    TOGGLE("TOGGLE", "切换选中");
+
+    private final String code;
+    private final String description;
+
+    MealChangeTypeEnum(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+}
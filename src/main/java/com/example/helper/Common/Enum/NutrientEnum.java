@@ -0,0 +1,41 @@
+// NutrientEnum.java
+package com.example.helper.Common.Enum;
+
+import com.example.helper.Entity.Meal;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+/** 营养成分枚举（顺序与 MealRepository 营养投影查询的列顺序一致） */
+@Getter
+public enum NutrientEnum {
+    ENERGY("energy", "能量", Meal::getEnergy),
+    PROTEIN("protein", "蛋白质", Meal::getProtein),
+    TRANS_FAT("trans_fat", "反式脂肪", Meal::getTransFat),
+    SATURATED_FAT("saturated_fat", "饱和脂肪", Meal::getSaturatedFat),
+    CARBOHYDRATE("carbohydrate", "碳水化合物", Meal::getCarbohydrate),
+    ADDED_SUGAR("added_sugar", "添加糖", Meal::getAddedSugar),
+    SALT("salt", "盐", Meal::getSalt),
+    DIETARY_FIBER("dietary_fiber", "膳食纤维", Meal::getDietaryFiber);
+
+    private final String code;
+    private final String description;
+    private final Function<Meal, BigDecimal> accessor;
+
+    NutrientEnum(String code, String description, Function<Meal, BigDecimal> accessor) {
+        this.code = code;
+        this.description = description;
+        this.accessor = accessor;
+    }
+
+    /** 根据编码查找营养成分 */
+    public static NutrientEnum fromCode(String code) {
+        for (NutrientEnum nutrient : values()) {
+            if (nutrient.code.equalsIgnoreCase(code)) {
+                return nutrient;
+            }
+        }
+        return null;
+    }
+}
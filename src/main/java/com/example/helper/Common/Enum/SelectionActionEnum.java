@@ -0,0 +1,23 @@
+// SelectionActionEnum.java
+package com.example.helper.Common.Enum;
+
+import lombok.Getter;
+
+/**
+ * 菜品选中操作枚举
+ */
+@Getter
+public enum SelectionActionEnum {
+    SELECT("SELECT", "选中"),
+    DESELECT("DESELECT", "取消选中"),
+    INVERT("INVERT", "反选");
+
+    private final String code;
+    private final String description;
+
+    SelectionActionEnum(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+}
@@ -0,0 +1,35 @@
+// MealChangeEvent.java
+package com.example.helper.Common.Event;
+
+import com.example.helper.Common.Enum.MealChangeTypeEnum;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 菜品变更事件，由 MealService 在写操作中发布，监听方在事务提交后处理
+ *
+ * <p>mealIds 始终是完整的变更ID列表（变更日志逐条记录）；bulk 为 true 表示数量较多，缓存、推送等监听方应整体失效而非逐个处理。
+ */
+@Getter
+public class MealChangeEvent {
+
+    private final MealChangeTypeEnum changeType;
+    private final List<Long> mealIds;
+    private final boolean bulk;
+
+    public MealChangeEvent(MealChangeTypeEnum changeType, List<Long> mealIds) {
+        this(changeType, mealIds, false);
+    }
+
+    private MealChangeEvent(MealChangeTypeEnum changeType, List<Long> mealIds, boolean bulk) {
+        this.changeType = changeType;
+        this.mealIds = List.copyOf(mealIds);
+        this.bulk = bulk;
+    }
+
+    /** 创建批量变更事件 */
+    public static MealChangeEvent bulk(MealChangeTypeEnum changeType, List<Long> mealIds) {
+        return new MealChangeEvent(changeType, mealIds, true);
+    }
+}
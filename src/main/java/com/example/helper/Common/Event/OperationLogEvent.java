@@ -0,0 +1,68 @@
+// OperationLogEvent.java
+package com.example.helper.Common.Event;
+
+import com.example.helper.Common.Enum.BusinessTypeEnum;
+import com.example.helper.Common.Enum.OperationTypeEnum;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 操作日志事件
+ *
+ * <p>由切面在请求线程创建，只保存原始参数与结果的引用；序列化与截断在日志写入线程完成，请求线程不做 JSON 序列化。
+ */
+@Getter
+public class OperationLogEvent {
+
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final BusinessTypeEnum businessType;
+    private final OperationTypeEnum operationType;
+    private final String moduleName;
+    private final String methodName;
+    private final String userId;
+    private final String ipAddress;
+    private final String userAgent;
+    private final Object[] params;
+    private final Object result;
+    private final Throwable exception;
+    private final long executeTime;
+    private final LocalDateTime createdAt;
+
+    public OperationLogEvent(
+            BusinessTypeEnum businessType,
+            OperationTypeEnum operationType,
+            String moduleName,
+            String methodName,
+            String userId,
+            String ipAddress,
+            String userAgent,
+            Object[] params,
+            Object result,
+            Throwable exception,
+            long executeTime,
+            LocalDateTime createdAt) {
+        this.businessType = businessType;
+        this.operationType = operationType;
+        this.moduleName = moduleName;
+        this.methodName = methodName;
+        this.userId = userId;
+        this.ipAddress = ipAddress;
+        this.userAgent = userAgent;
+        this.params = params;
+        this.result = result;
+        this.exception = exception;
+        this.executeTime = executeTime;
+        this.createdAt = createdAt;
+    }
+
+    public boolean isFailed() {
+        return exception != null;
+    }
+
+    public String getStatus() {
+        return exception != null ? STATUS_FAILED : STATUS_SUCCESS;
+    }
+}
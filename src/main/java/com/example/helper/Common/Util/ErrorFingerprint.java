@@ -0,0 +1,88 @@
+// ErrorFingerprint.java
+package com.example.helper.Common.Util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 异常指纹
+ *
+ * <p>同一处代码抛出的同类异常应得到相同指纹：取异常类型、根因类型、规范化后的根因消息和前几个栈帧计算哈希。
+ * 栈帧去掉行号以及 CGLIB 代理、Lambda、动态代理等生成类的编号后缀，消息中的数字和十六进制串替换为 #，
+ * 因此重新部署或 ID 不同不会产生新的指纹。
+ */
+public final class ErrorFingerprint {
+
+    private static final Pattern GENERATED_SUFFIX =
+            Pattern.compile("(\\$\\$SpringCGLIB\\$\\$|\\$\\$Lambda|\\$\\$EnhancerBySpringCGLIB\\$\\$|\\$Proxy)[^.]*");
+    private static final Pattern LAMBDA_METHOD = Pattern.compile("^(lambda\\$.*?)\\$\\d+$");
+    private static final Pattern NUMBER = Pattern.compile("\\b(0x)?[0-9a-fA-F]*\\d[0-9a-fA-F]*\\b");
+
+    // 规范化消息的最大长度
+    private static final int MAX_MESSAGE_LENGTH = 200;
+
+    private ErrorFingerprint() {}
+
+    /** 计算指纹（16 位十六进制） */
+    public static String of(Throwable throwable, int topFrames) {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append(throwable.getClass().getName()).append('\n');
+        Throwable root = rootCause(throwable);
+        canonical.append(root.getClass().getName()).append('\n');
+        canonical.append(normalizeMessage(root.getMessage())).append('\n');
+        for (String frame : topFrames(throwable, topFrames)) {
+            canonical.append(frame).append('\n');
+        }
+        return hash(canonical.toString());
+    }
+
+    /** 规范化后的前几个栈帧：类名.方法名，不含行号 */
+    public static List<String> topFrames(Throwable throwable, int limit) {
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        List<String> frames = new ArrayList<>(Math.min(limit, stackTrace.length));
+        for (int i = 0; i < stackTrace.length && frames.size() < limit; i++) {
+            frames.add(normalizeClass(stackTrace[i].getClassName()) + "." + normalizeMethod(stackTrace[i].getMethodName()));
+        }
+        return frames;
+    }
+
+    public static Throwable rootCause(Throwable throwable) {
+        Throwable root = throwable;
+        // 防止循环引用的 cause 链
+        for (int depth = 0; root.getCause() != null && root.getCause() != root && depth < 32; depth++) {
+            root = root.getCause();
+        }
+        return root;
+    }
+
+    /** 消息中的数字、十六进制串替换为 #，并限制长度 */
+    public static String normalizeMessage(String message) {
+        if (message == null) {
+            return "";
+        }
+        String normalized = NUMBER.matcher(message).replaceAll("#");
+        return normalized.length() <= MAX_MESSAGE_LENGTH ? normalized : normalized.substring(0, MAX_MESSAGE_LENGTH);
+    }
+
+    private static String normalizeClass(String className) {
+        return GENERATED_SUFFIX.matcher(className).replaceAll("$1");
+    }
+
+    private static String normalizeMethod(String methodName) {
+        return LAMBDA_METHOD.matcher(methodName).replaceAll("$1");
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+// KdTree.java
+package com.example.helper.Common.Util;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * 静态 KD 树（只读）
+ *
+ * <p>点坐标按树的中序排列保存在一维 float 数组中，节点隐式对应区间 [lo, hi) 的中点，无需对象节点；每个区间按跨度最大的维度切分。支持按维度加权的欧氏距离 k 近邻查询。
+ */
+public class KdTree {
+
+    // 区间不超过该大小时直接线性扫描
+    private static final int LEAF_SIZE = 8;
+
+    private final int dimensions;
+    private final int size;
+    private final long[] ids;
+    private final float[] points;
+    private final byte[] splitDimensions;
+
+    /**
+     * @param ids 点ID
+     * @param points 点坐标，按行连续存放，长度为 ids.length * dimensions
+     */
+    public KdTree(long[] ids, float[] points, int dimensions) {
+        if (points.length != ids.length * dimensions) {
+            throw new IllegalArgumentException("坐标数量与点数量不匹配");
+        }
+        this.dimensions = dimensions;
+        this.size = ids.length;
+        this.splitDimensions = new byte[size];
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        build(order, points, 0, size);
+
+        this.ids = new long[size];
+        this.points = new float[size * dimensions];
+        for (int i = 0; i < size; i++) {
+            this.ids[i] = ids[order[i]];
+            System.arraycopy(
+                    points, order[i] * dimensions, this.points, i * dimensions, dimensions);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /** 按位置读取点ID */
+    public long id(int position) {
+        return ids[position];
+    }
+
+    /** 按位置读取点坐标 */
+    public float coordinate(int position, int dimension) {
+        return points[position * dimensions + dimension];
+    }
+
+    /**
+     * 查询近邻，结果写入 neighbors
+     *
+     * @param weights 各维度权重，权重为 0 的维度不参与距离计算
+     * @param exclude 需要跳过的点ID，可为 null
+     */
+    public void search(float[] query, float[] weights, Neighbors neighbors, LongPredicate exclude) {
+        if (size > 0) {
+            search(query, weights, neighbors, exclude, 0, size);
+        }
+    }
+
+    private void search(
+            float[] query,
+            float[] weights,
+            Neighbors neighbors,
+            LongPredicate exclude,
+            int lo,
+            int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                offer(query, weights, neighbors, exclude, i);
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        offer(query, weights, neighbors, exclude, mid);
+        int d = splitDimensions[mid];
+        double diff = query[d] - points[mid * dimensions + d];
+        boolean left = diff < 0;
+        search(query, weights, neighbors, exclude, left ? lo : mid + 1, left ? mid : hi);
+        // 切分平面到查询点的距离不小于当前第 k 近距离时，另一侧不可能有更近的点
+        if (weights[d] * diff * diff < neighbors.bound()) {
+            search(query, weights, neighbors, exclude, left ? mid + 1 : lo, left ? hi : mid);
+        }
+    }
+
+    private void offer(
+            float[] query, float[] weights, Neighbors neighbors, LongPredicate exclude, int i) {
+        if (exclude != null && exclude.test(ids[i])) {
+            return;
+        }
+        double distance = 0;
+        int base = i * dimensions;
+        for (int d = 0; d < dimensions; d++) {
+            double diff = query[d] - points[base + d];
+            distance += weights[d] * diff * diff;
+        }
+        neighbors.offer(ids[i], distance);
+    }
+
+    private void build(int[] order, float[] source, int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            return;
+        }
+        int d = widestDimension(order, source, lo, hi);
+        int mid = (lo + hi) >>> 1;
+        select(order, source, d, lo, hi - 1, mid);
+        splitDimensions[mid] = (byte) d;
+        build(order, source, lo, mid);
+        build(order, source, mid + 1, hi);
+    }
+
+    private int widestDimension(int[] order, float[] source, int lo, int hi) {
+        int best = 0;
+        float bestSpread = -1;
+        for (int d = 0; d < dimensions; d++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                float v = source[order[i] * dimensions + d];
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    // 快速选择：使 order[k] 在维度 d 上处于排序后的位置，左侧不大于它，右侧不小于它
+    private void select(int[] order, float[] source, int d, int left, int right, int k) {
+        while (right > left) {
+            float pivot = source[order[(left + right) >>> 1] * dimensions + d];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (source[order[i] * dimensions + d] < pivot) {
+                    i++;
+                }
+                while (source[order[j] * dimensions + d] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /** 容量固定的 k 近邻结果集（最大堆），距离为加权距离的平方。非线程安全 */
+    public static class Neighbors {
+        private final long[] ids;
+        private final double[] distances;
+        private int size;
+
+        public Neighbors(int k) {
+            this.ids = new long[k];
+            this.distances = new double[k];
+        }
+
+        /** 当前第 k 近的距离，未满时为正无穷 */
+        public double bound() {
+            return size < ids.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        public void offer(long id, double distance) {
+            if (size < ids.length) {
+                int i = size++;
+                // 上浮
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (distances[parent] >= distance) {
+                        break;
+                    }
+                    ids[i] = ids[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                ids[i] = id;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                // 替换堆顶后下沉
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    ids[i] = ids[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                ids[i] = id;
+                distances[i] = distance;
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** 按距离升序返回结果下标顺序 */
+        public int[] sortedOrder() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(distances[a], distances[b]));
+            return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        }
+
+        public long id(int index) {
+            return ids[index];
+        }
+
+        public double distance(int index) {
+            return distances[index];
+        }
+    }
+}
@@ -0,0 +1,90 @@
+// LogPartitionUtil.java
+package com.example.helper.Common.Util;
+
+import com.example.helper.Common.Exception.BusinessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * system_logs 按天分区的命名、边界与维护锁
+ *
+ * <p>分区 pYYYYMMDD 存放当天数据，上界为次日零点，pmax 兜底。分区迁移与保留维护共用同一把 MySQL 命名锁，多个节点同一时刻只有一个在执行。
+ */
+public final class LogPartitionUtil {
+
+    public static final String MAX_PARTITION = "pmax";
+
+    private static final String PARTITION_PREFIX = "p";
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE()"
+                    + " AND TABLE_NAME = 'system_logs' AND PARTITION_NAME IS NOT NULL"
+                    + " ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private static final String LOCK_NAME = "helper.system_logs.maintenance";
+
+    private LogPartitionUtil() {}
+
+    public static boolean isMySql(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "MySQL".equalsIgnoreCase(product);
+    }
+
+    /** 按分区顺序（即时间升序）列出分区，未分区时为空 */
+    public static List<String> listPartitions(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+    }
+
+    public static String definition(LocalDate day) {
+        return "PARTITION " + PARTITION_PREFIX + PARTITION_FORMAT.format(day)
+                + " VALUES LESS THAN ('" + BOUND_FORMAT.format(day.plusDays(1).atStartOfDay()) + "')";
+    }
+
+    public static String maxDefinition() {
+        return "PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)";
+    }
+
+    public static LocalDateTime upperBoundOf(String partition) {
+        return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_FORMAT)
+                .plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * 持有维护锁执行 action；MySQL 下使用连接级的命名锁，锁已被其他节点持有时抛出 409，其他数据库（本地单节点）直接执行
+     */
+    public static <T> T withMaintenanceLock(JdbcTemplate jdbcTemplate, Supplier<T> action) {
+        if (!isMySql(jdbcTemplate)) {
+            return action.get();
+        }
+        // 命名锁属于连接，获取与释放必须在同一连接上；action 内的语句使用其他连接
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                lock.setString(1, LOCK_NAME);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        throw new BusinessException(409, "其他节点正在维护操作日志分区，请稍后重试");
+                    }
+                }
+            }
+            try {
+                return action.get();
+            } finally {
+                try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, LOCK_NAME);
+                    release.execute();
+                }
+            }
+        });
+    }
+}
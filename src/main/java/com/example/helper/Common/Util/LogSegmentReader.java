@@ -0,0 +1,273 @@
+// LogSegmentReader.java
+package com.example.helper.Common.Util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 日志归档段文件读取
+ *
+ * <p>数据文件以只读方式内存映射（MappedByteBuffer 以 int 寻址，超过 2GB 的文件按块边界分成多个区域分别映射），按需解压；稀疏索引常驻内存，按时间二分定位与查询范围重叠的块，其余块不读取也不解压。
+ * 段文件写入后不再修改，实例可被多个线程共享。共享时每次读取前 retain、读取后 release，close 后最后一个引用释放时立即解除映射，不等待 GC 回收。
+ *
+ * <p>索引项格式：[最小时间 long][最大时间 long][块偏移 long][压缩长度 int][原始长度 int][记录数 int]。
+ */
+public class LogSegmentReader implements Closeable {
+
+    // 单个映射区域的大小上限
+    private static final long MAX_REGION_BYTES = Integer.MAX_VALUE;
+
+    // sun.misc.Unsafe#invokeCleaner，JDK 没有解除映射的公开 API；不可用时映射由 GC 回收
+    private static final MethodHandle UNMAPPER = unmapper();
+
+    private final Path dataFile;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    private final long[] blockOffset;
+    private final int[] compressedLength;
+    private final int[] rawLength;
+    private final int[] blockRecords;
+    private final long recordCount;
+
+    // 块不跨区域，blockRegion / blockPosition 为块所在的区域及区域内偏移
+    private final MappedByteBuffer[] regions;
+    private final int[] blockRegion;
+    private final int[] blockPosition;
+
+    // 创建者持有一个引用，close 时释放
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private LogSegmentReader(Path dataFile, FileChannel data, ByteBuffer index, long maxRegionBytes)
+            throws IOException {
+        this.dataFile = dataFile;
+        int blocks = index.remaining() / LogSegmentWriter.INDEX_ENTRY_BYTES;
+        this.blockMin = new long[blocks];
+        this.blockMax = new long[blocks];
+        this.blockOffset = new long[blocks];
+        this.compressedLength = new int[blocks];
+        this.rawLength = new int[blocks];
+        this.blockRecords = new int[blocks];
+        long records = 0;
+        for (int i = 0; i < blocks; i++) {
+            blockMin[i] = index.getLong();
+            blockMax[i] = index.getLong();
+            blockOffset[i] = index.getLong();
+            compressedLength[i] = index.getInt();
+            rawLength[i] = index.getInt();
+            blockRecords[i] = index.getInt();
+            records += blockRecords[i];
+        }
+        this.recordCount = records;
+
+        this.blockRegion = new int[blocks];
+        this.blockPosition = new int[blocks];
+        List<MappedByteBuffer> mapped = new ArrayList<>();
+        long regionStart = 0;
+        long regionEnd = 0;
+        for (int i = 0; i < blocks; i++) {
+            long blockEnd = blockOffset[i] + LogSegmentWriter.BLOCK_HEADER_BYTES + compressedLength[i];
+            // 当前区域放不下该块时，映射已有部分并从该块开始新区域
+            if (regionEnd > regionStart && blockEnd - regionStart > maxRegionBytes) {
+                mapped.add(data.map(FileChannel.MapMode.READ_ONLY, regionStart, regionEnd - regionStart));
+                regionStart = blockOffset[i];
+            }
+            blockRegion[i] = mapped.size();
+            blockPosition[i] = (int) (blockOffset[i] - regionStart);
+            regionEnd = blockEnd;
+        }
+        if (regionEnd > regionStart) {
+            mapped.add(data.map(FileChannel.MapMode.READ_ONLY, regionStart, regionEnd - regionStart));
+        }
+        this.regions = mapped.toArray(new MappedByteBuffer[0]);
+    }
+
+    /** 映射段文件并加载索引，dataFile 为 .seg 文件路径 */
+    public static LogSegmentReader open(Path dataFile) throws IOException {
+        return open(dataFile, MAX_REGION_BYTES);
+    }
+
+    static LogSegmentReader open(Path dataFile, long maxRegionBytes) throws IOException {
+        ByteBuffer index;
+        try (FileChannel channel =
+                FileChannel.open(LogSegmentWriter.indexFileOf(dataFile), StandardOpenOption.READ)) {
+            index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        // 映射在通道关闭后仍然有效
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            return new LogSegmentReader(dataFile, channel, index, maxRegionBytes);
+        }
+    }
+
+    /** 增加一个引用，已关闭且映射已解除时返回 false */
+    public boolean retain() {
+        for (int count = references.get(); count > 0; count = references.get()) {
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 释放一个引用，最后一个引用释放时解除映射 */
+    public void release() {
+        int count = references.decrementAndGet();
+        if (count == 0) {
+            unmap(regions);
+        } else if (count < 0) {
+            throw new IllegalStateException("段文件读取器已释放: " + dataFile);
+        }
+    }
+
+    /** 释放创建者的引用，进行中的读取结束后才解除映射；重复调用无效果 */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    /** 所有引用均已释放，映射已解除 */
+    public boolean isReleased() {
+        return references.get() == 0;
+    }
+
+    public Path getDataFile() {
+        return dataFile;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public int getBlockCount() {
+        return blockMin.length;
+    }
+
+    int getRegionCount() {
+        return regions.length;
+    }
+
+    /** 最早记录时间，空段返回 Long.MAX_VALUE */
+    public long getMinTimestamp() {
+        return blockMin.length == 0 ? Long.MAX_VALUE : blockMin[0];
+    }
+
+    /** 最晚记录时间，空段返回 Long.MIN_VALUE */
+    public long getMaxTimestamp() {
+        return blockMax.length == 0 ? Long.MIN_VALUE : blockMax[blockMax.length - 1];
+    }
+
+    /**
+     * 按时间倒序遍历 [from, to) 内的记录，visitor 返回 false 时停止
+     *
+     * @return 是否遍历完毕（未被 visitor 中止）
+     */
+    public boolean scanDescending(long from, long to, Predicate<byte[]> visitor) {
+        // 最后一个 blockMin < to 的块，块按时间升序排列
+        int low = 0;
+        int high = blockMin.length - 1;
+        int last = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blockMin[mid] < to) {
+                last = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            for (int block = last; block >= 0 && blockMax[block] >= from; block--) {
+                ByteBuffer records = ByteBuffer.wrap(inflate(inflater, block));
+                int count = blockRecords[block];
+                long[] timestamps = new long[count];
+                int[] positions = new int[count];
+                for (int i = 0; i < count; i++) {
+                    timestamps[i] = records.getLong();
+                    int length = records.getInt();
+                    positions[i] = records.position();
+                    records.position(positions[i] + length);
+                }
+                for (int i = count - 1; i >= 0; i--) {
+                    if (timestamps[i] < from || timestamps[i] >= to) {
+                        continue;
+                    }
+                    int length = records.getInt(positions[i] - 4);
+                    byte[] value = new byte[length];
+                    records.get(positions[i], value);
+                    if (!visitor.test(value)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void unmap(MappedByteBuffer[] buffers) {
+        if (UNMAPPER == null) {
+            return;
+        }
+        for (MappedByteBuffer buffer : buffers) {
+            try {
+                UNMAPPER.invokeExact((ByteBuffer) buffer);
+            } catch (Throwable e) {
+                return;
+            }
+        }
+    }
+
+    private static MethodHandle unmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private byte[] inflate(Inflater inflater, int block) {
+        ByteBuffer compressed = regions[blockRegion[block]].slice(
+                blockPosition[block] + LogSegmentWriter.BLOCK_HEADER_BYTES, compressedLength[block]);
+        byte[] raw = new byte[rawLength[block]];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                length += inflater.inflate(raw, length, raw.length - length);
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("段文件数据块长度不符: " + dataFile);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("段文件数据块损坏: " + dataFile, e);
+        }
+        return raw;
+    }
+}
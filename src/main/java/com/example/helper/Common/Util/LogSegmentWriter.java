@@ -0,0 +1,189 @@
+// LogSegmentWriter.java
+package com.example.helper.Common.Util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+/**
+ * 日志归档段文件写入（只追加）
+ *
+ * <p>记录按时间升序追加，每 blockRecords 条压缩为一个块写入数据文件（.seg），同时在索引文件（.idx）中记录该块的时间范围和偏移，
+ * 即稀疏时间索引。两个文件先写临时文件，close 时落盘后再原子重命名，读取方只会看到完整的段。
+ *
+ * <p>数据块格式：[压缩长度 int][原始长度 int][记录数 int][最小时间 long][最大时间 long][Deflate 数据]，
+ * 解压后为若干 [时间 long][记录长度 int][记录字节]。索引项格式见 {@link LogSegmentReader}。
+ */
+public class LogSegmentWriter implements Closeable {
+
+    public static final String DATA_SUFFIX = ".seg";
+    public static final String INDEX_SUFFIX = ".idx";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    static final int BLOCK_HEADER_BYTES = 4 + 4 + 4 + 8 + 8;
+    static final int INDEX_ENTRY_BYTES = 8 + 8 + 8 + 4 + 4 + 4;
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private final Path dataTemp;
+    private final Path indexTemp;
+    private final DataOutputStream data;
+    private final DataOutputStream index;
+    private final int blockRecords;
+    private final Deflater deflater;
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(64 * 1024);
+    private final DataOutputStream blockOut = new DataOutputStream(block);
+    private byte[] compressBuffer = new byte[64 * 1024];
+    private int blockCount;
+    private long blockMin;
+    private long blockMax;
+    private long offset;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long recordCount;
+    private boolean closed;
+
+    /** dataFile 为 .seg 文件路径，索引文件与其同名 */
+    public LogSegmentWriter(Path dataFile, int blockRecords, int compressionLevel)
+            throws IOException {
+        if (!dataFile.toString().endsWith(DATA_SUFFIX)) {
+            throw new IllegalArgumentException("段文件必须以 " + DATA_SUFFIX + " 结尾");
+        }
+        this.dataFile = dataFile;
+        this.indexFile = indexFileOf(dataFile);
+        this.dataTemp = dataFile.resolveSibling(dataFile.getFileName() + TEMP_SUFFIX);
+        this.indexTemp = indexFile.resolveSibling(indexFile.getFileName() + TEMP_SUFFIX);
+        this.blockRecords = blockRecords;
+        this.deflater = new Deflater(compressionLevel);
+        Files.createDirectories(dataFile.toAbsolutePath().getParent());
+        this.data = open(dataTemp);
+        this.index = open(indexTemp);
+    }
+
+    public static Path indexFileOf(Path dataFile) {
+        String name = dataFile.getFileName().toString();
+        return dataFile.resolveSibling(
+                name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    /** 追加一条记录，timestamp 必须不小于上一条 */
+    public void append(long timestamp, byte[] record) throws IOException {
+        if (timestamp < lastTimestamp) {
+            throw new IllegalArgumentException("段文件记录必须按时间升序追加");
+        }
+        if (blockCount == 0) {
+            blockMin = timestamp;
+        }
+        blockMax = timestamp;
+        lastTimestamp = timestamp;
+        blockOut.writeLong(timestamp);
+        blockOut.writeInt(record.length);
+        blockOut.write(record);
+        blockCount++;
+        recordCount++;
+        if (blockCount >= blockRecords) {
+            writeBlock();
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /** 写入剩余记录，落盘后重命名为正式文件 */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeBlock();
+            data.close();
+            index.close();
+            force(dataTemp);
+            force(indexTemp);
+            // 先替换数据文件，读取方以索引文件存在作为段完整的标志
+            Files.move(dataTemp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(indexTemp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** 放弃写入，删除临时文件 */
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        deflater.end();
+        data.close();
+        index.close();
+        Files.deleteIfExists(dataTemp);
+        Files.deleteIfExists(indexTemp);
+    }
+
+    private void writeBlock() throws IOException {
+        if (blockCount == 0) {
+            return;
+        }
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressBuffer.length) {
+                byte[] larger = new byte[compressBuffer.length * 2];
+                System.arraycopy(compressBuffer, 0, larger, 0, compressedLength);
+                compressBuffer = larger;
+            }
+            compressedLength +=
+                    deflater.deflate(compressBuffer, compressedLength, compressBuffer.length - compressedLength);
+        }
+
+        data.writeInt(compressedLength);
+        data.writeInt(raw.length);
+        data.writeInt(blockCount);
+        data.writeLong(blockMin);
+        data.writeLong(blockMax);
+        data.write(compressBuffer, 0, compressedLength);
+
+        index.writeLong(blockMin);
+        index.writeLong(blockMax);
+        index.writeLong(offset);
+        index.writeInt(compressedLength);
+        index.writeInt(raw.length);
+        index.writeInt(blockCount);
+
+        offset += BLOCK_HEADER_BYTES + compressedLength;
+        block.reset();
+        blockCount = 0;
+    }
+
+    private static DataOutputStream open(Path path) throws IOException {
+        OutputStream out =
+                Files.newOutputStream(
+                        path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE);
+        return new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+    }
+
+    private static void force(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+}
@@ -3,36 +3,27 @@ package com.example.helper.Common.Util;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.util.UUID;
-
 @Slf4j
 @Component
 public class LoggingUtil {
 
-    private static final String TRACE_ID_KEY = "traceId";
-    private static final String USER_ID_KEY = "userId";
-
     /**
-     * 初始化MDC上下文
+     * 初始化跟踪上下文（同时写入MDC）
+     * @param traceparent 请求头中的 W3C traceparent，可为空
      */
-    public static void initTraceContext(String userId) {
-        MDC.put(TRACE_ID_KEY, UUID.randomUUID().toString().replace("-", ""));
-        if (userId != null) {
-            MDC.put(USER_ID_KEY, userId);
-        }
+    public static TraceContext initTraceContext(String traceparent, String userId) {
+        return TraceContext.start(traceparent, userId);
     }
 
     /**
-     * 清理MDC上下文
+     * 清理跟踪上下文与MDC
      */
     public static void clearTraceContext() {
-        MDC.remove(TRACE_ID_KEY);
-        MDC.remove(USER_ID_KEY);
+        TraceContext.clear();
     }
 
     /**
@@ -41,7 +32,7 @@ public class LoggingUtil {
     public static void logPerformance(String methodName, long executeTime) {
         if (executeTime > 1000) { // 超过1秒记录警告
             log.warn("性能警告 - 方法: {}, 执行时间: {}ms", methodName, executeTime);
-        } else {
+        } else if (log.isDebugEnabled()) {
             log.debug("性能日志 - 方法: {}, 执行时间: {}ms", methodName, executeTime);
         }
     }
@@ -0,0 +1,128 @@
+// NutrientMatrix.java
+package com.example.helper.Common.Util;
+
+import java.util.Arrays;
+
+/**
+ * 菜品营养矩阵（只读）
+ *
+ * <p>按菜品ID升序以基本类型数组保存全部菜品的八项营养值，值按 SCALE 放大为整数。缺失值（构建时传入 NaN）记为 0，
+ * 并在每行的缺失位掩码中标记，需要区分"为 0"与"未知"的计算（如营养上限约束）据此判断。
+ */
+public class NutrientMatrix {
+
+    // 营养值放大倍数（保留两位小数）
+    public static final int SCALE = 100;
+
+    // 单项营养放大后的上限，避免少量菜品求和时溢出
+    private static final long MAX_SCALED_VALUE = Integer.MAX_VALUE / 64;
+
+    private final int dimensions;
+    private final long[] ids;
+    private final int[] values;
+    private final boolean[] checked;
+    private final int[] missing;
+    private final int size;
+
+    private NutrientMatrix(
+            int dimensions, long[] ids, int[] values, boolean[] checked, int[] missing, int size) {
+        this.dimensions = dimensions;
+        this.ids = ids;
+        this.values = values;
+        this.checked = checked;
+        this.missing = missing;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public boolean isChecked(int row) {
+        return checked[row];
+    }
+
+    /** 放大后的营养值 */
+    public int value(int row, int dimension) {
+        return values[row * dimensions + dimension];
+    }
+
+    /** 缺失营养值的位掩码，第 d 位对应维度 d */
+    public int missingMask(int row) {
+        return missing[row];
+    }
+
+    /** 根据菜品ID查找行号，不存在时返回负数 */
+    public int rowOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    /** 将营养值放大为整数 */
+    public static int scale(double value) {
+        return (int) Math.max(0, Math.min(MAX_SCALED_VALUE, Math.round(value * SCALE)));
+    }
+
+    /** 按ID升序追加行的构建器 */
+    public static class Builder {
+        private final int dimensions;
+        private long[] ids = new long[1024];
+        private int[] values;
+        private boolean[] checked = new boolean[1024];
+        private int[] missing = new int[1024];
+        private int size;
+
+        public Builder(int dimensions) {
+            if (dimensions > Integer.SIZE) {
+                throw new IllegalArgumentException("维度数不能超过 " + Integer.SIZE);
+            }
+            this.dimensions = dimensions;
+            this.values = new int[1024 * dimensions];
+        }
+
+        /** 追加一行，nutrientValues 中的 NaN 表示缺失 */
+        public Builder add(long id, boolean isChecked, double[] nutrientValues) {
+            if (size > 0 && id <= ids[size - 1]) {
+                throw new IllegalArgumentException("菜品ID必须严格递增");
+            }
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                checked = Arrays.copyOf(checked, capacity);
+                missing = Arrays.copyOf(missing, capacity);
+                values = Arrays.copyOf(values, capacity * dimensions);
+            }
+            ids[size] = id;
+            checked[size] = isChecked;
+            int mask = 0;
+            for (int d = 0; d < dimensions; d++) {
+                double value = nutrientValues[d];
+                if (Double.isNaN(value)) {
+                    mask |= 1 << d;
+                    value = 0;
+                }
+                values[size * dimensions + d] = scale(value);
+            }
+            missing[size] = mask;
+            size++;
+            return this;
+        }
+
+        public NutrientMatrix build() {
+            return new NutrientMatrix(
+                    dimensions,
+                    Arrays.copyOf(ids, size),
+                    Arrays.copyOf(values, size * dimensions),
+                    Arrays.copyOf(checked, size),
+                    Arrays.copyOf(missing, size),
+                    size);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+// PayloadCodec.java
+package com.example.helper.Common.Util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 日志文本列压缩编码
+ *
+ * <p>压缩后的值为前缀 + Base64(Deflate(UTF-8))。前缀以控制字符开头，JSON 序列化结果不会以它开头，未压缩的旧数据原样返回。
+ */
+public final class PayloadCodec {
+
+    public static final String COMPRESSED_PREFIX = "\u001Fz:";
+
+    private PayloadCodec() {}
+
+    public static boolean isCompressed(String value) {
+        return value != null && value.startsWith(COMPRESSED_PREFIX);
+    }
+
+    /** 压缩文本，压缩后不比原文短时返回原文 */
+    public static String compress(String value) {
+        byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            String encoded = COMPRESSED_PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+            return encoded.length() < raw.length ? encoded : value;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** 解压文本，未压缩的值原样返回 */
+    public static String decompress(String value) {
+        if (!isCompressed(value)) {
+            return value;
+        }
+        byte[] compressed = Base64.getDecoder().decode(value.substring(COMPRESSED_PREFIX.length()));
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("压缩数据不完整");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("压缩数据损坏", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** 截断到 maxLength 个 char，截断点落在代理对中间时少保留一个 char，避免留下孤立的高位代理 */
+    public static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        int end = maxLength;
+        if (end > 0 && Character.isHighSurrogate(value.charAt(end - 1))) {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+
+    /** UTF-8 编码后的字节数 */
+    public static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
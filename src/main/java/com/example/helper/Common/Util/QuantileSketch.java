@@ -0,0 +1,157 @@
+// QuantileSketch.java
+package com.example.helper.Common.Util;
+
+import java.util.Arrays;
+
+/**
+ * 可合并的分位数草图（DDSketch 思路：对数分桶，保证相对误差）
+ *
+ * <p>只保存桶计数和 min/max/sum，内存与数据量无关；两个草图可直接合并。非线程安全。
+ */
+public class QuantileSketch {
+
+    // 小于该值的数据统一计入零桶
+    private static final double MIN_INDEXABLE_VALUE = 1e-6;
+
+    private final double gamma;
+    private final double logGamma;
+
+    private long[] counts = new long[0];
+    private int offset; // counts[0] 对应的桶下标
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param relativeAccuracy 分位数相对误差，例如 0.01 表示 1%
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy 必须在 (0, 1) 之间");
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /** 添加一个观测值（营养数据不应为负，负值按 0 处理） */
+    public void add(double value) {
+        double v = Math.max(value, 0);
+        count++;
+        sum += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+        if (v < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(v) / logGamma);
+        ensureCapacity(index);
+        counts[index - offset]++;
+    }
+
+    /** 合并另一个相同精度的草图 */
+    public void merge(QuantileSketch other) {
+        if (Double.compare(gamma, other.gamma) != 0) {
+            throw new IllegalArgumentException("只能合并相同精度的草图");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] > 0) {
+                ensureCapacity(i + other.offset);
+                counts[i + other.offset - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /** 估算分位数，q 取值 [0, 1] */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        if (rank < zeroCount) {
+            return min;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return clamp(bucketValue(i + offset));
+            }
+        }
+        return max;
+    }
+
+    /** 在 [min, max] 区间内生成等宽直方图 */
+    public long[] histogram(int bins) {
+        long[] result = new long[bins];
+        if (count == 0) {
+            return result;
+        }
+        double width = (max - min) / bins;
+        result[binOf(min, width, bins)] += zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result[binOf(clamp(bucketValue(i + offset)), width, bins)] += counts[i];
+            }
+        }
+        return result;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    private int binOf(double value, double width, int bins) {
+        if (width <= 0) {
+            return 0;
+        }
+        return (int) Math.min(bins - 1, Math.max(0, Math.floor((value - min) / width)));
+    }
+
+    private double bucketValue(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    private double clamp(double value) {
+        return Math.min(max, Math.max(min, value));
+    }
+
+    private void ensureCapacity(int index) {
+        if (counts.length == 0) {
+            counts = new long[16];
+            offset = index;
+            return;
+        }
+        if (index < offset) {
+            int shift = offset - index;
+            long[] grown = new long[counts.length + shift];
+            System.arraycopy(counts, 0, grown, shift, counts.length);
+            counts = grown;
+            offset = index;
+        } else if (index - offset >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index - offset + 1, counts.length * 2));
+        }
+    }
+}
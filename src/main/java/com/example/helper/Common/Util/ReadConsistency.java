@@ -0,0 +1,54 @@
+// ReadConsistency.java
+package com.example.helper.Common.Util;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的读一致性要求
+ *
+ * <p>启用只读副本时，只读事务默认路由到副本；标记为需要主库后，当前线程的只读事务也走主库，用于读己之写或构建必须与已提交数据一致的派生状态。
+ */
+public final class ReadConsistency {
+
+    // 请求头取值为 true 时，该请求内的读操作走主库
+    public static final String READ_YOUR_WRITES_HEADER = "X-Read-Your-Writes";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadConsistency() {}
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /** 在主库上执行读操作，结束后恢复原有设置（可嵌套） */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(
+                () -> {
+                    action.run();
+                    return null;
+                });
+    }
+}
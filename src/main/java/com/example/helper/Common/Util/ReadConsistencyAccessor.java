@@ -0,0 +1,31 @@
+// ReadConsistencyAccessor.java
+package com.example.helper.Common.Util;
+
+import io.micrometer.context.ThreadLocalAccessor;
+
+/** 读主库标记的线程传递，异步任务与提交它的请求保持相同的读一致性 */
+public class ReadConsistencyAccessor implements ThreadLocalAccessor<Boolean> {
+
+    public static final String KEY = "helper.read-consistency";
+
+    @Override
+    public Object key() {
+        return KEY;
+    }
+
+    @Override
+    public Boolean getValue() {
+        // 返回 null 表示不需要传递
+        return ReadConsistency.isPrimaryRequired() ? Boolean.TRUE : null;
+    }
+
+    @Override
+    public void setValue(Boolean value) {
+        ReadConsistency.requirePrimary();
+    }
+
+    @Override
+    public void setValue() {
+        ReadConsistency.clear();
+    }
+}
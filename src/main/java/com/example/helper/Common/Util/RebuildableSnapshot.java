@@ -0,0 +1,99 @@
+// RebuildableSnapshot.java
+package com.example.helper.Common.Util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 可后台重建的只读快照
+ *
+ * <p>首次访问时同步构建；标记过期后，下一次访问在线程池中异步重建并继续返回旧快照，两次重建之间至少间隔 minRebuildIntervalMs。
+ */
+@Slf4j
+public class RebuildableSnapshot<T> {
+
+    private final String name;
+    private final Supplier<T> builder;
+    private final Executor executor;
+    private final long minRebuildIntervalMs;
+
+    private volatile T value;
+    private volatile long builtAtMillis;
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    public RebuildableSnapshot(
+            String name, Supplier<T> builder, Executor executor, long minRebuildIntervalMs) {
+        this.name = name;
+        this.builder = builder;
+        this.executor = executor;
+        this.minRebuildIntervalMs = minRebuildIntervalMs;
+    }
+
+    /** 获取当前快照，必要时触发后台重建 */
+    public T get() {
+        T current = value;
+        if (current == null) {
+            synchronized (this) {
+                if (value == null) {
+                    rebuild();
+                }
+                return value;
+            }
+        }
+        if (dirty.get()
+                && System.currentTimeMillis() - builtAtMillis >= minRebuildIntervalMs
+                && rebuilding.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::rebuildInBackground);
+            } catch (RejectedExecutionException e) {
+                rebuilding.set(false);
+                log.warn("{}重建任务被拒绝，继续使用旧快照", name);
+            }
+        }
+        return current;
+    }
+
+    /** 返回当前快照但不触发构建，尚未构建时返回 null */
+    public T peek() {
+        return value;
+    }
+
+    /** 标记快照过期 */
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    /** 快照是否已过期（尚未重建） */
+    public boolean isStale() {
+        return dirty.get();
+    }
+
+    private void rebuildInBackground() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("{}重建失败", name, e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void rebuild() {
+        // 先清除标记，构建期间发生的变更会重新置位
+        dirty.set(false);
+        long start = System.currentTimeMillis();
+        try {
+            value = builder.get();
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            throw e;
+        }
+        builtAtMillis = System.currentTimeMillis();
+        log.debug("{}重建完成，耗时: {}ms", name, builtAtMillis - start);
+    }
+}
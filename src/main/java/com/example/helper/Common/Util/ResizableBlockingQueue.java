@@ -0,0 +1,70 @@
+// ResizableBlockingQueue.java
+package com.example.helper.Common.Util;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 容量可在运行时调整的阻塞队列，供线程池使用
+ *
+ * <p>底层队列不设上限，入队前在独立的锁内检查容量；出队只会减少元素，因此检查后再入队不会超过容量。
+ * 缩小容量时已排队的任务保留，元素数降到新容量以下后才接受新任务。线程池只调用 offer，put 与带超时的 offer 同样受容量限制。
+ */
+public class ResizableBlockingQueue<E> extends LinkedBlockingQueue<E> {
+
+    private final ReentrantLock offerLock = new ReentrantLock();
+    private volatile int capacity;
+
+    public ResizableBlockingQueue(int capacity) {
+        setCapacity(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        // 容量为 0 时空闲线程也接不到任务（不同于 SynchronousQueue 的直接交接）
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity 必须大于 0");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        offerLock.lock();
+        try {
+            return size() < capacity && super.offer(e);
+        } finally {
+            offerLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offer(e)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            // 容量由出队线程释放，没有可等待的条件，短暂休眠后重试
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+        return true;
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        while (!offer(e)) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - size());
+    }
+}
@@ -0,0 +1,100 @@
+// RouteTimers.java
+package com.example.helper.Common.Util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 按路由模板、请求方法、状态码划分的请求耗时 Timer
+ *
+ * <p>Timer 在某个组合第一次出现时注册并缓存，之后记录只做一次 Map 查找和两次数组下标访问：
+ * 路由模板是 HandlerMapping 中已有的字符串，方法和状态码换算为下标，热路径上不创建 Tag 或 Meter.Id 对象。
+ * 分位数与直方图由 management.metrics.distribution.* 按指标名前缀配置。
+ */
+public final class RouteTimers {
+
+    private static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE", "OTHER"};
+    private static final int OTHER_METHOD = METHODS.length - 1;
+
+    // 状态码 100~599，其余归入 UNKNOWN
+    private static final int MIN_STATUS = 100;
+    private static final int STATUS_SLOTS = 501;
+    private static final int UNKNOWN_STATUS = STATUS_SLOTS - 1;
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final String name;
+    private final ConcurrentHashMap<String, AtomicReferenceArray<AtomicReferenceArray<Timer>>> routes =
+            new ConcurrentHashMap<>();
+
+    public RouteTimers(MeterRegistry registry, String name) {
+        this.registry = registry;
+        this.name = name;
+    }
+
+    /** 记录一次请求耗时，uri 为路由模板（无匹配时为 null） */
+    public void record(String uri, String method, int status, long nanos) {
+        timer(uri == null ? UNKNOWN_URI : uri, methodIndex(method), statusIndex(status))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String uri, int method, int status) {
+        AtomicReferenceArray<AtomicReferenceArray<Timer>> byMethod = routes.get(uri);
+        if (byMethod == null) {
+            byMethod = routes.computeIfAbsent(uri, key -> new AtomicReferenceArray<>(METHODS.length));
+        }
+        AtomicReferenceArray<Timer> byStatus = byMethod.get(method);
+        if (byStatus == null) {
+            byMethod.compareAndSet(method, null, new AtomicReferenceArray<>(STATUS_SLOTS));
+            byStatus = byMethod.get(method);
+        }
+        Timer timer = byStatus.get(status);
+        if (timer == null) {
+            // 并发注册时 MeterRegistry 返回同一个 Timer，覆盖无影响
+            timer = Timer.builder(name)
+                    .tag("uri", uri)
+                    .tag("method", METHODS[method])
+                    .tag("status", status == UNKNOWN_STATUS ? "UNKNOWN" : String.valueOf(status + MIN_STATUS))
+                    .register(registry);
+            byStatus.set(status, timer);
+        }
+        return timer;
+    }
+
+    private static int methodIndex(String method) {
+        if (method == null) {
+            return OTHER_METHOD;
+        }
+        // switch 只比较哈希和内容，不复制字符串
+        switch (method) {
+            case "GET":
+                return 0;
+            case "HEAD":
+                return 1;
+            case "POST":
+                return 2;
+            case "PUT":
+                return 3;
+            case "PATCH":
+                return 4;
+            case "DELETE":
+                return 5;
+            case "OPTIONS":
+                return 6;
+            case "TRACE":
+                return 7;
+            default:
+                return OTHER_METHOD;
+        }
+    }
+
+    private static int statusIndex(int status) {
+        int index = status - MIN_STATUS;
+        return index >= 0 && index < UNKNOWN_STATUS ? index : UNKNOWN_STATUS;
+    }
+}
@@ -0,0 +1,142 @@
+// SpaceSavingSketch.java
+package com.example.helper.Common.Util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 高频元素草图（Space-Saving 算法）
+ *
+ * <p>最多跟踪 capacity 个元素；新元素到来且已满时替换计数最小的元素，新元素继承其计数作为误差上界。
+ * 计数不少于总数 / capacity 的元素一定在草图中，每个元素的计数最多高估 error。内存与数据量无关，非线程安全。
+ */
+public class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity 必须大于 0");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /** 元素计数加 count */
+    public void offer(K key, long count) {
+        total += count;
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += count;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter<>(key, count, 0));
+            return;
+        }
+        // 容量较小且只在新元素到来时查找，线性扫描即可
+        Counter<K> min = null;
+        for (Counter<K> candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.key);
+        counters.put(key, new Counter<>(key, min.count + count, min.count));
+    }
+
+    /**
+     * 合并另一个草图（可合并的 Space-Saving）：只在一侧出现的元素，另一侧草图已满时其实际次数可能不超过该侧的最小计数，
+     * 因此计数与误差都加上另一侧的最小计数（未满时为 0），合并后保留计数最大的 capacity 个
+     */
+    public void merge(SpaceSavingSketch<K> other) {
+        long thisMin = minCount();
+        long otherMin = other.minCount();
+        Map<K, Counter<K>> merged = new HashMap<>((counters.size() + other.counters.size()) * 2);
+        for (Counter<K> counter : counters.values()) {
+            Counter<K> match = other.counters.get(counter.key);
+            merged.put(counter.key, match != null
+                    ? new Counter<>(counter.key, counter.count + match.count, counter.error + match.error)
+                    : new Counter<>(counter.key, counter.count + otherMin, counter.error + otherMin));
+        }
+        for (Counter<K> counter : other.counters.values()) {
+            if (!counters.containsKey(counter.key)) {
+                merged.put(counter.key,
+                        new Counter<>(counter.key, counter.count + thisMin, counter.error + thisMin));
+            }
+        }
+        total += other.total;
+        counters.clear();
+        if (merged.size() > capacity) {
+            List<Counter<K>> sorted = new ArrayList<>(merged.values());
+            sorted.sort(Comparator.comparingLong((Counter<K> c) -> c.count).reversed());
+            for (Counter<K> counter : sorted.subList(0, capacity)) {
+                counters.put(counter.key, counter);
+            }
+        } else {
+            counters.putAll(merged);
+        }
+    }
+
+    /** 计数最大的 n 个元素，按计数倒序 */
+    public List<Counter<K>> top(int n) {
+        List<Counter<K>> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparingLong((Counter<K> c) -> c.count).reversed());
+        return sorted.size() > n ? new ArrayList<>(sorted.subList(0, n)) : sorted;
+    }
+
+    // 未跟踪元素的实际次数上界：草图已满时为最小计数，未满时未跟踪的元素一定没有出现过
+    private long minCount() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (Counter<K> counter : counters.values()) {
+            min = Math.min(min, counter.count);
+        }
+        return min;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    public void clear() {
+        counters.clear();
+        total = 0;
+    }
+
+    /** 元素计数，实际次数在 [count - error, count] 之间 */
+    public static final class Counter<K> {
+        private final K key;
+        private long count;
+        private final long error;
+
+        private Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+// TraceContext.java
+package com.example.helper.Common.Util;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 当前线程的跟踪上下文（W3C Trace Context）
+ *
+ * <p>请求带有合法的 traceparent 请求头时沿用其中的 trace-id，否则生成新的；每个请求生成自己的 span-id。
+ * ID 用 ThreadLocalRandom 生成，不经过 SecureRandom，只用于关联日志，不可用作安全令牌。
+ * 上下文保存在 ThreadLocal 中并同步写入 MDC，跨线程池和 Reactor 线程的传递见 {@link TraceContextAccessor}。
+ */
+public final class TraceContext {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    public static final String TRACE_ID_KEY = "traceId";
+    public static final String SPAN_ID_KEY = "spanId";
+    public static final String USER_ID_KEY = "userId";
+
+    private static final String VERSION = "00";
+    private static final int TRACEPARENT_LENGTH = 55;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+    private final String spanId;
+    private final boolean sampled;
+    private final String userId;
+
+    private TraceContext(String traceId, String spanId, boolean sampled, String userId) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sampled = sampled;
+        this.userId = userId;
+    }
+
+    /** 根据请求头开始新的请求上下文并设为当前上下文，traceparent 无效或为空时开启新的跟踪 */
+    public static TraceContext start(String traceparent, String userId) {
+        TraceContext context = parse(traceparent, userId);
+        if (context == null) {
+            context = new TraceContext(randomHex(2), randomHex(1), true, userId);
+        }
+        context.makeCurrent();
+        return context;
+    }
+
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /** 设为当前线程的上下文并写入 MDC */
+    public void makeCurrent() {
+        CURRENT.set(this);
+        MDC.put(TRACE_ID_KEY, traceId);
+        MDC.put(SPAN_ID_KEY, spanId);
+        if (userId != null) {
+            MDC.put(USER_ID_KEY, userId);
+        } else {
+            MDC.remove(USER_ID_KEY);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+        MDC.remove(TRACE_ID_KEY);
+        MDC.remove(SPAN_ID_KEY);
+        MDC.remove(USER_ID_KEY);
+    }
+
+    /** 以当前 span 作为父节点的 traceparent，用于响应头和下游请求 */
+    public String toTraceparent() {
+        return VERSION + '-' + traceId + '-' + spanId + (sampled ? "-01" : "-00");
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    // 格式：version-traceid(32)-parentid(16)-flags(2)，全部为小写十六进制；ID 全零或版本为 ff 时无效
+    private static TraceContext parse(String header, String userId) {
+        if (header == null) {
+            return null;
+        }
+        String value = header.trim();
+        // 未来版本可能在末尾追加字段，按 00 版本解析前 55 个字符
+        if (value.length() < TRACEPARENT_LENGTH
+                || (value.length() > TRACEPARENT_LENGTH && (value.startsWith(VERSION) || value.charAt(TRACEPARENT_LENGTH) != '-'))
+                || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-'
+                || !isHex(value, 0, 2) || value.startsWith("ff")
+                || !isHex(value, 3, 35) || isZero(value, 3, 35)
+                || !isHex(value, 36, 52) || isZero(value, 36, 52)
+                || !isHex(value, 53, 55)) {
+            return null;
+        }
+        boolean sampled = (Character.digit(value.charAt(54), 16) & 1) == 1;
+        return new TraceContext(value.substring(3, 35), randomHex(1), sampled, userId);
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // longs 个随机 64 位数的十六进制串，不会全为零
+    private static String randomHex(int longs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[longs * 16];
+        for (int i = 0; i < longs; i++) {
+            long value = random.nextLong();
+            if (value == 0) {
+                value = 1;
+            }
+            for (int j = 15; j >= 0; j--) {
+                chars[i * 16 + j] = HEX[(int) (value & 0xF)];
+                value >>>= 4;
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,35 @@
+// TraceContextAccessor.java
+package com.example.helper.Common.Util;
+
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * 跟踪上下文的线程传递
+ *
+ * <p>通过 META-INF/services 注册到 ContextRegistry：线程池的 ContextPropagatingTaskDecorator 在提交任务时捕获、
+ * 在工作线程恢复；Reactor 开启自动上下文传递后，算子回调所在线程同样会恢复 ThreadLocal 与 MDC。
+ */
+public class TraceContextAccessor implements ThreadLocalAccessor<TraceContext> {
+
+    public static final String KEY = "helper.trace-context";
+
+    @Override
+    public Object key() {
+        return KEY;
+    }
+
+    @Override
+    public TraceContext getValue() {
+        return TraceContext.current();
+    }
+
+    @Override
+    public void setValue(TraceContext value) {
+        value.makeCurrent();
+    }
+
+    @Override
+    public void setValue() {
+        TraceContext.clear();
+    }
+}
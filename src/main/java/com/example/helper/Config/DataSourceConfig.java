@@ -0,0 +1,81 @@
+// DataSourceConfig.java
+package com.example.helper.Config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 主库 + 只读副本数据源配置（app.datasource.replicas.enabled=true 时生效，否则使用 Spring Boot 默认的单数据源）
+ *
+ * <p>对外暴露的数据源是延迟获取连接的代理：事务开始时只记录只读标记，执行第一条 SQL 时才取真实连接，只读事务取自副本路由数据源，其余取自主库。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replicas", name = "enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    // 副本获取连接的超时时间，副本不可用时尽快回落到主库
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 1000;
+
+    /** 主库连接池，沿用 spring.datasource.* 与 spring.datasource.hikari.* 配置 */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource =
+                properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            ReplicaDataSourceProperties replicaProperties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        int index = 0;
+        for (ReplicaDataSourceProperties.Replica replica : replicaProperties.getNodes()) {
+            index++;
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(
+                    "replica-"
+                            + (StringUtils.hasText(replica.getName())
+                                    ? replica.getName()
+                                    : String.valueOf(index)));
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(
+                    replica.getUsername() != null
+                            ? replica.getUsername()
+                            : properties.determineUsername());
+            dataSource.setPassword(
+                    replica.getPassword() != null
+                            ? replica.getPassword()
+                            : properties.determinePassword());
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            dataSource.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MS);
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, replicaProperties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaRoutingDataSource);
+        return proxy;
+    }
+}
@@ -0,0 +1,143 @@
+// InstrumentedTaskExecutor.java
+package com.example.helper.Config;
+
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.ResizableBlockingQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.CompositeTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带监控、可在运行时调整大小的线程池
+ *
+ * <p>每个任务记录排队等待时间（executor.task.wait）和执行时间（executor.task.execution），拒绝次数计入 executor.rejected，
+ * 均以 name 标签区分线程池；活跃线程数、队列长度等由 Spring Boot 按 Bean 名称自动注册（executor.active、executor.queued 等）。
+ * 队列使用 {@link ResizableBlockingQueue}，核心线程数、最大线程数和队列容量都可以通过 {@link #resize} 在线修改。
+ */
+public class InstrumentedTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private final String name;
+    private final MeterRegistry meterRegistry;
+
+    private TaskDecorator taskDecorator;
+    private ResizableBlockingQueue<Runnable> queue;
+
+    private Timer waitTimer;
+    private Timer executionTimer;
+    private Counter rejectedCounter;
+
+    public InstrumentedTaskExecutor(String name, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    @Override
+    protected ExecutorService initializeExecutor(ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+        waitTimer = Timer.builder("executor.task.wait")
+                .description("任务从提交到开始执行的等待时间")
+                .tag("name", name)
+                .register(meterRegistry);
+        executionTimer = Timer.builder("executor.task.execution")
+                .description("任务执行时间")
+                .tag("name", name)
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("executor.rejected")
+                .description("队列已满且线程数已达上限时被拒绝的任务数（CallerRunsPolicy 下由提交线程执行）")
+                .tag("name", name)
+                .tag("policy", rejectedExecutionHandler.getClass().getSimpleName())
+                .register(meterRegistry);
+
+        // 计时放在最外层，包含恢复跟踪上下文的开销
+        TaskDecorator timing = this::timed;
+        super.setTaskDecorator(taskDecorator == null ? timing : new CompositeTaskDecorator(List.of(taskDecorator, timing)));
+        return super.initializeExecutor(threadFactory, (task, executor) -> {
+            rejectedCounter.increment();
+            rejectedExecutionHandler.rejectedExecution(task, executor);
+        });
+    }
+
+    @Override
+    protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        queue = new ResizableBlockingQueue<>(queueCapacity);
+        return queue;
+    }
+
+    /**
+     * 在线调整线程池大小，参数为空时保持不变
+     * 线程数减少时多余的空闲线程在 keepAlive 后退出；队列缩小时已排队的任务不受影响
+     */
+    public synchronized void resize(Integer corePoolSize, Integer maxPoolSize, Integer queueCapacity) {
+        int core = corePoolSize != null ? corePoolSize : getCorePoolSize();
+        int max = maxPoolSize != null ? maxPoolSize : getMaxPoolSize();
+        if (core < 1 || max < core) {
+            throw new BusinessException(400, "线程池 " + name + " 需满足 1 <= core_pool_size <= max_pool_size");
+        }
+        if (queueCapacity != null && queueCapacity < 1) {
+            throw new BusinessException(400, "线程池 " + name + " 的 queue_capacity 必须大于 0");
+        }
+        // ThreadPoolExecutor 要求任一时刻核心线程数不超过最大线程数，按扩大或缩小决定先后顺序
+        if (max >= getMaxPoolSize()) {
+            setMaxPoolSize(max);
+            setCorePoolSize(core);
+        } else {
+            setCorePoolSize(core);
+            setMaxPoolSize(max);
+        }
+        if (queueCapacity != null) {
+            queue.setCapacity(queueCapacity);
+            super.setQueueCapacity(queueCapacity);
+        }
+    }
+
+    public int getQueueCapacity() {
+        return queue.getCapacity();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public Timer getWaitTimer() {
+        return waitTimer;
+    }
+
+    public Timer getExecutionTimer() {
+        return executionTimer;
+    }
+
+    public long getRejectedCount() {
+        return (long) rejectedCounter.count();
+    }
+
+    private Runnable timed(Runnable task) {
+        long submitTime = System.nanoTime();
+        return () -> {
+            long startTime = System.nanoTime();
+            waitTimer.record(startTime - submitTime, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                executionTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
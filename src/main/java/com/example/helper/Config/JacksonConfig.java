@@ -1,25 +1,71 @@
 package com.example.helper.Config;
 
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jackson 序列化配置
+ *
+ * <p>默认格式化输出便于调试；生产环境（application-prod.properties）关闭格式化并启用 Blackbird 属性访问器。
+ */
 @Configuration
 public class JacksonConfig {
 
+    // 是否格式化输出 JSON
+    @Value("${app.json.indent-output:true}")
+    private boolean indentOutput;
+
+    // 是否启用 Blackbird（LambdaMetafactory 生成的属性访问器替代反射调用）
+    @Value("${app.json.blackbird-enabled:false}")
+    private boolean blackbirdEnabled;
+
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
-        return Jackson2ObjectMapperBuilder.json()
-                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE) // 使用 snake_case 命名
+        Jackson2ObjectMapperBuilder builder = configure(Jackson2ObjectMapperBuilder.json());
+        if (indentOutput) {
+            builder.featuresToEnable(SerializationFeature.INDENT_OUTPUT); // 格式化输出
+        }
+        return builder.build();
+    }
+
+    /** CBOR 消息转换器，请求头 Accept: application/cbor 时使用 */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(
+                configure(Jackson2ObjectMapperBuilder.cbor()).build());
+    }
+
+    /** Smile 消息转换器，请求头 Accept: application/x-jackson-smile 时使用 */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(
+                configure(Jackson2ObjectMapperBuilder.smile()).build());
+    }
+
+    // JSON 与二进制格式共用的序列化配置，保证字段名和日期格式一致
+    private Jackson2ObjectMapperBuilder configure(Jackson2ObjectMapperBuilder builder) {
+        List<Module> modules = new ArrayList<>();
+        modules.add(new JavaTimeModule()); // 支持 Java 8 时间类型
+        if (blackbirdEnabled) {
+            modules.add(new BlackbirdModule());
+        }
+        return builder.propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE) // 使用 snake_case 命名
                 .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS) // 日期序列化为字符串
-                .featuresToEnable(SerializationFeature.INDENT_OUTPUT) // 格式化输出（生产环境可关闭）
-                .modules(new JavaTimeModule()) // 支持 Java 8 时间类型
-                .build();
+                .modules(modules);
     }
 }
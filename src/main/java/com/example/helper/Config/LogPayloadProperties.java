@@ -0,0 +1,61 @@
+// LogPayloadProperties.java
+package com.example.helper.Config;
+
+import com.example.helper.Common.Enum.BusinessTypeEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/** 操作日志请求参数与响应结果的记录策略，未按业务类型配置的项沿用默认值 */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.operation-log.payload")
+public class LogPayloadProperties {
+
+    /** 参数、结果序列化后的最大长度（字符），超出部分截断 */
+    private int maxLength = 2000;
+
+    /** 成功调用记录参数、结果的比例，未采中的只记录日志行本身；失败调用始终记录 */
+    private double successSampleRate = 1.0;
+
+    /** 截断后长度（字节）超过该值时 Deflate 压缩存储，0 表示不压缩 */
+    private int compressThreshold = 1024;
+
+    /** 按业务类型覆盖的策略 */
+    private Map<BusinessTypeEnum, Policy> policies = new EnumMap<>(BusinessTypeEnum.class);
+
+    @Data
+    public static class Policy {
+
+        private Integer maxLength;
+
+        private Double successSampleRate;
+
+        private Integer compressThreshold;
+    }
+
+    /** 业务类型的最大长度 */
+    public int maxLengthOf(BusinessTypeEnum businessType) {
+        Policy policy = policies.get(businessType);
+        return policy != null && policy.getMaxLength() != null ? policy.getMaxLength() : maxLength;
+    }
+
+    /** 业务类型成功调用的采样比例 */
+    public double successSampleRateOf(BusinessTypeEnum businessType) {
+        Policy policy = policies.get(businessType);
+        return policy != null && policy.getSuccessSampleRate() != null
+                ? policy.getSuccessSampleRate()
+                : successSampleRate;
+    }
+
+    /** 业务类型的压缩阈值 */
+    public int compressThresholdOf(BusinessTypeEnum businessType) {
+        Policy policy = policies.get(businessType);
+        return policy != null && policy.getCompressThreshold() != null
+                ? policy.getCompressThreshold()
+                : compressThreshold;
+    }
+}
@@ -2,47 +2,96 @@
 package com.example.helper.Config;
 
 import com.example.helper.Common.Util.LoggingUtil;
+import com.example.helper.Common.Util.RouteTimers;
+import com.example.helper.Common.Util.TraceContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
-public class LoggingInterceptor implements HandlerInterceptor {
+public class LoggingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_TIME_ATTRIBUTE = LoggingInterceptor.class.getName() + ".startTime";
+    private static final String TRACE_CONTEXT_ATTRIBUTE = LoggingInterceptor.class.getName() + ".traceContext";
+
+    // 与 Spring Boot 默认的服务端请求指标同名（默认的观测已在配置中关闭，避免重复记录）
+    private final RouteTimers requestTimers;
+
+    public LoggingInterceptor(MeterRegistry meterRegistry) {
+        this.requestTimers = new RouteTimers(meterRegistry, "http.server.requests");
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
-        // 记录请求开始时间
-        request.setAttribute("startTime", System.currentTimeMillis());
+        // 异步请求（SSE、流式下载）完成时会再次分派，沿用第一次分派的跟踪上下文，耗时也从第一次分派算起
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            Object context = request.getAttribute(TRACE_CONTEXT_ATTRIBUTE);
+            if (context != null) {
+                ((TraceContext) context).makeCurrent();
+            }
+            return true;
+        }
 
-        // 初始化日志上下文
+        // 初始化日志上下文：沿用调用方 traceparent 中的 trace-id，并在响应头中返回本次请求的 traceparent
         String userId = request.getHeader("User-Id"); // 从请求头获取用户ID
-        LoggingUtil.initTraceContext(userId);
+        TraceContext context = LoggingUtil.initTraceContext(request.getHeader(TraceContext.TRACEPARENT_HEADER), userId);
+        request.setAttribute(TRACE_CONTEXT_ATTRIBUTE, context);
+        response.setHeader(TraceContext.TRACEPARENT_HEADER, context.toTraceparent());
 
-        log.info("请求开始 - URL: {}, Method: {}, IP: {}",
-                request.getRequestURL(),
-                request.getMethod(),
-                LoggingUtil.getClientIpAddress());
+        // 记录请求开始时间（单调时钟，不受系统时间调整影响）
+        request.setAttribute(START_TIME_ATTRIBUTE, System.nanoTime());
+
+        if (log.isDebugEnabled()) {
+            log.debug("请求开始 - URL: {}, Method: {}, IP: {}",
+                    request.getRequestURL(),
+                    request.getMethod(),
+                    LoggingUtil.getClientIpAddress());
+        }
 
         return true;
     }
 
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                               @NonNull Object handler) {
+        // 请求线程先行返回，结束时在异步分派中统计
+        LoggingUtil.clearTraceContext();
+    }
+
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
                                 @NonNull Object handler, Exception ex) {
-        long startTime = (Long) request.getAttribute("startTime");
-        long executeTime = System.currentTimeMillis() - startTime;
+        Object startTime = request.getAttribute(START_TIME_ATTRIBUTE);
+        if (startTime != null) {
+            long executeNanos = System.nanoTime() - (Long) startTime;
+            // 异常尚未交给容器处理时响应状态仍是 200，按 500 统计
+            int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+            requestTimers.record(
+                    (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                    request.getMethod(),
+                    status,
+                    executeNanos);
 
-        log.info("请求结束 - URL: {}, Status: {}, 执行时间: {}ms",
-                request.getRequestURL(),
-                response.getStatus(),
-                executeTime);
+            long executeTime = TimeUnit.NANOSECONDS.toMillis(executeNanos);
+            if (log.isDebugEnabled()) {
+                log.debug("请求结束 - URL: {}, Status: {}, 执行时间: {}ms",
+                        request.getRequestURL(),
+                        status,
+                        executeTime);
+            }
 
-        // 记录性能日志
-        LoggingUtil.logPerformance(request.getRequestURI(), executeTime);
+            // 记录性能日志
+            LoggingUtil.logPerformance(request.getRequestURI(), executeTime);
+        }
 
         // 清理日志上下文
         LoggingUtil.clearTraceContext();
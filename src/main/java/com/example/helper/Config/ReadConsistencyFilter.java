@@ -0,0 +1,36 @@
+// ReadConsistencyFilter.java
+package com.example.helper.Config;
+
+import com.example.helper.Common.Util.ReadConsistency;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/** 请求头 X-Read-Your-Writes: true 时，该请求内的只读事务走主库，保证能读到刚提交的写入 */
+@Component
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!"true".equalsIgnoreCase(request.getHeader(ReadConsistency.READ_YOUR_WRITES_HEADER))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReadConsistency.requirePrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadConsistency.clear();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+// ReplicaDataSourceProperties.java
+package com.example.helper.Config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaDataSourceProperties {
+
+    /** 是否启用只读副本路由 */
+    private boolean enabled = false;
+
+    /** 副本选择策略：round-robin 或 least-latency */
+    private String strategy = "round-robin";
+
+    /** 允许的最大复制延迟（毫秒），超过后该副本不再接收读请求 */
+    private long maxLagMs = 1000;
+
+    /** 延迟探测间隔（毫秒） */
+    private long probeIntervalMs = 1000;
+
+    /** 延迟探测SQL，结果取 Seconds_Behind_Source / Seconds_Behind_Master 列或第一列（秒）；无结果或为空视为复制中断 */
+    private String lagQuery = "SHOW REPLICA STATUS";
+
+    /** 每个副本连接池的最大连接数 */
+    private int maximumPoolSize = 10;
+
+    /** 副本列表 */
+    private List<Replica> nodes = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+
+        /** 副本名称，用于日志和连接池命名 */
+        private String name;
+
+        private String url;
+
+        /** 用户名和密码，未配置时沿用主库 */
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,237 @@
+// ReplicaRoutingDataSource.java
+package com.example.helper.Config;
+
+import com.example.helper.Common.Util.ReadConsistency;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 只读副本路由数据源
+ *
+ * <p>作为 LazyConnectionDataSourceProxy 的只读数据源使用，只读事务的连接从这里获取。按轮询或最低探测延迟在健康副本中选择；复制延迟超过阈值、探测失败或获取连接失败的副本暂停使用，没有可用副本或当前线程要求读己之写时回落到主库。
+ *
+ * <p>探测在独立的单线程调度器上运行，不受应用其他定时任务影响，容器启动完成（所有单例初始化之后）才开始；最近一次成功探测超过两个探测间隔的副本视为状态未知，同样暂停使用。
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource
+        implements SmartLifecycle, AutoCloseable {
+
+    public static final String STRATEGY_ROUND_ROBIN = "round-robin";
+    public static final String STRATEGY_LEAST_LATENCY = "least-latency";
+
+    // 探测延迟的指数移动平均权重
+    private static final double LATENCY_EWMA_ALPHA = 0.3;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final boolean leastLatency;
+    private final long maxLagMs;
+    private final long probeIntervalMs;
+    private final long staleAfterNanos;
+    private final String lagQuery;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private volatile boolean running;
+    private final ScheduledExecutorService probeScheduler =
+            Executors.newSingleThreadScheduledExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "replica-probe");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    public ReplicaRoutingDataSource(
+            HikariDataSource primary,
+            List<HikariDataSource> replicaDataSources,
+            ReplicaDataSourceProperties properties) {
+        if (!STRATEGY_ROUND_ROBIN.equals(properties.getStrategy())
+                && !STRATEGY_LEAST_LATENCY.equals(properties.getStrategy())) {
+            throw new IllegalArgumentException("未知的副本选择策略: " + properties.getStrategy());
+        }
+        this.primary = primary;
+        this.replicas = replicaDataSources.stream().map(Replica::new).toList();
+        this.leastLatency = STRATEGY_LEAST_LATENCY.equals(properties.getStrategy());
+        this.maxLagMs = properties.getMaxLagMs();
+        this.probeIntervalMs = properties.getProbeIntervalMs();
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(2 * probeIntervalMs);
+        this.lagQuery = properties.getLagQuery();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = ReadConsistency.isPrimaryRequired() ? null : select();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            replica.markDown("获取连接失败: " + e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // 副本连接池使用固定账号，指定账号的连接只能来自主库
+        return primary.getConnection(username, password);
+    }
+
+    /** 在独立的调度线程上开始周期探测 */
+    @Override
+    public void start() {
+        if (!running) {
+            probeScheduler.scheduleWithFixedDelay(
+                    this::probe, 0, probeIntervalMs, TimeUnit.MILLISECONDS);
+            running = true;
+        }
+    }
+
+    @Override
+    public void stop() {
+        probeScheduler.shutdownNow();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** 探测各副本的复制延迟和响应时间，更新可用状态 */
+    public void probe() {
+        for (Replica replica : replicas) {
+            try {
+                probe(replica);
+            } catch (RuntimeException e) {
+                // 异常会终止周期任务，只记录并标记该副本
+                replica.markDown("探测异常: " + e);
+            }
+        }
+    }
+
+    private void probe(Replica replica) {
+        long start = System.nanoTime();
+        try (Connection connection = replica.dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(1);
+            Long lagSeconds;
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                lagSeconds = readLagSeconds(resultSet);
+            }
+            long latencyNanos = System.nanoTime() - start;
+            if (lagSeconds == null) {
+                replica.markDown("复制未运行");
+            } else if (lagSeconds * 1000 >= maxLagMs) {
+                // 延迟按整秒截断，读数为 N 秒时实际延迟可能接近 N + 1 秒
+                replica.markDown("复制延迟 " + lagSeconds + " 秒");
+            } else {
+                replica.markUp(lagSeconds * 1000, latencyNanos);
+            }
+        } catch (SQLException e) {
+            replica.markDown("探测失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        probeScheduler.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private Replica select() {
+        long now = System.nanoTime();
+        int size = replicas.size();
+        if (leastLatency) {
+            Replica best = null;
+            for (Replica replica : replicas) {
+                if (replica.isUsable(now)
+                        && (best == null || replica.latencyNanos < best.latencyNanos)) {
+                    best = replica;
+                }
+            }
+            return best;
+        }
+        int start = Math.floorMod(nextIndex.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isUsable(now)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    // MySQL 的 SHOW REPLICA STATUS 按列名取延迟，其他探测SQL取第一列；无结果或为空返回 null
+    private static Long readLagSeconds(ResultSet resultSet) throws SQLException {
+        if (!resultSet.next()) {
+            return null;
+        }
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int column = 1;
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String label = metaData.getColumnLabel(i);
+            if ("Seconds_Behind_Source".equalsIgnoreCase(label)
+                    || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                column = i;
+                break;
+            }
+        }
+        long lag = resultSet.getLong(column);
+        return resultSet.wasNull() ? null : lag;
+    }
+
+    private class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        // 首次探测成功前不接收读请求
+        private volatile boolean available;
+        private volatile boolean probed;
+        private volatile double latencyNanos;
+        private volatile long lastSuccessNanos;
+
+        Replica(HikariDataSource dataSource) {
+            this.name = dataSource.getPoolName();
+            this.dataSource = dataSource;
+        }
+
+        void markUp(long lagMs, long latencyNanos) {
+            this.latencyNanos =
+                    this.latencyNanos == 0
+                            ? latencyNanos
+                            : LATENCY_EWMA_ALPHA * latencyNanos
+                                    + (1 - LATENCY_EWMA_ALPHA) * this.latencyNanos;
+            if (!available) {
+                available = true;
+                log.info("只读副本 {} 可用，复制延迟 {} ms", name, lagMs);
+            }
+            lastSuccessNanos = System.nanoTime();
+            probed = true;
+        }
+
+        // 探测线程阻塞或停止时，上次探测结果不再可信
+        boolean isUsable(long now) {
+            return available && now - lastSuccessNanos <= staleAfterNanos;
+        }
+
+        void markDown(String reason) {
+            if (available || !probed) {
+                available = false;
+                log.warn("只读副本 {} 暂停使用: {}", name, reason);
+            }
+            probed = true;
+        }
+    }
+}
@@ -1,17 +1,19 @@
 // 修改ThreadPoolConfig.java，添加Qualifier注解
 package com.example.helper.Config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class ThreadPoolConfig {
 
     @Value("${thread.pool.core-pool-size:5}")
@@ -29,9 +31,10 @@ public class ThreadPoolConfig {
     @Value("${thread.pool.thread-name-prefix:task-executor-}")
     private String threadNamePrefix;
 
+    // 各线程池均记录等待、执行耗时和拒绝次数，可通过 /api/admin/executors 在线调整大小
     @Bean("taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    public InstrumentedTaskExecutor taskExecutor(MeterRegistry meterRegistry) {
+        InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor("taskExecutor", meterRegistry);
 
         // 核心线程数
         executor.setCorePoolSize(corePoolSize);
@@ -51,6 +54,9 @@ public class ThreadPoolConfig {
         // 拒绝策略：由调用线程处理该任务
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
 
+        // 任务执行时恢复提交线程的跟踪上下文（traceId、userId）和读一致性要求
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+
         // 等待所有任务结束后再关闭线程池
         executor.setWaitForTasksToCompleteOnShutdown(true);
 
@@ -66,8 +72,8 @@ public class ThreadPoolConfig {
 
     // 创建一个专门用于IO密集型任务的线程池
     @Bean("ioTaskExecutor")
-    public Executor ioTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    public InstrumentedTaskExecutor ioTaskExecutor(MeterRegistry meterRegistry) {
+        InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor("ioTaskExecutor", meterRegistry);
 
         executor.setCorePoolSize(10);
         executor.setMaxPoolSize(20);
@@ -75,6 +81,7 @@ public class ThreadPoolConfig {
         executor.setKeepAliveSeconds(30);
         executor.setThreadNamePrefix("io-task-executor-");
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
         executor.setAllowCoreThreadTimeOut(true);
@@ -85,8 +92,8 @@ public class ThreadPoolConfig {
 
     // 创建一个专门用于计算密集型任务的线程池
     @Bean("computeTaskExecutor")
-    public Executor computeTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    public InstrumentedTaskExecutor computeTaskExecutor(MeterRegistry meterRegistry) {
+        InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor("computeTaskExecutor", meterRegistry);
 
         executor.setCorePoolSize(Runtime.getRuntime().availableProcessors());
         executor.setMaxPoolSize(Runtime.getRuntime().availableProcessors() * 2);
@@ -94,10 +101,30 @@ public class ThreadPoolConfig {
         executor.setKeepAliveSeconds(60);
         executor.setThreadNamePrefix("compute-task-executor-");
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
 
         executor.initialize();
         return executor;
     }
+
+    // 推送线程池：SSE 发送和变更广播，发送可能因客户端过慢而阻塞，队列满时拒绝而不是由提交线程（请求或写入线程）执行，调用方按丢弃处理
+    @Bean("pushTaskExecutor")
+    public InstrumentedTaskExecutor pushTaskExecutor(MeterRegistry meterRegistry) {
+        InstrumentedTaskExecutor executor = new InstrumentedTaskExecutor("pushTaskExecutor", meterRegistry);
+
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(1000);
+        executor.setKeepAliveSeconds(30);
+        executor.setThreadNamePrefix("push-task-executor-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.setAllowCoreThreadTimeOut(true);
+
+        executor.initialize();
+        return executor;
+    }
 }
@@ -1,6 +1,9 @@
 // AIController.java
 package com.example.helper.Controller;
 
+import com.example.helper.Common.Annotation.OperationLog;
+import com.example.helper.Common.Enum.BusinessTypeEnum;
+import com.example.helper.Common.Enum.OperationTypeEnum;
 import com.example.helper.Service.AIService;
 import com.example.helper.Dto.ChatRequestDTO;
 import io.swagger.v3.oas.annotations.Operation;
@@ -36,6 +39,7 @@ public class AIController {
      * @return SSE流式响应
      */
     @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @OperationLog(businessType = BusinessTypeEnum.RAG_QUERY, operationType = OperationTypeEnum.QUERY)
     @Operation(summary = "流式聊天", description = "与DeepSeek AI进行流式对话")
     public SseEmitter chatStream(
             @Parameter(description = "用户消息") @RequestParam String message,
@@ -121,6 +125,7 @@ public class AIController {
      * @return SSE流式响应
      */
     @PostMapping(value = "/chat/conversation", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @OperationLog(businessType = BusinessTypeEnum.RAG_QUERY, operationType = OperationTypeEnum.QUERY)
     @Operation(summary = "多轮对话流式", description = "支持多轮对话的流式AI接口")
     public SseEmitter conversationStream(
             @Parameter(description = "对话消息历史") @RequestBody List<Map<String, String>> messages,
@@ -167,6 +172,7 @@ public class AIController {
      * @return SSE流式响应
      */
     @PostMapping(value = "/chat/conversation-dto", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @OperationLog(businessType = BusinessTypeEnum.RAG_QUERY, operationType = OperationTypeEnum.QUERY)
     @Operation(summary = "多轮对话流式(DTO)", description = "使用DTO的多轮对话流式AI接口")
     public SseEmitter conversationStreamWithDTO(
             @Parameter(description = "聊天请求") @RequestBody ChatRequestDTO chatRequest) {
@@ -0,0 +1,47 @@
+// ExecutorController.java
+package com.example.helper.Controller;
+
+import com.example.helper.Common.Util.ApiResponse;
+import com.example.helper.Dto.ExecutorResizeDTO;
+import com.example.helper.Dto.ExecutorStatusDTO;
+import com.example.helper.Service.ExecutorTuningService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/executors")
+@RequiredArgsConstructor
+@Tag(name = "线程池管理", description = "线程池状态查询与在线调整")
+public class ExecutorController {
+
+    private final ExecutorTuningService executorTuningService;
+
+    @GetMapping
+    @Operation(summary = "线程池状态", description = "查询各线程池的线程数、队列长度、拒绝次数与等待、执行耗时")
+    public ApiResponse<List<ExecutorStatusDTO>> getExecutors() {
+
+        return ApiResponse.success("查询成功", executorTuningService.getStatus());
+    }
+
+    @GetMapping("/{name}")
+    @Operation(summary = "单个线程池状态", description = "按 Bean 名称查询线程池状态")
+    public ApiResponse<ExecutorStatusDTO> getExecutor(
+            @Parameter(description = "线程池名称：taskExecutor、ioTaskExecutor、computeTaskExecutor、pushTaskExecutor") @PathVariable String name) {
+
+        return ApiResponse.success("查询成功", executorTuningService.getStatus(name));
+    }
+
+    @PutMapping("/{name}")
+    @Operation(summary = "调整线程池大小", description = "在线修改核心线程数、最大线程数和队列容量，无需重启")
+    public ApiResponse<ExecutorStatusDTO> resizeExecutor(
+            @Parameter(description = "线程池名称") @PathVariable String name,
+            @Parameter(description = "新的大小，字段为空时保持不变") @RequestBody ExecutorResizeDTO request) {
+
+        return ApiResponse.success("调整成功", executorTuningService.resize(name, request));
+    }
+}
@@ -2,8 +2,20 @@
 package com.example.helper.Controller;
 
 import com.example.helper.Common.Util.ApiResponse;
+import com.example.helper.Dto.ErrorGroupDTO;
+import com.example.helper.Dto.LogPartitionMigrationDTO;
+import com.example.helper.Dto.LogPipelineStatisticsDTO;
+import com.example.helper.Dto.LogRetentionResultDTO;
+import com.example.helper.Dto.LogRollupStatDTO;
+import com.example.helper.Dto.SystemLogPageDTO;
 import com.example.helper.Entity.SystemLog;
+import com.example.helper.Service.ErrorGroupService;
+import com.example.helper.Service.LogArchiveService;
+import com.example.helper.Service.LogPartitionMigrationService;
+import com.example.helper.Service.LogRetentionService;
 import com.example.helper.Service.LogService;
+import com.example.helper.Service.LogTailService;
+import com.example.helper.Service.OperationLogWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,8 +24,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -25,6 +43,12 @@ import java.util.stream.Collectors;
 public class LogController {
 
     private final LogService logService;
+    private final LogArchiveService logArchiveService;
+    private final LogRetentionService logRetentionService;
+    private final LogPartitionMigrationService logPartitionMigrationService;
+    private final LogTailService logTailService;
+    private final ErrorGroupService errorGroupService;
+    private final OperationLogWriter operationLogWriter;
 
     @GetMapping("/user/{userId}")
     @Operation(summary = "查询用户日志", description = "分页查询指定用户的操作日志")
@@ -39,32 +63,148 @@ public class LogController {
     }
 
     @GetMapping("/business/{businessType}")
-    @Operation(summary = "查询业务日志", description = "根据业务类型查询相关日志")
-    public ApiResponse<List<SystemLog>> getBusinessLogs(
-            @Parameter(description = "业务类型") @PathVariable String businessType) {
+    @Operation(summary = "查询业务日志", description = "根据业务类型按时间倒序游标分页查询相关日志")
+    public ApiResponse<SystemLogPageDTO> getBusinessLogs(
+            @Parameter(description = "业务类型") @PathVariable String businessType,
+            @Parameter(description = "起始时间（含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "结束时间（不含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "上一页返回的游标") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "50") int limit) {
 
-        List<SystemLog> logs = logService.getLogsByBusinessType(businessType);
+        SystemLogPageDTO logs = logService.queryLogs(null, businessType, null, from, to, cursor, limit);
         return ApiResponse.success("查询成功", logs);
     }
 
+    @GetMapping("/query")
+    @Operation(summary = "条件查询日志", description = "按用户、业务类型、状态和时间范围游标分页查询日志")
+    public ApiResponse<SystemLogPageDTO> queryLogs(
+            @Parameter(description = "用户ID") @RequestParam(name = "user_id", required = false) String userId,
+            @Parameter(description = "业务类型") @RequestParam(name = "business_type", required = false) String businessType,
+            @Parameter(description = "状态") @RequestParam(required = false) String status,
+            @Parameter(description = "起始时间（含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "结束时间（不含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "上一页返回的游标") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "50") int limit) {
+
+        SystemLogPageDTO logs = logService.queryLogs(userId, businessType, status, from, to, cursor, limit);
+        return ApiResponse.success("查询成功", logs);
+    }
+
+    @GetMapping("/stream")
+    @Operation(summary = "导出日志", description = "按条件以 NDJSON 流式导出日志，每行一条")
+    public ResponseEntity<StreamingResponseBody> streamLogs(
+            @Parameter(description = "用户ID") @RequestParam(name = "user_id", required = false) String userId,
+            @Parameter(description = "业务类型") @RequestParam(name = "business_type", required = false) String businessType,
+            @Parameter(description = "状态") @RequestParam(required = false) String status,
+            @Parameter(description = "起始时间（含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "结束时间（不含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        StreamingResponseBody body = out -> logService.streamLogs(userId, businessType, status, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "实时跟踪日志", description = "以 SSE 推送新写入且匹配条件的日志（log 事件），缓冲区溢出丢弃的条数以 dropped 事件通知")
+    public SseEmitter tailLogs(
+            @Parameter(description = "用户ID") @RequestParam(name = "user_id", required = false) String userId,
+            @Parameter(description = "业务类型") @RequestParam(name = "business_type", required = false) String businessType,
+            @Parameter(description = "状态") @RequestParam(required = false) String status,
+            @Parameter(description = "最小执行耗时（毫秒）") @RequestParam(name = "min_execute_time", required = false) Long minExecuteTime) {
+
+        return logTailService.subscribe(userId, businessType, status, minExecuteTime);
+    }
+
+    @GetMapping("/archive")
+    @Operation(summary = "查询归档日志", description = "按条件倒序查询已超过保留期、归档到段文件的日志")
+    public ApiResponse<SystemLogPageDTO> searchArchive(
+            @Parameter(description = "用户ID") @RequestParam(name = "user_id", required = false) String userId,
+            @Parameter(description = "业务类型") @RequestParam(name = "business_type", required = false) String businessType,
+            @Parameter(description = "状态") @RequestParam(required = false) String status,
+            @Parameter(description = "起始时间（含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "结束时间（不含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "返回条数") @RequestParam(defaultValue = "50") int limit) {
+
+        SystemLogPageDTO logs = logArchiveService.search(userId, businessType, status, from, to, limit);
+        return ApiResponse.success("查询成功", logs);
+    }
+
+    @PostMapping("/retention/run")
+    @Operation(summary = "执行日志保留维护", description = "立即归档并清理超过保留期的日志，预建未来分区")
+    public ApiResponse<LogRetentionResultDTO> runRetention() {
+
+        return ApiResponse.success("维护完成", logRetentionService.runMaintenance());
+    }
+
+    @PostMapping("/retention/partition-migration")
+    @Operation(summary = "迁移日志表为按天分区", description = "把未分区的 MySQL system_logs 转换为按天分区；会重建整张表并阻塞写入，需在低峰期执行，默认只返回将执行的语句")
+    public ApiResponse<LogPartitionMigrationDTO> migratePartitions(
+            @Parameter(description = "只返回语句不执行") @RequestParam(name = "dry_run", defaultValue = "true") boolean dryRun) {
+
+        return ApiResponse.success("迁移完成", logPartitionMigrationService.migrate(dryRun));
+    }
+
     @GetMapping("/statistics")
-    @Operation(summary = "获取日志统计", description = "获取系统日志统计信息")
-    public ApiResponse<Map<String, Object>> getLogStatistics() {
+    @Operation(summary = "获取日志统计", description = "按汇总表统计指定时间范围内的日志，未指定时统计全部")
+    public ApiResponse<Map<String, Object>> getLogStatistics(
+            @Parameter(description = "起始时间（含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "结束时间（不含）") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
 
-        Long errorCount = logService.getErrorLogCount();
-        List<Object[]> businessStats = logService.getBusinessTypeStatistics();
+        List<LogRollupStatDTO> details = logService.getStatistics(from, to);
 
-        Map<String, Long> businessTypeStats = businessStats.stream()
-                .collect(Collectors.toMap(
-                        stat -> (String) stat[0],
-                        stat -> (Long) stat[1]
+        long totalCount = details.stream().mapToLong(LogRollupStatDTO::getCount).sum();
+        long errorCount = details.stream()
+                .filter(stat -> "FAILED".equals(stat.getStatus()))
+                .mapToLong(LogRollupStatDTO::getCount)
+                .sum();
+        Map<String, Long> businessTypeStats = details.stream()
+                .collect(Collectors.groupingBy(
+                        LogRollupStatDTO::getBusinessType,
+                        Collectors.summingLong(LogRollupStatDTO::getCount)
                 ));
 
         Map<String, Object> statistics = Map.of(
+                "totalCount", totalCount,
                 "errorCount", errorCount,
-                "businessTypeStats", businessTypeStats
+                "businessTypeStats", businessTypeStats,
+                "details", details
         );
 
         return ApiResponse.success("统计成功", statistics);
     }
+
+    @GetMapping("/errors/top")
+    @Operation(summary = "高频错误分组", description = "按异常指纹统计最近一段时间内次数最多的失败操作，只读内存中的草图")
+    public ApiResponse<List<ErrorGroupDTO>> getTopErrors(
+            @Parameter(description = "统计窗口（分钟），超过 60 时按小时统计") @RequestParam(name = "window_minutes", defaultValue = "60") int windowMinutes,
+            @Parameter(description = "返回条数") @RequestParam(defaultValue = "10") int limit) {
+
+        return ApiResponse.success("查询成功", errorGroupService.getTopErrors(windowMinutes, limit));
+    }
+
+    @GetMapping("/errors/{fingerprint}")
+    @Operation(summary = "错误分组详情", description = "查询异常指纹的累计次数、首次与最近出现时间及样本")
+    public ApiResponse<ErrorGroupDTO> getErrorGroup(
+            @Parameter(description = "异常指纹") @PathVariable String fingerprint) {
+
+        return ApiResponse.success("查询成功", errorGroupService.getGroup(fingerprint));
+    }
+
+    @GetMapping("/pipeline/statistics")
+    @Operation(summary = "获取日志写入统计", description = "获取操作日志缓冲区占用、丢弃、采样及批量写入统计")
+    public ApiResponse<LogPipelineStatisticsDTO> getPipelineStatistics() {
+
+        return ApiResponse.success("统计成功", operationLogWriter.getStatistics());
+    }
 }
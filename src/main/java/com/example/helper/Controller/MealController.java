@@ -1,10 +1,35 @@
 package com.example.helper.Controller;
 
+import com.example.helper.Common.Annotation.OperationLog;
+import com.example.helper.Common.Enum.BusinessTypeEnum;
+import com.example.helper.Common.Enum.OperationTypeEnum;
 import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.ReadConsistency;
+import com.example.helper.Dto.BatchDeleteResultDTO;
+import com.example.helper.Dto.CacheRegionStatisticsDTO;
 import com.example.helper.Dto.MealDTO;
+import com.example.helper.Dto.MealImportProgressDTO;
+import com.example.helper.Dto.MealPlanRequestDTO;
+import com.example.helper.Dto.MealPlanResultDTO;
+import com.example.helper.Dto.MealSyncDTO;
+import com.example.helper.Dto.SelectionRequestDTO;
+import com.example.helper.Dto.SelectionResultDTO;
+import com.example.helper.Dto.SelectionSummaryDTO;
+import com.example.helper.Dto.SimilarMealDTO;
+import com.example.helper.Dto.SimilarMealQueryDTO;
 import com.example.helper.Entity.Meal;
 import com.example.helper.Mapper.MealMapper;
+import com.example.helper.Service.MealCacheService;
+import com.example.helper.Service.MealCatalogVersionService;
+import com.example.helper.Service.MealChangeFeedService;
+import com.example.helper.Service.MealExportService;
+import com.example.helper.Service.MealImportService;
+import com.example.helper.Service.MealPlanService;
+import com.example.helper.Service.MealSelectionService;
 import com.example.helper.Service.MealService;
+import com.example.helper.Service.MealSimilarityService;
+import com.example.helper.Service.MealStatisticsService;
+import com.example.helper.Service.MealSyncService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,25 +41,61 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/meals")
-@Tag(name = "菜单管理", description = "菜品管理相关接口")
+@Tag(
+        name = "菜单管理",
+        description =
+                "菜品管理相关接口；查询接口可通过 Accept 选择 application/cbor 或 application/x-jackson-smile 紧凑二进制格式")
 public class MealController {
 
     @Autowired private MealService mealService;
 
+    @Autowired private MealStatisticsService mealStatisticsService;
+
+    @Autowired private MealExportService mealExportService;
+
+    @Autowired private MealImportService mealImportService;
+
+    @Autowired private MealCatalogVersionService catalogVersionService;
+
+    @Autowired private MealPlanService mealPlanService;
+
+    @Autowired private MealSimilarityService mealSimilarityService;
+
+    @Autowired private MealChangeFeedService mealChangeFeedService;
+
+    @Autowired private MealSyncService mealSyncService;
+
+    @Autowired private MealCacheService mealCacheService;
+
+    @Autowired private MealSelectionService mealSelectionService;
+
     // 获取所有菜品（支持分页和排序）
     @GetMapping
     @Operation(summary = "获取菜品列表", description = "返回系统中所有的菜品信息，支持分页、排序和筛选")
     @ApiResponse(responseCode = "200", description = "成功获取菜品列表")
+    @ApiResponse(responseCode = "304", description = "菜品目录未变化")
     public ResponseEntity<com.example.helper.Common.Util.ApiResponse<Map<String, Object>>>
             getAllMeals(
                     @Parameter(description = "页码（从0开始）") @RequestParam(defaultValue = "0") int page,
@@ -44,7 +105,23 @@ public class MealController {
                     @Parameter(description = "排序方向") @RequestParam(defaultValue = "asc")
                             String sortDir,
                     @Parameter(description = "是否只返回选中的菜品") @RequestParam(required = false)
-                            Boolean selected) {
+                            Boolean selected,
+                    WebRequest webRequest) {
+
+        // 目录未变化时直接返回 304，不查询数据库
+        String etag =
+                catalogVersionService.etag(
+                        "list",
+                        page,
+                        size,
+                        sortBy,
+                        sortDir,
+                        selected,
+                        webRequest.getHeader(HttpHeaders.ACCEPT));
+        long lastModified = catalogVersionService.getLastModifiedMillis();
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
 
         try {
             Sort sort =
@@ -53,12 +130,13 @@ public class MealController {
                             : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            Page<Meal> mealPage;
-            if (selected != null && selected) {
-                mealPage = mealService.getSelectedMealsPaginated(pageable);
-            } else {
-                mealPage = mealService.getAllMealsPaginated(pageable);
-            }
+            // ETag 取自主库的目录版本，响应体也必须读主库，否则落后的副本会把旧数据配上新 ETag
+            Page<Meal> mealPage =
+                    ReadConsistency.onPrimary(
+                            () ->
+                                    selected != null && selected
+                                            ? mealService.getSelectedMealsPaginated(pageable)
+                                            : mealService.getAllMealsPaginated(pageable));
 
             List<MealDTO> mealDTOs =
                     mealPage.getContent().stream()
@@ -84,8 +162,11 @@ public class MealController {
                             "sort",
                             sortBy + "," + sortDir);
 
-            return ResponseEntity.ok(
-                    com.example.helper.Common.Util.ApiResponse.success("获取菜品列表成功", response));
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(com.example.helper.Common.Util.ApiResponse.success("获取菜品列表成功", response));
         } catch (Exception e) {
             log.error("获取菜品列表失败", e);
             throw new BusinessException(500, "获取菜品列表失败: " + e.getMessage());
@@ -96,15 +177,27 @@ public class MealController {
     @GetMapping("/{id}")
     @Operation(summary = "根据 ID 获取菜品", description = "根据菜品ID获取单个菜品的详细信息")
     @ApiResponse(responseCode = "200", description = "成功获取菜品详情")
+    @ApiResponse(responseCode = "304", description = "菜品目录未变化")
     @ApiResponse(responseCode = "404", description = "菜品不存在")
     public ResponseEntity<com.example.helper.Common.Util.ApiResponse<MealDTO>> getMealById(
-            @Parameter(description = "菜品ID") @PathVariable Long id) {
+            @Parameter(description = "菜品ID") @PathVariable Long id, WebRequest webRequest) {
+        String etag =
+                catalogVersionService.etag("meal", id, webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         try {
+            // 与 ETag 同源，读主库
             Meal meal =
-                    mealService
-                            .getMealById(id)
+                    ReadConsistency.onPrimary(() -> mealService.getMealById(id))
                             .orElseThrow(() -> new BusinessException(404, "菜品不存在，ID: " + id));
-            return ResponseEntity.ok(
+            ResponseEntity.BodyBuilder builder =
+                    ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT);
+            if (meal.getUpdatedAt() != null) {
+                builder.lastModified(meal.getUpdatedAt().atZone(ZoneId.systemDefault()));
+            }
+            return builder.body(
                     com.example.helper.Common.Util.ApiResponse.success(
                             "获取菜品详情成功", MealMapper.toDTO(meal)));
         } catch (BusinessException e) {
@@ -117,6 +210,9 @@ public class MealController {
 
     // 添加新菜品
     @PostMapping
+    @OperationLog(
+            businessType = BusinessTypeEnum.MEAL_MANAGEMENT,
+            operationType = OperationTypeEnum.CREATE)
     @Operation(summary = "添加新菜品", description = "创建一个新的菜品记录")
     @ApiResponse(responseCode = "200", description = "菜品添加成功")
     @ApiResponse(responseCode = "400", description = "请求参数无效")
@@ -135,6 +231,9 @@ public class MealController {
 
     // 批量添加菜品
     @PostMapping("/batch")
+    @OperationLog(
+            businessType = BusinessTypeEnum.MEAL_MANAGEMENT,
+            operationType = OperationTypeEnum.CREATE)
     @Operation(summary = "批量添加菜品", description = "批量创建多个菜品记录")
     public ResponseEntity<com.example.helper.Common.Util.ApiResponse<List<MealDTO>>> addMealsBatch(
             @Parameter(description = "菜品列表") @Valid @RequestBody List<Meal> meals) {
@@ -152,6 +251,9 @@ public class MealController {
 
     // 更新菜品信息
     @PutMapping("/{id}")
+    @OperationLog(
+            businessType = BusinessTypeEnum.MEAL_MANAGEMENT,
+            operationType = OperationTypeEnum.UPDATE)
     @Operation(summary = "更新菜品信息", description = "根据菜品ID更新菜品的详细信息")
     @ApiResponse(responseCode = "200", description = "菜品更新成功")
     @ApiResponse(responseCode = "404", description = "菜品不存在")
@@ -173,6 +275,9 @@ public class MealController {
 
     // 批量更新菜品
     @PutMapping("/batch")
+    @OperationLog(
+            businessType = BusinessTypeEnum.MEAL_MANAGEMENT,
+            operationType = OperationTypeEnum.UPDATE)
     @Operation(summary = "批量更新菜品", description = "批量更新多个菜品记录")
     public ResponseEntity<com.example.helper.Common.Util.ApiResponse<List<MealDTO>>>
             updateMealsBatch(
@@ -191,6 +296,9 @@ public class MealController {
 
     // 删除菜品
     @DeleteMapping("/{id}")
+    @OperationLog(
+            businessType = BusinessTypeEnum.MEAL_MANAGEMENT,
+            operationType = OperationTypeEnum.DELETE)
     @Operation(summary = "删除菜品", description = "根据菜品ID删除指定的菜品记录")
     @ApiResponse(responseCode = "200", description = "菜品删除成功")
     @ApiResponse(responseCode = "404", description = "菜品不存在")
@@ -209,13 +317,22 @@ public class MealController {
 
     // 批量删除菜品
     @DeleteMapping("/batch")
-    @Operation(summary = "批量删除菜品", description = "根据ID列表批量删除菜品")
-    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<Void>> deleteMealsBatch(
-            @Parameter(description = "菜品ID列表") @RequestBody List<Long> ids) {
+    @OperationLog(
+            businessType = BusinessTypeEnum.MEAL_MANAGEMENT,
+            operationType = OperationTypeEnum.DELETE)
+    @Operation(summary = "批量删除菜品", description = "根据ID列表批量删除菜品，不存在的ID跳过并在结果中返回")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<BatchDeleteResultDTO>>
+            deleteMealsBatch(@Parameter(description = "菜品ID列表") @RequestBody List<Long> ids) {
         try {
-            mealService.deleteMealsBatch(ids);
+            BatchDeleteResultDTO result = mealService.deleteMealsBatch(ids);
+            String message =
+                    result.getMissingIds().isEmpty()
+                            ? "批量删除菜品成功"
+                            : "批量删除菜品完成，" + result.getMissingIds().size() + " 个菜品不存在";
             return ResponseEntity.ok(
-                    com.example.helper.Common.Util.ApiResponse.success("批量删除菜品成功"));
+                    com.example.helper.Common.Util.ApiResponse.success(message, result));
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("批量删除菜品失败", e);
             throw new BusinessException(500, "批量删除菜品失败: " + e.getMessage());
@@ -224,12 +341,30 @@ public class MealController {
 
     // 切换菜品选中状态
     @PatchMapping("/{id}/toggle")
-    @Operation(summary = "切换菜品选中状态", description = "切换指定菜品的选中/未选中状态")
+    @OperationLog(
+            businessType = BusinessTypeEnum.MEAL_MANAGEMENT,
+            operationType = OperationTypeEnum.UPDATE)
+    @Operation(
+            summary = "切换菜品选中状态",
+            description = "切换指定菜品的选中/未选中状态；携带 User-Id 请求头时只切换该用户的选中状态，不写数据库")
     public ResponseEntity<com.example.helper.Common.Util.ApiResponse<MealDTO>> toggleMealSelection(
-            @Parameter(description = "菜品ID") @PathVariable Long id) {
+            @Parameter(description = "菜品ID") @PathVariable Long id,
+            @Parameter(description = "用户ID")
+                    @RequestHeader(value = MealSelectionService.USER_ID_HEADER, required = false)
+                    String userId) {
         try {
-            Meal updatedMeal = mealService.toggleMealSelection(id);
-            MealDTO mealDTO = MealMapper.toDTO(updatedMeal);
+            MealDTO mealDTO;
+            if (userId != null) {
+                // 选中状态只写 Redis；菜品信息按ID读取，通常命中二级缓存
+                Meal meal =
+                        mealService
+                                .getMealById(id)
+                                .orElseThrow(() -> new BusinessException(404, "菜品不存在，ID: " + id));
+                mealDTO = MealMapper.toDTO(meal);
+                mealDTO.setChecked(mealSelectionService.toggle(userId, id));
+            } else {
+                mealDTO = MealMapper.toDTO(mealService.toggleMealSelection(id));
+            }
             return ResponseEntity.ok(
                     com.example.helper.Common.Util.ApiResponse.success("切换选中状态成功", mealDTO));
         } catch (BusinessException e) {
@@ -240,23 +375,136 @@ public class MealController {
         }
     }
 
+    // 批量修改选中状态
+    @PatchMapping("/selection")
+    @OperationLog(
+            businessType = BusinessTypeEnum.MEAL_MANAGEMENT,
+            operationType = OperationTypeEnum.UPDATE)
+    @Operation(
+            summary = "批量修改选中状态",
+            description = "按ID列表或标题关键字原子地批量选中、取消选中或反选菜品；携带 User-Id 请求头时修改该用户的选中状态")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<SelectionResultDTO>>
+            updateSelection(
+                    @Parameter(description = "批量选中操作") @RequestBody SelectionRequestDTO request,
+                    @Parameter(description = "用户ID")
+                            @RequestHeader(
+                                    value = MealSelectionService.USER_ID_HEADER,
+                                    required = false)
+                            String userId) {
+        try {
+            SelectionResultDTO result =
+                    userId != null
+                            ? mealSelectionService.updateSelection(
+                                    userId,
+                                    request.getAction(),
+                                    request.getIds(),
+                                    request.getKeyword())
+                            : mealService.updateSelection(
+                                    request.getAction(), request.getIds(), request.getKeyword());
+            return ResponseEntity.ok(
+                    com.example.helper.Common.Util.ApiResponse.success("批量修改选中状态成功", result));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("批量修改选中状态失败", e);
+            throw new BusinessException(500, "批量修改选中状态失败: " + e.getMessage());
+        }
+    }
+
     // 获取所有已选中的菜品
     @GetMapping("/selected")
-    @Operation(summary = "获取所有已选中的菜品", description = "返回所有标记为已选中的菜品列表")
+    @Operation(summary = "获取所有已选中的菜品", description = "返回所有标记为已选中的菜品列表；携带 User-Id 请求头时返回该用户选中的菜品")
     public ResponseEntity<com.example.helper.Common.Util.ApiResponse<List<MealDTO>>>
-            getSelectedMeals() {
+            getSelectedMeals(
+                    @Parameter(description = "用户ID")
+                            @RequestHeader(
+                                    value = MealSelectionService.USER_ID_HEADER,
+                                    required = false)
+                            String userId,
+                    WebRequest webRequest) {
+        if (userId != null) {
+            return getUserSelectedMeals(userId, webRequest);
+        }
+        String etag =
+                catalogVersionService.etag("selected", webRequest.getHeader(HttpHeaders.ACCEPT));
+        long lastModified = catalogVersionService.getLastModifiedMillis();
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+
         try {
-            List<Meal> meals = mealService.getSelectedMeals();
+            // 与 ETag 同源，读主库
+            List<Meal> meals = ReadConsistency.onPrimary(mealService::getSelectedMeals);
             List<MealDTO> mealDTOs =
                     meals.stream().map(MealMapper::toDTO).collect(Collectors.toList());
-            return ResponseEntity.ok(
-                    com.example.helper.Common.Util.ApiResponse.success("获取选中菜品成功", mealDTOs));
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .varyBy(HttpHeaders.ACCEPT, MealSelectionService.USER_ID_HEADER)
+                    .body(com.example.helper.Common.Util.ApiResponse.success("获取选中菜品成功", mealDTOs));
         } catch (Exception e) {
             log.error("获取选中菜品失败", e);
             throw new BusinessException(500, "获取选中菜品失败: " + e.getMessage());
         }
     }
 
+    // 用户选中状态与菜品目录任一变化时 ETag 随之变化；不使用 Last-Modified，避免选中变化后仍返回 304
+    private ResponseEntity<com.example.helper.Common.Util.ApiResponse<List<MealDTO>>>
+            getUserSelectedMeals(String userId, WebRequest webRequest) {
+        String etag =
+                catalogVersionService.etag(
+                        "selected",
+                        webRequest.getHeader(HttpHeaders.ACCEPT),
+                        userId,
+                        mealSelectionService.getVersion(userId));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        try {
+            List<MealDTO> mealDTOs =
+                    mealSelectionService.getSelectedMeals(userId).stream()
+                            .map(
+                                    meal -> {
+                                        MealDTO mealDTO = MealMapper.toDTO(meal);
+                                        mealDTO.setChecked(true);
+                                        return mealDTO;
+                                    })
+                            .collect(Collectors.toList());
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT, MealSelectionService.USER_ID_HEADER)
+                    .body(com.example.helper.Common.Util.ApiResponse.success("获取选中菜品成功", mealDTOs));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("获取用户选中菜品失败，用户: {}", userId, e);
+            throw new BusinessException(500, "获取选中菜品失败: " + e.getMessage());
+        }
+    }
+
+    // 获取选中菜品汇总
+    @GetMapping("/selection/summary")
+    @Operation(summary = "获取选中菜品汇总", description = "返回选中菜品数量及各营养成分合计与平均值；携带 User-Id 请求头时统计该用户的选中状态")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<SelectionSummaryDTO>>
+            getSelectionSummary(
+                    @Parameter(description = "用户ID")
+                            @RequestHeader(
+                                    value = MealSelectionService.USER_ID_HEADER,
+                                    required = false)
+                            String userId) {
+        try {
+            SelectionSummaryDTO summary = mealSelectionService.getSummary(userId);
+            return ResponseEntity.ok(
+                    com.example.helper.Common.Util.ApiResponse.success("获取选中菜品汇总成功", summary));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("获取选中菜品汇总失败", e);
+            throw new BusinessException(500, "获取选中菜品汇总失败: " + e.getMessage());
+        }
+    }
+
     // 根据标题搜索菜品
     @GetMapping("/search")
     @Operation(summary = "根据标题搜索菜品", description = "根据菜品标题进行模糊搜索")
@@ -279,14 +527,204 @@ public class MealController {
         }
     }
 
+    // 流式导出菜品
+    @GetMapping("/export")
+    @Operation(summary = "流式导出菜品", description = "以 NDJSON 或 CSV 格式流式导出菜品目录，可按选中状态过滤并启用 gzip 压缩")
+    public ResponseEntity<StreamingResponseBody> exportMeals(
+            @Parameter(description = "导出格式：ndjson 或 csv") @RequestParam(defaultValue = "ndjson")
+                    String format,
+            @Parameter(description = "按选中状态过滤（不传则导出全部）") @RequestParam(required = false)
+                    Boolean checked,
+            @Parameter(description = "是否启用 gzip 压缩") @RequestParam(defaultValue = "false")
+                    boolean gzip) {
+        String normalizedFormat = MealExportService.normalizeFormat(format);
+        boolean csv = MealExportService.FORMAT_CSV.equals(normalizedFormat);
+
+        StreamingResponseBody body =
+                outputStream -> {
+                    try {
+                        if (gzip) {
+                            try (GZIPOutputStream gzipStream =
+                                    new GZIPOutputStream(outputStream, 8192)) {
+                                mealExportService.exportMeals(
+                                        checked, normalizedFormat, gzipStream);
+                            }
+                        } else {
+                            mealExportService.exportMeals(checked, normalizedFormat, outputStream);
+                        }
+                    } catch (Exception e) {
+                        // 响应头已发送，只能记录日志并中断连接
+                        log.error("导出菜品失败，格式: {}", normalizedFormat, e);
+                        throw e;
+                    }
+                };
+
+        ResponseEntity.BodyBuilder builder =
+                ResponseEntity.ok()
+                        .contentType(
+                                csv
+                                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                                        : MediaType.APPLICATION_NDJSON)
+                        .header(
+                                HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=meals." + normalizedFormat);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+
+    // 流式导入菜品
+    @PostMapping("/import")
+    @OperationLog(
+            businessType = BusinessTypeEnum.DATA_SYNC,
+            operationType = OperationTypeEnum.CREATE,
+            saveParams = false)
+    @Operation(summary = "流式导入菜品", description = "以 NDJSON 或 CSV 格式流式导入菜品，分块提交并返回逐行错误，支持 gzip 请求体")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<MealImportProgressDTO>>
+            importMeals(
+                    @Parameter(description = "导入格式：ndjson 或 csv")
+                            @RequestParam(defaultValue = "ndjson")
+                            String format,
+                    @Parameter(description = "任务ID（可选，用于查询导入进度；保留期内不能重复使用）") @RequestParam(required = false)
+                            String jobId,
+                    @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false)
+                            String contentEncoding,
+                    InputStream body) {
+        try {
+            InputStream input =
+                    "gzip".equalsIgnoreCase(contentEncoding)
+                            ? new GZIPInputStream(body, 8192)
+                            : body;
+            MealImportProgressDTO result = mealImportService.importMeals(input, format, jobId);
+            return ResponseEntity.ok(
+                    com.example.helper.Common.Util.ApiResponse.success("菜品导入完成", result));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (IOException e) {
+            log.error("读取导入数据失败", e);
+            throw new BusinessException(400, "读取导入数据失败: " + e.getMessage());
+        }
+    }
+
+    // 查询导入进度
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "查询导入进度", description = "根据任务ID查询流式导入的进度和错误信息")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<MealImportProgressDTO>>
+            getImportProgress(@Parameter(description = "任务ID") @PathVariable String jobId) {
+        return ResponseEntity.ok(
+                com.example.helper.Common.Util.ApiResponse.success(
+                        "获取导入进度成功", mealImportService.getProgress(jobId)));
+    }
+
+    // 增量同步
+    @GetMapping("/sync")
+    @Operation(
+            summary = "增量同步菜品",
+            description =
+                    "返回游标之后新增或修改的菜品及已删除的菜品ID；首次同步不传 cursor，之后使用上次返回的 next_cursor，has_more 为 true 时继续拉取")
+    @ApiResponse(responseCode = "400", description = "游标无效")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<MealSyncDTO>> syncMeals(
+            @Parameter(description = "同步游标") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "500") int limit) {
+        try {
+            MealSyncDTO result = mealSyncService.sync(cursor, limit);
+            return ResponseEntity.ok(
+                    com.example.helper.Common.Util.ApiResponse.success("增量同步成功", result));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("增量同步失败", e);
+            throw new BusinessException(500, "增量同步失败: " + e.getMessage());
+        }
+    }
+
+    // 订阅菜品变更
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "订阅菜品变更",
+            description = "以 SSE 推送菜品的创建、更新、删除和选中切换，短时间内同一菜品的多次变更合并为一条；收到 resync 事件时应重新拉取菜品列表")
+    @ApiResponse(responseCode = "503", description = "订阅数量已达上限")
+    public SseEmitter streamMealChanges() {
+        try {
+            return mealChangeFeedService.subscribe();
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("订阅菜品变更失败", e);
+            throw new BusinessException(500, "订阅菜品变更失败: " + e.getMessage());
+        }
+    }
+
+    // 相似菜品
+    @GetMapping("/{id}/similar")
+    @Operation(summary = "相似菜品", description = "返回营养组成与指定菜品最接近的 k 个菜品，可用于替换建议")
+    @ApiResponse(responseCode = "404", description = "菜品不存在")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<List<SimilarMealDTO>>>
+            getSimilarMeals(
+                    @Parameter(description = "菜品ID") @PathVariable Long id,
+                    @Parameter(description = "返回数量") @RequestParam(defaultValue = "10") int k) {
+        try {
+            List<SimilarMealDTO> meals = toSimilarMeals(mealSimilarityService.findSimilar(id, k));
+            return ResponseEntity.ok(
+                    com.example.helper.Common.Util.ApiResponse.success("获取相似菜品成功", meals));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("获取相似菜品失败，ID: {}", id, e);
+            throw new BusinessException(500, "获取相似菜品失败: " + e.getMessage());
+        }
+    }
+
+    // 按营养组成查询相似菜品
+    @PostMapping("/similar")
+    @Operation(summary = "按营养组成查询相似菜品", description = "返回与给定营养组成最接近的 k 个菜品，只按给出的营养成分计算距离")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<List<SimilarMealDTO>>>
+            getSimilarMealsByProfile(
+                    @Parameter(description = "营养组成") @RequestBody SimilarMealQueryDTO query) {
+        try {
+            int k = query.getK() == null ? 10 : query.getK();
+            List<SimilarMealDTO> meals =
+                    toSimilarMeals(mealSimilarityService.findSimilar(query.getProfile(), k));
+            return ResponseEntity.ok(
+                    com.example.helper.Common.Util.ApiResponse.success("获取相似菜品成功", meals));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("按营养组成查询相似菜品失败", e);
+            throw new BusinessException(500, "查询相似菜品失败: " + e.getMessage());
+        }
+    }
+
+    // 配餐优化
+    @PostMapping("/plan")
+    @OperationLog(
+            businessType = BusinessTypeEnum.NUTRITION_ANALYSIS,
+            operationType = OperationTypeEnum.ANALYZE)
+    @Operation(summary = "配餐优化", description = "根据每日营养目标区间，从菜品目录中挑选最优的菜品组合")
+    public ResponseEntity<com.example.helper.Common.Util.ApiResponse<MealPlanResultDTO>> planMeals(
+            @Parameter(description = "营养目标") @RequestBody MealPlanRequestDTO request) {
+        try {
+            MealPlanResultDTO result = mealPlanService.optimize(request);
+            return ResponseEntity.ok(
+                    com.example.helper.Common.Util.ApiResponse.success("配餐优化成功", result));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("配餐优化失败", e);
+            throw new BusinessException(500, "配餐优化失败: " + e.getMessage());
+        }
+    }
+
     // 统计菜品信息
     @GetMapping("/statistics")
-    @Operation(summary = "获取菜品统计信息", description = "返回菜品的各种统计数据")
+    @Operation(summary = "获取菜品统计信息", description = "返回菜品数量及全量/已选菜品各营养成分的分布统计")
     public ResponseEntity<com.example.helper.Common.Util.ApiResponse<Map<String, Object>>>
             getMealStatistics() {
         try {
-            long totalMeals = mealService.countMeals();
-            long selectedMeals = mealService.countSelectedMeals();
+            MealStatisticsService.Snapshot snapshot = mealStatisticsService.getStatistics();
+            long totalMeals = snapshot.getTotalMeals();
+            long selectedMeals = snapshot.getSelectedMeals();
 
             Map<String, Object> statistics =
                     Map.of(
@@ -297,7 +735,13 @@ public class MealController {
                             "unselectedMeals",
                             totalMeals - selectedMeals,
                             "selectionRate",
-                            totalMeals > 0 ? (double) selectedMeals / totalMeals * 100 : 0.0);
+                            totalMeals > 0 ? (double) selectedMeals / totalMeals * 100 : 0.0,
+                            "nutrients",
+                            snapshot.getNutrients(),
+                            "selectedNutrients",
+                            snapshot.getSelectedNutrients(),
+                            "generatedAt",
+                            snapshot.getGeneratedAt());
 
             return ResponseEntity.ok(
                     com.example.helper.Common.Util.ApiResponse.success("获取统计信息成功", statistics));
@@ -306,4 +750,40 @@ public class MealController {
             throw new BusinessException(500, "获取统计信息失败: " + e.getMessage());
         }
     }
+
+    @GetMapping("/cache/statistics")
+    @Operation(summary = "获取菜品缓存统计", description = "返回菜品实体缓存和查询缓存区域的命中、未命中和写入次数")
+    public ResponseEntity<
+                    com.example.helper.Common.Util.ApiResponse<List<CacheRegionStatisticsDTO>>>
+            getCacheStatistics() {
+        try {
+            List<CacheRegionStatisticsDTO> statistics = mealCacheService.getRegionStatistics();
+            return ResponseEntity.ok(
+                    com.example.helper.Common.Util.ApiResponse.success("获取缓存统计成功", statistics));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("获取缓存统计失败", e);
+            throw new BusinessException(500, "获取缓存统计失败: " + e.getMessage());
+        }
+    }
+
+    // 按索引返回的顺序加载菜品详情，跳过查询期间已被删除的菜品
+    private List<SimilarMealDTO> toSimilarMeals(List<MealSimilarityService.Neighbor> neighbors) {
+        List<Long> ids = neighbors.stream().map(MealSimilarityService.Neighbor::getMealId).toList();
+        Map<Long, Meal> mealsById =
+                mealService.getMealsByIds(ids).stream()
+                        .collect(Collectors.toMap(Meal::getId, meal -> meal));
+        List<SimilarMealDTO> result = new ArrayList<>(neighbors.size());
+        for (MealSimilarityService.Neighbor neighbor : neighbors) {
+            Meal meal = mealsById.get(neighbor.getMealId());
+            if (meal != null) {
+                SimilarMealDTO dto = new SimilarMealDTO();
+                dto.setMeal(MealMapper.toDTO(meal));
+                dto.setDistance(Math.round(neighbor.getDistance() * 10000) / 10000.0);
+                result.add(dto);
+            }
+        }
+        return result;
+    }
 }
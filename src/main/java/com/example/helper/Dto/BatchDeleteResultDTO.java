@@ -0,0 +1,20 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BatchDeleteResultDTO {
+
+    private Integer requestedCount;
+    private Integer deletedCount;
+
+    // 请求中不存在（或已被删除）的菜品ID
+    private List<Long> missingIds;
+}
@@ -0,0 +1,36 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class ErrorGroupDTO {
+
+    private String fingerprint;
+
+    // 统计窗口内的次数及其高估上界，实际次数在 [windowCount - windowCountError, windowCount] 之间
+    private Long windowCount;
+    private Long windowCountError;
+
+    // 本节点启动以来的累计次数及首次、最近出现时间
+    private Long totalCount;
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+
+    private String exceptionClass;
+    private String rootCauseClass;
+
+    // 首次出现时的样本
+    private String sampleMessage;
+    private List<String> frames;
+    private String sampleMethod;
+    private String businessType;
+    private String sampleUserId;
+}
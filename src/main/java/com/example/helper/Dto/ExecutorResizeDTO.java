@@ -0,0 +1,21 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "线程池大小调整请求DTO，字段为空时保持不变")
+public class ExecutorResizeDTO {
+
+    @Schema(description = "核心线程数")
+    private Integer corePoolSize;
+
+    @Schema(description = "最大线程数")
+    private Integer maxPoolSize;
+
+    @Schema(description = "队列容量")
+    private Integer queueCapacity;
+}
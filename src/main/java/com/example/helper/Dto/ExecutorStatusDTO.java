@@ -0,0 +1,35 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class ExecutorStatusDTO {
+
+    private String name;
+
+    private Integer corePoolSize;
+    private Integer maxPoolSize;
+    private Integer poolSize;
+    private Integer activeCount;
+
+    private Integer queueSize;
+    private Integer queueCapacity;
+
+    private Long completedTaskCount;
+    private Long rejectedCount;
+
+    // 启动以来的平均值；最大值为最近一个统计窗口内的
+    private Double meanWaitMs;
+    private Double maxWaitMs;
+    private Double meanExecutionMs;
+    private Double maxExecutionMs;
+
+    // 自动调整开启时核心线程数的调整范围
+    private Integer minCorePoolSize;
+    private Integer maxCorePoolSize;
+}
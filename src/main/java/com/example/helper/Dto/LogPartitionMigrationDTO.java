@@ -0,0 +1,22 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class LogPartitionMigrationDTO {
+
+    // 迁移前是否已分区（或不是 MySQL），为 true 时无需迁移
+    private Boolean skipped;
+
+    // 需要执行的语句，dryRun 时只返回不执行
+    private List<String> statements;
+
+    private Boolean executed;
+}
@@ -0,0 +1,47 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class LogPipelineStatisticsDTO {
+
+    private Boolean enabled;
+    private String overflowPolicy;
+    private Integer bufferCapacity;
+    private Integer bufferSize;
+
+    // 提交、溢出丢弃、采样舍弃的日志数
+    private Long submittedCount;
+    private Long droppedCount;
+    private Long sampledOutCount;
+
+    // 写入成功、写入失败的日志数及批次数
+    private Long writtenCount;
+    private Long failedCount;
+    private Long batchCount;
+
+    // 最近一批序列化与写入耗时
+    private Long lastBatchMillis;
+
+    // 参数与结果：未采中、被截断、被压缩的日志数
+    private Long payloadSampledOutCount;
+    private Long payloadTruncatedCount;
+    private Long payloadCompressedCount;
+
+    // 参数与结果序列化后的原始字节数、实际存储字节数及节省的字节数（不含未采中的）
+    private Long payloadOriginalBytes;
+    private Long payloadStoredBytes;
+    private Long payloadSavedBytes;
+    private Map<String, Long> payloadSavedBytesByBusinessType;
+
+    // 实时跟踪订阅者数量及因缓冲区满丢弃的日志数
+    private Integer tailSubscriberCount;
+    private Long tailDroppedCount;
+}
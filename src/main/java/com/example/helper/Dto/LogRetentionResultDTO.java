@@ -0,0 +1,25 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class LogRetentionResultDTO {
+
+    // 早于该时间的日志已归档并清理
+    private LocalDateTime cutoff;
+
+    private Boolean partitioned;
+    private Long archivedCount;
+
+    // 按分区清理时删除的分区，未分区时为按时间删除的行数
+    private List<String> droppedPartitions;
+    private Long deletedCount;
+}
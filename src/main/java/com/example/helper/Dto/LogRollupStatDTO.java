@@ -0,0 +1,22 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class LogRollupStatDTO {
+
+    private String businessType;
+    private String operationType;
+    private String status;
+
+    private Long count;
+
+    // 执行耗时（毫秒）
+    private Long avgExecuteTime;
+    private Long maxExecuteTime;
+}
@@ -0,0 +1,31 @@
+package com.example.helper.Dto;
+
+import com.example.helper.Common.Enum.MealChangeTypeEnum;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.List;
+
+/** 菜品变更推送批次，同一窗口内对同一菜品的多次变更合并为一条 */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class MealChangeBatchDTO {
+
+    // 本节点推送批次序号，单调递增
+    private Long sequence;
+
+    // 菜品目录版本号
+    private Long version;
+
+    private List<Change> changes;
+
+    @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class Change {
+        private Long mealId;
+        private MealChangeTypeEnum type;
+    }
+}
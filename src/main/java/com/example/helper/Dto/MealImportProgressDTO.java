@@ -0,0 +1,39 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class MealImportProgressDTO {
+
+    private String jobId;
+    private String format;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private Long totalRows;
+    private Long importedRows;
+    private Long failedRows;
+    private Long elapsedMs;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    private List<RowError> errors;
+
+    @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class RowError {
+        private Long line;
+        private String message;
+
+        public RowError(Long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "配餐优化请求DTO")
+public class MealPlanRequestDTO {
+
+    @Schema(
+            description = "各营养成分的每日目标区间，键为营养编码（如 energy、protein、salt）",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private Map<String, NutrientRange> targets;
+
+    @Schema(description = "方案最少菜品数，默认 1")
+    private Integer minMeals;
+
+    @Schema(description = "方案最多菜品数，默认 5")
+    private Integer maxMeals;
+
+    @Schema(description = "求解时间上限（毫秒），默认 150")
+    private Long timeLimitMs;
+
+    @Schema(description = "是否只从已选中的菜品中挑选")
+    private Boolean selectedOnly;
+
+    @Data
+    @Schema(description = "营养目标区间，min/max 均可省略")
+    public static class NutrientRange {
+        private BigDecimal min;
+        private BigDecimal max;
+    }
+}
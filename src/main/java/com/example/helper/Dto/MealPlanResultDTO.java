@@ -0,0 +1,34 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class MealPlanResultDTO {
+
+    private List<MealDTO> meals;
+
+    // 方案各营养成分合计
+    private Map<String, BigDecimal> totals;
+
+    // 超出目标区间的营养成分及超出量（低于下限为负数）
+    private Map<String, BigDecimal> violations;
+
+    private Boolean feasible;
+    private Double score;
+    private Long iterations;
+    private Integer workers;
+    private Integer candidateCount;
+
+    // 因缺少受上限约束的营养数据而未参与挑选的菜品数
+    private Integer excludedCount;
+    private Long elapsedMs;
+}
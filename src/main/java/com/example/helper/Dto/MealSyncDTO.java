@@ -0,0 +1,27 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.List;
+
+/** 增量同步结果：自游标以来新增或修改的菜品，以及已删除的菜品ID */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class MealSyncDTO {
+
+    private List<MealDTO> meals;
+    private List<Long> deletedIds;
+
+    // 下次同步使用的游标
+    private String nextCursor;
+
+    // 为 true 时应立即使用 next_cursor 继续拉取
+    private Boolean hasMore;
+
+    // 为 true 表示游标已超过变更日志保留期（或来自旧版本），客户端应清空本地数据后从本页开始全量同步
+    private Boolean reset;
+}
@@ -0,0 +1,31 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class NutrientStatisticsDTO {
+
+    private Long count;
+    private Double min;
+    private Double max;
+    private Double mean;
+    private Double p10;
+    private Double p50;
+    private Double p90;
+    private List<HistogramBin> histogram;
+
+    @Data
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class HistogramBin {
+        private Double lower;
+        private Double upper;
+        private Long count;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.helper.Dto;
+
+import com.example.helper.Common.Enum.SelectionActionEnum;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@Schema(description = "批量选中操作请求DTO")
+public class SelectionRequestDTO {
+
+    @Schema(
+            description = "操作类型：SELECT、DESELECT、INVERT",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private SelectionActionEnum action;
+
+    @Schema(description = "菜品ID列表（与 keyword 二选一）")
+    private List<Long> ids;
+
+    @Schema(description = "按标题关键字筛选（与 ids 二选一，不能为空；%、_ 按字面匹配）")
+    private String keyword;
+}
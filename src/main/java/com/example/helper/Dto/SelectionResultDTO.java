@@ -0,0 +1,21 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class SelectionResultDTO {
+
+    private String action;
+    private Integer affectedCount;
+    private Long selectedCount;
+
+    // 按ID操作时返回这些ID中当前处于选中状态的菜品
+    private List<Long> selectedIds;
+}
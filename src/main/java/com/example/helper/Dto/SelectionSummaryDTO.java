@@ -0,0 +1,25 @@
+package com.example.helper.Dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class SelectionSummaryDTO {
+
+    // 按用户统计时为请求头中的用户ID，全局选中状态时为空
+    private String userId;
+
+    private Long selectedCount;
+    private Long totalMeals;
+
+    // 选中菜品各营养成分合计与平均值
+    private Map<String, BigDecimal> totals;
+    private Map<String, BigDecimal> averages;
+}
@@ -0,0 +1,22 @@
+package com.example.helper.Dto;
+
+import com.example.helper.Entity.SystemLog;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+import java.util.List;
+
+/** 按创建时间倒序的日志键集分页结果 */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class SystemLogPageDTO {
+
+    private List<SystemLog> logs;
+
+    // 下一页游标，has_more 为 false 时为空
+    private String nextCursor;
+    private Boolean hasMore;
+}
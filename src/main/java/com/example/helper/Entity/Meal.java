@@ -10,17 +10,26 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Data
 @Entity
-@Table(name = "meals")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Meal.CACHE_REGION)
+@Table(
+        name = "meals",
+        indexes = @Index(name = "idx_meals_checked", columnList = "checked"))
 @EqualsAndHashCode(callSuper = false)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 public class Meal extends BaseEntity {
 
+    // 二级缓存区域名，对应 hibernate-jcache.conf 中的配置
+    public static final String CACHE_REGION = "meal";
+
     @NotBlank(message = "菜品标题不能为空")
     @Size(max = 100, message = "菜品标题长度不能超过100个字符")
     @Column(name = "title", nullable = false, length = 100)
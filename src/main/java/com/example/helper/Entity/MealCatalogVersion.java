@@ -0,0 +1,33 @@
+package com.example.helper.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** 菜品目录元数据，单行表：记录变更日志已清理到的位置；目录版本号由变更日志的 seq 推导，见 MealCatalogVersionService */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "meal_catalog_version")
+public class MealCatalogVersion {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    // 行的创建时间，变更日志为空时作为 Last-Modified
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // 变更日志中 seq 不超过该值的记录已被清理，早于它的同步游标需要重新全量同步
+    @Column(name = "compacted_seq", nullable = false)
+    private Long compactedSeq;
+
+    public MealCatalogVersion(Long id) {
+        this.id = id;
+        this.updatedAt = LocalDateTime.now();
+        this.compactedSeq = 0L;
+    }
+}
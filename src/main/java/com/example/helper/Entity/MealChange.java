@@ -0,0 +1,36 @@
+package com.example.helper.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 菜品变更日志，每个变更的菜品一行，供增量同步按 seq 分页
+ *
+ * <p>由 MealChangeLogService 在写事务提交前写入。seq 的先后与提交顺序不一定一致，回滚还会留下空洞，
+ * 读取方只信任 MealCatalogVersionService 维护的水位之前的部分。
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(
+        name = "meal_changes",
+        indexes = @Index(name = "idx_meal_changes_changed_at", columnList = "changed_at"))
+public class MealChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "meal_id", nullable = false)
+    private Long mealId;
+
+    @Column(name = "change_type", length = 10, nullable = false)
+    private String changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -8,7 +8,16 @@ import lombok.EqualsAndHashCode;
 
 @Data
 @Entity
-@Table(name = "system_logs")
+@Table(
+        name = "system_logs",
+        indexes = {
+            // InnoDB 二级索引隐含主键列，按 (created_at, id) 倒序的键集分页可直接走索引
+            @Index(
+                    name = "idx_system_logs_business_type_created_at",
+                    columnList = "business_type, created_at"),
+            @Index(name = "idx_system_logs_user_id_created_at", columnList = "user_id, created_at"),
+            @Index(name = "idx_system_logs_created_at", columnList = "created_at")
+        })
 @EqualsAndHashCode(callSuper = true)
 public class SystemLog extends BaseEntity {
 
@@ -0,0 +1,53 @@
+// SystemLogRollup.java
+package com.example.helper.Entity;
+
+import com.example.helper.Common.Base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/** 操作日志按分钟、小时汇总的计数，由日志写入线程增量维护 */
+@Data
+@Entity
+@Table(
+        name = "system_log_rollups",
+        uniqueConstraints =
+                @UniqueConstraint(
+                        name = "uk_system_log_rollups_bucket",
+                        columnNames = {
+                            "granularity",
+                            "bucket_start",
+                            "business_type",
+                            "operation_type",
+                            "status"
+                        }))
+@EqualsAndHashCode(callSuper = true)
+public class SystemLogRollup extends BaseEntity {
+
+    @Column(name = "granularity", length = 10, nullable = false)
+    private String granularity; // MINUTE, HOUR
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "business_type", length = 20, nullable = false)
+    private String businessType;
+
+    @Column(name = "operation_type", length = 20, nullable = false)
+    private String operationType;
+
+    @Column(name = "status", length = 10, nullable = false)
+    private String status;
+
+    @Column(name = "log_count", nullable = false)
+    private Long logCount;
+
+    // 耗时合计，与 logCount 相除得到平均耗时
+    @Column(name = "total_execute_time", nullable = false)
+    private Long totalExecuteTime;
+
+    @Column(name = "max_execute_time", nullable = false)
+    private Long maxExecuteTime;
+}
@@ -0,0 +1,30 @@
+package com.example.helper.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** 操作日志汇总重建标记，单行表；认领重建的节点写入截止ID，重建提交时记录完成时间，其他节点据此跳过重建 */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "system_log_rollup_backfill")
+public class SystemLogRollupBackfill {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    // 只重建ID不超过该值的日志，之后写入的日志由各节点的写入线程增量累加
+    @Column(name = "cutoff_id", nullable = false)
+    private Long cutoffId;
+
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+
+    // 为空表示重建尚未完成（或认领的节点中途退出），下次启动时继续
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
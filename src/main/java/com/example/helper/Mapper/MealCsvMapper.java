@@ -0,0 +1,172 @@
+package com.example.helper.Mapper;
+
+import com.example.helper.Entity.Meal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MealCsvMapper {
+
+    // CSV 列顺序（导出与导入共用）
+    public static final String[] COLUMNS = {
+        "id",
+        "title",
+        "image_url",
+        "energy",
+        "protein",
+        "trans_fat",
+        "saturated_fat",
+        "carbohydrate",
+        "added_sugar",
+        "salt",
+        "dietary_fiber",
+        "checked",
+        "created_at",
+        "updated_at"
+    };
+
+    public static final String HEADER = String.join(",", COLUMNS);
+
+    // 将菜品写为一行 CSV（不含换行符）
+    public static void appendCsvLine(StringBuilder sb, Meal meal) {
+        appendValue(sb, meal.getId()).append(',');
+        appendText(sb, meal.getTitle()).append(',');
+        appendText(sb, meal.getImageUrl()).append(',');
+        appendValue(sb, meal.getEnergy()).append(',');
+        appendValue(sb, meal.getProtein()).append(',');
+        appendValue(sb, meal.getTransFat()).append(',');
+        appendValue(sb, meal.getSaturatedFat()).append(',');
+        appendValue(sb, meal.getCarbohydrate()).append(',');
+        appendValue(sb, meal.getAddedSugar()).append(',');
+        appendValue(sb, meal.getSalt()).append(',');
+        appendValue(sb, meal.getDietaryFiber()).append(',');
+        appendValue(sb, meal.getChecked()).append(',');
+        appendValue(sb, meal.getCreatedAt()).append(',');
+        appendValue(sb, meal.getUpdatedAt());
+    }
+
+    private static StringBuilder appendValue(StringBuilder sb, Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return sb.append(decimal.toPlainString());
+        }
+        return value == null ? sb : sb.append(value);
+    }
+
+    // 按 RFC 4180 转义文本字段
+    private static StringBuilder appendText(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb;
+        }
+        boolean quote =
+                value.indexOf(',') >= 0
+                        || value.indexOf('"') >= 0
+                        || value.indexOf('\n') >= 0
+                        || value.indexOf('\r') >= 0;
+        if (!quote) {
+            return sb.append(value);
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    // 解析表头，返回列名到下标的映射
+    public static Map<String, Integer> parseHeader(String headerLine) {
+        List<String> names = splitCsvLine(headerLine);
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columnIndex.put(names.get(i).trim().toLowerCase(), i);
+        }
+        return columnIndex;
+    }
+
+    // 根据表头映射解析一行 CSV 为菜品（id 与时间列会被忽略，由数据库生成）
+    public static Meal fromCsvLine(String line, Map<String, Integer> columnIndex) {
+        List<String> values = splitCsvLine(line);
+        Meal meal = new Meal();
+        meal.setTitle(text(values, columnIndex, "title"));
+        meal.setImageUrl(text(values, columnIndex, "image_url"));
+        meal.setEnergy(decimal(values, columnIndex, "energy"));
+        meal.setProtein(decimal(values, columnIndex, "protein"));
+        meal.setTransFat(decimal(values, columnIndex, "trans_fat"));
+        meal.setSaturatedFat(decimal(values, columnIndex, "saturated_fat"));
+        meal.setCarbohydrate(decimal(values, columnIndex, "carbohydrate"));
+        meal.setAddedSugar(decimal(values, columnIndex, "added_sugar"));
+        meal.setSalt(decimal(values, columnIndex, "salt"));
+        meal.setDietaryFiber(decimal(values, columnIndex, "dietary_fiber"));
+        String checked = text(values, columnIndex, "checked");
+        meal.setChecked(checked != null && Boolean.parseBoolean(checked.trim()));
+        return meal;
+    }
+
+    // 判断记录中的引号是否闭合（未闭合说明字段内含换行，需要拼接下一行）
+    public static boolean isRecordComplete(CharSequence record) {
+        int quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 == 0;
+    }
+
+    // 按 RFC 4180 拆分一行 CSV
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    inQuotes = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String text(
+            List<String> values, Map<String, Integer> columnIndex, String column) {
+        Integer index = columnIndex.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private static BigDecimal decimal(
+            List<String> values, Map<String, Integer> columnIndex, String column) {
+        String value = text(values, columnIndex, column);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " 不是有效数字: " + value);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.helper.Repository;
+
+import com.example.helper.Entity.MealCatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface MealCatalogVersionRepository extends JpaRepository<MealCatalogVersion, Long> {
+
+    /** 推进变更日志的清理位置（只增不减） */
+    @Modifying
+    @Query(
+            "UPDATE MealCatalogVersion v SET v.compactedSeq = :seq WHERE v.id = :id AND"
+                    + " v.compactedSeq < :seq")
+    int advanceCompactedSeq(@Param("id") Long id, @Param("seq") Long seq);
+
+    @Query("SELECT v.compactedSeq FROM MealCatalogVersion v WHERE v.id = :id")
+    Long findCompactedSeq(@Param("id") Long id);
+
+    /** 版本行的创建时间，变更日志为空时作为 Last-Modified */
+    @Query("SELECT v.updatedAt FROM MealCatalogVersion v WHERE v.id = :id")
+    Optional<LocalDateTime> findUpdatedAt(@Param("id") Long id);
+}
@@ -0,0 +1,46 @@
+package com.example.helper.Repository;
+
+import com.example.helper.Entity.MealChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MealChangeRepository extends JpaRepository<MealChange, Long> {
+
+    /** 按 seq 查询 (after, upTo] 范围内的变更 */
+    @Query("SELECT c FROM MealChange c WHERE c.seq > :after AND c.seq <= :upTo ORDER BY c.seq")
+    List<MealChange> findBetween(
+            @Param("after") Long after, @Param("upTo") Long upTo, Pageable pageable);
+
+    /** 按 seq 查询之后已提交的日志位置，只读 seq 与写入时间，用于推进目录版本的水位 */
+    @Query(
+            "SELECT c.seq AS seq, c.changedAt AS changedAt FROM MealChange c WHERE c.seq > :seq"
+                    + " ORDER BY c.seq")
+    List<SeqState> findSeqStatesAfter(@Param("seq") Long seq, Pageable pageable);
+
+    /** 最近一条日志的写入时间（数据库时钟），没有记录时为 null */
+    @Query("SELECT MAX(c.changedAt) FROM MealChange c")
+    LocalDateTime findMaxChangedAt();
+
+    /** 早于指定时间的最大 seq，用于确定清理范围 */
+    @Query("SELECT MAX(c.seq) FROM MealChange c WHERE c.changedAt < :before")
+    Long findMaxSeqBefore(@Param("before") LocalDateTime before);
+
+    /** 删除 seq 不超过指定值的变更 */
+    @Modifying
+    @Query("DELETE FROM MealChange c WHERE c.seq <= :seq")
+    int deleteThrough(@Param("seq") Long seq);
+
+    interface SeqState {
+        Long getSeq();
+
+        LocalDateTime getChangedAt();
+    }
+}
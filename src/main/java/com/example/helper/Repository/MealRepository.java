@@ -1,25 +1,152 @@
 package com.example.helper.Repository;
 
 import com.example.helper.Entity.Meal;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MealRepository extends JpaRepository<Meal, Long> {
 
+    // 流式读取的 JDBC fetch size（MySQL 需开启 useCursorFetch）
+    String STREAM_FETCH_SIZE = "500";
+
+    // 查询缓存区域名，对应 hibernate-jcache.conf 中的配置；meals 表有写入时整个区域的结果自动失效
+    String QUERY_CACHE_REGION = "meal-queries";
+
+    // LIKE 的转义字符；不用反斜杠，MySQL 字符串字面量中反斜杠本身需要转义
+    char LIKE_ESCAPE = '!';
+
+    /** 将关键字转义为"包含"匹配的 LIKE 模式，关键字中的 %、_ 按字面匹配 */
+    static String containsPattern(String keyword) {
+        StringBuilder pattern = new StringBuilder(keyword.length() + 2).append('%');
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
     // 查询所有已选中的菜品
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<Meal> findByCheckedTrue();
 
-    // 分页查询所有已选中的菜品
+    // 分页查询所有已选中的菜品（分页的计数查询同样走查询缓存）
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     Page<Meal> findByCheckedTrue(Pageable pageable);
 
     // 根据标题模糊查询菜品
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<Meal> findByTitleContaining(String title);
 
+    // 根据标题模糊查询菜品ID（按用户批量选中时使用，不加载实体；pattern 由 containsPattern 生成）
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query("SELECT m.id FROM Meal m WHERE m.title LIKE :pattern ESCAPE '!'")
+    List<Long> findIdsByTitleLike(@Param("pattern") String pattern);
+
     // 统计已选中的菜品数量
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     long countByCheckedTrue();
+
+    // 按ID顺序流式读取营养投影：id, checked 以及 NutrientEnum 顺序的八项营养值，不构造实体
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(
+            "SELECT m.id, m.checked, m.energy, m.protein, m.transFat, m.saturatedFat,"
+                    + " m.carbohydrate, m.addedSugar, m.salt, m.dietaryFiber FROM Meal m"
+                    + " ORDER BY m.id")
+    Stream<Object[]> streamNutrientRows();
+
+    // 按ID顺序流式读取全部菜品（仅向前游标，调用方需在只读事务内消费并及时 detach）
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Meal m ORDER BY m.id")
+    Stream<Meal> streamAllOrderById();
+
+    // 按选中状态流式读取菜品
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Meal m WHERE m.checked = :checked ORDER BY m.id")
+    Stream<Meal> streamByCheckedOrderById(@Param("checked") Boolean checked);
+
+    // 按ID键集分页查询菜品（增量同步的全量快照阶段）
+    List<Meal> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // 按ID查询菜品，直接读数据库，不使用二级缓存中可能落后于其他节点提交的实体
+    @Query("SELECT m FROM Meal m WHERE m.id IN :ids")
+    List<Meal> findByIdInBypassingCache(@Param("ids") Collection<Long> ids);
+
+    // 查询给定ID中选中状态需要改变的菜品ID并加行锁，只对实际更新的菜品发布变更
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m.id FROM Meal m WHERE m.id IN :ids AND m.checked <> :checked")
+    List<Long> findIdsToUpdateChecked(
+            @Param("ids") List<Long> ids, @Param("checked") Boolean checked);
+
+    // 按标题模糊查询选中状态需要改变的菜品ID并加行锁
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+            "SELECT m.id FROM Meal m WHERE m.title LIKE :pattern ESCAPE '!' AND m.checked <>"
+                    + " :checked ORDER BY m.id")
+    List<Long> findIdsToUpdateCheckedByTitleLike(
+            @Param("pattern") String pattern, @Param("checked") Boolean checked);
+
+    // 按标题模糊查询菜品ID并加行锁（反选时使用）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m.id FROM Meal m WHERE m.title LIKE :pattern ESCAPE '!' ORDER BY m.id")
+    List<Long> findIdsByTitleLikeForUpdate(@Param("pattern") String pattern);
+
+    // 查询给定ID中存在的菜品ID并加行锁，避免并发删除同一菜品时重复写入删除记录
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m.id FROM Meal m WHERE m.id IN :ids")
+    List<Long> findExistingIdsIn(@Param("ids") List<Long> ids);
+
+    // 按ID批量删除（单条 DELETE，不加载实体；Hibernate 随之清除菜品缓存区域并失效相关查询缓存）
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Meal m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    // 当前最大的菜品ID，没有菜品时为 null（按用户选中位图的下标上限）
+    @Query("SELECT MAX(m.id) FROM Meal m")
+    Long findMaxId();
+
+    // 查询给定ID中处于选中状态的菜品ID
+    @Query("SELECT m.id FROM Meal m WHERE m.id IN :ids AND m.checked = true")
+    List<Long> findCheckedIdsIn(@Param("ids") List<Long> ids);
 }
@@ -2,21 +2,34 @@
 package com.example.helper.Repository;
 
 import com.example.helper.Entity.SystemLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SystemLogRepository extends JpaRepository<SystemLog, Long> {
 
-    /**
-     * 根据业务类型查询日志
-     */
-    List<SystemLog> findByBusinessTypeOrderByCreatedAtDesc(String businessType);
+    // 流式读取的 JDBC fetch size（MySQL 需开启 useCursorFetch）
+    String STREAM_FETCH_SIZE = "500";
+
+    // 按 (createdAt, id) 倒序的键集分页查询
+    String KEYSET_QUERY =
+            "SELECT sl FROM SystemLog sl WHERE (:userId IS NULL OR sl.userId = :userId)"
+                    + " AND (:businessType IS NULL OR sl.businessType = :businessType)"
+                    + " AND (:status IS NULL OR sl.status = :status)"
+                    + " AND (:from IS NULL OR sl.createdAt >= :from)"
+                    + " AND (sl.createdAt < :beforeTime OR (sl.createdAt = :beforeTime AND sl.id < :beforeId))"
+                    + " ORDER BY sl.createdAt DESC, sl.id DESC";
 
     /**
      * 根据用户ID查询日志
@@ -24,14 +37,32 @@ public interface SystemLogRepository extends JpaRepository<SystemLog, Long> {
     Page<SystemLog> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
 
     /**
-     * 统计错误日志数量
+     * 按条件倒序查询日志，(beforeTime, beforeId) 为不含的上界游标
+     * 条件为空时不过滤；指定用户或业务类型时分别走 (user_id, created_at)、(business_type, created_at) 索引
      */
-    @Query("SELECT COUNT(sl) FROM SystemLog sl WHERE sl.status = 'FAILED'")
-    Long countErrorLogs();
+    @Query(KEYSET_QUERY)
+    List<SystemLog> findBefore(
+            @Param("userId") String userId,
+            @Param("businessType") String businessType,
+            @Param("status") String status,
+            @Param("from") LocalDateTime from,
+            @Param("beforeTime") LocalDateTime beforeTime,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
 
     /**
-     * 统计各类业务操作数量
+     * 按条件倒序流式读取日志（仅向前游标，调用方需在只读事务内消费并及时 detach）
      */
-    @Query("SELECT sl.businessType, COUNT(sl) FROM SystemLog sl GROUP BY sl.businessType")
-    List<Object[]> countByBusinessType();
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(KEYSET_QUERY)
+    Stream<SystemLog> streamBefore(
+            @Param("userId") String userId,
+            @Param("businessType") String businessType,
+            @Param("status") String status,
+            @Param("from") LocalDateTime from,
+            @Param("beforeTime") LocalDateTime beforeTime,
+            @Param("beforeId") Long beforeId);
 }
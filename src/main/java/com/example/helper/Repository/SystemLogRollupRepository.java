@@ -0,0 +1,28 @@
+package com.example.helper.Repository;
+
+import com.example.helper.Entity.SystemLogRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SystemLogRollupRepository extends JpaRepository<SystemLogRollup, Long> {
+
+    /**
+     * 合计 [from, to) 内指定粒度的汇总，按业务类型、操作类型和状态分组
+     * 返回 [businessType, operationType, status, 日志数, 耗时合计, 最大耗时]
+     */
+    @Query(
+            "SELECT r.businessType, r.operationType, r.status, SUM(r.logCount),"
+                    + " SUM(r.totalExecuteTime), MAX(r.maxExecuteTime) FROM SystemLogRollup r"
+                    + " WHERE r.granularity = :granularity AND r.bucketStart >= :from AND"
+                    + " r.bucketStart < :to GROUP BY r.businessType, r.operationType, r.status")
+    List<Object[]> sumBetween(
+            @Param("granularity") String granularity,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+}
@@ -1,29 +1,62 @@
 // AIService.java
 package com.example.helper.Service;
 
+import com.example.helper.Common.Util.TraceContext;
 import com.example.helper.Config.DeepSeekConfig;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AIService {
 
     private final DeepSeekConfig deepSeekConfig;
     private final ObjectMapper objectMapper;
+    private final WebClient webClient;
+
+    // 流式响应从订阅到结束的总耗时（http.client.requests 只统计到响应头），按结束方式预先注册
+    private final Timer streamCompleteTimer;
+    private final Timer streamErrorTimer;
+    private final Timer streamCancelTimer;
+
+    public AIService(DeepSeekConfig deepSeekConfig, ObjectMapper objectMapper, WebClient.Builder webClientBuilder,
+                     MeterRegistry meterRegistry) {
+        this.deepSeekConfig = deepSeekConfig;
+        this.objectMapper = objectMapper;
+        this.streamCompleteTimer = streamTimer(meterRegistry, "SUCCESS");
+        this.streamErrorTimer = streamTimer(meterRegistry, "ERROR");
+        this.streamCancelTimer = streamTimer(meterRegistry, "CANCELLED");
+
+        // 使用 Spring 配置的 WebClient.Builder，客户端只创建一次；请求体始终使用紧凑 JSON
+        ObjectMapper compactMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.webClient = webClientBuilder
+                .baseUrl(deepSeekConfig.getBaseUrl())
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + deepSeekConfig.getApiKey())
+                .codecs(configurer -> configurer.defaultCodecs()
+                        .jackson2JsonEncoder(new Jackson2JsonEncoder(compactMapper, MediaType.APPLICATION_JSON)))
+                .filter(traceparentFilter())
+                .build();
+    }
 
     /**
      * 流式聊天
@@ -32,12 +65,6 @@ public class AIService {
      * @return 流式响应
      */
     public Flux<String> chatStream(List<Map<String, String>> messages, String systemPrompt) {
-        WebClient webClient = WebClient.builder()
-                .baseUrl(deepSeekConfig.getBaseUrl())
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + deepSeekConfig.getApiKey())
-                .build();
-
         // 构建请求体
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("model", deepSeekConfig.getDefaultModel());
@@ -49,6 +76,16 @@ public class AIService {
 
         log.info("发送流式请求到DeepSeek API: {}", deepSeekConfig.getBaseUrl());
 
+        return Flux.defer(() -> {
+            long startTime = System.nanoTime();
+            return doChatStream(requestBody)
+                    .doFinally(signal -> streamTimerOf(signal).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS));
+        })
+                // 订阅时捕获当前线程的跟踪上下文，Netty 线程上的回调日志也能带上 traceId
+                .contextCapture();
+    }
+
+    private Flux<String> doChatStream(Map<String, Object> requestBody) {
         return webClient.post()
                 .uri("/chat/completions")
                 .bodyValue(requestBody)
@@ -73,6 +110,33 @@ public class AIService {
                 .doOnError(error -> log.error("流式响应出错: {}", error.getMessage(), error));
     }
 
+    // 下游请求携带当前请求的 traceparent，便于在 DeepSeek 侧按同一 trace-id 关联
+    private static ExchangeFilterFunction traceparentFilter() {
+        return (request, next) -> {
+            TraceContext context = TraceContext.current();
+            if (context == null || request.headers().containsKey(TraceContext.TRACEPARENT_HEADER)) {
+                return next.exchange(request);
+            }
+            return next.exchange(ClientRequest.from(request)
+                    .header(TraceContext.TRACEPARENT_HEADER, context.toTraceparent())
+                    .build());
+        };
+    }
+
+    private static Timer streamTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("deepseek.chat.stream")
+                .description("DeepSeek 流式聊天从请求到响应结束的耗时")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer streamTimerOf(SignalType signal) {
+        if (signal == SignalType.ON_COMPLETE) {
+            return streamCompleteTimer;
+        }
+        return signal == SignalType.ON_ERROR ? streamErrorTimer : streamCancelTimer;
+    }
+
     /**
      * 构建完整的消息列表
      */
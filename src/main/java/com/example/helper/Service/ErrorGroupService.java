@@ -0,0 +1,197 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Event.OperationLogEvent;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.ErrorFingerprint;
+import com.example.helper.Common.Util.SpaceSavingSketch;
+import com.example.helper.Dto.ErrorGroupDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 失败操作按异常指纹分组统计
+ *
+ * <p>写入线程对每条失败日志的异常计算指纹，累加到当前分钟和当前小时的 Space-Saving 草图（分别保留最近 60 分钟、24 小时），
+ * 并记录每个指纹的首次、最近出现时间、累计次数和一条样本。查询时只合并窗口内的草图，不访问数据库。
+ */
+@Service
+public class ErrorGroupService {
+
+    public static final int MAX_WINDOW_MINUTES = 24 * 60;
+
+    private static final int MINUTE_SLOTS = 60;
+    private static final int HOUR_SLOTS = 24;
+
+    private final int topFrames;
+    private final int sketchCapacity;
+
+    // 按分钟、小时划分的草图环，slot 中记录所属的分钟或小时编号，过期时重置；受 this 锁保护
+    private final Slot[] minuteSlots = new Slot[MINUTE_SLOTS];
+    private final Slot[] hourSlots = new Slot[HOUR_SLOTS];
+
+    // 指纹详情，超过上限时淘汰最久未出现的
+    private final Cache<String, ErrorGroup> groups;
+
+    public ErrorGroupService(
+            @Value("${app.operation-log.errors.top-frames:5}") int topFrames,
+            @Value("${app.operation-log.errors.sketch-capacity:100}") int sketchCapacity,
+            @Value("${app.operation-log.errors.max-groups:1000}") int maxGroups) {
+        this.topFrames = topFrames;
+        this.sketchCapacity = sketchCapacity;
+        for (int i = 0; i < MINUTE_SLOTS; i++) {
+            minuteSlots[i] = new Slot(sketchCapacity);
+        }
+        for (int i = 0; i < HOUR_SLOTS; i++) {
+            hourSlots[i] = new Slot(sketchCapacity);
+        }
+        this.groups = Caffeine.newBuilder().maximumSize(maxGroups).build();
+    }
+
+    /** 记录一条失败日志（写入线程调用） */
+    public void record(OperationLogEvent event) {
+        Throwable exception = event.getException();
+        if (exception == null) {
+            return;
+        }
+        String fingerprint = ErrorFingerprint.of(exception, topFrames);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            slot(minuteSlots, TimeUnit.MILLISECONDS.toMinutes(now)).sketch.offer(fingerprint, 1);
+            slot(hourSlots, TimeUnit.MILLISECONDS.toHours(now)).sketch.offer(fingerprint, 1);
+        }
+
+        ErrorGroup group = groups.get(fingerprint, key -> new ErrorGroup(key, event, topFrames));
+        group.seen(event.getCreatedAt());
+    }
+
+    /**
+     * 最近 windowMinutes 分钟内次数最多的 limit 个错误分组
+     * 不超过 60 分钟时按分钟统计，否则按小时统计（向上取整到小时）
+     */
+    public List<ErrorGroupDTO> getTopErrors(int windowMinutes, int limit) {
+        if (windowMinutes < 1 || windowMinutes > MAX_WINDOW_MINUTES) {
+            throw new BusinessException(400, "统计窗口必须在 1 到 " + MAX_WINDOW_MINUTES + " 分钟之间");
+        }
+        if (limit < 1 || limit > sketchCapacity) {
+            throw new BusinessException(400, "limit 必须在 1 到 " + sketchCapacity + " 之间");
+        }
+        long now = System.currentTimeMillis();
+        SpaceSavingSketch<String> merged = new SpaceSavingSketch<>(sketchCapacity);
+        synchronized (this) {
+            if (windowMinutes <= MINUTE_SLOTS) {
+                mergeWindow(merged, minuteSlots, TimeUnit.MILLISECONDS.toMinutes(now), windowMinutes);
+            } else {
+                int hours = (windowMinutes + 59) / 60;
+                mergeWindow(merged, hourSlots, TimeUnit.MILLISECONDS.toHours(now), hours);
+            }
+        }
+
+        List<ErrorGroupDTO> result = new ArrayList<>(limit);
+        for (SpaceSavingSketch.Counter<String> counter : merged.top(limit)) {
+            ErrorGroup group = groups.getIfPresent(counter.getKey());
+            ErrorGroupDTO dto = group == null ? new ErrorGroupDTO() : group.toDTO();
+            dto.setFingerprint(counter.getKey());
+            dto.setWindowCount(counter.getCount());
+            dto.setWindowCountError(counter.getError());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /** 单个错误分组的详情与样本 */
+    public ErrorGroupDTO getGroup(String fingerprint) {
+        ErrorGroup group = groups.getIfPresent(fingerprint);
+        if (group == null) {
+            throw new BusinessException(404, "错误分组不存在: " + fingerprint);
+        }
+        return group.toDTO();
+    }
+
+    private static Slot slot(Slot[] slots, long bucket) {
+        Slot slot = slots[(int) (bucket % slots.length)];
+        if (slot.bucket != bucket) {
+            slot.sketch.clear();
+            slot.bucket = bucket;
+        }
+        return slot;
+    }
+
+    private static void mergeWindow(SpaceSavingSketch<String> merged, Slot[] slots, long current, int buckets) {
+        for (long bucket = current - buckets + 1; bucket <= current; bucket++) {
+            Slot slot = slots[(int) (bucket % slots.length)];
+            if (slot.bucket == bucket) {
+                merged.merge(slot.sketch);
+            }
+        }
+    }
+
+    private static final class Slot {
+        private final SpaceSavingSketch<String> sketch;
+        private long bucket = -1;
+
+        private Slot(int capacity) {
+            this.sketch = new SpaceSavingSketch<>(capacity);
+        }
+    }
+
+    // 单个指纹的累计信息，样本取首次出现的日志
+    private static final class ErrorGroup {
+        private final String fingerprint;
+        private final String exceptionClass;
+        private final String rootCauseClass;
+        private final String sampleMessage;
+        private final List<String> frames;
+        private final String sampleMethod;
+        private final String businessType;
+        private final String sampleUserId;
+        private final LocalDateTime firstSeen;
+        private volatile LocalDateTime lastSeen;
+        private volatile long totalCount;
+
+        private ErrorGroup(String fingerprint, OperationLogEvent event, int topFrames) {
+            Throwable exception = event.getException();
+            Throwable root = ErrorFingerprint.rootCause(exception);
+            this.fingerprint = fingerprint;
+            this.exceptionClass = exception.getClass().getName();
+            this.rootCauseClass = root.getClass().getName();
+            this.sampleMessage = root.getMessage();
+            this.frames = ErrorFingerprint.topFrames(exception, topFrames);
+            this.sampleMethod = event.getMethodName();
+            this.businessType = event.getBusinessType().getCode();
+            this.sampleUserId = event.getUserId();
+            this.firstSeen = event.getCreatedAt();
+            this.lastSeen = event.getCreatedAt();
+        }
+
+        // 只由写入线程调用
+        private void seen(LocalDateTime time) {
+            totalCount++;
+            if (time.isAfter(lastSeen)) {
+                lastSeen = time;
+            }
+        }
+
+        private ErrorGroupDTO toDTO() {
+            ErrorGroupDTO dto = new ErrorGroupDTO();
+            dto.setFingerprint(fingerprint);
+            dto.setExceptionClass(exceptionClass);
+            dto.setRootCauseClass(rootCauseClass);
+            dto.setSampleMessage(sampleMessage);
+            dto.setFrames(frames);
+            dto.setSampleMethod(sampleMethod);
+            dto.setBusinessType(businessType);
+            dto.setSampleUserId(sampleUserId);
+            dto.setFirstSeen(firstSeen);
+            dto.setLastSeen(lastSeen);
+            dto.setTotalCount(totalCount);
+            return dto;
+        }
+    }
+}
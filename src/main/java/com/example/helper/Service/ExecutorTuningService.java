@@ -0,0 +1,193 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Config.InstrumentedTaskExecutor;
+import com.example.helper.Dto.ExecutorResizeDTO;
+import com.example.helper.Dto.ExecutorStatusDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池状态查询、在线调整与自动调整
+ *
+ * <p>自动调整（app.executor.auto-tune.enabled）每个周期比较各线程池的平均等待时间、拒绝次数和线程利用率：
+ * 等待超过目标或出现拒绝时按当前核心线程数的 1/4（至少 1）扩大；等待很低且利用率偏低连续若干个周期后才逐步收缩回配置值，避免突发流量下来回抖动。
+ * 核心线程数不低于配置值、不超过配置的最大线程数 × max-growth-factor；手动调整后以新的大小作为基准。
+ */
+@Slf4j
+@Service
+public class ExecutorTuningService {
+
+    // 连续满足收缩条件的周期数达到该值才收缩
+    private static final int SHRINK_AFTER_TICKS = 3;
+
+    private final Map<String, Tuning> executors = new LinkedHashMap<>();
+
+    @Value("${app.executor.auto-tune.enabled:false}")
+    private boolean autoTuneEnabled;
+
+    @Value("${app.executor.auto-tune.target-wait-ms:50}")
+    private double targetWaitMs;
+
+    @Value("${app.executor.auto-tune.low-utilization:0.3}")
+    private double lowUtilization;
+
+    @Value("${app.executor.auto-tune.max-growth-factor:4}")
+    private int maxGrowthFactor;
+
+    public ExecutorTuningService(List<InstrumentedTaskExecutor> executors) {
+        for (InstrumentedTaskExecutor executor : executors) {
+            this.executors.put(executor.getName(), new Tuning(executor));
+        }
+    }
+
+    public List<ExecutorStatusDTO> getStatus() {
+        List<ExecutorStatusDTO> result = new ArrayList<>(executors.size());
+        for (Tuning tuning : executors.values()) {
+            result.add(toDTO(tuning));
+        }
+        return result;
+    }
+
+    public ExecutorStatusDTO getStatus(String name) {
+        return toDTO(find(name));
+    }
+
+    /** 手动调整线程池大小，新的大小同时作为自动调整的基准 */
+    public ExecutorStatusDTO resize(String name, ExecutorResizeDTO request) {
+        Tuning tuning = find(name);
+        synchronized (tuning) {
+            tuning.executor.resize(request.getCorePoolSize(), request.getMaxPoolSize(), request.getQueueCapacity());
+            tuning.resetBaseline();
+        }
+        log.info("线程池 {} 已调整: core={}, max={}, queue={}", name,
+                tuning.executor.getCorePoolSize(), tuning.executor.getMaxPoolSize(), tuning.executor.getQueueCapacity());
+        return toDTO(tuning);
+    }
+
+    @Scheduled(fixedDelayString = "${app.executor.auto-tune.interval-ms:30000}")
+    public void autoTune() {
+        if (!autoTuneEnabled) {
+            return;
+        }
+        for (Tuning tuning : executors.values()) {
+            synchronized (tuning) {
+                tune(tuning);
+            }
+        }
+    }
+
+    private void tune(Tuning tuning) {
+        InstrumentedTaskExecutor executor = tuning.executor;
+        long now = System.nanoTime();
+        long waitCount = executor.getWaitTimer().count();
+        double waitNanos = executor.getWaitTimer().totalTime(TimeUnit.NANOSECONDS);
+        double executionNanos = executor.getExecutionTimer().totalTime(TimeUnit.NANOSECONDS);
+        long rejected = executor.getRejectedCount();
+
+        long tasks = waitCount - tuning.lastWaitCount;
+        double meanWaitMs = tasks > 0 ? (waitNanos - tuning.lastWaitNanos) / tasks / 1_000_000 : 0;
+        long newlyRejected = rejected - tuning.lastRejected;
+        // 周期内执行时间之和 / (周期长度 × 核心线程数)，CallerRunsPolicy 下调用线程执行的部分也计入
+        double utilization = (executionNanos - tuning.lastExecutionNanos)
+                / ((double) (now - tuning.lastTickNanos) * executor.getCorePoolSize());
+
+        tuning.lastTickNanos = now;
+        tuning.lastWaitCount = waitCount;
+        tuning.lastWaitNanos = waitNanos;
+        tuning.lastExecutionNanos = executionNanos;
+        tuning.lastRejected = rejected;
+
+        int core = executor.getCorePoolSize();
+        int max = executor.getMaxPoolSize();
+        int step = Math.max(1, core / 4);
+        int ceiling = tuning.ceiling();
+        int newCore = core;
+        int newMax = max;
+        boolean calm = meanWaitMs < targetWaitMs / 4 && utilization < lowUtilization;
+        tuning.calmTicks = calm ? tuning.calmTicks + 1 : 0;
+        if ((newlyRejected > 0 || meanWaitMs > targetWaitMs) && core < ceiling) {
+            newCore = Math.min(ceiling, core + step);
+            newMax = Math.max(max, newCore);
+        } else if (tuning.calmTicks >= SHRINK_AFTER_TICKS && core > tuning.baselineCore) {
+            newCore = Math.max(tuning.baselineCore, core - step);
+            newMax = Math.max(tuning.baselineMax, newCore);
+            tuning.calmTicks = 0;
+        }
+        if (newCore == core && newMax == max) {
+            return;
+        }
+        executor.resize(newCore, newMax, null);
+        log.info("线程池 {} 自动调整: core {} -> {}, max {} -> {}（平均等待 {}ms，拒绝 {} 次，利用率 {}）",
+                executor.getName(), core, newCore, max, newMax,
+                String.format("%.1f", meanWaitMs), newlyRejected, String.format("%.2f", utilization));
+    }
+
+    private Tuning find(String name) {
+        Tuning tuning = executors.get(name);
+        if (tuning == null) {
+            throw new BusinessException(404, "线程池不存在: " + name);
+        }
+        return tuning;
+    }
+
+    private ExecutorStatusDTO toDTO(Tuning tuning) {
+        InstrumentedTaskExecutor executor = tuning.executor;
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        ExecutorStatusDTO dto = new ExecutorStatusDTO();
+        dto.setName(executor.getName());
+        dto.setCorePoolSize(executor.getCorePoolSize());
+        dto.setMaxPoolSize(executor.getMaxPoolSize());
+        dto.setPoolSize(pool.getPoolSize());
+        dto.setActiveCount(pool.getActiveCount());
+        dto.setQueueSize(executor.getQueueSize());
+        dto.setQueueCapacity(executor.getQueueCapacity());
+        dto.setCompletedTaskCount(pool.getCompletedTaskCount());
+        dto.setRejectedCount(executor.getRejectedCount());
+        dto.setMeanWaitMs(executor.getWaitTimer().mean(TimeUnit.MILLISECONDS));
+        dto.setMaxWaitMs(executor.getWaitTimer().max(TimeUnit.MILLISECONDS));
+        dto.setMeanExecutionMs(executor.getExecutionTimer().mean(TimeUnit.MILLISECONDS));
+        dto.setMaxExecutionMs(executor.getExecutionTimer().max(TimeUnit.MILLISECONDS));
+        if (autoTuneEnabled) {
+            dto.setMinCorePoolSize(tuning.baselineCore);
+            dto.setMaxCorePoolSize(tuning.ceiling());
+        }
+        return dto;
+    }
+
+    // 单个线程池的调整基准与上一周期的累计值；受自身锁保护
+    private final class Tuning {
+        private final InstrumentedTaskExecutor executor;
+        private int baselineCore;
+        private int baselineMax;
+        private long lastTickNanos = System.nanoTime();
+        private long lastWaitCount;
+        private double lastWaitNanos;
+        private double lastExecutionNanos;
+        private long lastRejected;
+        private int calmTicks;
+
+        private Tuning(InstrumentedTaskExecutor executor) {
+            this.executor = executor;
+            resetBaseline();
+        }
+
+        private void resetBaseline() {
+            baselineCore = executor.getCorePoolSize();
+            baselineMax = executor.getMaxPoolSize();
+        }
+
+        private int ceiling() {
+            return Math.max(baselineCore, baselineMax * maxGrowthFactor);
+        }
+    }
+}
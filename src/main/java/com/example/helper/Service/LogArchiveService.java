@@ -0,0 +1,320 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.LogSegmentReader;
+import com.example.helper.Common.Util.LogSegmentWriter;
+import com.example.helper.Dto.SystemLogPageDTO;
+import com.example.helper.Entity.SystemLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 操作日志归档
+ *
+ * <p>过期日志按天写入压缩的只追加段文件（system_logs-yyyyMMdd-首条ID.seg 及同名 .idx），段文件写完并落盘后才允许删除数据库中的数据。
+ * 查询归档时按文件名中的日期筛选段文件，再通过内存映射和稀疏时间索引只解压与时间范围重叠的块。
+ */
+@Slf4j
+@Service
+public class LogArchiveService {
+
+    private static final String FILE_PREFIX = "system_logs-";
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String SELECT_SQL =
+            "SELECT id, user_id, business_type, operation_type, method_name, request_params,"
+                    + " response_result, execute_time, ip_address, user_agent, exception_info,"
+                    + " status, module_name, created_at, updated_at FROM system_logs"
+                    + " WHERE created_at < ?";
+
+    // 流式读取的 JDBC fetch size（MySQL 需开启 useCursorFetch）
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ObjectWriter recordWriter;
+    private final ObjectReader recordReader;
+
+    // 映射后的读取器可复用；共享目录中的段可能被其他节点重新归档替换，索引文件修改时间变化时重新打开。
+    // 超出上限淘汰、被替换或失效的读取器立即关闭，正在查询的线程用完后才解除映射
+    private final Cache<Path, CachedReader> readers;
+
+    @Value("${app.log-retention.archive-dir:./data/log-archive}")
+    private String archiveDir;
+
+    @Value("${app.log-retention.archive-block-rows:1000}")
+    private int blockRows;
+
+    @Value("${app.log-retention.archive-compression-level:6}")
+    private int compressionLevel;
+
+    public LogArchiveService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                             @Value("${app.log-retention.archive-reader-cache-size:64}") long readerCacheSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.recordWriter = objectMapper.writerFor(SystemLog.class).without(SerializationFeature.INDENT_OUTPUT);
+        this.recordReader = objectMapper.readerFor(SystemLog.class);
+        this.readers = Caffeine.newBuilder()
+                .maximumSize(readerCacheSize)
+                .executor(Runnable::run)
+                .<Path, CachedReader>removalListener((path, cached, cause) -> {
+                    if (cached != null) {
+                        cached.reader.close();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 将 [from, to) 内的日志按时间升序写入段文件，from 为空时不限下界
+     *
+     * @return 归档的日志条数
+     */
+    public long archive(LocalDateTime from, LocalDateTime to) {
+        String sql = SELECT_SQL + (from == null ? "" : " AND created_at >= ?") + " ORDER BY created_at, id";
+        Object[] args = from == null ? new Object[] {Timestamp.valueOf(to)}
+                : new Object[] {Timestamp.valueOf(to), Timestamp.valueOf(from)};
+
+        DaySegments segments = new DaySegments();
+        try {
+            streamingJdbcTemplate.query(sql, rs -> {
+                segments.append(mapRow(rs));
+            }, args);
+            segments.finish();
+        } catch (RuntimeException e) {
+            segments.abort();
+            throw e;
+        }
+        return segments.archived;
+    }
+
+    /**
+     * 按条件倒序查询归档日志，时间范围为 [from, to)
+     */
+    public SystemLogPageDTO search(String userId, String businessType, String status,
+                                   LocalDateTime from, LocalDateTime to, int limit) {
+        if (limit < 1 || limit > LogService.MAX_PAGE_SIZE) {
+            throw new BusinessException(400, "limit 必须在 1 到 " + LogService.MAX_PAGE_SIZE + " 之间");
+        }
+        long lower = from == null ? Long.MIN_VALUE : toMicros(from);
+        long upper = to == null ? Long.MAX_VALUE : toMicros(to);
+        LocalDate firstDay = from == null ? LocalDate.MIN : from.toLocalDate();
+        LocalDate lastDay = to == null ? LocalDate.MAX : to.toLocalDate();
+
+        List<SystemLog> logs = new ArrayList<>();
+        for (Path segment : listSegments()) {
+            LocalDate day = dayOf(segment);
+            if (day.isBefore(firstDay) || day.isAfter(lastDay)) {
+                continue;
+            }
+            LogSegmentReader reader = acquireReader(segment);
+            boolean completed;
+            try {
+                completed = reader.scanDescending(lower, upper, record -> {
+                    SystemLog systemLog = readRecord(record);
+                    if (matches(systemLog, userId, businessType, status)) {
+                        LogService.decodePayloadColumns(systemLog);
+                        logs.add(systemLog);
+                    }
+                    // 多取一条判断是否还有更多
+                    return logs.size() <= limit;
+                });
+            } finally {
+                reader.release();
+            }
+            if (!completed) {
+                break;
+            }
+        }
+
+        SystemLogPageDTO page = new SystemLogPageDTO();
+        page.setHasMore(logs.size() > limit);
+        page.setLogs(logs.size() > limit ? logs.subList(0, limit) : logs);
+        return page;
+    }
+
+    // 段文件按日期、首条ID倒序排列，只列出索引已写入的完整段
+    private List<Path> listSegments() {
+        Path dir = Paths.get(archiveDir);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(FILE_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(LogSegmentWriter.DATA_SUFFIX))
+                    .filter(path -> Files.exists(LogSegmentWriter.indexFileOf(path)))
+                    .sorted(Comparator.comparing(LogArchiveService::dayOf)
+                            .thenComparingLong(LogArchiveService::firstIdOf)
+                            .reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void closeReaders() {
+        readers.invalidateAll();
+    }
+
+    int cachedReaderCount() {
+        readers.cleanUp();
+        return (int) readers.estimatedSize();
+    }
+
+    // 取得已 retain 的读取器，调用方用完后 release；在 compute 内 retain，读取器不会在取得后、retain 前被关闭
+    private LogSegmentReader acquireReader(Path segment) {
+        try {
+            FileTime modified = Files.getLastModifiedTime(LogSegmentWriter.indexFileOf(segment));
+            return readers.asMap().compute(segment, (path, cached) -> {
+                if (cached != null && cached.modified.equals(modified) && cached.reader.retain()) {
+                    return cached;
+                }
+                try {
+                    CachedReader opened = new CachedReader(LogSegmentReader.open(path), modified);
+                    opened.reader.retain();
+                    return opened;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).reader;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SystemLog readRecord(byte[] record) {
+        try {
+            return recordReader.readValue(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean matches(SystemLog systemLog, String userId, String businessType, String status) {
+        return (userId == null || userId.equals(systemLog.getUserId()))
+                && (businessType == null || businessType.equals(systemLog.getBusinessType()))
+                && (status == null || status.equals(systemLog.getStatus()));
+    }
+
+    private static LocalDate dayOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return LocalDate.parse(name.substring(FILE_PREFIX.length(), FILE_PREFIX.length() + 8), DAY_FORMAT);
+    }
+
+    private static long firstIdOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length() + 9,
+                name.length() - LogSegmentWriter.DATA_SUFFIX.length()));
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), time);
+    }
+
+    private static SystemLog mapRow(ResultSet rs) throws SQLException {
+        SystemLog systemLog = new SystemLog();
+        systemLog.setId(rs.getLong("id"));
+        systemLog.setUserId(rs.getString("user_id"));
+        systemLog.setBusinessType(rs.getString("business_type"));
+        systemLog.setOperationType(rs.getString("operation_type"));
+        systemLog.setMethodName(rs.getString("method_name"));
+        systemLog.setRequestParams(rs.getString("request_params"));
+        systemLog.setResponseResult(rs.getString("response_result"));
+        long executeTime = rs.getLong("execute_time");
+        systemLog.setExecuteTime(rs.wasNull() ? null : executeTime);
+        systemLog.setIpAddress(rs.getString("ip_address"));
+        systemLog.setUserAgent(rs.getString("user_agent"));
+        systemLog.setExceptionInfo(rs.getString("exception_info"));
+        systemLog.setStatus(rs.getString("status"));
+        systemLog.setModuleName(rs.getString("module_name"));
+        systemLog.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        systemLog.setUpdatedAt(updatedAt == null ? null : updatedAt.toLocalDateTime());
+        return systemLog;
+    }
+
+    // 按时间升序接收日志，日期变化时关闭当前段文件并开始新的段文件
+    private final class DaySegments {
+        private LocalDate day;
+        private LogSegmentWriter writer;
+        private long archived;
+
+        private void append(SystemLog systemLog) {
+            try {
+                LocalDate logDay = systemLog.getCreatedAt().toLocalDate();
+                if (!logDay.equals(day)) {
+                    finish();
+                    Path segment = Paths.get(archiveDir,
+                            FILE_PREFIX + DAY_FORMAT.format(logDay) + "-" + systemLog.getId()
+                                    + LogSegmentWriter.DATA_SUFFIX);
+                    // 重新归档同一批数据（上次归档后未及删除）时覆盖原段文件
+                    readers.invalidate(segment);
+                    writer = new LogSegmentWriter(segment, blockRows, compressionLevel);
+                    day = logDay;
+                }
+                writer.append(toMicros(systemLog.getCreatedAt()), recordWriter.writeValueAsBytes(systemLog));
+                archived++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+                log.info("已归档 {} 条 {} 的操作日志", writer.getRecordCount(), day);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                writer = null;
+            }
+        }
+
+        private void abort() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.abort();
+            } catch (IOException e) {
+                log.warn("清理未完成的归档段文件失败: {}", e.getMessage());
+            } finally {
+                writer = null;
+            }
+        }
+    }
+
+    private record CachedReader(LogSegmentReader reader, FileTime modified) {}
+}
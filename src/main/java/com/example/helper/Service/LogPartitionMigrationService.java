@@ -0,0 +1,92 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Util.LogPartitionUtil;
+import com.example.helper.Dto.LogPartitionMigrationDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * system_logs 按天分区迁移
+ *
+ * <p>把未分区的 MySQL 表转换为按天 RANGE 分区。先回填 created_at 为空的行（分区列进入主键后不允许为空），两条 ALTER 都会重建整张表并阻塞写入，只能由运维在低峰期显式执行
+ * （POST /api/logs/retention/partition-migration），应用运行时的保留维护只做分区滚动，不再自动转换。
+ */
+@Slf4j
+@Service
+public class LogPartitionMigrationService {
+
+    // created_at 为空的行无法加入主键，也无法确定分区：优先取 updated_at，否则按迁移时间保留一个完整的保留期
+    static final String BACKFILL_CREATED_AT_SQL =
+            "UPDATE system_logs SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP)"
+                    + " WHERE created_at IS NULL";
+
+    // 分区列必须包含在每个唯一键中，主键改为 (id, created_at)
+    static final String PRIMARY_KEY_SQL =
+            "ALTER TABLE system_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.log-retention.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.log-retention.partition-ahead-days:3}")
+    private int partitionAheadDays;
+
+    public LogPartitionMigrationService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** 执行迁移，dryRun 时只返回将执行的语句；已分区或不是 MySQL 时跳过 */
+    public LogPartitionMigrationDTO migrate(boolean dryRun) {
+        LogPartitionMigrationDTO result = new LogPartitionMigrationDTO();
+        result.setExecuted(false);
+        if (!LogPartitionUtil.isMySql(jdbcTemplate)
+                || !LogPartitionUtil.listPartitions(jdbcTemplate).isEmpty()) {
+            result.setSkipped(true);
+            return result;
+        }
+        List<String> statements = plan(LocalDate.now(), retentionDays, partitionAheadDays);
+        result.setSkipped(false);
+        result.setStatements(statements);
+        if (dryRun) {
+            return result;
+        }
+        return LogPartitionUtil.withMaintenanceLock(jdbcTemplate, () -> {
+            // 持有锁后再检查一次，其他节点可能已完成迁移
+            if (!LogPartitionUtil.listPartitions(jdbcTemplate).isEmpty()) {
+                result.setSkipped(true);
+                return result;
+            }
+            log.info("system_logs 开始转换为按天分区，共 {} 条语句", statements.size());
+            for (String statement : statements) {
+                jdbcTemplate.execute(statement);
+            }
+            result.setExecuted(true);
+            log.info("system_logs 已转换为按天分区");
+            return result;
+        });
+    }
+
+    /**
+     * 迁移语句：保留期之前的历史数据放在同一个分区，下次维护时归档并删除；预建到 today + aheadDays，其余落入 pmax
+     */
+    static List<String> plan(LocalDate today, int retentionDays, int aheadDays) {
+        List<String> definitions = new ArrayList<>();
+        LocalDate first = today.minusDays(retentionDays);
+        for (LocalDate day = first.minusDays(1); !day.isAfter(today.plusDays(aheadDays)); day = day.plusDays(1)) {
+            definitions.add(LogPartitionUtil.definition(day));
+        }
+        definitions.add(LogPartitionUtil.maxDefinition());
+        return List.of(
+                BACKFILL_CREATED_AT_SQL,
+                PRIMARY_KEY_SQL,
+                "ALTER TABLE system_logs PARTITION BY RANGE COLUMNS(created_at) ("
+                        + String.join(", ", definitions) + ")");
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Util.LogPartitionUtil;
+import com.example.helper.Dto.LogRetentionResultDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 操作日志保留与分区维护
+ *
+ * <p>MySQL 下 system_logs 按 created_at 每天一个 RANGE 分区（p20261019 存放当天数据，pmax 兜底），
+ * 热查询带时间条件时只扫描近期分区；过期分区先归档为段文件，再 DROP PARTITION 清理，不产生大批量 DELETE。
+ * 未分区的表由 {@link LogPartitionMigrationService} 显式迁移，这里只做分区滚动；未迁移的表与其他数据库（如本地 H2）归档后按时间删除。
+ *
+ * <p>维护在独立的单线程调度器上运行，不占用应用的默认调度线程；多个节点以 MySQL 命名锁互斥，同一时刻只有一个节点归档与删除分区。
+ * 段文件写入本节点的 archive-dir，多节点部署时该目录需挂载为共享存储，各节点才能查询全部归档。
+ */
+@Slf4j
+@Service
+public class LogRetentionService {
+
+    private static final String DELETE_BEFORE_SQL = "DELETE FROM system_logs WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LogArchiveService logArchiveService;
+
+    @Value("${app.log-retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.log-retention.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.log-retention.partitioning-enabled:true}")
+    private boolean partitioningEnabled;
+
+    // 预先创建的未来分区天数
+    @Value("${app.log-retention.partition-ahead-days:3}")
+    private int partitionAheadDays;
+
+    @Value("${app.log-retention.maintenance-cron:0 10 0 * * *}")
+    private String maintenanceCron;
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    public LogRetentionService(JdbcTemplate jdbcTemplate, LogArchiveService logArchiveService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.logArchiveService = logArchiveService;
+    }
+
+    /** 启动独立的维护调度器：立即滚动一次分区，之后按 cron 执行完整维护 */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("log-maintenance-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        scheduler.execute(this::rollPartitions);
+        scheduler.schedule(this::scheduledMaintenance, new CronTrigger(maintenanceCron));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void rollPartitions() {
+        try {
+            if (isPartitioned()) {
+                LogPartitionUtil.withMaintenanceLock(jdbcTemplate, () -> {
+                    ensureFuturePartitions(LocalDate.now());
+                    return null;
+                });
+            }
+        } catch (Exception e) {
+            log.warn("操作日志分区滚动失败: {}", e.getMessage());
+        }
+    }
+
+    private void scheduledMaintenance() {
+        try {
+            runMaintenance();
+        } catch (Exception e) {
+            log.warn("操作日志保留维护失败: {}", e.getMessage());
+        }
+    }
+
+    /** 归档并清理保留期之前的日志，预建未来分区；其他节点正在维护时抛出 409 */
+    public synchronized LogRetentionResultDTO runMaintenance() {
+        return LogPartitionUtil.withMaintenanceLock(jdbcTemplate, this::maintain);
+    }
+
+    private LogRetentionResultDTO maintain() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime cutoff = today.minusDays(retentionDays).atStartOfDay();
+
+        LogRetentionResultDTO result = new LogRetentionResultDTO();
+        result.setCutoff(cutoff);
+        result.setPartitioned(isPartitioned());
+        result.setArchivedCount(0L);
+        result.setDroppedPartitions(new ArrayList<>());
+
+        if (result.getPartitioned()) {
+            ensureFuturePartitions(today);
+            // 分区按时间升序，逐个归档后删除，前面的分区已删除，查询 created_at < 上界时只会落在当前分区
+            for (String partition : LogPartitionUtil.listPartitions(jdbcTemplate)) {
+                if (LogPartitionUtil.MAX_PARTITION.equals(partition)) {
+                    continue;
+                }
+                LocalDateTime upper = LogPartitionUtil.upperBoundOf(partition);
+                if (upper.isAfter(cutoff)) {
+                    break;
+                }
+                result.setArchivedCount(result.getArchivedCount() + logArchiveService.archive(null, upper));
+                jdbcTemplate.execute("ALTER TABLE system_logs DROP PARTITION " + partition);
+                result.getDroppedPartitions().add(partition);
+            }
+        } else {
+            result.setArchivedCount(logArchiveService.archive(null, cutoff));
+            result.setDeletedCount((long) jdbcTemplate.update(DELETE_BEFORE_SQL, Timestamp.valueOf(cutoff)));
+        }
+
+        if (result.getArchivedCount() > 0) {
+            log.info("操作日志保留维护完成，归档 {} 条，删除分区 {}，早于: {}",
+                    result.getArchivedCount(), result.getDroppedPartitions(), cutoff);
+        }
+        return result;
+    }
+
+    // MySQL 且已完成分区迁移时返回 true
+    private boolean isPartitioned() {
+        if (!partitioningEnabled || !LogPartitionUtil.isMySql(jdbcTemplate)) {
+            return false;
+        }
+        if (LogPartitionUtil.listPartitions(jdbcTemplate).isEmpty()) {
+            log.warn("system_logs 尚未分区，按时间删除过期日志；可在低峰期执行分区迁移");
+            return false;
+        }
+        return true;
+    }
+
+    // 从 pmax 中拆分出未来几天的分区（pmax 中尚无数据，拆分无需搬移数据）
+    private void ensureFuturePartitions(LocalDate today) {
+        List<String> partitions = LogPartitionUtil.listPartitions(jdbcTemplate);
+        LocalDate next = today;
+        for (String partition : partitions) {
+            if (!LogPartitionUtil.MAX_PARTITION.equals(partition)) {
+                LocalDate day = LogPartitionUtil.upperBoundOf(partition).toLocalDate();
+                if (day.isAfter(next)) {
+                    next = day;
+                }
+            }
+        }
+        List<String> definitions = new ArrayList<>();
+        for (LocalDate day = next; !day.isAfter(today.plusDays(partitionAheadDays)); day = day.plusDays(1)) {
+            definitions.add(LogPartitionUtil.definition(day));
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add(LogPartitionUtil.maxDefinition());
+        jdbcTemplate.execute("ALTER TABLE system_logs REORGANIZE PARTITION " + LogPartitionUtil.MAX_PARTITION
+                + " INTO (" + String.join(", ", definitions) + ")");
+    }
+}
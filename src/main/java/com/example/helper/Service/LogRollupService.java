@@ -0,0 +1,462 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.LogRollupGranularityEnum;
+import com.example.helper.Dto.LogRollupStatDTO;
+import com.example.helper.Entity.SystemLog;
+import com.example.helper.Repository.SystemLogRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 操作日志汇总统计
+ *
+ * <p>写入线程每写入一批日志就在内存中累加分钟、小时两种粒度的计数，定期以 upsert 合并到 system_log_rollups；
+ * 统计查询只读汇总表，耗时与日志总量无关。累加与刷新只能由 OperationLogWriter 的写入线程调用。
+ *
+ * <p>首次启用汇总时按已有日志重建：写入线程启动时认领重建标记（system_log_rollup_backfill）并记下当时日志的最大ID，只有认领成功的节点重建；
+ * 重建在独立线程中以 GROUP BY 流式读取不超过该ID的日志，在一个事务内合并到汇总表并标记完成，之后写入的日志由各节点增量累加，不会重复计数。
+ * 重建中途退出时事务回滚，标记保持未完成，下次启动的节点继续重建。
+ */
+@Slf4j
+@Service
+public class LogRollupService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO system_log_rollups (granularity, bucket_start, business_type,"
+                    + " operation_type, status, log_count, total_execute_time, max_execute_time,"
+                    + " created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+                    + " ON DUPLICATE KEY UPDATE log_count = log_count + VALUES(log_count),"
+                    + " total_execute_time = total_execute_time + VALUES(total_execute_time),"
+                    + " max_execute_time = GREATEST(max_execute_time, VALUES(max_execute_time)),"
+                    + " updated_at = VALUES(updated_at)";
+
+    // 按分钟分组，结果按时间排序，小时汇总在读取时逐小时累加
+    private static final String BACKFILL_SQL =
+            "SELECT YEAR(created_at), MONTH(created_at), DAYOFMONTH(created_at),"
+                    + " HOUR(created_at), MINUTE(created_at), business_type, operation_type, status,"
+                    + " COUNT(*), SUM(COALESCE(execute_time, 0)), MAX(COALESCE(execute_time, 0))"
+                    + " FROM system_logs WHERE id <= ? AND created_at IS NOT NULL"
+                    + " GROUP BY YEAR(created_at), MONTH(created_at), DAYOFMONTH(created_at),"
+                    + " HOUR(created_at), MINUTE(created_at), business_type, operation_type, status"
+                    + " ORDER BY YEAR(created_at), MONTH(created_at), DAYOFMONTH(created_at),"
+                    + " HOUR(created_at), MINUTE(created_at)";
+
+    private static final String CLAIM_BACKFILL_SQL =
+            "INSERT INTO system_log_rollup_backfill (id, cutoff_id, claimed_at)"
+                    + " SELECT ?, COALESCE(MAX(id), 0), CURRENT_TIMESTAMP FROM system_logs";
+
+    // 汇总表已由旧版本维护时直接标记完成
+    private static final String SKIP_BACKFILL_SQL =
+            "INSERT INTO system_log_rollup_backfill (id, cutoff_id, claimed_at, completed_at)"
+                    + " VALUES (?, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private static final String ANY_ROLLUP_SQL = "SELECT 1 FROM system_log_rollups LIMIT 1";
+
+    private static final String MARKER_SQL =
+            "SELECT cutoff_id, completed_at FROM system_log_rollup_backfill WHERE id = ?";
+
+    private static final String LOCK_MARKER_SQL = MARKER_SQL + " FOR UPDATE";
+
+    private static final String COMPLETE_BACKFILL_SQL =
+            "UPDATE system_log_rollup_backfill SET completed_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final Long MARKER_ID = 1L;
+
+    // 重建时每攒够该数量的汇总区间执行一次批量 upsert
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    // 重建流式读取的 JDBC fetch size（MySQL 需开启 useCursorFetch）
+    private static final int FETCH_SIZE = 500;
+
+    // 未指定统计时间范围时使用的上下界
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    // 汇总表中业务类型、操作类型、状态均非空
+    private static final String UNKNOWN = "UNKNOWN";
+
+    // 待合并到汇总表的增量，只由写入线程访问
+    private final Map<RollupKey, RollupCounter> pending = new HashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SystemLogRollupRepository rollupRepository;
+
+    public LogRollupService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            SystemLogRollupRepository rollupRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rollupRepository = rollupRepository;
+    }
+
+    /** 累加已写入的日志 */
+    public void record(List<SystemLog> logs) {
+        for (SystemLog systemLog : logs) {
+            record(
+                    systemLog.getCreatedAt(),
+                    systemLog.getBusinessType(),
+                    systemLog.getOperationType(),
+                    systemLog.getStatus(),
+                    systemLog.getExecuteTime());
+        }
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /** 将内存中的增量合并到汇总表，失败时保留增量等待下次刷新 */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<RollupKey, RollupCounter>> entries = new ArrayList<>(pending.entrySet());
+        try {
+            upsert(entries);
+            pending.clear();
+        } catch (Exception e) {
+            log.warn("日志汇总刷新失败，{} 条增量保留到下次刷新: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 汇总表尚未重建时认领重建任务（写入线程启动时、写入新日志之前调用），认领成功后在独立线程中重建
+     */
+    public void startBackfill() {
+        Long cutoffId = claimBackfill();
+        if (cutoffId == null) {
+            return;
+        }
+        Thread thread = new Thread(() -> runBackfill(cutoffId), "operation-log-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // 返回需要重建的截止ID；已完成或已由其他节点认领时返回 null
+    private Long claimBackfill() {
+        List<Long> cutoff = incompleteCutoff();
+        if (cutoff != null) {
+            return cutoff.isEmpty() ? null : cutoff.get(0);
+        }
+        try {
+            if (!jdbcTemplate.queryForList(ANY_ROLLUP_SQL).isEmpty()) {
+                jdbcTemplate.update(SKIP_BACKFILL_SQL, MARKER_ID);
+                return null;
+            }
+            jdbcTemplate.update(CLAIM_BACKFILL_SQL, MARKER_ID);
+        } catch (DuplicateKeyException e) {
+            // 其他节点已同时认领
+            return null;
+        }
+        cutoff = incompleteCutoff();
+        return cutoff == null || cutoff.isEmpty() ? null : cutoff.get(0);
+    }
+
+    // 标记不存在时返回 null，已完成时返回空列表，否则返回截止ID
+    private List<Long> incompleteCutoff() {
+        List<List<Long>> rows =
+                jdbcTemplate.query(
+                        MARKER_SQL,
+                        (rs, i) ->
+                                rs.getTimestamp(2) == null ? List.of(rs.getLong(1)) : List.<Long>of(),
+                        MARKER_ID);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // 锁住标记行后重建并标记完成；多个节点同时继续未完成的重建时，后获得锁的节点看到已完成直接返回
+    private void runBackfill(long cutoffId) {
+        long start = System.currentTimeMillis();
+        try {
+            Integer buckets =
+                    transactionTemplate.execute(
+                            status -> {
+                                List<Boolean> completed =
+                                        jdbcTemplate.query(
+                                                LOCK_MARKER_SQL,
+                                                (rs, i) -> rs.getTimestamp(2) != null,
+                                                MARKER_ID);
+                                if (completed.isEmpty() || completed.get(0)) {
+                                    return null;
+                                }
+                                int count = backfill(cutoffId);
+                                jdbcTemplate.update(COMPLETE_BACKFILL_SQL, MARKER_ID);
+                                return count;
+                            });
+            if (buckets != null) {
+                log.info("按现有操作日志重建汇总统计完成，截止ID: {}，{} 个汇总区间，耗时: {}ms",
+                        cutoffId, buckets, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.warn("操作日志汇总统计重建失败，下次启动时继续: {}", e.getMessage());
+        }
+    }
+
+    // 流式读取分钟分组；时间升序，某一小时的分钟分组读完即可写出该小时的汇总，内存只保留一批分钟汇总与当前小时的汇总
+    private int backfill(long cutoffId) {
+        List<Map.Entry<RollupKey, RollupCounter>> batch = new ArrayList<>(BACKFILL_BATCH_SIZE);
+        Map<RollupKey, RollupCounter> currentHour = new HashMap<>();
+        LocalDateTime[] hour = new LocalDateTime[1];
+        int[] buckets = new int[1];
+        streamingJdbcTemplate.query(
+                BACKFILL_SQL,
+                rs -> {
+                    LocalDateTime minute =
+                            LocalDateTime.of(
+                                    rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+                    LocalDateTime bucketHour = LogRollupGranularityEnum.HOUR.bucketStart(minute);
+                    if (!bucketHour.equals(hour[0])) {
+                        batch.addAll(currentHour.entrySet());
+                        currentHour.clear();
+                        hour[0] = bucketHour;
+                    }
+                    String businessType = Objects.requireNonNullElse(rs.getString(6), UNKNOWN);
+                    String operationType = Objects.requireNonNullElse(rs.getString(7), UNKNOWN);
+                    String status = Objects.requireNonNullElse(rs.getString(8), UNKNOWN);
+                    long count = rs.getLong(9);
+                    long total = rs.getLong(10);
+                    long max = rs.getLong(11);
+                    RollupCounter counter = new RollupCounter();
+                    counter.add(count, total, max);
+                    batch.add(
+                            Map.entry(
+                                    new RollupKey(
+                                            LogRollupGranularityEnum.MINUTE,
+                                            minute,
+                                            businessType,
+                                            operationType,
+                                            status),
+                                    counter));
+                    // 缺失的类型在汇总表中统一为 UNKNOWN，同一小时内可能合并多个分组
+                    currentHour
+                            .computeIfAbsent(
+                                    new RollupKey(
+                                            LogRollupGranularityEnum.HOUR,
+                                            bucketHour,
+                                            businessType,
+                                            operationType,
+                                            status),
+                                    k -> new RollupCounter())
+                            .add(count, total, max);
+                    if (batch.size() >= BACKFILL_BATCH_SIZE) {
+                        buckets[0] += batch.size();
+                        upsert(batch);
+                        batch.clear();
+                    }
+                },
+                cutoffId);
+        batch.addAll(currentHour.entrySet());
+        buckets[0] += batch.size();
+        upsert(batch);
+        return buckets[0];
+    }
+
+    private void upsert(List<Map.Entry<RollupKey, RollupCounter>> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                UPSERT_SQL,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RollupKey key = entries.get(i).getKey();
+                        RollupCounter counter = entries.get(i).getValue();
+                        ps.setString(1, key.granularity.getCode());
+                        ps.setTimestamp(2, Timestamp.valueOf(key.bucketStart));
+                        ps.setString(3, key.businessType);
+                        ps.setString(4, key.operationType);
+                        ps.setString(5, key.status);
+                        ps.setLong(6, counter.count);
+                        ps.setLong(7, counter.totalExecuteTime);
+                        ps.setLong(8, counter.maxExecuteTime);
+                        ps.setTimestamp(9, now);
+                        ps.setTimestamp(10, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                });
+    }
+
+    /**
+     * 统计 [from, to) 内的日志，时间按分钟对齐；未指定时不限
+     * 完整的小时读小时汇总，首尾不足一小时的部分读分钟汇总
+     */
+    @Transactional(readOnly = true)
+    public List<LogRollupStatDTO> getStatistics(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime lower = from == null ? MIN_TIME : from.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime upper = to == null ? MAX_TIME : to.truncatedTo(ChronoUnit.MINUTES);
+
+        Map<String, RollupStat> merged = new LinkedHashMap<>();
+        LocalDateTime hourLower = ceilToHour(lower);
+        LocalDateTime hourUpper = upper.truncatedTo(ChronoUnit.HOURS);
+        if (hourLower.isBefore(hourUpper)) {
+            merge(merged, LogRollupGranularityEnum.HOUR, hourLower, hourUpper);
+            merge(merged, LogRollupGranularityEnum.MINUTE, lower, hourLower);
+            merge(merged, LogRollupGranularityEnum.MINUTE, hourUpper, upper);
+        } else {
+            merge(merged, LogRollupGranularityEnum.MINUTE, lower, upper);
+        }
+        List<LogRollupStatDTO> stats = new ArrayList<>(merged.size());
+        for (RollupStat stat : merged.values()) {
+            stats.add(stat.toDTO());
+        }
+        return stats;
+    }
+
+    private void record(
+            LocalDateTime createdAt,
+            String businessType,
+            String operationType,
+            String status,
+            Long executeTime) {
+        if (createdAt == null) {
+            return;
+        }
+        long elapsed = executeTime == null ? 0 : executeTime;
+        for (LogRollupGranularityEnum granularity : LogRollupGranularityEnum.values()) {
+            RollupKey key =
+                    new RollupKey(
+                            granularity,
+                            granularity.bucketStart(createdAt),
+                            Objects.requireNonNullElse(businessType, UNKNOWN),
+                            Objects.requireNonNullElse(operationType, UNKNOWN),
+                            Objects.requireNonNullElse(status, UNKNOWN));
+            pending.computeIfAbsent(key, k -> new RollupCounter()).add(elapsed);
+        }
+    }
+
+    private void merge(
+            Map<String, RollupStat> merged,
+            LogRollupGranularityEnum granularity,
+            LocalDateTime from,
+            LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        for (Object[] row : rollupRepository.sumBetween(granularity.getCode(), from, to)) {
+            RollupStat stat =
+                    merged.computeIfAbsent(
+                            row[0] + "|" + row[1] + "|" + row[2],
+                            k -> new RollupStat((String) row[0], (String) row[1], (String) row[2]));
+            stat.count += ((Number) row[3]).longValue();
+            stat.totalExecuteTime += ((Number) row[4]).longValue();
+            stat.maxExecuteTime = Math.max(stat.maxExecuteTime, ((Number) row[5]).longValue());
+        }
+    }
+
+    private static LocalDateTime ceilToHour(LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(time) ? hour : hour.plusHours(1);
+    }
+
+    private static final class RollupKey {
+        private final LogRollupGranularityEnum granularity;
+        private final LocalDateTime bucketStart;
+        private final String businessType;
+        private final String operationType;
+        private final String status;
+
+        private RollupKey(
+                LogRollupGranularityEnum granularity,
+                LocalDateTime bucketStart,
+                String businessType,
+                String operationType,
+                String status) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.businessType = businessType;
+            this.operationType = operationType;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RollupKey other)) {
+                return false;
+            }
+            return granularity == other.granularity
+                    && bucketStart.equals(other.bucketStart)
+                    && businessType.equals(other.businessType)
+                    && operationType.equals(other.operationType)
+                    && status.equals(other.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularity, bucketStart, businessType, operationType, status);
+        }
+    }
+
+    private static final class RollupCounter {
+        private long count;
+        private long totalExecuteTime;
+        private long maxExecuteTime;
+
+        private void add(long executeTime) {
+            add(1, executeTime, executeTime);
+        }
+
+        private void add(long count, long totalExecuteTime, long maxExecuteTime) {
+            this.count += count;
+            this.totalExecuteTime += totalExecuteTime;
+            this.maxExecuteTime = Math.max(this.maxExecuteTime, maxExecuteTime);
+        }
+    }
+
+    // 合并小时与分钟汇总的查询结果
+    private static final class RollupStat {
+        private final String businessType;
+        private final String operationType;
+        private final String status;
+        private long count;
+        private long totalExecuteTime;
+        private long maxExecuteTime;
+
+        private RollupStat(String businessType, String operationType, String status) {
+            this.businessType = businessType;
+            this.operationType = operationType;
+            this.status = status;
+        }
+
+        private LogRollupStatDTO toDTO() {
+            LogRollupStatDTO dto = new LogRollupStatDTO();
+            dto.setBusinessType(businessType);
+            dto.setOperationType(operationType);
+            dto.setStatus(status);
+            dto.setCount(count);
+            dto.setAvgExecuteTime(count == 0 ? 0 : totalExecuteTime / count);
+            dto.setMaxExecuteTime(maxExecuteTime);
+            return dto;
+        }
+    }
+}
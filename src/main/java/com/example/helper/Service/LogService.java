@@ -1,48 +1,208 @@
 // LogService.java
 package com.example.helper.Service;
 
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.PayloadCodec;
+import com.example.helper.Dto.LogRollupStatDTO;
+import com.example.helper.Dto.SystemLogPageDTO;
 import com.example.helper.Entity.SystemLog;
 import com.example.helper.Repository.SystemLogRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LogService {
 
+    // 单页最大条数
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // 游标时间的编码起点
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    // 未指定上界时使用的时间（MySQL DATETIME 上限）
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    // 每写出多少行刷新一次输出流
+    private static final int FLUSH_INTERVAL = 1000;
+
     private final SystemLogRepository systemLogRepository;
+    private final LogRollupService logRollupService;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * 分页查询用户日志
      */
+    @Transactional(readOnly = true)
     public Page<SystemLog> getUserLogs(String userId, Pageable pageable) {
-        return systemLogRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        Page<SystemLog> logs = systemLogRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        logs.forEach(this::decodePayloads);
+        return logs;
     }
 
     /**
-     * 根据业务类型查询日志
+     * 按条件键集分页查询日志（按创建时间倒序）
+     * 时间范围为 [from, to)，cursor 为上一页返回的 next_cursor
      */
-    public List<SystemLog> getLogsByBusinessType(String businessType) {
-        return systemLogRepository.findByBusinessTypeOrderByCreatedAtDesc(businessType);
+    @Transactional(readOnly = true)
+    public SystemLogPageDTO queryLogs(String userId, String businessType, String status,
+                                      LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessException(400, "limit 必须在 1 到 " + MAX_PAGE_SIZE + " 之间");
+        }
+        LogCursor before = upperBound(to, cursor);
+
+        // 多取一条判断是否还有下一页
+        List<SystemLog> logs = systemLogRepository.findBefore(
+                blankToNull(userId), blankToNull(businessType), blankToNull(status),
+                from, before.createdAt, before.id, PageRequest.of(0, limit + 1));
+        boolean hasMore = logs.size() > limit;
+        if (hasMore) {
+            logs = logs.subList(0, limit);
+        }
+        logs.forEach(this::decodePayloads);
+
+        SystemLogPageDTO page = new SystemLogPageDTO();
+        page.setLogs(logs);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            SystemLog last = logs.get(logs.size() - 1);
+            page.setNextCursor(new LogCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return page;
     }
 
     /**
-     * 查询错误日志统计
+     * 按条件将日志以 NDJSON 流式写出（按创建时间倒序），内存占用与日志条数无关
+     *
+     * @return 写出的行数
      */
-    public Long getErrorLogCount() {
-        return systemLogRepository.countErrorLogs();
+    @Transactional(readOnly = true)
+    public long streamLogs(String userId, String businessType, String status,
+                           LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        LogCursor before = upperBound(to, null);
+        ObjectWriter logWriter = objectMapper.writerFor(SystemLog.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        try (Stream<SystemLog> logs = systemLogRepository.streamBefore(
+                blankToNull(userId), blankToNull(businessType), blankToNull(status),
+                from, before.createdAt, before.id)) {
+            Iterator<SystemLog> iterator = logs.iterator();
+            while (iterator.hasNext()) {
+                SystemLog systemLog = iterator.next();
+                decodePayloads(systemLog);
+                logWriter.writeValue(writer, systemLog);
+                writer.write('\n');
+
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        return rows;
     }
 
     /**
-     * 获取业务类型统计
+     * 按业务类型、操作类型和状态统计 [from, to) 内的日志（读汇总表，时间按分钟对齐）
      */
-    public List<Object[]> getBusinessTypeStatistics() {
-        return systemLogRepository.countByBusinessType();
+    @Transactional(readOnly = true)
+    public List<LogRollupStatDTO> getStatistics(LocalDateTime from, LocalDateTime to) {
+        return logRollupService.getStatistics(from, to);
+    }
+
+    // 解压参数与结果；先脱离持久化上下文，解压后的值不会被写回数据库
+    private void decodePayloads(SystemLog systemLog) {
+        entityManager.detach(systemLog);
+        decodePayloadColumns(systemLog);
+    }
+
+    /**
+     * 解压按策略压缩存储的参数与结果（归档日志读取时同样使用）
+     */
+    static void decodePayloadColumns(SystemLog systemLog) {
+        systemLog.setRequestParams(PayloadCodec.decompress(systemLog.getRequestParams()));
+        systemLog.setResponseResult(PayloadCodec.decompress(systemLog.getResponseResult()));
+    }
+
+    // 查询上界：有游标时从游标处继续，否则为 to（不含），未指定 to 时不限
+    private static LogCursor upperBound(LocalDateTime to, String cursor) {
+        if (cursor != null && !cursor.isBlank()) {
+            return LogCursor.decode(cursor);
+        }
+        // ID 均为正数，id 上界为 0 时等价于 createdAt < to
+        return to != null ? new LogCursor(to, 0L) : new LogCursor(MAX_TIME, Long.MAX_VALUE);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * 日志分页游标：上一页最后一条的 (createdAt, id)，编码为 Base64URL 字符串
+     */
+    private static final class LogCursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        private LogCursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        private String encode() {
+            String raw = Long.toString(ChronoUnit.MICROS.between(ORIGIN, createdAt), 36)
+                    + "." + Long.toString(id, 36);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private static LogCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+                String[] parts = raw.split("\\.");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException(raw);
+                }
+                return new LogCursor(
+                        ORIGIN.plus(Long.parseLong(parts[0], 36), ChronoUnit.MICROS),
+                        Long.parseLong(parts[1], 36));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(400, "无效的日志游标");
+            }
+        }
     }
 }
@@ -0,0 +1,276 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.PayloadCodec;
+import com.example.helper.Entity.SystemLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 操作日志实时跟踪（SSE）
+ *
+ * <p>日志写入线程每写完一批就把匹配过滤条件的日志交给订阅者，不查询数据库。每个订阅者有独立的有界缓冲区，
+ * 缓冲区满时丢弃新日志并计数，下次发送前先推送 dropped 事件告知丢弃条数；写入线程只做非阻塞入队，慢速客户端不会拖慢日志写入。
+ * 发送在推送线程池中执行，线程池已满时拒绝而不是由写入线程发送，积压的日志按丢弃处理。
+ */
+@Slf4j
+@Service
+public class LogTailService {
+
+    private static final String EVENT_READY = "ready";
+    private static final String EVENT_LOG = "log";
+    private static final String EVENT_DROPPED = "dropped";
+
+    // 客户端断线后的重连间隔
+    private static final long RECONNECT_MILLIS = 3000;
+
+    private final ObjectWriter compactWriter;
+    private final Executor pushTaskExecutor;
+
+    @Value("${app.operation-log.tail.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${app.operation-log.tail.max-subscribers:50}")
+    private int maxSubscribers;
+
+    @Value("${app.operation-log.tail.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // 所有订阅者累计丢弃的日志数（含已断开的）
+    private final LongAdder droppedCount = new LongAdder();
+
+    public LogTailService(ObjectMapper objectMapper, @Qualifier("pushTaskExecutor") Executor pushTaskExecutor) {
+        // SSE 的 data 字段按行拆分，使用单行 JSON
+        this.compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.pushTaskExecutor = pushTaskExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    /** 订阅匹配条件的新日志，条件为空时不过滤 */
+    public SseEmitter subscribe(String userId, String businessType, String status, Long minExecuteTime) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new BusinessException(503, "日志跟踪订阅数量已达上限，请稍后重试");
+        }
+        Filter filter = new Filter(blankToNull(userId), blankToNull(businessType), blankToNull(status), minExecuteTime);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, filter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        Map<String, Object> ready = new LinkedHashMap<>();
+        ready.put("user_id", filter.userId);
+        ready.put("business_type", filter.businessType);
+        ready.put("status", filter.status);
+        ready.put("min_execute_time", filter.minExecuteTime);
+        ready.put("buffer_size", bufferSize);
+        subscriber.offer(SseEmitter.event().name(EVENT_READY).reconnectTime(RECONNECT_MILLIS).data(toJson(ready)).build());
+        return emitter;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 推送一批已写入的日志（写入线程调用，只做非阻塞入队）
+     * 每条日志至多序列化一次，无订阅者匹配时不序列化
+     */
+    public void publish(List<SystemLog> logs) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (SystemLog systemLog : logs) {
+            Set<ResponseBodyEmitter.DataWithMediaType> event = null;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.filter.matches(systemLog)) {
+                    continue;
+                }
+                if (event == null) {
+                    event = SseEmitter.event().name(EVENT_LOG).data(toJson(decoded(systemLog))).build();
+                }
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /** 定时发送心跳注释，及时发现已断开的连接 */
+    @Scheduled(fixedDelayString = "${app.operation-log.tail.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(ping);
+        }
+    }
+
+    // 写入的日志中参数与结果可能已压缩，推送解压后的副本，不修改写入线程持有的对象
+    private static SystemLog decoded(SystemLog systemLog) {
+        if (!PayloadCodec.isCompressed(systemLog.getRequestParams())
+                && !PayloadCodec.isCompressed(systemLog.getResponseResult())) {
+            return systemLog;
+        }
+        SystemLog copy = new SystemLog();
+        BeanUtils.copyProperties(systemLog, copy);
+        LogService.decodePayloadColumns(copy);
+        return copy;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return compactWriter.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("序列化操作日志失败", e);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // 订阅条件，字段为空时不过滤
+    private static final class Filter {
+        private final String userId;
+        private final String businessType;
+        private final String status;
+        private final Long minExecuteTime;
+
+        private Filter(String userId, String businessType, String status, Long minExecuteTime) {
+            this.userId = userId;
+            this.businessType = businessType;
+            this.status = status;
+            this.minExecuteTime = minExecuteTime;
+        }
+
+        private boolean matches(SystemLog systemLog) {
+            return (userId == null || userId.equals(systemLog.getUserId()))
+                    && (businessType == null || businessType.equals(systemLog.getBusinessType()))
+                    && (status == null || status.equals(systemLog.getStatus()))
+                    && (minExecuteTime == null
+                            || (systemLog.getExecuteTime() != null && systemLog.getExecuteTime() >= minExecuteTime));
+        }
+    }
+
+    // 单个订阅者：有界缓冲区 + 同一时刻至多一个发送任务
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final Filter filter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Filter filter, int capacity) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // 缓冲区已满：丢弃新日志，保留已排队的
+                drop(1);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                try {
+                    pushTaskExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // 推送线程池已满：丢弃积压的日志并计数，下次调度（新日志或心跳）时先推送 dropped 事件
+                    int count = 0;
+                    while (queue.poll() != null) {
+                        count++;
+                    }
+                    drop(count);
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drop(long count) {
+            if (count > 0) {
+                dropped.addAndGet(count);
+                droppedCount.add(count);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    Set<ResponseBodyEmitter.DataWithMediaType> event = queue.poll();
+                    if (event == null) {
+                        break;
+                    }
+                    emitter.send(event);
+                    // 腾出空位后告知客户端此前丢弃的条数
+                    long count = dropped.getAndSet(0);
+                    if (count > 0) {
+                        emitter.send(SseEmitter.event().name(EVENT_DROPPED).data(toJson(Map.of("count", count))).build());
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!closed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Event.MealChangeEvent;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Dto.CacheRegionStatisticsDTO;
+import com.example.helper.Entity.Meal;
+import com.example.helper.Repository.MealRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * 菜品二级缓存维护
+ *
+ * <p>经 JPA 的写入（含批量 JPQL）由 Hibernate 自动失效缓存；绕过 Hibernate 直接用 JDBC 写 meals 表时需调用 {@link
+ * #invalidateQueriesForJdbcWrite()}（新增）或 {@link #evictForJdbcUpdate}（更新已有行），否则缓存会返回写入前的结果。
+ *
+ * <p>其他节点提交的变更经广播到达后由 {@link #evictRemoteChange} 失效本节点的实体缓存和查询缓存。
+ *
+ * <p>启用只读副本时，提交后的失效窗口内可能从尚未同步的副本读到旧数据并重新放入缓存，因此在副本允许的最大延迟过后再失效一次。
+ */
+@Slf4j
+@Service
+public class MealCacheService {
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final String[] mealQuerySpaces;
+    private final TaskScheduler taskScheduler;
+    // 最近一次变更的副本延迟窗口结束时间
+    private final AtomicLong replicaWindowEndMillis = new AtomicLong();
+
+    @Value("${app.datasource.replicas.enabled:false}")
+    private boolean replicasEnabled;
+
+    @Value("${app.datasource.replicas.max-lag-ms:1000}")
+    private long replicaMaxLagMs;
+
+    @Value("${app.datasource.replicas.probe-interval-ms:1000}")
+    private long replicaProbeIntervalMs;
+
+    public MealCacheService(
+            EntityManagerFactory entityManagerFactory, TaskScheduler taskScheduler) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.taskScheduler = taskScheduler;
+        this.mealQuerySpaces =
+                sessionFactory
+                        .getMappingMetamodel()
+                        .getEntityDescriptor(Meal.class)
+                        .getSynchronizedQuerySpaces();
+    }
+
+    /**
+     * JDBC 直接写入 meals 表前调用（需在写入所在事务内）
+     *
+     * <p>与 Hibernate 自身的处理一致：先预失效，使并发查询的结果不进入缓存；事务结束（提交或回滚）后正式失效。新增行不影响已缓存的实体，只需失效查询缓存。
+     */
+    public void invalidateQueriesForJdbcWrite() {
+        invalidateForJdbcWrite(List.of());
+    }
+
+    /**
+     * JDBC 直接更新 meals 表中已有的行前调用（需在写入所在事务内）
+     *
+     * <p>只失效被更新菜品的实体缓存条目，其余菜品留在缓存中；批量 JPQL 更新则会清空整个实体缓存区域。写入前失效一次，
+     * 事务结束后再失效一次，清除事务期间被并发读取按旧数据放回的条目。查询缓存的处理同 {@link #invalidateQueriesForJdbcWrite()}。
+     */
+    public void evictForJdbcUpdate(List<Long> mealIds) {
+        invalidateForJdbcWrite(mealIds);
+    }
+
+    private void invalidateForJdbcWrite(List<Long> mealIds) {
+        TimestampsCache timestampsCache = sessionFactory.getCache().getTimestampsCache();
+        evictEntities(mealIds, false);
+        withSession(timestampsCache::preInvalidate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            evictEntities(mealIds, false);
+                            withSession(timestampsCache::invalidate);
+                        }
+                    });
+        } else {
+            withSession(timestampsCache::invalidate);
+        }
+    }
+
+    /** 菜品变更提交后，启用只读副本时处理副本延迟窗口 */
+    @TransactionalEventListener
+    public void onMealChanged(MealChangeEvent event) {
+        if (replicasEnabled) {
+            scheduleReplicaEviction(event.getMealIds(), event.isBulk());
+        }
+    }
+
+    /**
+     * 其他节点的菜品变更：本节点的缓存未经 Hibernate 失效，立即失效变更菜品的实体缓存（批量变更时整个区域）和菜品查询缓存
+     *
+     * @param bulk 为 true 时忽略 mealIds，清空整个实体缓存区域
+     */
+    public void evictRemoteChange(List<Long> mealIds, boolean bulk) {
+        evictEntities(mealIds, bulk);
+        withSession(sessionFactory.getCache().getTimestampsCache()::invalidate);
+        if (replicasEnabled) {
+            scheduleReplicaEviction(mealIds, bulk);
+        }
+    }
+
+    /** 获取菜品相关缓存区域的命中统计 */
+    public List<CacheRegionStatisticsDTO> getRegionStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new BusinessException(400, "未开启 Hibernate 统计（hibernate.generate_statistics）");
+        }
+        List<CacheRegionStatisticsDTO> result = new ArrayList<>();
+        for (String region : List.of(Meal.CACHE_REGION, MealRepository.QUERY_CACHE_REGION)) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                result.add(toDTO(region, regionStatistics));
+            }
+        }
+        return result;
+    }
+
+    // 窗口内预失效查询缓存，使查询结果既不读取也不写入缓存；窗口结束后再失效一次实体缓存并恢复查询缓存
+    private void scheduleReplicaEviction(List<Long> mealIds, boolean bulk) {
+        withSession(sessionFactory.getCache().getTimestampsCache()::preInvalidate);
+        // 副本在最近一次成功探测后的两个探测间隔内仍会被使用，延迟可能在此期间增长
+        long delayMs = replicaMaxLagMs + 2 * replicaProbeIntervalMs;
+        replicaWindowEndMillis.accumulateAndGet(System.currentTimeMillis() + delayMs, Math::max);
+        taskScheduler.schedule(
+                () -> evictAfterReplicaLag(mealIds, bulk), Instant.now().plusMillis(delayMs));
+    }
+
+    private void evictAfterReplicaLag(List<Long> mealIds, boolean bulk) {
+        evictEntities(mealIds, bulk);
+        // 窗口内还有更晚的变更时，由最后一次变更恢复查询缓存
+        if (System.currentTimeMillis() >= replicaWindowEndMillis.get()) {
+            withSession(sessionFactory.getCache().getTimestampsCache()::invalidate);
+        }
+    }
+
+    private void evictEntities(List<Long> mealIds, boolean bulk) {
+        if (bulk) {
+            sessionFactory.getCache().evictEntityData(Meal.class);
+        } else {
+            for (Long id : mealIds) {
+                sessionFactory.getCache().evictEntityData(Meal.class, id);
+            }
+        }
+    }
+
+    private void withSession(BiConsumer<String[], SharedSessionContractImplementor> action) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            action.accept(mealQuerySpaces, (SharedSessionContractImplementor) session);
+        } catch (RuntimeException e) {
+            // 失效失败时清空整个区域兜底
+            log.warn("查询缓存失效失败，清空查询缓存: {}", e.getMessage());
+            sessionFactory.getCache().evictQueryRegions();
+        }
+    }
+
+    private static CacheRegionStatisticsDTO toDTO(String region, CacheRegionStatistics statistics) {
+        CacheRegionStatisticsDTO dto = new CacheRegionStatisticsDTO();
+        dto.setRegion(region);
+        dto.setHitCount(statistics.getHitCount());
+        dto.setMissCount(statistics.getMissCount());
+        dto.setPutCount(statistics.getPutCount());
+        long lookups = statistics.getHitCount() + statistics.getMissCount();
+        dto.setHitRatio(lookups > 0 ? (double) statistics.getHitCount() / lookups : 0.0);
+        long elements = statistics.getElementCountInMemory();
+        dto.setElementCount(
+                elements == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN
+                        ? null
+                        : elements);
+        return dto;
+    }
+}
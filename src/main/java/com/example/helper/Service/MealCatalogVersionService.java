@@ -0,0 +1,227 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Util.ReadConsistency;
+import com.example.helper.Entity.MealCatalogVersion;
+import com.example.helper.Repository.MealCatalogVersionRepository;
+import com.example.helper.Repository.MealChangeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 菜品目录版本号
+ *
+ * <p>版本号由变更日志（meal_changes）的自增 seq 推导，写事务只插入日志行，不更新任何共享行，菜品写入之间不会互相等待。
+ * seq 在插入时分配、按提交顺序可见，两者不一定一致：先分配的事务可能后提交，回滚的事务留下永久空洞。因此这里维护一个水位：
+ * 不超过水位的 seq 都已提交（或确认为空洞），增量同步只分页到水位；水位之后已可见的日志不多，ETag 中带上它们的个数，
+ * 任一事务提交都会改变 ETag。空洞持续超过 gap-timeout 时视为回滚并越过，日志在提交前写入，事务不应在此之后还迟迟不提交。
+ *
+ * <p>条件请求读取内存中的副本：本节点提交后立即从主库刷新，其他节点的变更在收到广播时刷新，另有定时刷新兜底丢失的广播。
+ */
+@Slf4j
+@Service
+public class MealCatalogVersionService {
+
+    private static final Long ROW_ID = 1L;
+
+    // 每次扫描的日志行数
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    private final MealCatalogVersionRepository versionRepository;
+    private final MealChangeRepository changeRepository;
+
+    private final AtomicReference<Snapshot> current =
+            new AtomicReference<>(new Snapshot(0, 0, 0, 0));
+
+    // 推进水位时的空洞观察状态，只在 refreshLock 内访问
+    private final Object refreshLock = new Object();
+    private long gapWatermark = -1;
+    private long gapSinceNanos;
+
+    // 空洞超过该时长视为事务已回滚
+    @Value("${meal.catalog-version.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    public MealCatalogVersionService(
+            MealCatalogVersionRepository versionRepository,
+            MealChangeRepository changeRepository) {
+        this.versionRepository = versionRepository;
+        this.changeRepository = changeRepository;
+    }
+
+    /** 确保元数据行存在并加载当前版本 */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!versionRepository.existsById(ROW_ID)) {
+            try {
+                versionRepository.save(new MealCatalogVersion(ROW_ID));
+            } catch (DataIntegrityViolationException e) {
+                // 其他节点已同时创建
+                log.debug("菜品目录元数据行已存在");
+            }
+        }
+        ReadConsistency.onPrimary(
+                () -> {
+                    long watermark = 0;
+                    long lastModified =
+                            versionRepository.findUpdatedAt(ROW_ID).map(this::toHttpMillis).orElse(0L);
+                    // 启动时不从头扫描日志：早于最近一次写入 gap-timeout 的部分按数据库时钟视为已稳定
+                    LocalDateTime latest = changeRepository.findMaxChangedAt();
+                    if (latest != null) {
+                        Long settled =
+                                changeRepository.findMaxSeqBefore(
+                                        latest.minusNanos(TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs)));
+                        watermark = settled != null ? settled : 0;
+                        lastModified = Math.max(lastModified, toHttpMillis(latest));
+                    }
+                    publish(new Snapshot(watermark, watermark, 0, lastModified));
+                });
+        refresh();
+    }
+
+    /** 在当前写事务提交后刷新版本号，本节点随后的条件请求即可看到这次写入 */
+    public void refreshAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        try {
+                            refresh();
+                        } catch (Exception e) {
+                            // 写入已提交，版本号由定时刷新补上
+                            log.warn("提交后刷新菜品目录版本失败: {}", e.getMessage());
+                        }
+                    }
+                });
+    }
+
+    /** 从主库读取水位之后的日志并推进版本号，用于本节点提交后、其他节点的广播和定时兜底 */
+    @Scheduled(fixedDelayString = "${meal.catalog-version.refresh-interval-ms:5000}")
+    public void refresh() {
+        ReadConsistency.onPrimary(
+                () -> {
+                    synchronized (refreshLock) {
+                        publish(scan(current.get()));
+                    }
+                });
+    }
+
+    // 从水位之后逐页扫描：连续的 seq 推进水位，遇到空洞停下，其余可见日志只计数
+    private Snapshot scan(Snapshot from) {
+        Long compactedSeq = versionRepository.findCompactedSeq(ROW_ID);
+        if (compactedSeq == null) {
+            // 元数据行在应用就绪时创建，此前的定时刷新跳过
+            return from;
+        }
+        long watermark = Math.max(from.watermark, compactedSeq);
+        long maxSeq = Math.max(from.maxSeq, watermark);
+        long lastModified = from.lastModifiedMillis;
+        int pending = 0;
+        long after = watermark;
+        while (true) {
+            List<MealChangeRepository.SeqState> rows =
+                    changeRepository.findSeqStatesAfter(after, PageRequest.of(0, SCAN_PAGE_SIZE));
+            for (MealChangeRepository.SeqState row : rows) {
+                long seq = row.getSeq();
+                if (pending == 0 && (seq == watermark + 1 || gapExpired(watermark))) {
+                    watermark = seq;
+                } else {
+                    pending++;
+                }
+                maxSeq = Math.max(maxSeq, seq);
+                lastModified = Math.max(lastModified, toHttpMillis(row.getChangedAt()));
+                after = seq;
+            }
+            if (rows.size() < SCAN_PAGE_SIZE) {
+                return new Snapshot(watermark, maxSeq, pending, lastModified);
+            }
+        }
+    }
+
+    // 同一水位上的空洞从首次发现起计时
+    private boolean gapExpired(long watermark) {
+        long now = System.nanoTime();
+        if (gapWatermark != watermark) {
+            gapWatermark = watermark;
+            gapSinceNanos = now;
+        }
+        return now - gapSinceNanos >= TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs);
+    }
+
+    /** 变更日志已清理到的 seq（读当前事务所在的数据源） */
+    public long getCompactedSeq() {
+        return versionRepository.findCompactedSeq(ROW_ID);
+    }
+
+    /** 记录变更日志的清理位置，需在删除日志的同一事务内调用 */
+    public void advanceCompactedSeq(long seq) {
+        versionRepository.advanceCompactedSeq(ROW_ID, seq);
+    }
+
+    /** 已可见的最大 seq，只增不减 */
+    public long getVersion() {
+        return current.get().maxSeq;
+    }
+
+    /** 水位：不超过它的 seq 都已提交或确认为空洞，增量同步只读到这里 */
+    public long getWatermark() {
+        return current.get().watermark;
+    }
+
+    public long getLastModifiedMillis() {
+        return current.get().lastModifiedMillis;
+    }
+
+    /**
+     * 生成弱 ETag，parts 用于区分同一版本下不同的查询参数
+     *
+     * <p>ETag 由数据版本而非响应字节决定，使用弱校验器，Tomcat 才会对这些响应做 gzip 压缩（不压缩带强 ETag 的响应）。
+     * parts 中包含 Accept，不同表示形式的 ETag 不同；If-None-Match 按弱比较匹配。
+     */
+    public String etag(Object... parts) {
+        Snapshot snapshot = current.get();
+        StringBuilder etag = new StringBuilder("W/\"v").append(snapshot.maxSeq);
+        if (snapshot.pending > 0) {
+            // 水位之后的日志集合只增不减，水位与个数确定了已提交的集合
+            etag.append('.').append(snapshot.watermark).append('.').append(snapshot.pending);
+        }
+        return etag.append('-').append(Integer.toHexString(Arrays.hashCode(parts))).append('"').toString();
+    }
+
+    // 只接受更新的状态，避免较早读取的结果覆盖较新的刷新
+    private void publish(Snapshot snapshot) {
+        current.accumulateAndGet(snapshot, (a, b) -> b.isNewerThan(a) ? b : a);
+    }
+
+    // HTTP 日期精度为秒
+    private long toHttpMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / 1000 * 1000;
+    }
+
+    private record Snapshot(long watermark, long maxSeq, int pending, long lastModifiedMillis) {
+
+        private boolean isNewerThan(Snapshot other) {
+            if (watermark != other.watermark) {
+                return watermark > other.watermark;
+            }
+            if (maxSeq != other.maxSeq) {
+                return maxSeq > other.maxSeq;
+            }
+            return pending > other.pending || lastModifiedMillis > other.lastModifiedMillis;
+        }
+    }
+}
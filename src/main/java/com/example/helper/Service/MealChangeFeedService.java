@@ -0,0 +1,393 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.MealChangeTypeEnum;
+import com.example.helper.Common.Event.MealChangeEvent;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Dto.MealChangeBatchDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 菜品变更推送（SSE）
+ *
+ * <p>本节点提交的菜品变更经 Redis 频道广播给其他节点，本地和远端变更先按菜品ID在窗口内合并，再由定时任务一次序列化后推送给所有订阅者。
+ * 每个订阅者有独立的有界缓冲区，消费过慢导致缓冲区溢出时丢弃积压并发送 resync 事件，由客户端重新拉取全量数据。
+ * 发送和广播都在推送线程池中执行，线程池已满时任务被拒绝而不会在提交线程上执行：订阅者同样按溢出处理，广播丢失后的下一条广播标记为批量变更，
+ * 使其他节点的订阅者全量同步。
+ */
+@Slf4j
+@Service
+public class MealChangeFeedService implements MessageListener {
+
+    private static final String EVENT_READY = "ready";
+    private static final String EVENT_CHANGES = "changes";
+    private static final String EVENT_RESYNC = "resync";
+
+    // 客户端断线后的重连间隔
+    private static final long RECONNECT_MILLIS = 3000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final MealCatalogVersionService catalogVersionService;
+    private final MealCacheService mealCacheService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter compactWriter;
+    private final Executor pushTaskExecutor;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String channel;
+
+    @Value("${meal.changes.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${meal.changes.max-subscribers:2000}")
+    private int maxSubscribers;
+
+    @Value("${meal.changes.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${meal.changes.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 有广播未能发出，下一条广播标记为批量变更
+    private final AtomicBoolean broadcastLost = new AtomicBoolean(false);
+
+    // 当前窗口内待推送的变更，受 pendingLock 保护
+    private final Object pendingLock = new Object();
+    private Map<Long, MealChangeTypeEnum> pending = new LinkedHashMap<>();
+    private String pendingResyncReason;
+
+    public MealChangeFeedService(
+            MealCatalogVersionService catalogVersionService,
+            MealCacheService mealCacheService,
+            StringRedisTemplate redisTemplate,
+            RedisConnectionFactory connectionFactory,
+            ObjectMapper objectMapper,
+            @Qualifier("pushTaskExecutor") Executor pushTaskExecutor,
+            @Value("${meal.changes.channel:helper:meal-changes}") String channel) {
+        this.catalogVersionService = catalogVersionService;
+        this.mealCacheService = mealCacheService;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        // SSE 的 data 字段按行拆分，使用单行 JSON
+        this.compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.pushTaskExecutor = pushTaskExecutor;
+        this.channel = channel;
+
+        // 监听容器不注册为 Bean，避免 Redis 不可用时随应用启动失败
+        this.listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        listenerContainer.destroy();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    /** 启动跨节点订阅；Redis 不可用时仅推送本节点变更，并定时重试 */
+    @Scheduled(fixedDelayString = "${meal.changes.subscribe-retry-ms:10000}")
+    public void ensureSubscribed() {
+        if (listenerContainer.isRunning()) {
+            return;
+        }
+        try {
+            listenerContainer.start();
+            log.info("已订阅菜品变更广播频道: {}", channel);
+        } catch (Exception e) {
+            log.warn("订阅菜品变更广播频道失败，稍后重试: {}", e.getMessage());
+        }
+    }
+
+    /** 订阅菜品变更，连接建立后先发送 ready 事件携带当前目录版本号 */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new BusinessException(503, "变更订阅数量已达上限，请稍后重试");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        subscriber.offer(
+                SseEmitter.event()
+                        .name(EVENT_READY)
+                        .reconnectTime(RECONNECT_MILLIS)
+                        .data(toJson(Map.of("version", catalogVersionService.getVersion())))
+                        .build());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /** 本节点菜品变更提交后加入推送窗口，并广播给其他节点 */
+    @TransactionalEventListener
+    public void onMealChanged(MealChangeEvent event) {
+        enqueue(event.getChangeType(), event.getMealIds(), event.isBulk());
+
+        boolean bulk = event.isBulk() || broadcastLost.getAndSet(false);
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("node", nodeId);
+        message.put("type", event.getChangeType().getCode());
+        message.put("bulk", bulk);
+        message.put("ids", bulk ? List.of() : event.getMealIds());
+        String payload = toJson(message);
+        // 在推送线程池中发布；Redis 不可用或线程池已满时放弃本次广播，不占用提交事务的请求线程
+        try {
+            pushTaskExecutor.execute(
+                    () -> {
+                        try {
+                            redisTemplate.convertAndSend(channel, payload);
+                        } catch (Exception e) {
+                            broadcastLost.set(true);
+                            log.warn("菜品变更广播失败，仅推送本节点订阅者: {}", e.getMessage());
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            broadcastLost.set(true);
+            log.warn("推送线程池已满，放弃本次菜品变更广播");
+        }
+    }
+
+    /** 接收其他节点广播的菜品变更 */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            JsonNode node = objectMapper.readTree(message.getBody());
+            if (nodeId.equals(node.path("node").asText())) {
+                return;
+            }
+            MealChangeTypeEnum type = MealChangeTypeEnum.valueOf(node.path("type").asText());
+            List<Long> ids = new ArrayList<>();
+            for (JsonNode id : node.path("ids")) {
+                ids.add(id.asLong());
+            }
+            boolean bulk = node.path("bulk").asBoolean();
+            // 其他节点的变更已提交：先失效本节点的二级缓存，再从主库刷新版本号使本节点的 ETag 失效
+            mealCacheService.evictRemoteChange(ids, bulk);
+            catalogVersionService.refresh();
+            enqueue(type, ids, bulk);
+        } catch (Exception e) {
+            log.warn("无法解析菜品变更广播: {}", new String(message.getBody(), StandardCharsets.UTF_8), e);
+        }
+    }
+
+    /** 推送当前窗口内合并后的变更 */
+    @Scheduled(fixedDelayString = "${meal.changes.coalesce-window-ms:200}")
+    public void flush() {
+        Map<Long, MealChangeTypeEnum> batch;
+        String resyncReason;
+        synchronized (pendingLock) {
+            if (pending.isEmpty() && pendingResyncReason == null) {
+                return;
+            }
+            batch = pending;
+            resyncReason = pendingResyncReason;
+            pending = new LinkedHashMap<>();
+            pendingResyncReason = null;
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        if (resyncReason != null) {
+            broadcast(resyncEvent(resyncReason));
+            return;
+        }
+        List<MealChangeBatchDTO.Change> changes = new ArrayList<>(batch.size());
+        for (Map.Entry<Long, MealChangeTypeEnum> entry : batch.entrySet()) {
+            MealChangeBatchDTO.Change change = new MealChangeBatchDTO.Change();
+            change.setMealId(entry.getKey());
+            change.setType(entry.getValue());
+            changes.add(change);
+        }
+        MealChangeBatchDTO dto = new MealChangeBatchDTO();
+        dto.setSequence(sequence.incrementAndGet());
+        dto.setVersion(catalogVersionService.getVersion());
+        dto.setChanges(changes);
+        broadcast(
+                SseEmitter.event()
+                        .id(String.valueOf(dto.getSequence()))
+                        .name(EVENT_CHANGES)
+                        .data(toJson(dto))
+                        .build());
+    }
+
+    /** 定时发送心跳注释，及时发现已断开的连接 */
+    @Scheduled(fixedDelayString = "${meal.changes.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("ping").build());
+        }
+    }
+
+    private void enqueue(MealChangeTypeEnum type, List<Long> ids, boolean bulk) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        synchronized (pendingLock) {
+            if (pendingResyncReason != null) {
+                return;
+            }
+            if (bulk) {
+                pendingResyncReason = "bulk_change";
+                pending.clear();
+                return;
+            }
+            for (Long id : ids) {
+                pending.merge(id, type, MealChangeFeedService::coalesce);
+            }
+            if (pending.size() > maxPending) {
+                pendingResyncReason = "too_many_changes";
+                pending.clear();
+            }
+        }
+    }
+
+    // 合并同一菜品的两次变更：删除优先，其次保留创建，更新覆盖选中切换
+    private static MealChangeTypeEnum coalesce(
+            MealChangeTypeEnum previous, MealChangeTypeEnum current) {
+        if (current == MealChangeTypeEnum.DELETE) {
+            return MealChangeTypeEnum.DELETE;
+        }
+        if (previous == MealChangeTypeEnum.CREATE) {
+            return MealChangeTypeEnum.CREATE;
+        }
+        if (previous == MealChangeTypeEnum.UPDATE || current == MealChangeTypeEnum.UPDATE) {
+            return MealChangeTypeEnum.UPDATE;
+        }
+        return current;
+    }
+
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> resyncEvent(String reason) {
+        return SseEmitter.event().name(EVENT_RESYNC).data(toJson(Map.of("reason", reason))).build();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return compactWriter.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("序列化菜品变更失败", e);
+        }
+    }
+
+    // 单个订阅者：有界缓冲区 + 同一时刻至多一个发送任务
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean overflowed = new AtomicBoolean(false);
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // 缓冲区已满：丢弃积压，改为通知客户端全量同步
+                queue.clear();
+                overflowed.set(true);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                try {
+                    pushTaskExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // 推送线程池已满：按缓冲区溢出处理，下次调度（新的变更或心跳）时先发送 resync
+                    queue.clear();
+                    overflowed.set(true);
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    if (overflowed.getAndSet(false)) {
+                        queue.clear();
+                        emitter.send(resyncEvent("buffer_overflow"));
+                    }
+                    Set<ResponseBodyEmitter.DataWithMediaType> event = queue.poll();
+                    if (event == null) {
+                        break;
+                    }
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!closed && (overflowed.get() || !queue.isEmpty())) {
+                schedule();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+            emitter.complete();
+        }
+    }
+}
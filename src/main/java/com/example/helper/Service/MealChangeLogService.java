@@ -0,0 +1,49 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Event.MealChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 菜品变更日志写入
+ *
+ * <p>菜品写事务提交前以 JDBC 批量写入变更日志，只插入新行，不更新共享的计数行，并发的菜品写入之间不互相等待。
+ * 自增 seq 的先后与提交顺序不一定一致，由 {@link MealCatalogVersionService} 维护已全部提交的水位，增量同步只分页到水位。
+ */
+@Service
+public class MealChangeLogService {
+
+    private static final String INSERT_CHANGE_SQL =
+            "INSERT INTO meal_changes (meal_id, change_type, changed_at) VALUES (?, ?, CURRENT_TIMESTAMP)";
+
+    private final MealCatalogVersionService catalogVersionService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // 每批写入的日志行数
+    @Value("${meal.sync.log-batch-size:1000}")
+    private int batchSize;
+
+    public MealChangeLogService(
+            MealCatalogVersionService catalogVersionService, JdbcTemplate jdbcTemplate) {
+        this.catalogVersionService = catalogVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** 与菜品变更在同一事务内记录日志 */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onMealChanged(MealChangeEvent event) {
+        String changeType = event.getChangeType().getCode();
+        jdbcTemplate.batchUpdate(
+                INSERT_CHANGE_SQL,
+                event.getMealIds(),
+                batchSize,
+                (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, changeType);
+                });
+        catalogVersionService.refreshAfterCommit();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Entity.Meal;
+import com.example.helper.Mapper.MealCsvMapper;
+import com.example.helper.Repository.MealRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 菜品流式导出
+ *
+ * <p>在只读事务内通过仅向前游标逐行读取，写出后立即从持久化上下文中 detach，内存占用与菜品总数无关。
+ * 导出期间会话不读写二级缓存（CacheMode.IGNORE），全量读取不会挤出菜品缓存区域中的热点实体。
+ */
+@Slf4j
+@Service
+public class MealExportService {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    // 每写出多少行刷新一次输出流
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final MealRepository mealRepository;
+    private final ObjectWriter mealWriter;
+
+    @PersistenceContext private EntityManager entityManager;
+
+    public MealExportService(MealRepository mealRepository, ObjectMapper objectMapper) {
+        this.mealRepository = mealRepository;
+        this.mealWriter =
+                objectMapper
+                        .writerFor(Meal.class)
+                        .without(SerializationFeature.INDENT_OUTPUT)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /** 校验导出格式 */
+    public static String normalizeFormat(String format) {
+        String normalized = format == null ? FORMAT_NDJSON : format.trim().toLowerCase();
+        if (!FORMAT_NDJSON.equals(normalized) && !FORMAT_CSV.equals(normalized)) {
+            throw new BusinessException(400, "不支持的导出格式: " + format);
+        }
+        return normalized;
+    }
+
+    /**
+     * 将菜品流式写入输出流
+     *
+     * @param checked 为 null 时导出全部，否则按选中状态过滤
+     * @return 导出的行数
+     */
+    @Transactional(readOnly = true)
+    public long exportMeals(Boolean checked, String format, OutputStream out) throws IOException {
+        boolean csv = FORMAT_CSV.equals(normalizeFormat(format));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        StringBuilder line = new StringBuilder(256);
+        long rows = 0;
+
+        if (csv) {
+            writer.write(MealCsvMapper.HEADER);
+            writer.write('\n');
+        }
+
+        // 查询上的缓存模式提示只在打开游标时生效，逐行加载时使用会话的缓存模式，因此直接设置会话
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try (Stream<Meal> meals =
+                checked == null
+                        ? mealRepository.streamAllOrderById()
+                        : mealRepository.streamByCheckedOrderById(checked)) {
+            Iterator<Meal> iterator = meals.iterator();
+            while (iterator.hasNext()) {
+                Meal meal = iterator.next();
+                if (csv) {
+                    line.setLength(0);
+                    MealCsvMapper.appendCsvLine(line, meal);
+                    writer.append(line);
+                } else {
+                    mealWriter.writeValue(writer, meal);
+                }
+                writer.write('\n');
+                entityManager.detach(meal);
+
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        } finally {
+            session.setCacheMode(previousCacheMode);
+        }
+
+        writer.flush();
+        log.info("菜品导出完成，格式: {}, 行数: {}", csv ? FORMAT_CSV : FORMAT_NDJSON, rows);
+        return rows;
+    }
+}
@@ -0,0 +1,426 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.MealChangeTypeEnum;
+import com.example.helper.Common.Enum.NutrientEnum;
+import com.example.helper.Common.Event.MealChangeEvent;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Dto.MealImportProgressDTO;
+import com.example.helper.Entity.Meal;
+import com.example.helper.Mapper.MealCsvMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 菜品流式批量导入
+ *
+ * <p>按块读取请求体，在计算线程池并行解析和校验，解析结果按原顺序逐块写入，每块一个事务、一次 JDBC 批量插入。同时在途的块数受 parallelism
+ * 限制，内存占用与上传大小无关。单行错误只记录不终止导入。
+ */
+@Slf4j
+@Service
+public class MealImportService {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO meals (title, image_url, energy, protein, trans_fat, saturated_fat,"
+                    + " carbohydrate, added_sugar, salt, dietary_fiber, checked, created_at,"
+                    + " updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // 与 meals 表营养列 precision = 10, scale = 2 对应
+    private static final BigDecimal MAX_NUTRIENT_VALUE = new BigDecimal("99999999.99");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader mealReader;
+    private final Executor computeTaskExecutor;
+    private final MealCacheService mealCacheService;
+
+    @Value("${meal.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${meal.import.parallelism:4}")
+    private int parallelism;
+
+    @Value("${meal.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${meal.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public MealImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            @Qualifier("computeTaskExecutor") Executor computeTaskExecutor,
+            MealCacheService mealCacheService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.mealReader = objectMapper.readerFor(Meal.class);
+        this.computeTaskExecutor = computeTaskExecutor;
+        this.mealCacheService = mealCacheService;
+    }
+
+    /**
+     * 流式导入菜品（在调用线程内读取输入并写库，解析在计算线程池并行执行）
+     *
+     * @param jobId 可选的任务ID，便于导入过程中查询进度
+     */
+    public MealImportProgressDTO importMeals(InputStream input, String format, String jobId) {
+        String normalizedFormat = MealExportService.normalizeFormat(format);
+        boolean csv = MealExportService.FORMAT_CSV.equals(normalizedFormat);
+        ImportJob job = registerJob(jobId, normalizedFormat);
+
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columnIndex = null;
+            long lineNumber = 0;
+            if (csv) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    throw new BusinessException(400, "CSV 缺少表头");
+                }
+                columnIndex = MealCsvMapper.parseHeader(stripBom(header));
+                if (!columnIndex.containsKey("title")) {
+                    throw new BusinessException(400, "CSV 表头缺少 title 列");
+                }
+            }
+
+            Deque<CompletableFuture<ParsedChunk>> pending = new ArrayDeque<>();
+            List<RawRecord> block = new ArrayList<>(chunkSize);
+            StringBuilder record = new StringBuilder();
+            long recordStart = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (record.length() == 0) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    recordStart = lineNumber;
+                    record.append(lineNumber == 1 ? stripBom(line) : line);
+                } else {
+                    record.append('\n').append(line);
+                }
+                // CSV 字段内含换行时继续拼接下一行
+                if (csv && !MealCsvMapper.isRecordComplete(record)) {
+                    continue;
+                }
+
+                block.add(new RawRecord(recordStart, record.toString()));
+                record.setLength(0);
+                job.totalRows.incrementAndGet();
+
+                if (block.size() >= chunkSize) {
+                    pending.add(parseAsync(block, columnIndex, job));
+                    block = new ArrayList<>(chunkSize);
+                    if (pending.size() >= parallelism) {
+                        writeChunk(pending.poll().join(), job);
+                    }
+                }
+            }
+            if (record.length() > 0) {
+                job.totalRows.incrementAndGet();
+                job.addError(recordStart, "CSV 记录引号未闭合");
+            }
+            if (!block.isEmpty()) {
+                pending.add(parseAsync(block, columnIndex, job));
+            }
+            while (!pending.isEmpty()) {
+                writeChunk(pending.poll().join(), job);
+            }
+
+            job.finish(STATUS_COMPLETED, null);
+            log.info(
+                    "菜品导入完成，任务: {}, 总行数: {}, 成功: {}, 失败: {}",
+                    job.jobId,
+                    job.totalRows.get(),
+                    job.importedRows.get(),
+                    job.failedRows.get());
+            return job.toDTO();
+        } catch (BusinessException e) {
+            job.finish(STATUS_FAILED, e.getMessage());
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            log.error("菜品导入失败，任务: {}", job.jobId, e);
+            job.finish(STATUS_FAILED, e.getMessage());
+            throw new BusinessException(500, "菜品导入失败: " + e.getMessage());
+        }
+    }
+
+    /** 查询导入进度 */
+    public MealImportProgressDTO getProgress(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BusinessException(404, "导入任务不存在，ID: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    private ImportJob registerJob(String jobId, String format) {
+        // 顺带清理过期的已结束任务
+        long expireBefore = System.currentTimeMillis() - jobRetentionMinutes * 60_000;
+        jobs.values()
+                .removeIf(job -> job.finishedAtMillis > 0 && job.finishedAtMillis < expireBefore);
+
+        String id = jobId == null || jobId.isBlank() ? UUID.randomUUID().toString() : jobId;
+        ImportJob job = new ImportJob(id, format);
+        // 原子注册，任务ID已存在（进行中或保留期内已结束）时拒绝，不覆盖其他导入的进度
+        ImportJob existing = jobs.putIfAbsent(id, job);
+        if (existing != null) {
+            throw new BusinessException(
+                    409,
+                    STATUS_RUNNING.equals(existing.status)
+                            ? "导入任务正在进行中，ID: " + id
+                            : "导入任务ID已存在，ID: " + id);
+        }
+        return job;
+    }
+
+    private CompletableFuture<ParsedChunk> parseAsync(
+            List<RawRecord> block, Map<String, Integer> columnIndex, ImportJob job) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> parseChunk(block, columnIndex, job), computeTaskExecutor);
+        } catch (RejectedExecutionException e) {
+            // 计算线程池饱和时在当前线程解析
+            return CompletableFuture.completedFuture(parseChunk(block, columnIndex, job));
+        }
+    }
+
+    private ParsedChunk parseChunk(
+            List<RawRecord> block, Map<String, Integer> columnIndex, ImportJob job) {
+        ParsedChunk chunk = new ParsedChunk(block.size());
+        for (RawRecord raw : block) {
+            try {
+                Meal meal =
+                        columnIndex != null
+                                ? MealCsvMapper.fromCsvLine(raw.text, columnIndex)
+                                : mealReader.readValue(raw.text);
+                validate(meal);
+                chunk.meals.add(meal);
+                chunk.lines.add(raw.line);
+            } catch (Exception e) {
+                job.addError(raw.line, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+        return chunk;
+    }
+
+    private void writeChunk(ParsedChunk chunk, ImportJob job) {
+        if (chunk.meals.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertMeals(chunk.meals));
+            job.importedRows.addAndGet(chunk.meals.size());
+        } catch (DataAccessException e) {
+            // 整块失败时逐行重试，定位出错的行
+            log.warn("批量写入失败，逐行重试，块大小: {}", chunk.meals.size());
+            for (int i = 0; i < chunk.meals.size(); i++) {
+                Meal meal = chunk.meals.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertMeals(List.of(meal)));
+                    job.importedRows.incrementAndGet();
+                } catch (DataAccessException rowError) {
+                    job.addError(
+                            chunk.lines.get(i),
+                            NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insertMeals(List<Meal> meals) {
+        // JDBC 写入绕过 Hibernate，需手动失效菜品查询缓存
+        mealCacheService.invalidateQueriesForJdbcWrite();
+        List<Long> ids =
+                jdbcTemplate.execute(
+                        (ConnectionCallback<List<Long>>)
+                                connection -> {
+                                    try (PreparedStatement ps =
+                                            connection.prepareStatement(
+                                                    INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                                        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                                        for (Meal meal : meals) {
+                                            bindMeal(ps, meal, now);
+                                            ps.addBatch();
+                                        }
+                                        ps.executeBatch();
+                                        List<Long> generated = new ArrayList<>(meals.size());
+                                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                                            while (keys.next()) {
+                                                generated.add(keys.getLong(1));
+                                            }
+                                        }
+                                        return generated;
+                                    }
+                                });
+        if (ids != null && !ids.isEmpty()) {
+            eventPublisher.publishEvent(new MealChangeEvent(MealChangeTypeEnum.CREATE, ids));
+        }
+    }
+
+    private static void bindMeal(PreparedStatement ps, Meal meal, Timestamp now)
+            throws SQLException {
+        int index = 1;
+        ps.setString(index++, meal.getTitle());
+        ps.setString(index++, meal.getImageUrl());
+        for (NutrientEnum nutrient : NutrientEnum.values()) {
+            BigDecimal value = nutrient.getAccessor().apply(meal);
+            if (value == null) {
+                ps.setNull(index++, Types.DECIMAL);
+            } else {
+                ps.setBigDecimal(index++, value);
+            }
+        }
+        ps.setBoolean(index++, meal.getChecked());
+        ps.setTimestamp(index++, now);
+        ps.setTimestamp(index, now);
+    }
+
+    // 与 Meal 实体上的校验注解保持一致
+    private static void validate(Meal meal) {
+        if (meal.getTitle() == null || meal.getTitle().isBlank()) {
+            throw new IllegalArgumentException("菜品标题不能为空");
+        }
+        if (meal.getTitle().length() > 100) {
+            throw new IllegalArgumentException("菜品标题长度不能超过100个字符");
+        }
+        if (meal.getImageUrl() != null && meal.getImageUrl().length() > 500) {
+            throw new IllegalArgumentException("图片地址长度不能超过500个字符");
+        }
+        for (NutrientEnum nutrient : NutrientEnum.values()) {
+            BigDecimal value = nutrient.getAccessor().apply(meal);
+            if (value != null && (value.signum() < 0 || value.compareTo(MAX_NUTRIENT_VALUE) > 0)) {
+                throw new IllegalArgumentException(nutrient.getDescription() + "超出有效范围: " + value);
+            }
+        }
+        if (meal.getChecked() == null) {
+            meal.setChecked(false);
+        }
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private static final class RawRecord {
+        private final long line;
+        private final String text;
+
+        private RawRecord(long line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+    }
+
+    private static final class ParsedChunk {
+        private final List<Meal> meals;
+        private final List<Long> lines;
+
+        private ParsedChunk(int capacity) {
+            this.meals = new ArrayList<>(capacity);
+            this.lines = new ArrayList<>(capacity);
+        }
+    }
+
+    private final class ImportJob {
+        private final String jobId;
+        private final String format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedAtMillis = System.currentTimeMillis();
+        private final AtomicLong totalRows = new AtomicLong();
+        private final AtomicLong importedRows = new AtomicLong();
+        private final AtomicLong failedRows = new AtomicLong();
+        private final AtomicInteger reportedErrors = new AtomicInteger();
+        private final Queue<MealImportProgressDTO.RowError> errors = new ConcurrentLinkedQueue<>();
+        private volatile String status = STATUS_RUNNING;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedAtMillis;
+
+        private ImportJob(String jobId, String format) {
+            this.jobId = jobId;
+            this.format = format;
+        }
+
+        private void addError(long line, String error) {
+            failedRows.incrementAndGet();
+            if (reportedErrors.incrementAndGet() <= maxReportedErrors) {
+                errors.add(new MealImportProgressDTO.RowError(line, error));
+            }
+        }
+
+        private void finish(String finalStatus, String finalMessage) {
+            this.message = finalMessage;
+            this.finishedAt = LocalDateTime.now();
+            this.finishedAtMillis = System.currentTimeMillis();
+            this.status = finalStatus;
+        }
+
+        private MealImportProgressDTO toDTO() {
+            MealImportProgressDTO dto = new MealImportProgressDTO();
+            dto.setJobId(jobId);
+            dto.setFormat(format);
+            dto.setStatus(status);
+            dto.setTotalRows(totalRows.get());
+            dto.setImportedRows(importedRows.get());
+            dto.setFailedRows(failedRows.get());
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            long end = finishedAtMillis > 0 ? finishedAtMillis : System.currentTimeMillis();
+            dto.setElapsedMs(end - startedAtMillis);
+            dto.setMessage(message);
+            dto.setErrors(new ArrayList<>(errors));
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.NutrientEnum;
+import com.example.helper.Common.Event.MealChangeEvent;
+import com.example.helper.Common.Util.NutrientMatrix;
+import com.example.helper.Common.Util.RebuildableSnapshot;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Executor;
+
+/**
+ * 菜品营养矩阵快照
+ *
+ * <p>一次流式扫描构建全部菜品的营养矩阵，供配餐优化等内存计算使用；菜品变更后在后台重建。
+ */
+@Service
+public class MealNutrientMatrixService {
+
+    private final MealService mealService;
+    private final RebuildableSnapshot<NutrientMatrix> snapshot;
+
+    public MealNutrientMatrixService(
+            MealService mealService,
+            @Qualifier("computeTaskExecutor") Executor computeTaskExecutor,
+            @Value("${meal.matrix.min-rebuild-interval-ms:1000}") long minRebuildIntervalMs) {
+        this.mealService = mealService;
+        this.snapshot =
+                new RebuildableSnapshot<>(
+                        "菜品营养矩阵", this::build, computeTaskExecutor, minRebuildIntervalMs);
+    }
+
+    /** 获取当前营养矩阵 */
+    public NutrientMatrix getMatrix() {
+        return snapshot.get();
+    }
+
+    /** 菜品变更提交后标记矩阵过期 */
+    @TransactionalEventListener
+    public void onMealChanged(MealChangeEvent event) {
+        snapshot.markDirty();
+    }
+
+    private NutrientMatrix build() {
+        int dimensions = NutrientEnum.values().length;
+        NutrientMatrix.Builder builder = new NutrientMatrix.Builder(dimensions);
+        double[] nutrients = new double[dimensions];
+        mealService.scanNutrientRows(
+                row -> {
+                    for (int d = 0; d < dimensions; d++) {
+                        Object value = row[d + 2];
+                        nutrients[d] = value == null ? Double.NaN : ((BigDecimal) value).doubleValue();
+                    }
+                    builder.add((Long) row[0], Boolean.TRUE.equals(row[1]), nutrients);
+                });
+        return builder.build();
+    }
+}
@@ -0,0 +1,545 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.NutrientEnum;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.NutrientMatrix;
+import com.example.helper.Dto.MealDTO;
+import com.example.helper.Dto.MealPlanRequestDTO;
+import com.example.helper.Dto.MealPlanResultDTO;
+import com.example.helper.Entity.Meal;
+import com.example.helper.Mapper.MealMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 配餐优化
+ *
+ * <p>在内存营养矩阵上求解：从菜品目录中挑选若干不重复的菜品，使各营养合计落在目标区间内并尽量靠近区间中点。
+ * 多个工作线程在计算线程池上并行执行带随机重启的局部搜索，共享当前最优解，到达截止时间后返回已找到的最优方案。
+ * 指定了上限的营养成分数据缺失的菜品不参与挑选（按 0 计算会让其绕过上限），排除数量在结果中返回。
+ */
+@Slf4j
+@Service
+public class MealPlanService {
+
+    // 方案菜品数上限
+    private static final int MAX_PLAN_SIZE = 10;
+
+    // 每次移动随机采样的候选菜品数
+    private static final int SAMPLE_SIZE = 32;
+
+    // 连续多少次未改进后执行扰动重启
+    private static final int STALL_LIMIT = 200;
+
+    // 距区间中点偏差的权重（远小于越界惩罚）
+    private static final double MID_WEIGHT = 0.001;
+
+    private final MealNutrientMatrixService matrixService;
+    private final MealService mealService;
+    private final Executor computeTaskExecutor;
+
+    @Value("${meal.plan.workers:4}")
+    private int workers;
+
+    @Value("${meal.plan.default-time-limit-ms:150}")
+    private long defaultTimeLimitMs;
+
+    @Value("${meal.plan.max-time-limit-ms:2000}")
+    private long maxTimeLimitMs;
+
+    public MealPlanService(
+            MealNutrientMatrixService matrixService,
+            MealService mealService,
+            @Qualifier("computeTaskExecutor") Executor computeTaskExecutor) {
+        this.matrixService = matrixService;
+        this.mealService = mealService;
+        this.computeTaskExecutor = computeTaskExecutor;
+    }
+
+    /** 求解配餐方案 */
+    public MealPlanResultDTO optimize(MealPlanRequestDTO request) {
+        long start = System.nanoTime();
+        int minMeals = request.getMinMeals() == null ? 1 : request.getMinMeals();
+        int maxMeals =
+                request.getMaxMeals() == null ? Math.max(minMeals, 5) : request.getMaxMeals();
+        if (minMeals < 1 || maxMeals < minMeals || maxMeals > MAX_PLAN_SIZE) {
+            throw new BusinessException(
+                    400, "菜品数量范围无效，应满足 1 <= min_meals <= max_meals <= " + MAX_PLAN_SIZE);
+        }
+        long timeLimitMs =
+                request.getTimeLimitMs() == null ? defaultTimeLimitMs : request.getTimeLimitMs();
+        timeLimitMs = Math.max(10, Math.min(timeLimitMs, maxTimeLimitMs));
+
+        Problem problem = buildProblem(request.getTargets());
+        NutrientMatrix matrix = matrixService.getMatrix();
+        int[] rows = candidateRows(matrix, Boolean.TRUE.equals(request.getSelectedOnly()));
+        int[] candidates = withoutMissingCapped(rows, matrix, problem);
+        if (candidates.length < minMeals) {
+            int excluded = rows.length - candidates.length;
+            throw new BusinessException(
+                    400,
+                    "可选菜品数量不足，至少需要 "
+                            + minMeals
+                            + " 个"
+                            + (excluded > 0 ? "（另有 " + excluded + " 个菜品缺少受上限约束的营养数据）" : ""));
+        }
+        int planMax = Math.min(maxMeals, candidates.length);
+
+        // 时限只计算搜索阶段，首次访问构建矩阵的耗时不占用搜索时间
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimitMs);
+        AtomicReference<Plan> best = new AtomicReference<>();
+        AtomicLong iterations = new AtomicLong();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(workers);
+        long seed = System.nanoTime();
+        for (int w = 0; w < workers; w++) {
+            Worker worker =
+                    new Worker(
+                            problem,
+                            matrix,
+                            candidates,
+                            minMeals,
+                            planMax,
+                            deadline,
+                            seed + w,
+                            best,
+                            iterations);
+            try {
+                futures.add(CompletableFuture.runAsync(worker, computeTaskExecutor));
+            } catch (RejectedExecutionException e) {
+                log.warn("计算线程池已满，配餐优化仅使用 {} 个工作线程", futures.size());
+                break;
+            }
+        }
+        if (futures.isEmpty()) {
+            new Worker(
+                            problem,
+                            matrix,
+                            candidates,
+                            minMeals,
+                            planMax,
+                            deadline,
+                            seed,
+                            best,
+                            iterations)
+                    .run();
+        } else {
+            awaitWorkers(futures, timeLimitMs);
+        }
+
+        Plan plan = best.get();
+        if (plan == null) {
+            throw new BusinessException(500, "未能在时限内得到配餐方案");
+        }
+        MealPlanResultDTO result = toResult(plan, problem, matrix);
+        result.setIterations(iterations.get());
+        result.setWorkers(Math.max(1, futures.size()));
+        result.setCandidateCount(candidates.length);
+        result.setExcludedCount(rows.length - candidates.length);
+        result.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private void awaitWorkers(List<CompletableFuture<Void>> futures, long timeLimitMs) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(timeLimitMs + 50, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("配餐优化到达截止时间，返回当前最优方案");
+        } catch (ExecutionException e) {
+            throw new BusinessException(500, "配餐优化失败: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(500, "配餐优化被中断");
+        }
+    }
+
+    private Problem buildProblem(Map<String, MealPlanRequestDTO.NutrientRange> targets) {
+        if (targets == null || targets.isEmpty()) {
+            throw new BusinessException(400, "营养目标不能为空");
+        }
+        int n = targets.size();
+        Problem problem = new Problem(n);
+        int j = 0;
+        for (Map.Entry<String, MealPlanRequestDTO.NutrientRange> entry : targets.entrySet()) {
+            NutrientEnum nutrient = NutrientEnum.fromCode(entry.getKey());
+            if (nutrient == null) {
+                throw new BusinessException(400, "未知的营养成分: " + entry.getKey());
+            }
+            MealPlanRequestDTO.NutrientRange range = entry.getValue();
+            if (range == null || (range.getMin() == null && range.getMax() == null)) {
+                throw new BusinessException(400, nutrient.getDescription() + "至少需要指定 min 或 max");
+            }
+            long lo =
+                    range.getMin() == null ? 0 : NutrientMatrix.scale(range.getMin().doubleValue());
+            long hi =
+                    range.getMax() == null
+                            ? Long.MAX_VALUE
+                            : NutrientMatrix.scale(range.getMax().doubleValue());
+            if (lo > hi) {
+                throw new BusinessException(400, nutrient.getDescription() + "的 min 不能大于 max");
+            }
+            problem.nutrients[j] = nutrient;
+            problem.dimensions[j] = nutrient.ordinal();
+            problem.lo[j] = lo;
+            problem.hi[j] = hi;
+            boolean bounded = range.getMax() != null;
+            if (bounded) {
+                problem.cappedMask |= 1 << nutrient.ordinal();
+            }
+            problem.hasMid[j] = bounded && range.getMin() != null;
+            problem.mid[j] = problem.hasMid[j] ? (lo + hi) / 2 : 0;
+            // 以区间上限（或下限）归一化，使不同量纲的营养成分可比
+            problem.weight[j] = 1.0 / Math.max(NutrientMatrix.SCALE, bounded ? hi : lo);
+            j++;
+        }
+        return problem;
+    }
+
+    private int[] candidateRows(NutrientMatrix matrix, boolean selectedOnly) {
+        int[] rows = new int[matrix.size()];
+        int count = 0;
+        for (int row = 0; row < matrix.size(); row++) {
+            if (!selectedOnly || matrix.isChecked(row)) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    // 排除受上限约束的营养成分缺失的菜品
+    private int[] withoutMissingCapped(int[] rows, NutrientMatrix matrix, Problem problem) {
+        if (problem.cappedMask == 0) {
+            return rows;
+        }
+        int[] kept = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            if ((matrix.missingMask(row) & problem.cappedMask) == 0) {
+                kept[count++] = row;
+            }
+        }
+        return Arrays.copyOf(kept, count);
+    }
+
+    private MealPlanResultDTO toResult(Plan plan, Problem problem, NutrientMatrix matrix) {
+        List<Long> ids = new ArrayList<>(plan.rows.length);
+        for (int row : plan.rows) {
+            ids.add(matrix.id(row));
+        }
+        Map<Long, Meal> mealsById =
+                mealService.getMealsByIds(ids).stream()
+                        .collect(Collectors.toMap(Meal::getId, Function.identity()));
+        List<MealDTO> meals = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Meal meal = mealsById.get(id);
+            if (meal != null) {
+                meals.add(MealMapper.toDTO(meal));
+            }
+        }
+
+        Map<String, BigDecimal> totals = new LinkedHashMap<>();
+        for (NutrientEnum nutrient : NutrientEnum.values()) {
+            long sum = 0;
+            for (int row : plan.rows) {
+                sum += matrix.value(row, nutrient.ordinal());
+            }
+            totals.put(nutrient.getCode(), BigDecimal.valueOf(sum, 2));
+        }
+
+        Map<String, BigDecimal> violations = new LinkedHashMap<>();
+        for (int j = 0; j < problem.size; j++) {
+            long sum = totals.get(problem.nutrients[j].getCode()).movePointRight(2).longValue();
+            if (sum < problem.lo[j]) {
+                violations.put(
+                        problem.nutrients[j].getCode(), BigDecimal.valueOf(sum - problem.lo[j], 2));
+            } else if (sum > problem.hi[j]) {
+                violations.put(
+                        problem.nutrients[j].getCode(), BigDecimal.valueOf(sum - problem.hi[j], 2));
+            }
+        }
+
+        MealPlanResultDTO result = new MealPlanResultDTO();
+        result.setMeals(meals);
+        result.setTotals(totals);
+        result.setViolations(violations);
+        result.setFeasible(violations.isEmpty());
+        result.setScore(plan.score);
+        return result;
+    }
+
+    // 约束定义：仅包含请求中出现的营养成分，数值均为放大后的整数
+    private static final class Problem {
+        private final int size;
+        private final NutrientEnum[] nutrients;
+        private final int[] dimensions;
+        private final long[] lo;
+        private final long[] hi;
+        private final long[] mid;
+        private final boolean[] hasMid;
+        private final double[] weight;
+
+        // 指定了上限的营养成分，按 NutrientEnum 序号置位
+        private int cappedMask;
+
+        private Problem(int size) {
+            this.size = size;
+            this.nutrients = new NutrientEnum[size];
+            this.dimensions = new int[size];
+            this.lo = new long[size];
+            this.hi = new long[size];
+            this.mid = new long[size];
+            this.hasMid = new boolean[size];
+            this.weight = new double[size];
+        }
+
+        // 评分越低越好，可行解的越界部分为 0
+        private double score(long[] sums) {
+            double score = 0;
+            for (int j = 0; j < size; j++) {
+                long v = sums[j];
+                if (v < lo[j]) {
+                    score += (lo[j] - v) * weight[j];
+                } else if (v > hi[j]) {
+                    score += (v - hi[j]) * weight[j];
+                }
+                if (hasMid[j]) {
+                    score += MID_WEIGHT * Math.abs(v - mid[j]) * weight[j];
+                }
+            }
+            return score;
+        }
+    }
+
+    private static final class Plan {
+        private final int[] rows;
+        private final double score;
+
+        private Plan(int[] rows, double score) {
+            this.rows = rows;
+            this.score = score;
+        }
+    }
+
+    // 单个搜索线程：采样邻域的贪心局部搜索 + 停滞后扰动重启
+    private static final class Worker implements Runnable {
+        private final Problem problem;
+        private final NutrientMatrix matrix;
+        private final int[] candidates;
+        private final int minMeals;
+        private final int maxMeals;
+        private final long deadline;
+        private final SplittableRandom random;
+        private final AtomicReference<Plan> best;
+        private final AtomicLong iterations;
+
+        private final int[] plan;
+        private int size;
+        private final long[] sums;
+        private final long[] trial;
+
+        private Worker(
+                Problem problem,
+                NutrientMatrix matrix,
+                int[] candidates,
+                int minMeals,
+                int maxMeals,
+                long deadline,
+                long seed,
+                AtomicReference<Plan> best,
+                AtomicLong iterations) {
+            this.problem = problem;
+            this.matrix = matrix;
+            this.candidates = candidates;
+            this.minMeals = minMeals;
+            this.maxMeals = maxMeals;
+            this.deadline = deadline;
+            this.random = new SplittableRandom(seed);
+            this.best = best;
+            this.iterations = iterations;
+            this.plan = new int[maxMeals];
+            this.sums = new long[problem.size];
+            this.trial = new long[problem.size];
+        }
+
+        @Override
+        public void run() {
+            randomize(minMeals + random.nextInt(maxMeals - minMeals + 1));
+            double current = problem.score(sums);
+            publish(current);
+            int stall = 0;
+            long count = 0;
+            while (true) {
+                if ((++count & 15) == 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+                double next = step(current);
+                if (next < current) {
+                    current = next;
+                    stall = 0;
+                    publish(current);
+                } else if (++stall >= STALL_LIMIT) {
+                    perturb();
+                    current = problem.score(sums);
+                    stall = 0;
+                }
+            }
+            iterations.addAndGet(count);
+        }
+
+        // 尝试一次移动（替换、增加或删除一个菜品），仅在改进时应用，返回新评分
+        private double step(double current) {
+            int move = random.nextInt(3);
+            if (move == 1 && size < maxMeals) {
+                return tryAdd(current);
+            }
+            if (move == 2 && size > minMeals) {
+                return tryRemove(current);
+            }
+            return tryReplace(current);
+        }
+
+        private double tryReplace(double current) {
+            int position = random.nextInt(size);
+            int out = plan[position];
+            int bestRow = -1;
+            double bestScore = current;
+            for (int s = 0; s < SAMPLE_SIZE; s++) {
+                int row = candidates[random.nextInt(candidates.length)];
+                if (contains(row)) {
+                    continue;
+                }
+                for (int j = 0; j < problem.size; j++) {
+                    int d = problem.dimensions[j];
+                    trial[j] = sums[j] - matrix.value(out, d) + matrix.value(row, d);
+                }
+                double score = problem.score(trial);
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestRow = row;
+                }
+            }
+            if (bestRow >= 0) {
+                apply(out, -1);
+                apply(bestRow, 1);
+                plan[position] = bestRow;
+            }
+            return bestScore;
+        }
+
+        private double tryAdd(double current) {
+            int bestRow = -1;
+            double bestScore = current;
+            for (int s = 0; s < SAMPLE_SIZE; s++) {
+                int row = candidates[random.nextInt(candidates.length)];
+                if (contains(row)) {
+                    continue;
+                }
+                for (int j = 0; j < problem.size; j++) {
+                    trial[j] = sums[j] + matrix.value(row, problem.dimensions[j]);
+                }
+                double score = problem.score(trial);
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestRow = row;
+                }
+            }
+            if (bestRow >= 0) {
+                apply(bestRow, 1);
+                plan[size++] = bestRow;
+            }
+            return bestScore;
+        }
+
+        private double tryRemove(double current) {
+            int bestPosition = -1;
+            double bestScore = current;
+            for (int p = 0; p < size; p++) {
+                for (int j = 0; j < problem.size; j++) {
+                    trial[j] = sums[j] - matrix.value(plan[p], problem.dimensions[j]);
+                }
+                double score = problem.score(trial);
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestPosition = p;
+                }
+            }
+            if (bestPosition >= 0) {
+                apply(plan[bestPosition], -1);
+                plan[bestPosition] = plan[--size];
+            }
+            return bestScore;
+        }
+
+        // 扰动：随机替换约一半菜品，跳出局部最优
+        private void perturb() {
+            int replacements = Math.max(1, size / 2);
+            for (int r = 0; r < replacements; r++) {
+                int position = random.nextInt(size);
+                int row = candidates[random.nextInt(candidates.length)];
+                if (!contains(row)) {
+                    apply(plan[position], -1);
+                    apply(row, 1);
+                    plan[position] = row;
+                }
+            }
+        }
+
+        private void randomize(int targetSize) {
+            size = 0;
+            Arrays.fill(sums, 0);
+            while (size < targetSize) {
+                int row = candidates[random.nextInt(candidates.length)];
+                if (!contains(row)) {
+                    apply(row, 1);
+                    plan[size++] = row;
+                }
+            }
+        }
+
+        private void apply(int row, int sign) {
+            for (int j = 0; j < problem.size; j++) {
+                sums[j] += (long) sign * matrix.value(row, problem.dimensions[j]);
+            }
+        }
+
+        private boolean contains(int row) {
+            for (int p = 0; p < size; p++) {
+                if (plan[p] == row) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void publish(double score) {
+            Plan current = best.get();
+            while (current == null || score < current.score) {
+                Plan candidate = new Plan(Arrays.copyOf(plan, size), score);
+                if (best.compareAndSet(current, candidate)) {
+                    return;
+                }
+                current = best.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.NutrientEnum;
+import com.example.helper.Common.Enum.SelectionActionEnum;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.NutrientMatrix;
+import com.example.helper.Common.Util.ReadConsistency;
+import com.example.helper.Dto.SelectionResultDTO;
+import com.example.helper.Dto.SelectionSummaryDTO;
+import com.example.helper.Entity.Meal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 按用户的菜品选中状态
+ *
+ * <p>每个用户（请求头 User-Id）的选中状态以位图保存在 Redis 中，位偏移即菜品ID；切换选中只写 Redis 中的一个位，不写 MySQL。位偏移不超过当前最大的菜品ID，
+ * 位图大小随菜品数量增长，不会因请求中任意大的ID膨胀。本节点以 Caffeine 缓存位图副本，超过有效期后比对 Redis 中的版本号决定是否重新拉取。
+ *
+ * <p>按ID修改与选中列表按ID读取菜品（先查二级缓存，提交时即失效，未命中时读主库），结果与已提交的数据一致，可与目录版本号一起生成 ETag；
+ * 选中数量与营养汇总在位图和营养矩阵上计算，矩阵在菜品变更后异步重建，刚变更的菜品会短暂延迟反映，这两项不用于生成 ETag。
+ */
+@Slf4j
+@Service
+public class MealSelectionService {
+
+    // 标识用户的请求头，缺省时操作全局选中状态（meals.checked 列）
+    public static final String USER_ID_HEADER = "User-Id";
+
+    // 单次按ID操作的菜品数上限，与全局批量选中一致
+    private static final int MAX_SELECTION_IDS = 5000;
+
+    // 用户ID最大长度
+    private static final int MAX_USER_ID_LENGTH = 64;
+
+    // 按关键字整体覆盖位图时，版本冲突的最大重试次数
+    private static final int MAX_REPLACE_ATTEMPTS = 3;
+
+    // 翻转单个位并递增版本号，返回 {新状态, 版本号}
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> TOGGLE_SCRIPT =
+            new DefaultRedisScript<>(
+                    "local bit = 1 - redis.call('GETBIT', KEYS[1], ARGV[1]) "
+                            + "redis.call('SETBIT', KEYS[1], ARGV[1], bit) "
+                            + "return {bit, redis.call('INCR', KEYS[2])}",
+                    List.class);
+
+    // 按ID批量设置（ARGV[1] 为 1/0）或翻转（ARGV[1] 为 invert），返回 {实际变化的位数, 版本号}
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> BATCH_SCRIPT =
+            new DefaultRedisScript<>(
+                    "local changed = 0 "
+                            + "for i = 2, #ARGV do "
+                            + "local old = redis.call('GETBIT', KEYS[1], ARGV[i]) "
+                            + "local new = ARGV[1] == 'invert' and 1 - old or tonumber(ARGV[1]) "
+                            + "if new ~= old then redis.call('SETBIT', KEYS[1], ARGV[i], new) changed = changed + 1 end "
+                            + "end "
+                            + "return {changed, redis.call('INCR', KEYS[2])}",
+                    List.class);
+
+    // 版本号与 ARGV[1] 一致时整体覆盖位图（空值表示清空），返回新版本号；版本冲突返回 -1
+    static final RedisScript<Long> REPLACE_SCRIPT =
+            new DefaultRedisScript<>(
+                    "if (tonumber(redis.call('GET', KEYS[2])) or 0) ~= tonumber(ARGV[1]) then return -1 end "
+                            + "if ARGV[2] == '' then redis.call('DEL', KEYS[1]) else redis.call('SET', KEYS[1], ARGV[2]) end "
+                            + "return redis.call('INCR', KEYS[2])",
+                    Long.class);
+
+    // 原子读取 {版本号, 位图前 ARGV[1] + 1 个字节, 位图总字节数}
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> LOAD_SCRIPT =
+            new DefaultRedisScript<>(
+                    "return {redis.call('GET', KEYS[2]) or '', "
+                            + "redis.call('GETRANGE', KEYS[1], 0, ARGV[1]), "
+                            + "redis.call('STRLEN', KEYS[1])}",
+                    List.class);
+
+    // 脚本返回列表中的位图按原始字节反序列化
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<List> RAW_LIST_SERIALIZER =
+            (RedisSerializer) RedisSerializer.byteArray();
+
+    private final StringRedisTemplate redisTemplate;
+    private final MealService mealService;
+    private final MealNutrientMatrixService matrixService;
+    private final String keyPrefix;
+    private final long localCacheTtlMs;
+    private final Cache<String, Selection> localCache;
+
+    // 由营养矩阵派生的现存菜品ID位图，矩阵重建后随之重建
+    private volatile MealIndex mealIndex;
+
+    // 最近一次从主库读取的最大菜品ID；营养矩阵异步重建，新建的菜品可能尚未反映在矩阵中
+    private volatile long maxMealId;
+
+    public MealSelectionService(
+            StringRedisTemplate redisTemplate,
+            MealService mealService,
+            MealNutrientMatrixService matrixService,
+            @Value("${meal.selection.key-prefix:helper:selection:}") String keyPrefix,
+            @Value("${meal.selection.local-cache-size:10000}") long localCacheSize,
+            @Value("${meal.selection.local-cache-ttl-ms:1000}") long localCacheTtlMs,
+            @Value("${meal.selection.local-cache-idle-minutes:30}") long localCacheIdleMinutes) {
+        this.redisTemplate = redisTemplate;
+        this.mealService = mealService;
+        this.matrixService = matrixService;
+        this.keyPrefix = keyPrefix;
+        this.localCacheTtlMs = localCacheTtlMs;
+        this.localCache =
+                Caffeine.newBuilder()
+                        .maximumSize(localCacheSize)
+                        .expireAfterAccess(Duration.ofMinutes(localCacheIdleMinutes))
+                        .build();
+    }
+
+    /** 切换用户对指定菜品的选中状态，返回切换后是否选中 */
+    public boolean toggle(String userId, long mealId) {
+        validateUserId(userId);
+        int bit = toBitIndex(mealId);
+        List<?> result = redisTemplate.execute(TOGGLE_SCRIPT, keys(userId), String.valueOf(bit));
+        boolean selected = ((Long) result.get(0)) == 1L;
+        applyLocal(userId, (Long) result.get(1), bits -> bits.set(bit, selected));
+        return selected;
+    }
+
+    /** 按ID列表或标题关键字批量修改用户的选中状态 */
+    public SelectionResultDTO updateSelection(
+            String userId, SelectionActionEnum action, List<Long> ids, String keyword) {
+        validateUserId(userId);
+        if (action == null) {
+            throw new BusinessException(400, "操作类型不能为空");
+        }
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byIds == (keyword != null)) {
+            throw new BusinessException(400, "ids 与 keyword 必须且只能指定一个");
+        }
+        if (byIds && ids.size() > MAX_SELECTION_IDS) {
+            throw new BusinessException(400, "单次最多操作 " + MAX_SELECTION_IDS + " 个菜品");
+        }
+        if (!byIds && keyword.isBlank()) {
+            throw new BusinessException(400, "keyword 不能为空");
+        }
+
+        // 本次操作涉及的菜品以数据库为准修正矩阵中的菜品ID集合，刚创建或删除的菜品也能正确计数
+        BitSet existing = (BitSet) currentIndex().existing.clone();
+        int affected;
+        if (byIds) {
+            List<Long> distinct = ids.stream().distinct().toList();
+            List<Long> found = findExisting(distinct);
+            distinct.forEach(id -> existing.clear(id.intValue()));
+            found.forEach(id -> existing.set(id.intValue()));
+            affected = updateByIds(userId, action, found);
+        } else {
+            BitSet target = findByKeyword(keyword);
+            existing.or(target);
+            affected = updateByKeyword(userId, action, target);
+        }
+
+        BitSet selected = load(userId).bits;
+        SelectionResultDTO result = new SelectionResultDTO();
+        result.setAction(action.getCode());
+        result.setAffectedCount(affected);
+        result.setSelectedCount((long) intersectionCount(selected, existing));
+        if (byIds) {
+            result.setSelectedIds(
+                    ids.stream()
+                            .distinct()
+                            .filter(id -> id > 0 && id <= Integer.MAX_VALUE)
+                            .filter(id -> selected.get(id.intValue()))
+                            .toList());
+        }
+        return result;
+    }
+
+    /** 获取用户选中的菜品（按ID升序），已删除的菜品在按ID读取时过滤 */
+    public List<Meal> getSelectedMeals(String userId) {
+        validateUserId(userId);
+        BitSet selected = load(userId).bits;
+        List<Long> ids = new ArrayList<>(selected.cardinality());
+        for (int id = selected.nextSetBit(0); id >= 0; id = selected.nextSetBit(id + 1)) {
+            ids.add((long) id);
+        }
+        return ids.isEmpty()
+                ? List.of()
+                : ReadConsistency.onPrimary(() -> mealService.getMealsByIds(ids));
+    }
+
+    /** 用户选中状态的版本号，用于生成 ETag */
+    public long getVersion(String userId) {
+        validateUserId(userId);
+        return load(userId).version;
+    }
+
+    /** 选中菜品数量与营养汇总；userId 为空时统计全局选中状态 */
+    public SelectionSummaryDTO getSummary(String userId) {
+        NutrientMatrix matrix = matrixService.getMatrix();
+        NutrientEnum[] nutrients = NutrientEnum.values();
+        long[] sums = new long[nutrients.length];
+        long count = 0;
+        if (userId == null) {
+            for (int row = 0; row < matrix.size(); row++) {
+                if (matrix.isChecked(row)) {
+                    accumulate(matrix, row, sums);
+                    count++;
+                }
+            }
+        } else {
+            validateUserId(userId);
+            BitSet selected = load(userId).bits;
+            for (int id = selected.nextSetBit(0); id >= 0; id = selected.nextSetBit(id + 1)) {
+                int row = matrix.rowOf(id);
+                if (row >= 0) {
+                    accumulate(matrix, row, sums);
+                    count++;
+                }
+            }
+        }
+
+        Map<String, BigDecimal> totals = new LinkedHashMap<>();
+        Map<String, BigDecimal> averages = new LinkedHashMap<>();
+        for (int d = 0; d < nutrients.length; d++) {
+            BigDecimal total = BigDecimal.valueOf(sums[d], 2);
+            totals.put(nutrients[d].getCode(), total);
+            averages.put(
+                    nutrients[d].getCode(),
+                    count > 0
+                            ? total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP)
+                            : BigDecimal.valueOf(0, 2));
+        }
+
+        SelectionSummaryDTO summary = new SelectionSummaryDTO();
+        summary.setUserId(userId);
+        summary.setSelectedCount(count);
+        summary.setTotalMeals((long) matrix.size());
+        summary.setTotals(totals);
+        summary.setAverages(averages);
+        return summary;
+    }
+
+    // 给定ID中存在的菜品：按ID读取（先查二级缓存），不使用异步重建的营养矩阵
+    private List<Long> findExisting(List<Long> distinct) {
+        for (Long id : distinct) {
+            validateMealId(id);
+        }
+        return ReadConsistency.onPrimary(() -> mealService.getMealsByIds(distinct)).stream()
+                .map(Meal::getId)
+                .toList();
+    }
+
+    private BitSet findByKeyword(String keyword) {
+        List<Long> ids = ReadConsistency.onPrimary(() -> mealService.findMealIdsByTitle(keyword.trim()));
+        BitSet target = new BitSet();
+        for (Long id : ids) {
+            if (id > 0 && id <= Integer.MAX_VALUE) {
+                target.set(id.intValue());
+            }
+        }
+        return target;
+    }
+
+    // 按ID操作：逐位写入 Redis，found 为已确认存在的菜品
+    private int updateByIds(String userId, SelectionActionEnum action, List<Long> found) {
+        if (found.isEmpty()) {
+            return 0;
+        }
+
+        String op =
+                switch (action) {
+                    case SELECT -> "1";
+                    case DESELECT -> "0";
+                    case INVERT -> "invert";
+                };
+        List<String> args = new ArrayList<>(found.size() + 1);
+        args.add(op);
+        found.forEach(id -> args.add(String.valueOf(id)));
+        List<?> result = redisTemplate.execute(BATCH_SCRIPT, keys(userId), args.toArray());
+        applyLocal(
+                userId,
+                (Long) result.get(1),
+                bits -> {
+                    for (Long id : found) {
+                        int bit = id.intValue();
+                        switch (action) {
+                            case SELECT -> bits.set(bit);
+                            case DESELECT -> bits.clear(bit);
+                            case INVERT -> bits.flip(bit);
+                        }
+                    }
+                });
+        return ((Long) result.get(0)).intValue();
+    }
+
+    // 按关键字操作：在本地位图上做集合运算，再以版本号做乐观并发控制整体写回（超出最大菜品ID的旧位不读入，写回时一并清除）
+    private int updateByKeyword(String userId, SelectionActionEnum action, BitSet target) {
+        for (int attempt = 0; attempt < MAX_REPLACE_ATTEMPTS; attempt++) {
+            Selection current = fetch(userId);
+            BitSet updated = (BitSet) current.bits.clone();
+            switch (action) {
+                case SELECT -> updated.or(target);
+                case DESELECT -> updated.andNot(target);
+                case INVERT -> updated.xor(target);
+            }
+
+            BitSet changed = (BitSet) current.bits.clone();
+            changed.xor(updated);
+            if (changed.isEmpty()) {
+                return 0;
+            }
+            Long version =
+                    redisTemplate.execute(
+                            REPLACE_SCRIPT,
+                            RedisSerializer.byteArray(),
+                            new GenericToStringSerializer<>(Long.class),
+                            keys(userId),
+                            String.valueOf(current.version).getBytes(StandardCharsets.UTF_8),
+                            toRedis(updated));
+            if (version != null && version >= 0) {
+                localCache.put(userId, new Selection(updated, version, System.currentTimeMillis()));
+                return changed.cardinality();
+            }
+            log.debug("用户选中状态版本冲突，重试，用户: {}", userId);
+        }
+        throw new BusinessException(409, "选中状态正在被并发修改，请稍后重试");
+    }
+
+    // 读取用户位图：本地副本在有效期内直接使用，否则比对 Redis 版本号
+    private Selection load(String userId) {
+        Selection cached = localCache.getIfPresent(userId);
+        long now = System.currentTimeMillis();
+        if (cached != null) {
+            if (now - cached.validatedAt < localCacheTtlMs) {
+                return cached;
+            }
+            String version = redisTemplate.opsForValue().get(versionKey(userId));
+            if (cached.version == (version == null ? 0 : Long.parseLong(version))) {
+                cached.validatedAt = now;
+                return cached;
+            }
+        }
+        return fetch(userId);
+    }
+
+    // 从 Redis 拉取最新的位图与版本号，只读取到位图下标上限为止
+    private Selection fetch(String userId) {
+        long limit = bitLimit();
+        List<?> result = loadRange(userId, limit);
+        // Redis 中的位图更长：可能是其他节点刚写入了新菜品，刷新上限后重读；仍超出的部分对应不存在的菜品，不读入本地
+        if ((Long) result.get(2) > byteLength(limit)) {
+            long refreshed = refreshMaxMealId();
+            if (refreshed > limit) {
+                result = loadRange(userId, refreshed);
+            }
+        }
+        byte[] version = (byte[]) result.get(0);
+        Selection selection =
+                new Selection(
+                        fromRedis((byte[]) result.get(1)),
+                        version.length == 0
+                                ? 0
+                                : Long.parseLong(new String(version, StandardCharsets.UTF_8)),
+                        System.currentTimeMillis());
+        localCache.put(userId, selection);
+        return selection;
+    }
+
+    private List<?> loadRange(String userId, long limit) {
+        return redisTemplate.execute(
+                LOAD_SCRIPT,
+                RedisSerializer.string(),
+                RAW_LIST_SERIALIZER,
+                keys(userId),
+                String.valueOf(byteLength(limit) - 1));
+    }
+
+    // 本节点写入成功后直接更新本地副本；期间有其他节点写入时丢弃副本，下次读取重新拉取
+    private void applyLocal(String userId, long version, Consumer<BitSet> change) {
+        localCache
+                .asMap()
+                .computeIfPresent(
+                        userId,
+                        (key, cached) -> {
+                            if (cached.version != version - 1) {
+                                return null;
+                            }
+                            BitSet bits = (BitSet) cached.bits.clone();
+                            change.accept(bits);
+                            return new Selection(bits, version, System.currentTimeMillis());
+                        });
+    }
+
+    private MealIndex currentIndex() {
+        NutrientMatrix matrix = matrixService.getMatrix();
+        MealIndex index = mealIndex;
+        if (index == null || index.matrix != matrix) {
+            BitSet existing = new BitSet();
+            for (int row = 0; row < matrix.size(); row++) {
+                long id = matrix.id(row);
+                if (id > 0 && id <= Integer.MAX_VALUE) {
+                    existing.set((int) id);
+                }
+            }
+            index = new MealIndex(matrix, existing);
+            mealIndex = index;
+        }
+        return index;
+    }
+
+    // 位图下标上限：营养矩阵中的最大ID与最近一次从主库读取的最大ID中的较大者
+    private long bitLimit() {
+        return Math.max(maxMealId, currentIndex().existing.length() - 1);
+    }
+
+    private long refreshMaxMealId() {
+        long max = ReadConsistency.onPrimary(mealService::getMaxMealId);
+        maxMealId = max;
+        return max;
+    }
+
+    private static void accumulate(NutrientMatrix matrix, int row, long[] sums) {
+        for (int d = 0; d < sums.length; d++) {
+            sums[d] += matrix.value(row, d);
+        }
+    }
+
+    private static int intersectionCount(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    private static void validateUserId(String userId) {
+        if (userId == null || userId.isBlank()) {
+            throw new BusinessException(400, "用户ID不能为空");
+        }
+        if (userId.length() > MAX_USER_ID_LENGTH) {
+            throw new BusinessException(400, "用户ID长度不能超过 " + MAX_USER_ID_LENGTH);
+        }
+    }
+
+    // 位图下标即菜品ID，超过当前最大菜品ID的视为不存在，避免任意大的ID把位图撑到数百 MB
+    private int toBitIndex(Long mealId) {
+        validateMealId(mealId);
+        if (mealId > bitLimit() && mealId > refreshMaxMealId()) {
+            throw new BusinessException(404, "菜品不存在: " + mealId);
+        }
+        return mealId.intValue();
+    }
+
+    // 位图按 int 下标，菜品ID需在 (0, Integer.MAX_VALUE] 范围内
+    private static void validateMealId(Long mealId) {
+        if (mealId == null || mealId <= 0 || mealId > Integer.MAX_VALUE) {
+            throw new BusinessException(400, "菜品ID无效: " + mealId);
+        }
+    }
+
+    // 覆盖下标 [0, limit] 所需的字节数
+    private static long byteLength(long limit) {
+        return limit / Byte.SIZE + 1;
+    }
+
+    // 花括号为 Redis Cluster 的 hash tag，保证位图与版本号落在同一槽位，可在同一脚本中操作
+    private List<String> keys(String userId) {
+        return List.of(bitmapKey(userId), versionKey(userId));
+    }
+
+    private String bitmapKey(String userId) {
+        return keyPrefix + "{" + userId + "}";
+    }
+
+    private String versionKey(String userId) {
+        return bitmapKey(userId) + ":version";
+    }
+
+    // Redis 位图按字节高位在前编号，BitSet 按低位在前，转换时逐字节翻转位序
+    static BitSet fromRedis(byte[] bytes) {
+        byte[] reversed = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            reversed[i] = (byte) (Integer.reverse(bytes[i]) >>> 24);
+        }
+        return BitSet.valueOf(reversed);
+    }
+
+    static byte[] toRedis(BitSet bits) {
+        byte[] bytes = bits.toByteArray();
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (Integer.reverse(bytes[i]) >>> 24);
+        }
+        return bytes;
+    }
+
+    /** 用户位图的本地副本，位图发布后不再修改 */
+    private static class Selection {
+        private final BitSet bits;
+        private final long version;
+        private volatile long validatedAt;
+
+        private Selection(BitSet bits, long version, long validatedAt) {
+            this.bits = bits;
+            this.version = version;
+            this.validatedAt = validatedAt;
+        }
+    }
+
+    /** 营养矩阵及其现存菜品ID位图 */
+    private static class MealIndex {
+        private final NutrientMatrix matrix;
+        private final BitSet existing;
+
+        private MealIndex(NutrientMatrix matrix, BitSet existing) {
+            this.matrix = matrix;
+            this.existing = existing;
+        }
+    }
+}
@@ -1,27 +1,79 @@
 package com.example.helper.Service;
 
+import com.example.helper.Common.Enum.MealChangeTypeEnum;
+import com.example.helper.Common.Enum.SelectionActionEnum;
+import com.example.helper.Common.Event.MealChangeEvent;
 import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.ReadConsistency;
+import com.example.helper.Dto.BatchDeleteResultDTO;
+import com.example.helper.Dto.SelectionResultDTO;
 import com.example.helper.Entity.Meal;
 import com.example.helper.Repository.MealRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class MealService {
 
+    // 单次批量选中操作允许的最大ID数量
+    private static final int MAX_SELECTION_IDS = 5000;
+
+    // 单个变更事件逐个处理的最大ID数量，超过时标记为批量事件，监听方整体失效而非逐个处理
+    private static final int MAX_EVENT_IDS = 5000;
+
+    // 选中状态以 JDBC 更新（绕过 Hibernate 的批量更新，不清空整个菜品缓存区域）；NULL 视为未选中
+    private static final String TOGGLE_CHECKED_SQL =
+            "UPDATE meals SET checked = CASE WHEN checked = TRUE THEN FALSE ELSE TRUE END,"
+                    + " updated_at = :now WHERE id IN (:ids)";
+
+    private static final String UPDATE_CHECKED_SQL =
+            "UPDATE meals SET checked = :checked, updated_at = :now"
+                    + " WHERE id IN (:ids) AND checked <> :checked";
+
     private final MealRepository mealRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MealCacheService mealCacheService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // 批量删除时每条 IN 语句的ID数量
+    @Value("${meal.delete.chunk-size:1000}")
+    private int deleteChunkSize;
+
+    @PersistenceContext private EntityManager entityManager;
 
     // 构造函数注入（推荐方式）
-    public MealService(MealRepository mealRepository) {
+    public MealService(
+            MealRepository mealRepository,
+            ApplicationEventPublisher eventPublisher,
+            MealCacheService mealCacheService,
+            NamedParameterJdbcTemplate jdbcTemplate) {
         this.mealRepository = mealRepository;
+        this.eventPublisher = eventPublisher;
+        this.mealCacheService = mealCacheService;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     // 分页获取所有菜品
@@ -42,16 +94,34 @@ public class MealService {
         return mealRepository.findById(id);
     }
 
+    // 根据ID列表批量获取菜品（按传入顺序返回，忽略不存在的ID）
+    // 与 findAllById 的 IN 查询不同，先查二级缓存，只有未命中的ID才访问数据库
+    @Transactional(readOnly = true)
+    public List<Meal> getMealsByIds(List<Long> ids) {
+        return entityManager
+                .unwrap(Session.class)
+                .byMultipleIds(Meal.class)
+                .multiLoad(ids.stream().distinct().toList())
+                .stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     // 添加新菜品
     @Transactional
     public Meal addMeal(Meal meal) {
-        return mealRepository.save(meal);
+        Meal savedMeal = mealRepository.save(meal);
+        publishChange(MealChangeTypeEnum.CREATE, List.of(savedMeal.getId()));
+        return savedMeal;
     }
 
     // 批量添加菜品
     @Transactional
     public List<Meal> addMealsBatch(List<Meal> meals) {
-        return meals.stream().map(mealRepository::save).collect(Collectors.toList());
+        List<Meal> savedMeals =
+                meals.stream().map(mealRepository::save).collect(Collectors.toList());
+        publishChange(MealChangeTypeEnum.CREATE, idsOf(savedMeals));
+        return savedMeals;
     }
 
     // 更新菜品信息
@@ -63,27 +133,34 @@ public class MealService {
                         .orElseThrow(() -> new BusinessException(404, "菜品不存在，ID: " + id));
 
         updateMealFields(existingMeal, updatedMeal);
-        return mealRepository.save(existingMeal);
+        Meal savedMeal = mealRepository.save(existingMeal);
+        publishChange(MealChangeTypeEnum.UPDATE, List.of(id));
+        return savedMeal;
     }
 
     // 批量更新菜品
     @Transactional
     public List<Meal> updateMealsBatch(List<Meal> meals) {
-        return meals.stream()
-                .map(
-                        meal -> {
-                            Meal existingMeal =
-                                    mealRepository
-                                            .findById(meal.getId())
-                                            .orElseThrow(
-                                                    () ->
-                                                            new BusinessException(
-                                                                    404,
-                                                                    "菜品不存在，ID: " + meal.getId()));
-                            updateMealFields(existingMeal, meal);
-                            return mealRepository.save(existingMeal);
-                        })
-                .collect(Collectors.toList());
+        List<Meal> savedMeals =
+                meals.stream()
+                        .map(
+                                meal -> {
+                                    Meal existingMeal =
+                                            mealRepository
+                                                    .findById(meal.getId())
+                                                    .orElseThrow(
+                                                            () ->
+                                                                    new BusinessException(
+                                                                            404,
+                                                                            "菜品不存在，ID: "
+                                                                                    + meal
+                                                                                            .getId()));
+                                    updateMealFields(existingMeal, meal);
+                                    return mealRepository.save(existingMeal);
+                                })
+                        .collect(Collectors.toList());
+        publishChange(MealChangeTypeEnum.UPDATE, idsOf(savedMeals));
+        return savedMeals;
     }
 
     // 删除菜品
@@ -93,27 +170,113 @@ public class MealService {
             throw new BusinessException(404, "菜品不存在，ID: " + id);
         }
         mealRepository.deleteById(id);
+        publishChange(MealChangeTypeEnum.DELETE, List.of(id));
     }
 
-    // 批量删除菜品
+    // 批量删除菜品（按块查询存在的ID并以 DELETE ... IN 删除，不加载实体；不存在的ID跳过并返回）
     @Transactional
-    public void deleteMealsBatch(List<Long> ids) {
-        List<Meal> mealsToDelete = mealRepository.findAllById(ids);
-        if (mealsToDelete.size() != ids.size()) {
-            throw new BusinessException(404, "部分菜品不存在");
+    public BatchDeleteResultDTO deleteMealsBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException(400, "菜品ID列表不能为空");
+        }
+        List<Long> requested =
+                new ArrayList<>(
+                        ids.stream()
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        List<Long> deleted = new ArrayList<>(requested.size());
+        for (int from = 0; from < requested.size(); from += deleteChunkSize) {
+            List<Long> chunk =
+                    requested.subList(from, Math.min(from + deleteChunkSize, requested.size()));
+            List<Long> existing = mealRepository.findExistingIdsIn(chunk);
+            if (!existing.isEmpty()) {
+                mealRepository.deleteByIdIn(existing);
+                deleted.addAll(existing);
+            }
         }
-        mealRepository.deleteAll(mealsToDelete);
+        publishChange(MealChangeTypeEnum.DELETE, deleted);
+
+        Set<Long> deletedSet = new HashSet<>(deleted);
+        BatchDeleteResultDTO result = new BatchDeleteResultDTO();
+        result.setRequestedCount(requested.size());
+        result.setDeletedCount(deleted.size());
+        result.setMissingIds(requested.stream().filter(id -> !deletedSet.contains(id)).toList());
+        return result;
     }
 
-    // 切换菜品选中状态
+    // 切换菜品选中状态（单条 UPDATE 原子翻转，避免读-改-写丢失并发更新）
     @Transactional
     public Meal toggleMealSelection(Long id) {
-        Meal meal =
-                mealRepository
-                        .findById(id)
-                        .orElseThrow(() -> new BusinessException(404, "菜品不存在，ID: " + id));
-        meal.setChecked(!meal.getChecked());
-        return mealRepository.save(meal);
+        if (updateChecked(TOGGLE_CHECKED_SQL, List.of(id), null, LocalDateTime.now()) == 0) {
+            throw new BusinessException(404, "菜品不存在，ID: " + id);
+        }
+        publishChange(MealChangeTypeEnum.TOGGLE, List.of(id));
+        return mealRepository
+                .findById(id)
+                .orElseThrow(() -> new BusinessException(404, "菜品不存在，ID: " + id));
+    }
+
+    // 批量选中/取消选中/反选（按ID列表或标题关键字，先锁定状态需要改变的菜品再按ID更新）
+    @Transactional
+    public SelectionResultDTO updateSelection(
+            SelectionActionEnum action, List<Long> ids, String keyword) {
+        if (action == null) {
+            throw new BusinessException(400, "操作类型不能为空");
+        }
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byIds == (keyword != null)) {
+            throw new BusinessException(400, "ids 与 keyword 必须且只能指定一个");
+        }
+        if (byIds && ids.size() > MAX_SELECTION_IDS) {
+            throw new BusinessException(400, "单次最多操作 " + MAX_SELECTION_IDS + " 个菜品");
+        }
+
+        if (!byIds && keyword.isBlank()) {
+            throw new BusinessException(400, "keyword 不能为空");
+        }
+
+        // 先锁定状态需要改变的菜品，再按ID更新，事件只包含实际更新的菜品
+        LocalDateTime now = LocalDateTime.now();
+        String pattern = byIds ? null : MealRepository.containsPattern(keyword.trim());
+        List<Long> changed;
+        if (action == SelectionActionEnum.INVERT) {
+            changed =
+                    byIds
+                            ? mealRepository.findExistingIdsIn(ids)
+                            : mealRepository.findIdsByTitleLikeForUpdate(pattern);
+            for (int from = 0; from < changed.size(); from += MAX_SELECTION_IDS) {
+                updateChecked(
+                        TOGGLE_CHECKED_SQL,
+                        changed.subList(from, Math.min(changed.size(), from + MAX_SELECTION_IDS)),
+                        null,
+                        now);
+            }
+        } else {
+            boolean checked = action == SelectionActionEnum.SELECT;
+            changed =
+                    byIds
+                            ? mealRepository.findIdsToUpdateChecked(ids, checked)
+                            : mealRepository.findIdsToUpdateCheckedByTitleLike(pattern, checked);
+            for (int from = 0; from < changed.size(); from += MAX_SELECTION_IDS) {
+                updateChecked(
+                        UPDATE_CHECKED_SQL,
+                        changed.subList(from, Math.min(changed.size(), from + MAX_SELECTION_IDS)),
+                        checked,
+                        now);
+            }
+        }
+        int affected = changed.size();
+        publishChange(MealChangeTypeEnum.TOGGLE, changed);
+
+        SelectionResultDTO result = new SelectionResultDTO();
+        result.setAction(action.getCode());
+        result.setAffectedCount(affected);
+        result.setSelectedCount(mealRepository.countByCheckedTrue());
+        if (byIds) {
+            result.setSelectedIds(mealRepository.findCheckedIdsIn(ids));
+        }
+        return result;
     }
 
     // 获取所有已选中的菜品
@@ -128,6 +291,12 @@ public class MealService {
         return mealRepository.findByTitleContaining(title);
     }
 
+    // 根据标题关键字查询菜品ID
+    @Transactional(readOnly = true)
+    public List<Long> findMealIdsByTitle(String keyword) {
+        return mealRepository.findIdsByTitleLike(MealRepository.containsPattern(keyword));
+    }
+
     // 统计选中菜品数量
     @Transactional(readOnly = true)
     public long countSelectedMeals() {
@@ -140,6 +309,51 @@ public class MealService {
         return mealRepository.count();
     }
 
+    // 当前最大的菜品ID，没有菜品时为 0
+    @Transactional(readOnly = true)
+    public long getMaxMealId() {
+        Long maxId = mealRepository.findMaxId();
+        return maxId == null ? 0 : maxId;
+    }
+
+    // 流式遍历菜品营养数据（只读事务内逐行消费，不加载实体，行格式见 MealRepository）
+    // 用于构建统计、矩阵等快照，快照只在菜品变更后重建，因此读主库，避免副本延迟导致快照长期落后
+    @Transactional(readOnly = true)
+    public void scanNutrientRows(Consumer<Object[]> consumer) {
+        ReadConsistency.onPrimary(
+                () -> {
+                    try (Stream<Object[]> rows = mealRepository.streamNutrientRows()) {
+                        rows.forEach(consumer);
+                    }
+                });
+    }
+
+    // 私有方法：以 JDBC 更新选中状态，只失效这些菜品的实体缓存和菜品查询缓存；更新前刷出、更新后清空持久化上下文，
+    // 与原先批量 JPQL 的 flushAutomatically/clearAutomatically 一致，随后的查询读到更新后的状态
+    private int updateChecked(String sql, List<Long> ids, Boolean checked, LocalDateTime now) {
+        entityManager.flush();
+        mealCacheService.evictForJdbcUpdate(ids);
+        MapSqlParameterSource params =
+                new MapSqlParameterSource("ids", ids).addValue("now", now).addValue("checked", checked);
+        int updated = jdbcTemplate.update(sql, params);
+        entityManager.clear();
+        return updated;
+    }
+
+    // 私有方法：发布菜品变更事件（监听方在事务提交后处理；变更日志在提交前写入）
+    private void publishChange(MealChangeTypeEnum changeType, List<Long> mealIds) {
+        if (mealIds.size() > MAX_EVENT_IDS) {
+            eventPublisher.publishEvent(MealChangeEvent.bulk(changeType, mealIds));
+        } else if (!mealIds.isEmpty()) {
+            eventPublisher.publishEvent(new MealChangeEvent(changeType, mealIds));
+        }
+    }
+
+    // 私有方法：提取菜品ID列表
+    private List<Long> idsOf(List<Meal> meals) {
+        return meals.stream().map(Meal::getId).collect(Collectors.toList());
+    }
+
     // 私有方法：更新菜品字段
     private void updateMealFields(Meal existingMeal, Meal updatedMeal) {
         // 提取公共字段更新逻辑
@@ -0,0 +1,294 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.MealChangeTypeEnum;
+import com.example.helper.Common.Enum.NutrientEnum;
+import com.example.helper.Common.Event.MealChangeEvent;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.KdTree;
+import com.example.helper.Common.Util.NutrientMatrix;
+import com.example.helper.Common.Util.ReadConsistency;
+import com.example.helper.Common.Util.RebuildableSnapshot;
+import com.example.helper.Entity.Meal;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 相似菜品索引
+ *
+ * <p>在按标准差归一化的营养空间中建立 KD 树，查询 k 个最近的菜品。KD
+ * 树由流式扫描在后台构建；两次构建之间的新增、修改和删除记录在增量表中，查询时跳过被覆盖的树节点并合并增量表中的菜品。增量过多时触发后台重建。
+ */
+@Service
+public class MealSimilarityService {
+
+    // 单次查询返回数量上限
+    public static final int MAX_K = 100;
+
+    private static final int DIMENSIONS = NutrientEnum.values().length;
+
+    private final MealService mealService;
+    private final RebuildableSnapshot<Index> snapshot;
+    private final int maxDeltaSize;
+
+    // 构建后发生变更的菜品：菜品ID -> 变更（vector 为 null 表示已删除）
+    private final Map<Long, Delta> deltas = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public MealSimilarityService(
+            MealService mealService,
+            @Qualifier("computeTaskExecutor") Executor computeTaskExecutor,
+            @Value("${meal.similar.min-rebuild-interval-ms:1000}") long minRebuildIntervalMs,
+            @Value("${meal.similar.max-delta-size:1000}") int maxDeltaSize) {
+        this.mealService = mealService;
+        this.maxDeltaSize = maxDeltaSize;
+        this.snapshot =
+                new RebuildableSnapshot<>(
+                        "相似菜品索引", this::build, computeTaskExecutor, minRebuildIntervalMs);
+    }
+
+    /** 查询与指定菜品营养最接近的 k 个菜品（不含自身） */
+    public List<Neighbor> findSimilar(Long mealId, int k) {
+        Index index = snapshot.get();
+        float[] raw = index.vectorOf(mealId, deltas);
+        if (raw == null) {
+            throw new BusinessException(404, "菜品不存在，ID: " + mealId);
+        }
+        float[] weights = new float[DIMENSIONS];
+        Arrays.fill(weights, 1);
+        return search(index, raw, weights, checkK(k), mealId);
+    }
+
+    /** 查询与给定营养组成最接近的 k 个菜品，只按给出的营养成分计算距离 */
+    public List<Neighbor> findSimilar(Map<String, BigDecimal> profile, int k) {
+        if (profile == null || profile.isEmpty()) {
+            throw new BusinessException(400, "营养组成不能为空");
+        }
+        float[] raw = new float[DIMENSIONS];
+        float[] weights = new float[DIMENSIONS];
+        for (Map.Entry<String, BigDecimal> entry : profile.entrySet()) {
+            NutrientEnum nutrient = NutrientEnum.fromCode(entry.getKey());
+            if (nutrient == null) {
+                throw new BusinessException(400, "未知的营养成分: " + entry.getKey());
+            }
+            if (entry.getValue() == null) {
+                continue;
+            }
+            raw[nutrient.ordinal()] = entry.getValue().floatValue();
+            weights[nutrient.ordinal()] = 1;
+        }
+        return search(snapshot.get(), raw, weights, checkK(k), null);
+    }
+
+    /** 菜品变更提交后更新增量表；批量变更或增量过多时改为后台重建 */
+    @TransactionalEventListener
+    public void onMealChanged(MealChangeEvent event) {
+        // 勾选状态不影响营养向量
+        if (event.getChangeType() == MealChangeTypeEnum.TOGGLE) {
+            return;
+        }
+        Index index = snapshot.peek();
+        if (index == null) {
+            return;
+        }
+        if (event.isBulk() || event.getMealIds().size() > maxDeltaSize) {
+            snapshot.markDirty();
+            return;
+        }
+
+        Map<Long, float[]> vectors = new HashMap<>();
+        if (event.getChangeType() != MealChangeTypeEnum.DELETE) {
+            // 刚提交的变更可能尚未同步到只读副本，从主库读取
+            List<Meal> meals =
+                    ReadConsistency.onPrimary(() -> mealService.getMealsByIds(event.getMealIds()));
+            for (Meal meal : meals) {
+                vectors.put(meal.getId(), vectorOf(meal));
+            }
+        }
+        for (Long id : event.getMealIds()) {
+            deltas.put(id, new Delta(sequence.incrementAndGet(), vectors.get(id)));
+        }
+
+        // 已被当前索引包含的增量可以丢弃
+        long builtSequence = index.sequence;
+        deltas.values().removeIf(delta -> delta.sequence <= builtSequence);
+        if (deltas.size() > maxDeltaSize) {
+            snapshot.markDirty();
+        }
+    }
+
+    private List<Neighbor> search(
+            Index index, float[] raw, float[] weights, int k, Long excludeId) {
+        float[] query = index.normalize(raw);
+        long self = excludeId == null ? Long.MIN_VALUE : excludeId;
+        List<Map.Entry<Long, Delta>> pending = new ArrayList<>();
+        Set<Long> overridden = new HashSet<>();
+        for (Map.Entry<Long, Delta> entry : deltas.entrySet()) {
+            if (entry.getValue().sequence > index.sequence) {
+                overridden.add(entry.getKey());
+                pending.add(entry);
+            }
+        }
+
+        KdTree.Neighbors neighbors = new KdTree.Neighbors(k);
+        index.tree.search(
+                query,
+                weights,
+                neighbors,
+                id -> id == self || (!overridden.isEmpty() && overridden.contains(id)));
+        for (Map.Entry<Long, Delta> entry : pending) {
+            float[] vector = entry.getValue().vector;
+            if (vector == null || entry.getKey() == self) {
+                continue;
+            }
+            float[] point = index.normalize(vector);
+            double distance = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                double diff = query[d] - point[d];
+                distance += weights[d] * diff * diff;
+            }
+            neighbors.offer(entry.getKey(), distance);
+        }
+
+        List<Neighbor> result = new ArrayList<>(neighbors.size());
+        for (int i : neighbors.sortedOrder()) {
+            result.add(new Neighbor(neighbors.id(i), Math.sqrt(neighbors.distance(i))));
+        }
+        return result;
+    }
+
+    private int checkK(int k) {
+        if (k < 1 || k > MAX_K) {
+            throw new BusinessException(400, "k 必须在 1 到 " + MAX_K + " 之间");
+        }
+        return k;
+    }
+
+    private Index build() {
+        // 构建前记录序号：此前提交的变更都已包含在本次扫描中
+        long startSequence = sequence.get();
+        NutrientMatrix.Builder builder = new NutrientMatrix.Builder(DIMENSIONS);
+        double[] nutrients = new double[DIMENSIONS];
+        mealService.scanNutrientRows(
+                row -> {
+                    for (int d = 0; d < DIMENSIONS; d++) {
+                        Object value = row[d + 2];
+                        nutrients[d] = value == null ? 0 : ((BigDecimal) value).doubleValue();
+                    }
+                    builder.add((Long) row[0], Boolean.TRUE.equals(row[1]), nutrients);
+                });
+        NutrientMatrix matrix = builder.build();
+
+        int n = matrix.size();
+        long[] ids = new long[n];
+        float[] raw = new float[n * DIMENSIONS];
+        for (int row = 0; row < n; row++) {
+            ids[row] = matrix.id(row);
+            for (int d = 0; d < DIMENSIONS; d++) {
+                raw[row * DIMENSIONS + d] = (float) matrix.value(row, d) / NutrientMatrix.SCALE;
+            }
+        }
+        return new Index(ids, raw, startSequence);
+    }
+
+    private static float[] vectorOf(Meal meal) {
+        float[] vector = new float[DIMENSIONS];
+        for (NutrientEnum nutrient : NutrientEnum.values()) {
+            BigDecimal value = nutrient.getAccessor().apply(meal);
+            vector[nutrient.ordinal()] = value == null ? 0 : value.floatValue();
+        }
+        return vector;
+    }
+
+    /** 近邻查询结果，distance 为归一化空间中的欧氏距离 */
+    @Getter
+    public static class Neighbor {
+        private final Long mealId;
+        private final double distance;
+
+        Neighbor(Long mealId, double distance) {
+            this.mealId = mealId;
+            this.distance = distance;
+        }
+    }
+
+    private static final class Delta {
+        private final long sequence;
+        private final float[] vector;
+
+        private Delta(long sequence, float[] vector) {
+            this.sequence = sequence;
+            this.vector = vector;
+        }
+    }
+
+    // 不可变索引：KD 树 + 归一化系数 + 按ID排序的原始向量
+    private static final class Index {
+        private final KdTree tree;
+        private final float[] scales;
+        private final long sequence;
+        private final long[] ids;
+        private final float[] raw;
+
+        private Index(long[] ids, float[] raw, long sequence) {
+            int n = ids.length;
+            this.ids = ids;
+            this.raw = raw;
+            this.sequence = sequence;
+
+            // 各维度除以标准差，使不同量纲的营养成分权重相当
+            this.scales = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                double sum = 0;
+                double sumSquares = 0;
+                for (int i = 0; i < n; i++) {
+                    double v = raw[i * DIMENSIONS + d];
+                    sum += v;
+                    sumSquares += v * v;
+                }
+                double variance = n == 0 ? 0 : sumSquares / n - (sum / n) * (sum / n);
+                scales[d] = variance > 1e-12 ? (float) (1 / Math.sqrt(variance)) : 1f;
+            }
+
+            float[] points = new float[raw.length];
+            for (int i = 0; i < raw.length; i++) {
+                points[i] = raw[i] * scales[i % DIMENSIONS];
+            }
+            this.tree = new KdTree(ids, points, DIMENSIONS);
+        }
+
+        private float[] normalize(float[] vector) {
+            float[] result = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                result[d] = vector[d] * scales[d];
+            }
+            return result;
+        }
+
+        // 查找菜品的原始营养向量，增量表优先
+        private float[] vectorOf(Long mealId, Map<Long, Delta> deltas) {
+            Delta delta = deltas.get(mealId);
+            if (delta != null && delta.sequence > sequence) {
+                return delta.vector;
+            }
+            int row = Arrays.binarySearch(ids, mealId);
+            return row < 0
+                    ? null
+                    : Arrays.copyOfRange(raw, row * DIMENSIONS, (row + 1) * DIMENSIONS);
+        }
+    }
+}
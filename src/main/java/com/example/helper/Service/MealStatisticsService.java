@@ -0,0 +1,167 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.NutrientEnum;
+import com.example.helper.Common.Event.MealChangeEvent;
+import com.example.helper.Common.Util.QuantileSketch;
+import com.example.helper.Common.Util.RebuildableSnapshot;
+import com.example.helper.Dto.NutrientStatisticsDTO;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * 菜品营养分布统计
+ *
+ * <p>一次流式扫描为全量和已选菜品的每项营养成分构建分位数草图，结果缓存为不可变快照。菜品变更后标记过期，下次访问时在计算线程池后台重建，访问方始终直接读取当前快照。
+ */
+@Service
+public class MealStatisticsService {
+
+    private static final double[] QUANTILES = {0.1, 0.5, 0.9};
+
+    private final MealService mealService;
+    private final double relativeAccuracy;
+    private final int histogramBins;
+    private final RebuildableSnapshot<Snapshot> snapshot;
+
+    public MealStatisticsService(
+            MealService mealService,
+            @Qualifier("computeTaskExecutor") Executor computeTaskExecutor,
+            @Value("${meal.statistics.relative-accuracy:0.01}") double relativeAccuracy,
+            @Value("${meal.statistics.histogram-bins:10}") int histogramBins,
+            @Value("${meal.statistics.min-rebuild-interval-ms:2000}") long minRebuildIntervalMs) {
+        this.mealService = mealService;
+        this.relativeAccuracy = relativeAccuracy;
+        this.histogramBins = histogramBins;
+        this.snapshot =
+                new RebuildableSnapshot<>(
+                        "菜品统计", this::rebuild, computeTaskExecutor, minRebuildIntervalMs);
+    }
+
+    /** 获取统计快照；首次访问同步构建，过期时返回旧快照并触发后台重建 */
+    public Snapshot getStatistics() {
+        return snapshot.get();
+    }
+
+    /** 菜品变更提交后标记统计过期 */
+    @TransactionalEventListener
+    public void onMealChanged(MealChangeEvent event) {
+        snapshot.markDirty();
+    }
+
+    private Snapshot rebuild() {
+        NutrientEnum[] nutrients = NutrientEnum.values();
+        QuantileSketch[] catalogSketches = newSketches(nutrients.length);
+        QuantileSketch[] selectedSketches = newSketches(nutrients.length);
+        long[] counts = new long[2]; // [总数, 已选数]
+
+        mealService.scanNutrientRows(
+                row -> {
+                    boolean checked = Boolean.TRUE.equals(row[1]);
+                    counts[0]++;
+                    if (checked) {
+                        counts[1]++;
+                    }
+                    for (int i = 0; i < nutrients.length; i++) {
+                        Object value = row[i + 2];
+                        if (value == null) {
+                            continue;
+                        }
+                        double v = ((BigDecimal) value).doubleValue();
+                        catalogSketches[i].add(v);
+                        if (checked) {
+                            selectedSketches[i].add(v);
+                        }
+                    }
+                });
+
+        return new Snapshot(
+                counts[0],
+                counts[1],
+                toStatistics(nutrients, catalogSketches),
+                toStatistics(nutrients, selectedSketches),
+                LocalDateTime.now());
+    }
+
+    private QuantileSketch[] newSketches(int size) {
+        QuantileSketch[] sketches = new QuantileSketch[size];
+        for (int i = 0; i < size; i++) {
+            sketches[i] = new QuantileSketch(relativeAccuracy);
+        }
+        return sketches;
+    }
+
+    private Map<String, NutrientStatisticsDTO> toStatistics(
+            NutrientEnum[] nutrients, QuantileSketch[] sketches) {
+        Map<String, NutrientStatisticsDTO> result = new LinkedHashMap<>();
+        for (int i = 0; i < nutrients.length; i++) {
+            result.put(nutrients[i].getCode(), toDTO(sketches[i]));
+        }
+        return result;
+    }
+
+    private NutrientStatisticsDTO toDTO(QuantileSketch sketch) {
+        NutrientStatisticsDTO dto = new NutrientStatisticsDTO();
+        dto.setCount(sketch.getCount());
+        if (sketch.getCount() == 0) {
+            dto.setHistogram(List.of());
+            return dto;
+        }
+        dto.setMin(round(sketch.getMin()));
+        dto.setMax(round(sketch.getMax()));
+        dto.setMean(round(sketch.getMean()));
+        dto.setP10(round(sketch.quantile(QUANTILES[0])));
+        dto.setP50(round(sketch.quantile(QUANTILES[1])));
+        dto.setP90(round(sketch.quantile(QUANTILES[2])));
+
+        long[] bins = sketch.histogram(histogramBins);
+        double width = (sketch.getMax() - sketch.getMin()) / histogramBins;
+        List<NutrientStatisticsDTO.HistogramBin> histogram = new ArrayList<>(bins.length);
+        for (int i = 0; i < bins.length; i++) {
+            NutrientStatisticsDTO.HistogramBin bin = new NutrientStatisticsDTO.HistogramBin();
+            bin.setLower(round(sketch.getMin() + width * i));
+            bin.setUpper(round(sketch.getMin() + width * (i + 1)));
+            bin.setCount(bins[i]);
+            histogram.add(bin);
+        }
+        dto.setHistogram(histogram);
+        return dto;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /** 不可变统计快照 */
+    @Getter
+    public static class Snapshot {
+        private final long totalMeals;
+        private final long selectedMeals;
+        private final Map<String, NutrientStatisticsDTO> nutrients;
+        private final Map<String, NutrientStatisticsDTO> selectedNutrients;
+        private final LocalDateTime generatedAt;
+
+        Snapshot(
+                long totalMeals,
+                long selectedMeals,
+                Map<String, NutrientStatisticsDTO> nutrients,
+                Map<String, NutrientStatisticsDTO> selectedNutrients,
+                LocalDateTime generatedAt) {
+            this.totalMeals = totalMeals;
+            this.selectedMeals = selectedMeals;
+            this.nutrients = nutrients;
+            this.selectedNutrients = selectedNutrients;
+            this.generatedAt = generatedAt;
+        }
+    }
+}
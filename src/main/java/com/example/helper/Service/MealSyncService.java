@@ -0,0 +1,220 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.ReadConsistency;
+import com.example.helper.Dto.MealDTO;
+import com.example.helper.Dto.MealSyncDTO;
+import com.example.helper.Entity.Meal;
+import com.example.helper.Entity.MealChange;
+import com.example.helper.Mapper.MealMapper;
+import com.example.helper.Repository.MealChangeRepository;
+import com.example.helper.Repository.MealRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 菜品增量同步
+ *
+ * <p>增量部分按变更日志（meal_changes）的 seq 分页：日志与菜品变更在同一事务内写入，seq 由数据库分配，但先分配的事务可能后提交，
+ * 因此只分页到目录版本的水位（不超过水位的 seq 都已提交），游标只需记录最后一条的 seq，不依赖应用时钟，也不会越过晚提交的事务。
+ * 每页按菜品去重后读取当前状态，仍存在的作为新增或修改返回，已不存在的作为删除返回。
+ *
+ * <p>首次同步（或游标早于日志保留期）先按菜品ID分页返回全量快照，开始前记下当时的水位，快照结束后从该位置继续增量，
+ * 快照期间的变更会在增量中再次下发。所有查询都走主库，避免只读副本的延迟。
+ */
+@Slf4j
+@Service
+public class MealSyncService {
+
+    // 单页数量上限
+    public static final int MAX_LIMIT = 5000;
+
+    private static final String CURSOR_VERSION = "2";
+
+    // 按更新时间分页的旧版游标
+    private static final String LEGACY_CURSOR_VERSION = "1";
+
+    private final MealRepository mealRepository;
+    private final MealChangeRepository changeRepository;
+    private final MealCatalogVersionService catalogVersionService;
+
+    @Value("${meal.sync.change-retention-days:30}")
+    private int changeRetentionDays;
+
+    public MealSyncService(
+            MealRepository mealRepository,
+            MealChangeRepository changeRepository,
+            MealCatalogVersionService catalogVersionService) {
+        this.mealRepository = mealRepository;
+        this.changeRepository = changeRepository;
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    /** 返回游标之后的变更；cursor 为空时从头开始全量同步 */
+    @Transactional(readOnly = true)
+    public MealSyncDTO sync(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BusinessException(400, "limit 必须在 1 到 " + MAX_LIMIT + " 之间");
+        }
+        boolean resume = cursor != null && !cursor.isBlank();
+        Cursor from = resume ? Cursor.decode(cursor) : null;
+        return ReadConsistency.onPrimary(() -> sync(from, resume && from == null, limit));
+    }
+
+    private MealSyncDTO sync(Cursor from, boolean reset, int limit) {
+        if (from != null
+                && !from.snapshot
+                && from.seq < catalogVersionService.getCompactedSeq()) {
+            // 期间的变更日志可能已被清理，无法保证增量正确
+            reset = true;
+            from = null;
+        }
+        if (from == null) {
+            // 先取起点再读快照，快照中的数据不会早于起点
+            from = new Cursor(true, catalogVersionService.getWatermark(), 0);
+        }
+
+        MealSyncDTO result =
+                from.snapshot ? snapshotPage(from, limit) : changesPage(from, limit);
+        if (reset) {
+            result.setReset(true);
+        }
+        return result;
+    }
+
+    // 全量快照：按菜品ID分页，结束后切换到增量
+    private MealSyncDTO snapshotPage(Cursor from, int limit) {
+        List<Meal> meals =
+                mealRepository.findByIdGreaterThanOrderByIdAsc(
+                        from.mealId, PageRequest.of(0, limit));
+        boolean hasMore = meals.size() == limit;
+        Cursor next =
+                hasMore
+                        ? new Cursor(true, from.seq, meals.get(meals.size() - 1).getId())
+                        : new Cursor(false, from.seq, 0);
+
+        MealSyncDTO result = new MealSyncDTO();
+        result.setMeals(meals.stream().map(MealMapper::toDTO).toList());
+        result.setDeletedIds(List.of());
+        result.setNextCursor(next.encode());
+        // 快照结束后仍需继续拉取快照期间的增量
+        result.setHasMore(true);
+        return result;
+    }
+
+    // 增量：按 seq 分页读取水位之前的变更日志，没有新变更时游标保持不变
+    private MealSyncDTO changesPage(Cursor from, int limit) {
+        List<MealChange> changes =
+                changeRepository.findBetween(
+                        from.seq, catalogVersionService.getWatermark(), PageRequest.of(0, limit));
+        Set<Long> ids = new LinkedHashSet<>();
+        for (MealChange change : changes) {
+            ids.add(change.getMealId());
+        }
+        Map<Long, Meal> current =
+                ids.isEmpty()
+                        ? Map.of()
+                        : mealRepository.findByIdInBypassingCache(ids).stream()
+                                .collect(Collectors.toMap(Meal::getId, Function.identity()));
+
+        List<MealDTO> meals = new ArrayList<>(current.size());
+        List<Long> deletedIds = new ArrayList<>();
+        for (Long id : ids) {
+            Meal meal = current.get(id);
+            if (meal != null) {
+                meals.add(MealMapper.toDTO(meal));
+            } else {
+                deletedIds.add(id);
+            }
+        }
+        long seq = changes.isEmpty() ? from.seq : changes.get(changes.size() - 1).getSeq();
+
+        MealSyncDTO result = new MealSyncDTO();
+        result.setMeals(meals);
+        result.setDeletedIds(deletedIds);
+        result.setNextCursor(new Cursor(false, seq, 0).encode());
+        result.setHasMore(changes.size() == limit);
+        return result;
+    }
+
+    /** 清理超过保留期的变更日志，先推进清理位置，再删除 */
+    @Scheduled(cron = "${meal.sync.compaction-cron:0 30 3 * * *}")
+    @Transactional
+    public void compactChanges() {
+        LocalDateTime before = LocalDateTime.now().minusDays(changeRetentionDays);
+        Long seq = changeRepository.findMaxSeqBefore(before);
+        if (seq == null) {
+            return;
+        }
+        catalogVersionService.advanceCompactedSeq(seq);
+        int deleted = changeRepository.deleteThrough(seq);
+        if (deleted > 0) {
+            log.info("已清理 {} 条菜品变更日志，seq 不超过: {}", deleted, seq);
+        }
+    }
+
+    // 同步游标，编码为 Base64URL 字符串；snapshot 为 true 时 mealId 为快照位置，seq 为快照结束后增量的起点
+    private static final class Cursor {
+        private final boolean snapshot;
+        private final long seq;
+        private final long mealId;
+
+        private Cursor(boolean snapshot, long seq, long mealId) {
+            this.snapshot = snapshot;
+            this.seq = seq;
+            this.mealId = mealId;
+        }
+
+        private String encode() {
+            String raw =
+                    String.join(
+                            ".",
+                            CURSOR_VERSION,
+                            snapshot ? "s" : "c",
+                            Long.toString(seq, 36),
+                            Long.toString(mealId, 36));
+            return Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        // 旧版本的游标返回 null，客户端需要重新全量同步
+        private static Cursor decode(String cursor) {
+            try {
+                String raw =
+                        new String(
+                                Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+                String[] parts = raw.split("\\.");
+                if (LEGACY_CURSOR_VERSION.equals(parts[0])) {
+                    return null;
+                }
+                if (parts.length != 4
+                        || !CURSOR_VERSION.equals(parts[0])
+                        || !("s".equals(parts[1]) || "c".equals(parts[1]))) {
+                    throw new IllegalArgumentException(raw);
+                }
+                return new Cursor(
+                        "s".equals(parts[1]),
+                        Long.parseLong(parts[2], 36),
+                        Long.parseLong(parts[3], 36));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException(400, "无效的同步游标");
+            }
+        }
+    }
+}
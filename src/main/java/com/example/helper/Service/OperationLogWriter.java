@@ -0,0 +1,421 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.LogOverflowPolicyEnum;
+import com.example.helper.Common.Event.OperationLogEvent;
+import com.example.helper.Common.Util.MpscRingBuffer;
+import com.example.helper.Common.Util.PayloadCodec;
+import com.example.helper.Config.LogPayloadProperties;
+import com.example.helper.Dto.LogPipelineStatisticsDTO;
+import com.example.helper.Entity.SystemLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 操作日志异步批量写入
+ *
+ * <p>请求线程只把 OperationLogEvent 放入有界无锁环形缓冲区，不访问数据库；单个后台线程按批次取出，序列化参数后以 JDBC 批量 INSERT 写入 system_logs。
+ * 缓冲区写满时按配置的溢出策略丢弃、采样或短暂等待。写入成功的日志同时累加到 LogRollupService 的分钟、小时汇总。
+ * 每批日志写入后推送给 LogTailService 的实时跟踪订阅者，失败日志按异常指纹计入 ErrorGroupService。参数与结果按 LogPayloadProperties 中各业务类型的策略采样、截断，超过阈值时压缩存储，读取时由 LogService 解压。
+ */
+@Slf4j
+@Service
+public class OperationLogWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO system_logs (user_id, business_type, operation_type, method_name,"
+                    + " request_params, response_result, execute_time, ip_address, user_agent,"
+                    + " exception_info, status, module_name, created_at, updated_at)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // 与 system_logs 表列长度对应
+    private static final int MAX_METHOD_NAME_LENGTH = 200;
+    private static final int MAX_IP_ADDRESS_LENGTH = 50;
+    private static final int MAX_MODULE_NAME_LENGTH = 100;
+
+    // 缓冲区为空时写入线程的休眠时间
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    // BLOCK 策略下等待空位的轮询间隔
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LogRollupService rollupService;
+    private final LogTailService tailService;
+    private final ErrorGroupService errorGroupService;
+    private final LogPayloadProperties payloadProperties;
+    private final ObjectWriter payloadWriter;
+
+    @Value("${app.operation-log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.operation-log.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${app.operation-log.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.operation-log.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.operation-log.overflow-policy:DROP}")
+    private LogOverflowPolicyEnum overflowPolicy;
+
+    // SAMPLE 策略：缓冲区占用超过该比例后开始采样
+    @Value("${app.operation-log.sample-threshold:0.5}")
+    private double sampleThreshold;
+
+    // SAMPLE 策略：采样期间成功日志的保留比例，失败日志始终保留
+    @Value("${app.operation-log.sample-rate:0.1}")
+    private double sampleRate;
+
+    @Value("${app.operation-log.block-timeout-ms:10}")
+    private long blockTimeoutMs;
+
+    @Value("${app.operation-log.max-exception-length:4000}")
+    private int maxExceptionLength;
+
+    // 汇总统计合并到 system_log_rollups 的间隔
+    @Value("${app.operation-log.rollup-flush-interval-ms:5000}")
+    private long rollupFlushIntervalMs;
+
+    @Value("${app.operation-log.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+
+    private MpscRingBuffer<OperationLogEvent> buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    // 请求线程并发累加的计数
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder sampledOutCount = new LongAdder();
+
+    // 只由写入线程更新的计数
+    private volatile long writtenCount;
+    private volatile long failedCount;
+    private volatile long batchCount;
+    private volatile long lastBatchMillis;
+
+    // 参数与结果的记录统计，只由写入线程更新
+    private volatile long payloadSampledOutCount;
+    private volatile long payloadTruncatedCount;
+    private volatile long payloadCompressedCount;
+    private volatile long payloadOriginalBytes;
+    private volatile long payloadStoredBytes;
+    private final Map<String, Long> payloadSavedBytes = new ConcurrentHashMap<>();
+
+    public OperationLogWriter(
+            JdbcTemplate jdbcTemplate,
+            LogRollupService rollupService,
+            LogTailService tailService,
+            ErrorGroupService errorGroupService,
+            LogPayloadProperties payloadProperties,
+            ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.tailService = tailService;
+        this.errorGroupService = errorGroupService;
+        this.payloadProperties = payloadProperties;
+        this.payloadWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        buffer = new MpscRingBuffer<>(bufferSize);
+        running = true;
+        writerThread = new Thread(this::runWriter, "operation-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /** 停止接收新日志，写完缓冲区中剩余的日志后退出 */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(shutdownTimeoutMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    /** 提交操作日志（请求线程调用，不阻塞，BLOCK 策略除外） */
+    public void submit(OperationLogEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        submittedCount.increment();
+        if (overflowPolicy == LogOverflowPolicyEnum.SAMPLE
+                && !event.isFailed()
+                && buffer.size() >= buffer.capacity() * sampleThreshold
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOutCount.increment();
+            return;
+        }
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (overflowPolicy == LogOverflowPolicyEnum.BLOCK) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (buffer.offer(event)) {
+                    return;
+                }
+            }
+        }
+        droppedCount.increment();
+    }
+
+    /** 写入管道统计 */
+    public LogPipelineStatisticsDTO getStatistics() {
+        LogPipelineStatisticsDTO statistics = new LogPipelineStatisticsDTO();
+        statistics.setEnabled(isEnabled());
+        statistics.setOverflowPolicy(overflowPolicy.getCode());
+        statistics.setBufferCapacity(buffer == null ? 0 : buffer.capacity());
+        statistics.setBufferSize(buffer == null ? 0 : buffer.size());
+        statistics.setSubmittedCount(submittedCount.sum());
+        statistics.setDroppedCount(droppedCount.sum());
+        statistics.setSampledOutCount(sampledOutCount.sum());
+        statistics.setWrittenCount(writtenCount);
+        statistics.setFailedCount(failedCount);
+        statistics.setBatchCount(batchCount);
+        statistics.setLastBatchMillis(lastBatchMillis);
+        statistics.setPayloadSampledOutCount(payloadSampledOutCount);
+        statistics.setPayloadTruncatedCount(payloadTruncatedCount);
+        statistics.setPayloadCompressedCount(payloadCompressedCount);
+        statistics.setPayloadOriginalBytes(payloadOriginalBytes);
+        statistics.setPayloadStoredBytes(payloadStoredBytes);
+        statistics.setPayloadSavedBytes(payloadOriginalBytes - payloadStoredBytes);
+        statistics.setPayloadSavedBytesByBusinessType(Map.copyOf(payloadSavedBytes));
+        statistics.setTailSubscriberCount(tailService.getSubscriberCount());
+        statistics.setTailDroppedCount(tailService.getDroppedCount());
+        return statistics;
+    }
+
+    // 写入线程：攒满一批或超过刷新间隔时写入，定期合并汇总统计；停止后写完剩余日志再退出
+    private void runWriter() {
+        backfillRollups();
+        List<OperationLogEvent> pending = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        long rollupIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rollupFlushIntervalMs);
+        long lastFlush = System.nanoTime();
+        long lastRollupFlush = lastFlush;
+        while (running || !buffer.isEmpty() || !pending.isEmpty()) {
+            buffer.drainTo(pending, batchSize - pending.size());
+            long now = System.nanoTime();
+            if (pending.size() >= batchSize
+                    || (!pending.isEmpty()
+                            && (now - lastFlush >= flushIntervalNanos || !running))) {
+                flush(pending);
+                pending.clear();
+                lastFlush = now;
+            } else if (buffer.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            if (now - lastRollupFlush >= rollupIntervalNanos && rollupService.hasPending()) {
+                rollupService.flush();
+                lastRollupFlush = now;
+            }
+        }
+        rollupService.flush();
+    }
+
+    // 在写入新日志之前认领汇总重建并确定截止ID，避免重复计数；重建本身在独立线程中执行
+    private void backfillRollups() {
+        try {
+            rollupService.startBackfill();
+        } catch (Exception e) {
+            log.warn("操作日志汇总统计重建失败: {}", e.getMessage());
+        }
+    }
+
+    private void flush(List<OperationLogEvent> events) {
+        long start = System.nanoTime();
+        List<SystemLog> logs = new ArrayList<>(events.size());
+        for (OperationLogEvent event : events) {
+            logs.add(toSystemLog(event));
+            if (event.isFailed()) {
+                recordError(event);
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                    INSERT_SQL,
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bindLog(ps, logs.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return logs.size();
+                        }
+                    });
+            writtenCount += logs.size();
+            rollupService.record(logs);
+        } catch (Exception e) {
+            failedCount += logs.size();
+            log.warn("操作日志批量写入失败，丢弃 {} 条: {}", logs.size(), e.getMessage());
+        }
+        try {
+            tailService.publish(logs);
+        } catch (Exception e) {
+            log.warn("操作日志实时推送失败: {}", e.getMessage());
+        }
+        batchCount++;
+        lastBatchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    // 按异常指纹分组计数，统计失败不影响日志写入
+    private void recordError(OperationLogEvent event) {
+        try {
+            errorGroupService.record(event);
+        } catch (Exception e) {
+            log.warn("错误分组统计失败: {}", e.getMessage());
+        }
+    }
+
+    // 在写入线程中序列化参数与结果，按业务类型策略采样、截断和压缩
+    private SystemLog toSystemLog(OperationLogEvent event) {
+        SystemLog systemLog = new SystemLog();
+        systemLog.setUserId(event.getUserId());
+        systemLog.setBusinessType(event.getBusinessType().getCode());
+        systemLog.setOperationType(event.getOperationType().getCode());
+        systemLog.setMethodName(PayloadCodec.truncate(event.getMethodName(), MAX_METHOD_NAME_LENGTH));
+        systemLog.setModuleName(PayloadCodec.truncate(event.getModuleName(), MAX_MODULE_NAME_LENGTH));
+        systemLog.setIpAddress(PayloadCodec.truncate(event.getIpAddress(), MAX_IP_ADDRESS_LENGTH));
+        systemLog.setUserAgent(event.getUserAgent());
+        systemLog.setExecuteTime(event.getExecuteTime());
+        systemLog.setStatus(event.getStatus());
+        if (capturePayload(event)) {
+            if (event.getParams() != null) {
+                systemLog.setRequestParams(encodePayload(event.getParams(), event));
+            }
+            if (event.getResult() != null) {
+                Object result = event.getResult();
+                if (result instanceof HttpEntity<?> entity) {
+                    result = entity.getBody();
+                }
+                systemLog.setResponseResult(encodePayload(result, event));
+            }
+        }
+        if (event.getException() != null) {
+            systemLog.setExceptionInfo(
+                    PayloadCodec.truncate(stackTrace(event.getException()), maxExceptionLength));
+        }
+        systemLog.setCreatedAt(event.getCreatedAt());
+        systemLog.setUpdatedAt(event.getCreatedAt());
+        return systemLog;
+    }
+
+    // 失败调用始终记录，成功调用按业务类型的比例采样
+    private boolean capturePayload(OperationLogEvent event) {
+        if (event.isFailed() || (event.getParams() == null && event.getResult() == null)) {
+            return true;
+        }
+        double rate = payloadProperties.successSampleRateOf(event.getBusinessType());
+        if (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate) {
+            return true;
+        }
+        payloadSampledOutCount++;
+        return false;
+    }
+
+    private String encodePayload(Object value, OperationLogEvent event) {
+        String serialized = serialize(value);
+        int originalBytes = PayloadCodec.utf8Length(serialized);
+
+        String stored = PayloadCodec.truncate(
+                serialized, payloadProperties.maxLengthOf(event.getBusinessType()));
+        if (stored.length() < serialized.length()) {
+            payloadTruncatedCount++;
+        }
+        int storedBytes = PayloadCodec.utf8Length(stored);
+        int threshold = payloadProperties.compressThresholdOf(event.getBusinessType());
+        if (threshold > 0 && storedBytes > threshold) {
+            String compressed = PayloadCodec.compress(stored);
+            if (PayloadCodec.isCompressed(compressed)) {
+                payloadCompressedCount++;
+                stored = compressed;
+                storedBytes = compressed.length();
+            }
+        }
+
+        payloadOriginalBytes += originalBytes;
+        payloadStoredBytes += storedBytes;
+        if (storedBytes < originalBytes) {
+            payloadSavedBytes.merge(
+                    event.getBusinessType().getCode(), (long) (originalBytes - storedBytes), Long::sum);
+        }
+        return stored;
+    }
+
+    private String serialize(Object value) {
+        try {
+            return payloadWriter.writeValueAsString(value);
+        } catch (Exception e) {
+            return "[序列化失败: " + e.getClass().getSimpleName() + "]";
+        }
+    }
+
+    private static String stackTrace(Throwable throwable) {
+        StringWriter writer = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(writer));
+        return writer.toString();
+    }
+
+    private static void bindLog(PreparedStatement ps, SystemLog systemLog) throws SQLException {
+        int index = 1;
+        ps.setString(index++, systemLog.getUserId());
+        ps.setString(index++, systemLog.getBusinessType());
+        ps.setString(index++, systemLog.getOperationType());
+        ps.setString(index++, systemLog.getMethodName());
+        ps.setString(index++, systemLog.getRequestParams());
+        ps.setString(index++, systemLog.getResponseResult());
+        if (systemLog.getExecuteTime() == null) {
+            ps.setNull(index++, Types.BIGINT);
+        } else {
+            ps.setLong(index++, systemLog.getExecuteTime());
+        }
+        ps.setString(index++, systemLog.getIpAddress());
+        ps.setString(index++, systemLog.getUserAgent());
+        ps.setString(index++, systemLog.getExceptionInfo());
+        ps.setString(index++, systemLog.getStatus());
+        ps.setString(index++, systemLog.getModuleName());
+        ps.setTimestamp(index++, Timestamp.valueOf(systemLog.getCreatedAt()));
+        ps.setTimestamp(index, Timestamp.valueOf(systemLog.getUpdatedAt()));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.helper.Benchmark;
+
+import com.example.helper.Common.Util.ApiResponse;
+import com.example.helper.Config.JacksonConfig;
+import com.example.helper.Dto.MealDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 菜品列表响应的序列化基准
+ *
+ * <p>负载与 GET /api/meals?size=100 相同：ApiResponse + 分页信息，100 道菜品，每道八项 BigDecimal 营养值，使用 JacksonConfig 配置的 ObjectMapper。
+ * 运行方式：
+ *
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.helper.Benchmark.MealSerializationBenchmark
+ * </pre>
+ *
+ * 先打印各格式的原始字节数与 gzip 后字节数，再由 JMH 测量单次序列化耗时。serialize 与消息转换器的默认写法相同（每次由 ObjectMapper
+ * 新建 ObjectWriter），serializeWithCachedWriter 复用按响应类型预取了根序列化器的 ObjectWriter，用于判断是否值得按类型缓存。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MealSerializationBenchmark {
+
+    // 列表接口单页的菜品数量
+    static final int PAGE_SIZE = 100;
+
+    private static final String[] TITLES = {
+        "宫保鸡丁", "鱼香肉丝", "麻婆豆腐", "番茄炒蛋", "清蒸鲈鱼", "红烧排骨", "蒜蓉西兰花", "酸辣土豆丝"
+    };
+
+    @Param({"json-indented", "json-compact", "cbor", "smile"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectMapper mapper;
+    private ObjectWriter cachedWriter;
+    private Object payload;
+
+    @Setup
+    public void setUp() {
+        mapper = mapper(format, blackbird);
+        payload = payload(PAGE_SIZE);
+        cachedWriter =
+                mapper.writerFor(
+                        mapper.getTypeFactory()
+                                .constructParametricType(
+                                        ApiResponse.class,
+                                        mapper.getTypeFactory()
+                                                .constructMapType(
+                                                        Map.class, String.class, Object.class)));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writer().writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serializeWithCachedWriter() throws IOException {
+        return cachedWriter.writeValueAsBytes(payload);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Object payload = payload(PAGE_SIZE);
+        for (String format : new String[] {"json-indented", "json-compact", "cbor", "smile"}) {
+            byte[] bytes = mapper(format, false).writeValueAsBytes(payload);
+            System.out.printf("%-14s %,8d B  gzip %,7d B%n", format, bytes.length, gzip(bytes).length);
+        }
+        new Runner(
+                        new OptionsBuilder()
+                                .include(MealSerializationBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+
+    // 按格式取 JacksonConfig 中对应的 ObjectMapper
+    static ObjectMapper mapper(String format, boolean blackbird) {
+        JacksonConfig config = new JacksonConfig();
+        ReflectionTestUtils.setField(config, "indentOutput", "json-indented".equals(format));
+        ReflectionTestUtils.setField(config, "blackbirdEnabled", blackbird);
+        return switch (format) {
+            case "json-indented", "json-compact" -> config.objectMapper();
+            case "cbor" -> config.cborHttpMessageConverter().getObjectMapper();
+            case "smile" -> config.smileHttpMessageConverter().getObjectMapper();
+            default -> throw new IllegalArgumentException(format);
+        };
+    }
+
+    // 与 MealController#getAllMeals 相同结构的响应；营养值用固定种子生成，各次运行的负载相同
+    static Object payload(int size) {
+        Random random = new Random(42);
+        List<MealDTO> meals = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            MealDTO meal = new MealDTO();
+            meal.setId((long) i);
+            meal.setTitle(TITLES[random.nextInt(TITLES.length)] + " " + i);
+            meal.setImageUrl("https://img.example.com/meals/" + i + ".jpg");
+            meal.setEnergy(nutrient(random, 1500));
+            meal.setProtein(nutrient(random, 60));
+            meal.setTransFat(nutrient(random, 2));
+            meal.setSaturatedFat(nutrient(random, 20));
+            meal.setCarbohydrate(nutrient(random, 150));
+            meal.setAddedSugar(nutrient(random, 40));
+            meal.setSalt(nutrient(random, 6));
+            meal.setDietaryFiber(nutrient(random, 15));
+            meals.add(meal);
+        }
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", meals);
+        page.put("page", 0);
+        page.put("size", size);
+        page.put("totalElements", 1000L);
+        page.put("totalPages", 10);
+        page.put("first", true);
+        page.put("last", false);
+        page.put("sort", "id,asc");
+        return ApiResponse.success("获取菜品列表成功", page);
+    }
+
+    // 两位小数的营养值，与数据库 DECIMAL 列精度一致
+    private static BigDecimal nutrient(Random random, int max) {
+        return BigDecimal.valueOf(random.nextInt(max * 100), 2);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
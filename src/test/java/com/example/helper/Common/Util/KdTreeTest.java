@@ -0,0 +1,119 @@
+package com.example.helper.Common.Util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KdTreeTest {
+
+    private static final int DIMENSIONS = 8;
+
+    @Test
+    void knnMatchesBruteForce() {
+        Random random = new Random(11);
+        int n = 2_000;
+        long[] ids = new long[n];
+        float[] points = new float[n * DIMENSIONS];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                // 取整制造大量重复坐标，覆盖快速选择中与枢轴相等的情况
+                points[i * DIMENSIONS + d] = random.nextInt(50) * (d + 1);
+            }
+        }
+        KdTree tree = new KdTree(ids, points, DIMENSIONS);
+
+        for (int q = 0; q < 200; q++) {
+            float[] query = new float[DIMENSIONS];
+            float[] weights = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                query[d] = random.nextFloat() * 50 * (d + 1);
+                // 部分维度权重为 0
+                weights[d] = random.nextInt(4) == 0 ? 0 : random.nextFloat();
+            }
+            int k = 1 + random.nextInt(20);
+            LongPredicate exclude = q % 2 == 0 ? null : id -> id % 3 == 0;
+
+            KdTree.Neighbors neighbors = new KdTree.Neighbors(k);
+            tree.search(query, weights, neighbors, exclude);
+
+            assertThat(sortedDistances(neighbors))
+                    .containsExactly(bruteForce(ids, points, query, weights, exclude, k));
+            for (int i = 0; i < neighbors.size(); i++) {
+                assertThat(exclude == null || !exclude.test(neighbors.id(i))).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void returnsAllPointsWhenKExceedsSize() {
+        long[] ids = {10, 20, 30};
+        float[] points = new float[3 * DIMENSIONS];
+        for (int i = 0; i < 3; i++) {
+            points[i * DIMENSIONS] = i;
+        }
+        KdTree tree = new KdTree(ids, points, DIMENSIONS);
+        float[] weights = new float[DIMENSIONS];
+        Arrays.fill(weights, 1);
+
+        KdTree.Neighbors neighbors = new KdTree.Neighbors(5);
+        tree.search(new float[DIMENSIONS], weights, neighbors, null);
+
+        assertThat(neighbors.size()).isEqualTo(3);
+        assertThat(neighbors.bound()).isEqualTo(Double.POSITIVE_INFINITY);
+        int[] order = neighbors.sortedOrder();
+        assertThat(neighbors.id(order[0])).isEqualTo(10);
+        assertThat(neighbors.id(order[1])).isEqualTo(20);
+        assertThat(neighbors.id(order[2])).isEqualTo(30);
+        assertThat(neighbors.distance(order[2])).isEqualTo(4.0);
+    }
+
+    @Test
+    void emptyTreeReturnsNothing() {
+        KdTree tree = new KdTree(new long[0], new float[0], DIMENSIONS);
+        KdTree.Neighbors neighbors = new KdTree.Neighbors(3);
+        tree.search(new float[DIMENSIONS], new float[DIMENSIONS], neighbors, null);
+        assertThat(neighbors.size()).isZero();
+    }
+
+    @Test
+    void rejectsMismatchedCoordinates() {
+        assertThatThrownBy(() -> new KdTree(new long[2], new float[DIMENSIONS], DIMENSIONS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double[] sortedDistances(KdTree.Neighbors neighbors) {
+        return Arrays.stream(neighbors.sortedOrder()).mapToDouble(neighbors::distance).toArray();
+    }
+
+    // 与 KdTree 相同的距离公式逐点计算
+    private static double[] bruteForce(
+            long[] ids,
+            float[] points,
+            float[] query,
+            float[] weights,
+            LongPredicate exclude,
+            int k) {
+        double[] distances = new double[ids.length];
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (exclude != null && exclude.test(ids[i])) {
+                continue;
+            }
+            double distance = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                double diff = query[d] - points[i * DIMENSIONS + d];
+                distance += weights[d] * diff * diff;
+            }
+            distances[count++] = distance;
+        }
+        double[] sorted = Arrays.copyOf(distances, count);
+        Arrays.sort(sorted);
+        return Arrays.copyOf(sorted, Math.min(k, count));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.helper.Common.Util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LogSegmentTest {
+
+    @TempDir Path dir;
+
+    @Test
+    void scanReturnsRangeInDescendingOrder() throws IOException {
+        Path segment = dir.resolve("logs.seg");
+        long[] timestamps = write(segment, 2_500, 100);
+
+        LogSegmentReader reader = LogSegmentReader.open(segment);
+        assertThat(reader.getRecordCount()).isEqualTo(2_500);
+        assertThat(reader.getBlockCount()).isEqualTo(25);
+        assertThat(reader.getMinTimestamp()).isEqualTo(timestamps[0]);
+        assertThat(reader.getMaxTimestamp()).isEqualTo(timestamps[timestamps.length - 1]);
+
+        Random random = new Random(7);
+        for (int q = 0; q < 50; q++) {
+            long from = timestamps[random.nextInt(timestamps.length)];
+            long to = from + random.nextInt(5_000);
+            assertThat(scan(reader, from, to)).containsExactlyElementsOf(expected(timestamps, from, to));
+        }
+        // 整个范围
+        assertThat(scan(reader, Long.MIN_VALUE, Long.MAX_VALUE)).hasSize(2_500);
+    }
+
+    @Test
+    void visitorCanStopScan() throws IOException {
+        Path segment = dir.resolve("logs.seg");
+        write(segment, 500, 50);
+        LogSegmentReader reader = LogSegmentReader.open(segment);
+
+        List<String> seen = new ArrayList<>();
+        boolean completed = reader.scanDescending(Long.MIN_VALUE, Long.MAX_VALUE, record -> {
+            seen.add(new String(record, StandardCharsets.UTF_8));
+            return seen.size() < 3;
+        });
+
+        assertThat(completed).isFalse();
+        assertThat(seen).containsExactly("r499", "r498", "r497");
+    }
+
+    @Test
+    void blocksSpanningSeveralMappedRegions() throws IOException {
+        Path segment = dir.resolve("logs.seg");
+        long[] timestamps = write(segment, 3_000, 10);
+
+        // 区域上限远小于文件大小，按块边界切分为多个区域，结果与单个区域一致
+        LogSegmentReader small = LogSegmentReader.open(segment, 1_024);
+        LogSegmentReader whole = LogSegmentReader.open(segment);
+        assertThat(small.getRegionCount()).isGreaterThan(1);
+        assertThat(whole.getRegionCount()).isEqualTo(1);
+        assertThat(scan(small, Long.MIN_VALUE, Long.MAX_VALUE))
+                .containsExactlyElementsOf(scan(whole, Long.MIN_VALUE, Long.MAX_VALUE));
+        long from = timestamps[1_234];
+        long to = timestamps[2_345];
+        assertThat(scan(small, from, to)).containsExactlyElementsOf(expected(timestamps, from, to));
+    }
+
+    @Test
+    void closeUnmapsAfterLastRelease() throws IOException {
+        Path segment = dir.resolve("logs.seg");
+        write(segment, 500, 50);
+        LogSegmentReader reader = LogSegmentReader.open(segment);
+
+        // 读取中的线程持有引用，关闭后仍可读完
+        assertThat(reader.retain()).isTrue();
+        reader.close();
+        assertThat(reader.isReleased()).isFalse();
+        assertThat(scan(reader, Long.MIN_VALUE, Long.MAX_VALUE)).hasSize(500);
+
+        reader.release();
+        assertThat(reader.isReleased()).isTrue();
+        assertThat(reader.retain()).isFalse();
+        // 重复关闭无效果
+        reader.close();
+        assertThatThrownBy(reader::release).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void emptySegment() throws IOException {
+        Path segment = dir.resolve("empty.seg");
+        new LogSegmentWriter(segment, 100, 6).close();
+
+        LogSegmentReader reader = LogSegmentReader.open(segment);
+        assertThat(reader.getRecordCount()).isZero();
+        assertThat(reader.getMinTimestamp()).isEqualTo(Long.MAX_VALUE);
+        assertThat(scan(reader, Long.MIN_VALUE, Long.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void rejectsOutOfOrderAppend() throws IOException {
+        LogSegmentWriter writer = new LogSegmentWriter(dir.resolve("logs.seg"), 100, 6);
+        writer.append(10, bytes("a"));
+        assertThatThrownBy(() -> writer.append(9, bytes("b")))
+                .isInstanceOf(IllegalArgumentException.class);
+        writer.abort();
+    }
+
+    @Test
+    void filesAppearOnlyAfterClose() throws IOException {
+        Path segment = dir.resolve("logs.seg");
+        LogSegmentWriter writer = new LogSegmentWriter(segment, 100, 6);
+        writer.append(1, bytes("a"));
+        assertThat(segment).doesNotExist();
+        assertThat(LogSegmentWriter.indexFileOf(segment)).doesNotExist();
+
+        writer.close();
+        assertThat(segment).exists();
+        assertThat(LogSegmentWriter.indexFileOf(segment)).exists();
+    }
+
+    @Test
+    void abortRemovesTemporaryFiles() throws IOException {
+        LogSegmentWriter writer = new LogSegmentWriter(dir.resolve("logs.seg"), 100, 6);
+        writer.append(1, bytes("a"));
+        writer.abort();
+
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    // 写入 count 条记录，时间戳递增且有重复，内容为 r + 序号
+    private static long[] write(Path segment, int count, int blockRecords) throws IOException {
+        Random random = new Random(3);
+        long[] timestamps = new long[count];
+        long timestamp = 1_000_000;
+        try (LogSegmentWriter writer = new LogSegmentWriter(segment, blockRecords, 6)) {
+            for (int i = 0; i < count; i++) {
+                timestamp += random.nextInt(3) * random.nextInt(20);
+                timestamps[i] = timestamp;
+                writer.append(timestamp, bytes("r" + i));
+            }
+        }
+        return timestamps;
+    }
+
+    private static List<String> scan(LogSegmentReader reader, long from, long to) {
+        List<String> records = new ArrayList<>();
+        reader.scanDescending(from, to, record -> records.add(new String(record, StandardCharsets.UTF_8)));
+        return records;
+    }
+
+    private static List<String> expected(long[] timestamps, long from, long to) {
+        List<String> records = new ArrayList<>();
+        for (int i = timestamps.length - 1; i >= 0; i--) {
+            if (timestamps[i] >= from && timestamps[i] < to) {
+                records.add("r" + i);
+            }
+        }
+        return records;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
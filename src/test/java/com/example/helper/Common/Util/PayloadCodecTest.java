@@ -0,0 +1,58 @@
+package com.example.helper.Common.Util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadCodecTest {
+
+    // U+1F600，UTF-16 下为一个代理对
+    private static final String EMOJI = "😀";
+
+    @Test
+    void truncateKeepsShortValues() {
+        assertThat(PayloadCodec.truncate(null, 3)).isNull();
+        assertThat(PayloadCodec.truncate("abc", 3)).isEqualTo("abc");
+        assertThat(PayloadCodec.truncate("abcd", 3)).isEqualTo("abc");
+    }
+
+    @Test
+    void truncateDoesNotSplitSurrogatePair() {
+        String value = "ab" + EMOJI + "cd";
+
+        // 截断点落在代理对中间，少保留一个 char
+        assertThat(PayloadCodec.truncate(value, 3)).isEqualTo("ab");
+        assertThat(PayloadCodec.truncate(value, 4)).isEqualTo("ab" + EMOJI);
+        assertThat(PayloadCodec.truncate(EMOJI, 1)).isEmpty();
+        for (int max = 0; max <= value.length(); max++) {
+            String truncated = PayloadCodec.truncate(value, max);
+            assertThat(truncated.length()).isLessThanOrEqualTo(max);
+            assertThat(Character.isHighSurrogate(truncated.isEmpty() ? 'a' : truncated.charAt(truncated.length() - 1)))
+                    .isFalse();
+            // 截断结果能无损往返 UTF-8
+            assertThat(new String(truncated.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8))
+                    .isEqualTo(truncated);
+        }
+    }
+
+    @Test
+    void utf8LengthMatchesEncoder() {
+        String value = "aé中" + EMOJI;
+        assertThat(PayloadCodec.utf8Length(value)).isEqualTo(value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void compressRoundTrip() {
+        String value = "{\"name\":\"中文" + EMOJI + "\"}".repeat(50);
+
+        String compressed = PayloadCodec.compress(value);
+
+        assertThat(PayloadCodec.isCompressed(compressed)).isTrue();
+        assertThat(PayloadCodec.decompress(compressed)).isEqualTo(value);
+        // 短文本压缩后不会更短，原样返回
+        assertThat(PayloadCodec.compress("{}")).isEqualTo("{}");
+        assertThat(PayloadCodec.decompress("{}")).isEqualTo("{}");
+    }
+}
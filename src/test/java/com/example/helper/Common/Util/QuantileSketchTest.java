@@ -0,0 +1,96 @@
+package com.example.helper.Common.Util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantileSketchTest {
+
+    private static final double ACCURACY = 0.01;
+
+    @Test
+    void quantilesStayWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] values = new double[10_000];
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < values.length; i++) {
+            // 对数正态分布，跨越多个数量级
+            values[i] = Math.exp(random.nextGaussian() * 2 + 3);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[] {0.01, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertThat(sketch.quantile(q)).isCloseTo(exact, within(exact * ACCURACY * 1.0001));
+        }
+        assertThat(sketch.getMin()).isEqualTo(values[0]);
+        assertThat(sketch.getMax()).isEqualTo(values[values.length - 1]);
+        assertThat(sketch.getCount()).isEqualTo(values.length);
+    }
+
+    @Test
+    void mergeMatchesSingleSketch() {
+        Random random = new Random(7);
+        QuantileSketch all = new QuantileSketch(ACCURACY);
+        QuantileSketch low = new QuantileSketch(ACCURACY);
+        QuantileSketch high = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < 5_000; i++) {
+            // 两部分取值范围不重叠，合并时需要向两侧扩展桶数组
+            double small = random.nextDouble() * 10;
+            double large = 1_000 + random.nextDouble() * 10_000;
+            all.add(small);
+            all.add(large);
+            low.add(small);
+            high.add(large);
+        }
+        high.add(0);
+        all.add(0);
+
+        QuantileSketch merged = new QuantileSketch(ACCURACY);
+        merged.merge(high);
+        merged.merge(low);
+
+        assertThat(merged.getCount()).isEqualTo(all.getCount());
+        assertThat(merged.getMin()).isEqualTo(all.getMin());
+        assertThat(merged.getMax()).isEqualTo(all.getMax());
+        assertThat(merged.getMean()).isCloseTo(all.getMean(), within(1e-6));
+        for (double q = 0; q <= 1; q += 0.05) {
+            assertThat(merged.quantile(q)).isEqualTo(all.quantile(q));
+        }
+        assertThat(merged.histogram(10)).containsExactly(all.histogram(10));
+    }
+
+    @Test
+    void zeroAndNegativeValuesGoToZeroBucket() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        sketch.add(-3);
+        sketch.add(0);
+        sketch.add(5);
+
+        assertThat(sketch.getMin()).isZero();
+        assertThat(sketch.quantile(0)).isZero();
+        assertThat(sketch.quantile(0.5)).isZero();
+        assertThat(sketch.quantile(1)).isCloseTo(5, within(5 * ACCURACY));
+    }
+
+    @Test
+    void emptySketchReturnsNaN() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        assertThat(sketch.quantile(0.5)).isNaN();
+        assertThat(sketch.histogram(4)).containsOnly(0L);
+    }
+
+    @Test
+    void rejectsMergeWithDifferentAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        QuantileSketch other = new QuantileSketch(0.02);
+        other.add(1);
+        assertThatThrownBy(() -> sketch.merge(other)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
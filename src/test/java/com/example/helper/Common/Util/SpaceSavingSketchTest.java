@@ -0,0 +1,116 @@
+package com.example.helper.Common.Util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingSketchTest {
+
+    private static final int CAPACITY = 20;
+
+    @Test
+    void countsBoundExactFrequency() {
+        Random random = new Random(11);
+        SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(CAPACITY);
+        Map<Integer, Long> exact = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            int key = zipf(random);
+            sketch.offer(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        assertBounds(sketch, exact);
+    }
+
+    @Test
+    void mergedCountsBoundExactFrequency() {
+        Random random = new Random(5);
+        SpaceSavingSketch<Integer> merged = new SpaceSavingSketch<>(CAPACITY);
+        Map<Integer, Long> exact = new HashMap<>();
+        // 每个分片的高频元素不同，许多元素只在部分分片中被跟踪
+        for (int part = 0; part < 8; part++) {
+            SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(CAPACITY);
+            for (int i = 0; i < 5_000; i++) {
+                int key = (zipf(random) + part * 7) % 500;
+                sketch.offer(key, 1);
+                exact.merge(key, 1L, Long::sum);
+            }
+            merged.merge(sketch);
+            assertBounds(merged, exact);
+        }
+        assertThat(merged.size()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void mergeAddsMinimumOfOtherSketchForMissingKeys() {
+        // a 在第二个草图中被 c 替换，实际次数 5 + 1 = 6；c 在第一个草图中被 b 替换，实际次数 1 + 4 = 5
+        SpaceSavingSketch<String> first = new SpaceSavingSketch<>(2);
+        first.offer("a", 5);
+        first.offer("c", 1);
+        first.offer("b", 3);
+        SpaceSavingSketch<String> second = new SpaceSavingSketch<>(2);
+        second.offer("a", 1);
+        second.offer("d", 2);
+        second.offer("c", 4);
+
+        first.merge(second);
+
+        Map<String, SpaceSavingSketch.Counter<String>> counters = new HashMap<>();
+        for (SpaceSavingSketch.Counter<String> counter : first.top(2)) {
+            counters.put(counter.getKey(), counter);
+        }
+        assertThat(first.getTotal()).isEqualTo(16);
+        assertThat(counters).containsOnlyKeys("a", "c");
+        // first = {a:5, b:4(1)}，second = {d:2, c:5(1)}，两侧最小计数分别为 4 和 2
+        assertThat(counters.get("a").getCount()).isEqualTo(7);
+        assertThat(counters.get("a").getError()).isEqualTo(2);
+        assertThat(counters.get("c").getCount()).isEqualTo(9);
+        assertThat(counters.get("c").getError()).isEqualTo(5);
+        assertInRange(counters.get("a"), 6);
+        assertInRange(counters.get("c"), 5);
+    }
+
+    @Test
+    void mergeIntoEmptySketchKeepsCounts() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(3);
+        sketch.offer("a", 2);
+        sketch.offer("b", 1);
+        SpaceSavingSketch<String> merged = new SpaceSavingSketch<>(3);
+
+        merged.merge(sketch);
+
+        assertThat(merged.top(3)).extracting(SpaceSavingSketch.Counter::getCount).containsExactly(2L, 1L);
+        assertThat(merged.top(3)).extracting(SpaceSavingSketch.Counter::getError).containsOnly(0L);
+    }
+
+    // 每个被跟踪元素的实际次数在 [count - error, count] 之间，次数超过 total / capacity 的元素一定被跟踪
+    private static void assertBounds(SpaceSavingSketch<Integer> sketch, Map<Integer, Long> exact) {
+        Map<Integer, Long> tracked = new HashMap<>();
+        for (SpaceSavingSketch.Counter<Integer> counter : sketch.top(CAPACITY)) {
+            assertInRange(counter, exact.getOrDefault(counter.getKey(), 0L));
+            tracked.put(counter.getKey(), counter.getCount());
+        }
+        long total = exact.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(sketch.getTotal()).isEqualTo(total);
+        exact.forEach((key, count) -> {
+            if (count > total / CAPACITY) {
+                assertThat(tracked).containsKey(key);
+            }
+        });
+    }
+
+    private static void assertInRange(SpaceSavingSketch.Counter<?> counter, long exact) {
+        assertThat(exact)
+                .as("key %s", counter.getKey())
+                .isBetween(counter.getCount() - counter.getError(), counter.getCount());
+    }
+
+    // 近似 Zipf 分布的 0..499
+    private static int zipf(Random random) {
+        return (int) Math.min(499, Math.floor(Math.pow(500, random.nextDouble())) - 1);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.helper.Config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 管理端点与业务接口共用端口，只暴露 health 与 prometheus
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActuatorExposureTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @Test
+    void onlyHealthIsReachableAmongDefaultEndpoints() throws Exception {
+        // 测试环境没有 Redis，健康检查可能为 DOWN（503），但端点存在
+        int health = mockMvc.perform(get("/actuator/health")).andReturn().getResponse().getStatus();
+        assertThat(health).isIn(200, 503);
+
+        mockMvc.perform(get("/actuator/info")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/actuator/env")).andExpect(status().isNotFound());
+    }
+}
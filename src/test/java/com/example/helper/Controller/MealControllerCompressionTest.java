@@ -0,0 +1,99 @@
+package com.example.helper.Controller;
+
+import com.example.helper.Entity.Meal;
+import com.example.helper.Repository.MealRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 经过真实的 Tomcat 连接器，验证带 ETag 的菜品目录接口仍会被 gzip 压缩
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+            "server.compression.enabled=true",
+            "server.compression.mime-types=application/json",
+            "server.compression.min-response-size=1"
+        })
+@ActiveProfiles("test")
+class MealControllerCompressionTest {
+
+    @LocalServerPort private int port;
+
+    @Autowired private MealRepository mealRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private Long mealId;
+
+    @BeforeEach
+    void setUp() {
+        mealRepository.deleteAllInBatch();
+        List<Meal> meals = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Meal meal = new Meal();
+            meal.setTitle("压缩-" + i);
+            meal.setEnergy(new BigDecimal("321.45"));
+            meal.setChecked(true);
+            meals.add(meal);
+        }
+        mealId = mealRepository.saveAll(meals).get(0).getId();
+    }
+
+    @Test
+    void listIsCompressedAndRevalidated() throws Exception {
+        assertCompressedAndRevalidated("/api/meals?size=20");
+    }
+
+    @Test
+    void mealIsCompressedAndRevalidated() throws Exception {
+        assertCompressedAndRevalidated("/api/meals/" + mealId);
+    }
+
+    @Test
+    void selectedIsCompressedAndRevalidated() throws Exception {
+        assertCompressedAndRevalidated("/api/meals/selected");
+    }
+
+    private void assertCompressedAndRevalidated(String path) throws Exception {
+        HttpResponse<byte[]> response = send(path, null);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        String etag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        assertThat(etag).startsWith("W/\"");
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).contains("成功");
+        }
+
+        // 弱 ETag 按弱比较匹配，条件请求返回 304
+        assertThat(send(path, etag).statusCode()).isEqualTo(304);
+    }
+
+    private HttpResponse<byte[]> send(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request =
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header(HttpHeaders.ACCEPT, "application/json")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.helper.Controller;
+
+import com.example.helper.Dto.MealDTO;
+import com.example.helper.Entity.Meal;
+import com.example.helper.Repository.MealRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MealControllerContentNegotiationTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private static final Comparator<JsonNode> NUMERIC_VALUE =
+            (a, b) -> {
+                if (a.isNumber() && b.isNumber()) {
+                    return a.decimalValue().compareTo(b.decimalValue());
+                }
+                return a.equals(b) ? 0 : 1;
+            };
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MealRepository mealRepository;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MappingJackson2CborHttpMessageConverter cborConverter;
+    @Autowired private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    private final List<Meal> meals = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mealRepository.deleteAllInBatch();
+        meals.clear();
+        for (int i = 1; i <= 3; i++) {
+            Meal meal = new Meal();
+            meal.setTitle("协商-" + i);
+            meal.setImageUrl("https://img.example.com/" + i + ".jpg");
+            meal.setEnergy(new BigDecimal("512.3" + i));
+            meal.setProtein(new BigDecimal("23.45"));
+            meal.setSalt(new BigDecimal("2.1"));
+            meals.add(meal);
+        }
+        mealRepository.saveAll(meals);
+    }
+
+    @Test
+    void cborPageRoundTripsMealDTOs() throws Exception {
+        assertRoundTrip(MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper());
+    }
+
+    @Test
+    void smilePageRoundTripsMealDTOs() throws Exception {
+        assertRoundTrip(SMILE, smileConverter.getObjectMapper());
+    }
+
+    @Test
+    void representationsHaveDistinctValidators() throws Exception {
+        String jsonEtag = request(MediaType.APPLICATION_JSON).getHeader(HttpHeaders.ETAG);
+        String cborEtag = request(MediaType.APPLICATION_CBOR).getHeader(HttpHeaders.ETAG);
+        String smileEtag = request(SMILE).getHeader(HttpHeaders.ETAG);
+
+        assertThat(jsonEtag).isNotNull();
+        assertThat(List.of(jsonEtag, cborEtag, smileEtag)).doesNotHaveDuplicates();
+    }
+
+    // 二进制响应解码后的内容与 JSON 响应一致，菜品列表可直接还原为 MealDTO
+    private void assertRoundTrip(MediaType mediaType, ObjectMapper binaryMapper) throws Exception {
+        MockHttpServletResponse response = request(mediaType);
+
+        assertThat(MediaType.parseMediaType(response.getContentType()).isCompatibleWith(mediaType))
+                .isTrue();
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+        JsonNode binary = binaryMapper.readTree(response.getContentAsByteArray());
+        JsonNode json =
+                objectMapper.readTree(request(MediaType.APPLICATION_JSON).getContentAsByteArray());
+        // 时间戳为响应生成时间，两次请求不同
+        ((ObjectNode) binary).remove("timestamp");
+        ((ObjectNode) json).remove("timestamp");
+        // 二进制格式的数字类型（整数宽度、BigDecimal）与 JSON 解析结果可能不同，按数值比较
+        assertThat(binary.equals(NUMERIC_VALUE, json)).as("%s 与 JSON 内容一致", mediaType).isTrue();
+
+        MealDTO[] page =
+                binaryMapper.treeToValue(binary.path("data").path("content"), MealDTO[].class);
+        assertThat(page).hasSize(meals.size());
+        for (int i = 0; i < meals.size(); i++) {
+            Meal meal = meals.get(i);
+            assertThat(page[i].getId()).isEqualTo(meal.getId());
+            assertThat(page[i].getTitle()).isEqualTo(meal.getTitle());
+            assertThat(page[i].getImageUrl()).isEqualTo(meal.getImageUrl());
+            assertThat(page[i].getEnergy()).isEqualByComparingTo(meal.getEnergy());
+            assertThat(page[i].getProtein()).isEqualByComparingTo(meal.getProtein());
+            assertThat(page[i].getSalt()).isEqualByComparingTo(meal.getSalt());
+        }
+        assertThat(binary.path("data").path("totalElements").asLong()).isEqualTo(meals.size());
+    }
+
+    private MockHttpServletResponse request(MediaType accept) throws Exception {
+        return mockMvc.perform(get("/api/meals").param("size", "10").accept(accept))
+                .andReturn()
+                .getResponse();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.helper.Controller;
+
+import com.example.helper.Entity.Meal;
+import com.example.helper.Repository.MealRepository;
+import com.example.helper.Service.MealService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// replica-local 配置下副本之间不复制数据，写入主库的菜品在副本上永远读不到，相当于无限延迟的副本
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "replica-local"})
+class MealControllerReplicaTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MealRepository mealRepository;
+    @Autowired private MealService mealService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mealRepository.deleteAllInBatch();
+        ids.clear();
+        List<Meal> meals = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Meal meal = new Meal();
+            meal.setTitle("replica-" + i);
+            meal.setChecked(true);
+            meals.add(meal);
+        }
+        mealRepository.saveAll(meals).forEach(meal -> ids.add(meal.getId()));
+        entityManagerFactory.getCache().evictAll();
+        awaitReadsRoutedToReplica();
+    }
+
+    @Test
+    void listWithEtagIsReadFromPrimary() throws Exception {
+        mockMvc.perform(get("/api/meals"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.data.totalElements").value(ids.size()))
+                .andExpect(jsonPath("$.data.content.length()").value(ids.size()));
+    }
+
+    @Test
+    void mealWithEtagIsReadFromPrimary() throws Exception {
+        mockMvc.perform(get("/api/meals/" + ids.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.data.title").value("replica-0"));
+    }
+
+    @Test
+    void selectedWithEtagIsReadFromPrimary() throws Exception {
+        mockMvc.perform(get("/api/meals/selected"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.data.length()").value(ids.size()));
+    }
+
+    // 副本在首次探测成功后才接收读请求；确认此时普通只读事务确实落在（没有数据的）副本上
+    private void awaitReadsRoutedToReplica() throws InterruptedException {
+        for (int i = 0; i < 100 && mealService.countMeals() != 0; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(mealService.countMeals()).as("只读事务应路由到副本").isZero();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Util.LogSegmentReader;
+import com.example.helper.Common.Util.LogSegmentWriter;
+import com.example.helper.Dto.SystemLogPageDTO;
+import com.example.helper.Entity.SystemLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LogArchiveServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir Path dir;
+
+    private LogArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new LogArchiveService(new JdbcTemplate(mock(DataSource.class)), objectMapper, 2);
+        ReflectionTestUtils.setField(archiveService, "archiveDir", dir.toString());
+    }
+
+    @Test
+    void readersBeyondCacheSizeAreClosed() throws IOException {
+        List<LogSegmentReader> opened = new ArrayList<>();
+        for (int day = 1; day <= 3; day++) {
+            LocalDateTime start = LocalDateTime.of(2026, 10, day, 8, 0);
+            Path segment = writeSegment(start, day * 10L, 5);
+            assertThat(archiveService.search(null, null, null, start, start.plusDays(1), 100).getLogs())
+                    .hasSize(5);
+            opened.add(cachedReader(segment));
+        }
+
+        // 上限为 2，淘汰的读取器已关闭并解除映射，其余仍可复用
+        assertThat(archiveService.cachedReaderCount()).isEqualTo(2);
+        assertThat(opened).filteredOn(LogSegmentReader::isReleased).hasSize(1);
+        assertThat(search().getLogs()).hasSize(15);
+    }
+
+    @Test
+    void evictedAndReplacedReadersAreClosed() throws IOException {
+        Path segment = writeSegment(LocalDateTime.of(2026, 10, 1, 8, 0), 1, 5);
+        search();
+        LogSegmentReader cached = cachedReader(segment);
+        search();
+        // 索引未变化时复用同一个读取器
+        assertThat(cachedReader(segment)).isSameAs(cached);
+        assertThat(cached.isReleased()).isFalse();
+
+        // 其他节点重新归档同一段：索引修改时间变化，旧读取器关闭
+        writeSegment(LocalDateTime.of(2026, 10, 1, 8, 0), 1, 7);
+        Files.setLastModifiedTime(LogSegmentWriter.indexFileOf(segment),
+                FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertThat(search().getLogs()).hasSize(7);
+        assertThat(cached.isReleased()).isTrue();
+
+        LogSegmentReader replaced = cachedReader(segment);
+        archiveService.closeReaders();
+        assertThat(replaced.isReleased()).isTrue();
+        assertThat(archiveService.cachedReaderCount()).isZero();
+    }
+
+    private SystemLogPageDTO search() {
+        return archiveService.search(null, null, null, null, null, 100);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LogSegmentReader cachedReader(Path segment) {
+        Cache<Path, ?> readers = (Cache<Path, ?>) ReflectionTestUtils.getField(archiveService, "readers");
+        Object cached = readers.getIfPresent(segment);
+        return cached == null ? null : (LogSegmentReader) ReflectionTestUtils.invokeGetterMethod(cached, "reader");
+    }
+
+    // 按归档的文件名格式写入 count 条日志，每分钟一条
+    private Path writeSegment(LocalDateTime start, long firstId, int count) throws IOException {
+        Path segment = dir.resolve("system_logs-" + start.toLocalDate().toString().replace("-", "") + "-"
+                + firstId + LogSegmentWriter.DATA_SUFFIX);
+        try (LogSegmentWriter writer = new LogSegmentWriter(segment, 2, 6)) {
+            for (int i = 0; i < count; i++) {
+                SystemLog systemLog = new SystemLog();
+                systemLog.setId(firstId + i);
+                systemLog.setCreatedAt(start.plusMinutes(i));
+                writer.append(ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC),
+                        systemLog.getCreatedAt()), objectMapper.writeValueAsBytes(systemLog));
+            }
+        }
+        return segment;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Dto.LogPartitionMigrationDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogPartitionMigrationServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final Connection connection = mock(Connection.class);
+    private final ResultSet lockResult = mock(ResultSet.class);
+
+    private LogPartitionMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        migrationService = new LogPartitionMigrationService(jdbcTemplate);
+        ReflectionTestUtils.setField(migrationService, "retentionDays", 30);
+        ReflectionTestUtils.setField(migrationService, "partitionAheadDays", 3);
+
+        // ConnectionCallback 在模拟连接上执行：数据库为 MySQL，命名锁获取成功
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+        when(connection.getMetaData()).thenReturn(metaData);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(lockResult);
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getInt(1)).thenReturn(1);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+    }
+
+    @Test
+    void planCoversRetentionWindowAndFutureDays() {
+        List<String> statements = LogPartitionMigrationService.plan(LocalDate.of(2026, 10, 19), 30, 3);
+
+        assertThat(statements).hasSize(3);
+        // 先回填空的 created_at，再修改主键
+        assertThat(statements.get(0)).isEqualTo(LogPartitionMigrationService.BACKFILL_CREATED_AT_SQL);
+        assertThat(statements.get(1)).isEqualTo(LogPartitionMigrationService.PRIMARY_KEY_SQL);
+        String partitionSql = statements.get(2);
+        // 保留期之前的数据落入第一个分区，上界为保留期起点
+        assertThat(partitionSql)
+                .startsWith("ALTER TABLE system_logs PARTITION BY RANGE COLUMNS(created_at) (PARTITION p20260918"
+                        + " VALUES LESS THAN ('2026-09-19 00:00:00')")
+                .contains("PARTITION p20261019 VALUES LESS THAN ('2026-10-20 00:00:00')")
+                .contains("PARTITION p20261022 VALUES LESS THAN ('2026-10-23 00:00:00')")
+                .doesNotContain("p20261023")
+                .endsWith("PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        // 2026-09-18 到 2026-10-22 共 35 天，加 pmax
+        assertThat(partitionSql.split("PARTITION p")).hasSize(37);
+    }
+
+    @Test
+    void dryRunOnlyReturnsStatements() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        LogPartitionMigrationDTO result = migrationService.migrate(true);
+
+        assertThat(result.getSkipped()).isFalse();
+        assertThat(result.getExecuted()).isFalse();
+        assertThat(result.getStatements()).hasSize(3);
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void migratesUnpartitionedTableInOrder() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        LogPartitionMigrationDTO result = migrationService.migrate(false);
+
+        assertThat(result.getExecuted()).isTrue();
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute(LogPartitionMigrationService.BACKFILL_CREATED_AT_SQL);
+        order.verify(jdbcTemplate).execute(LogPartitionMigrationService.PRIMARY_KEY_SQL);
+        order.verify(jdbcTemplate).execute(result.getStatements().get(2));
+    }
+
+    @Test
+    void skipsPartitionedTable() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of("p20261019", "pmax"));
+
+        LogPartitionMigrationDTO result = migrationService.migrate(false);
+
+        assertThat(result.getSkipped()).isTrue();
+        assertThat(result.getExecuted()).isFalse();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void skipsWhenAnotherNodeMigratedWhileWaitingForLock() {
+        // 加锁前未分区，持锁后再检查时已分区
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(), List.of("p20261019", "pmax"));
+
+        LogPartitionMigrationDTO result = migrationService.migrate(false);
+
+        assertThat(result.getSkipped()).isTrue();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void failsWhenMaintenanceLockIsHeld() throws Exception {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+        when(lockResult.getInt(1)).thenReturn(0);
+
+        assertThatThrownBy(() -> migrationService.migrate(false))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("其他节点");
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void skipsOtherDatabases() throws Exception {
+        when(connection.getMetaData().getDatabaseProductName()).thenReturn("H2");
+
+        LogPartitionMigrationDTO result = migrationService.migrate(false);
+
+        assertThat(result.getSkipped()).isTrue();
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.helper.Service;
+
+import com.example.helper.Entity.SystemLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogTailServiceTest {
+
+    // 推送线程池：reject 为 true 时拒绝任务，否则暂存，由测试手动执行
+    private final List<Runnable> tasks = new ArrayList<>();
+    private boolean reject;
+
+    private LogTailService tailService;
+
+    @BeforeEach
+    void setUp() {
+        Executor pushTaskExecutor = task -> {
+            if (reject) {
+                throw new RejectedExecutionException("full");
+            }
+            tasks.add(task);
+        };
+        tailService = new LogTailService(new ObjectMapper(), pushTaskExecutor);
+        ReflectionTestUtils.setField(tailService, "bufferSize", 4);
+        ReflectionTestUtils.setField(tailService, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(tailService, "emitterTimeoutMs", 60_000L);
+    }
+
+    @Test
+    void rejectedSendDropsBacklogWithoutBlockingPublisher() {
+        reject = true;
+        tailService.subscribe(null, null, null, null);
+
+        // ready 事件与两条日志都因线程池拒绝而丢弃，publish 不抛出异常也不在调用线程发送
+        tailService.publish(List.of(log("u1"), log("u2")));
+        assertThat(tailService.getDroppedCount()).isEqualTo(3);
+        assertThat(tasks).isEmpty();
+        assertThat(tailService.getSubscriberCount()).isEqualTo(1);
+
+        // 线程池恢复后重新调度
+        reject = false;
+        tailService.heartbeat();
+        assertThat(tasks).hasSize(1);
+        tasks.remove(0).run();
+        assertThat(tailService.getSubscriberCount()).isEqualTo(1);
+        assertThat(tailService.getDroppedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void fullBufferDropsNewLogs() {
+        tailService.subscribe(null, null, null, null);
+
+        // 发送任务未执行，ready 加 3 条日志占满容量为 4 的缓冲区，其余丢弃
+        tailService.publish(List.of(log("u1"), log("u2"), log("u3"), log("u4"), log("u5")));
+
+        assertThat(tasks).hasSize(1);
+        assertThat(tailService.getDroppedCount()).isEqualTo(2);
+    }
+
+    private static SystemLog log(String userId) {
+        SystemLog systemLog = new SystemLog();
+        systemLog.setUserId(userId);
+        systemLog.setStatus("SUCCESS");
+        return systemLog;
+    }
+}
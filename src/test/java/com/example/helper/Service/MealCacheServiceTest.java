@@ -0,0 +1,93 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.SelectionActionEnum;
+import com.example.helper.Dto.CacheRegionStatisticsDTO;
+import com.example.helper.Entity.Meal;
+import com.example.helper.Repository.MealRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MealCacheServiceTest {
+
+    @Autowired private MealService mealService;
+    @Autowired private MealCacheService mealCacheService;
+    @Autowired private MealRepository mealRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mealRepository.deleteAllInBatch();
+        ids.clear();
+        List<Meal> meals = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Meal meal = new Meal();
+            meal.setTitle("cache-" + i);
+            meals.add(meal);
+        }
+        mealRepository.saveAll(meals).forEach(meal -> ids.add(meal.getId()));
+        entityManagerFactory.getCache().evictAll();
+        // 预热：所有菜品进入实体缓存
+        ids.forEach(mealService::getMealById);
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+    }
+
+    @Test
+    void toggleEvictsOnlyTheToggledMeal() {
+        Long toggled = ids.get(0);
+
+        assertThat(mealService.toggleMealSelection(toggled).getChecked()).isTrue();
+
+        for (Long id : ids) {
+            boolean cached = entityManagerFactory.getCache().contains(Meal.class, id);
+            assertThat(cached).as("meal %d cached", id).isEqualTo(!id.equals(toggled));
+        }
+        // 切换本身在事务内重新加载了一次，只统计之后的读取
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+        ids.forEach(mealService::getMealById);
+        CacheRegionStatisticsDTO region = mealRegion();
+        // 只有被切换的菜品需要重新加载
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(ids.size() - 1);
+        assertThat(mealService.getMealById(toggled).orElseThrow().getChecked()).isTrue();
+        // 选中相关的查询缓存已失效
+        assertThat(mealService.countSelectedMeals()).isEqualTo(1);
+    }
+
+    @Test
+    void batchSelectionKeepsUnchangedMealsCached() {
+        List<Long> selected = ids.subList(0, 5);
+
+        mealService.updateSelection(SelectionActionEnum.SELECT, selected, null);
+        mealService.updateSelection(SelectionActionEnum.INVERT, ids.subList(0, 2), null);
+
+        ids.forEach(mealService::getMealById);
+        CacheRegionStatisticsDTO region = mealRegion();
+        assertThat(region.getMissCount()).isEqualTo(selected.size());
+        assertThat(region.getHitCount()).isEqualTo(ids.size() - selected.size());
+        assertThat(region.getHitRatio()).isGreaterThanOrEqualTo(0.75);
+        assertThat(mealService.getSelectedMeals())
+                .extracting(Meal::getId)
+                .containsExactlyInAnyOrderElementsOf(ids.subList(2, 5));
+    }
+
+    private CacheRegionStatisticsDTO mealRegion() {
+        return mealCacheService.getRegionStatistics().stream()
+                .filter(region -> Meal.CACHE_REGION.equals(region.getRegion()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
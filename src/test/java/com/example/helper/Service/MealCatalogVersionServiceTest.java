@@ -0,0 +1,146 @@
+package com.example.helper.Service;
+
+import com.example.helper.Repository.MealCatalogVersionRepository;
+import com.example.helper.Repository.MealChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MealCatalogVersionServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    private final MealCatalogVersionRepository versionRepository =
+            mock(MealCatalogVersionRepository.class);
+    private final MealChangeRepository changeRepository = mock(MealChangeRepository.class);
+
+    // 已提交（可见）的变更日志：seq -> 写入时间
+    private final TreeMap<Long, LocalDateTime> committed = new TreeMap<>();
+
+    private MealCatalogVersionService versionService;
+
+    @BeforeEach
+    void setUp() {
+        versionService = new MealCatalogVersionService(versionRepository, changeRepository);
+        ReflectionTestUtils.setField(versionService, "gapTimeoutMs", 60_000L);
+        when(versionRepository.findCompactedSeq(anyLong())).thenReturn(0L);
+        when(changeRepository.findSeqStatesAfter(anyLong(), any(Pageable.class)))
+                .thenAnswer(
+                        invocation -> {
+                            long after = invocation.getArgument(0);
+                            Pageable pageable = invocation.getArgument(1);
+                            return committed.tailMap(after, false).entrySet().stream()
+                                    .limit(pageable.getPageSize())
+                                    .map(e -> state(e.getKey(), e.getValue()))
+                                    .toList();
+                        });
+    }
+
+    @Test
+    void contiguousCommitsAdvanceWatermark() {
+        commit(1, 2, 3);
+
+        versionService.refresh();
+
+        assertThat(versionService.getWatermark()).isEqualTo(3);
+        assertThat(versionService.getVersion()).isEqualTo(3);
+        assertThat(versionService.etag("list")).startsWith("W/\"v3-");
+        assertThat(versionService.getLastModifiedMillis())
+                .isEqualTo(
+                        BASE.plusSeconds(3).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void earlierTransactionCommittingLaterStillChangesEtag() {
+        // seq 2 先分配、后提交
+        commit(1, 3);
+        versionService.refresh();
+        String beforeLateCommit = versionService.etag("list");
+        assertThat(versionService.getWatermark()).isEqualTo(1);
+        assertThat(versionService.getVersion()).isEqualTo(3);
+
+        commit(2);
+        versionService.refresh();
+
+        // 最大 seq 不变，但已提交的集合变了
+        assertThat(versionService.getVersion()).isEqualTo(3);
+        assertThat(versionService.getWatermark()).isEqualTo(3);
+        assertThat(versionService.etag("list")).isNotEqualTo(beforeLateCommit);
+    }
+
+    @Test
+    void etagChangesForEveryCommitBehindGap() {
+        commit(1, 3);
+        versionService.refresh();
+        String first = versionService.etag("list");
+
+        commit(4);
+        versionService.refresh();
+
+        assertThat(versionService.getWatermark()).isEqualTo(1);
+        assertThat(versionService.etag("list")).isNotEqualTo(first);
+    }
+
+    @Test
+    void gapFromRolledBackTransactionIsSkippedAfterTimeout() {
+        ReflectionTestUtils.setField(versionService, "gapTimeoutMs", 0L);
+        commit(1, 3, 4);
+
+        versionService.refresh();
+
+        assertThat(versionService.getWatermark()).isEqualTo(4);
+        assertThat(versionService.etag("list")).startsWith("W/\"v4-");
+    }
+
+    @Test
+    void watermarkStartsAtCompactedSeq() {
+        when(versionRepository.findCompactedSeq(anyLong())).thenReturn(10L);
+        commit(11, 12);
+
+        versionService.refresh();
+
+        assertThat(versionService.getWatermark()).isEqualTo(12);
+    }
+
+    @Test
+    void scansPastOnePage() {
+        for (long seq = 1; seq <= 2500; seq++) {
+            commit(seq);
+        }
+
+        versionService.refresh();
+
+        assertThat(versionService.getWatermark()).isEqualTo(2500);
+    }
+
+    private void commit(long... seqs) {
+        for (long seq : seqs) {
+            committed.put(seq, BASE.plusSeconds(seq));
+        }
+    }
+
+    private static MealChangeRepository.SeqState state(long seq, LocalDateTime changedAt) {
+        return new MealChangeRepository.SeqState() {
+            @Override
+            public Long getSeq() {
+                return seq;
+            }
+
+            @Override
+            public LocalDateTime getChangedAt() {
+                return changedAt;
+            }
+        };
+    }
+}
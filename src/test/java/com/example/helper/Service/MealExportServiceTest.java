@@ -0,0 +1,75 @@
+package com.example.helper.Service;
+
+import com.example.helper.Entity.Meal;
+import com.example.helper.Repository.MealRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MealExportServiceTest {
+
+    @Autowired private MealExportService exportService;
+    @Autowired private MealRepository mealRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mealRepository.deleteAllInBatch();
+        List<Meal> meals = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Meal meal = new Meal();
+            meal.setTitle("export-" + i);
+            meal.setChecked(i % 2 == 0);
+            meals.add(meal);
+        }
+        mealRepository.saveAll(meals).forEach(meal -> ids.add(meal.getId()));
+        entityManagerFactory.getCache().evictAll();
+        statistics().clear();
+    }
+
+    @Test
+    void exportBypassesSecondLevelCache() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportMeals(null, MealExportService.FORMAT_NDJSON, out);
+
+        assertThat(rows).isEqualTo(50);
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(50);
+        // 全量导出不写入菜品缓存区域，不挤出热点实体
+        CacheRegionStatistics region = statistics().getDomainDataRegionStatistics(Meal.CACHE_REGION);
+        assertThat(region.getPutCount()).isZero();
+        for (Long id : ids) {
+            assertThat(entityManagerFactory.getCache().contains(Meal.class, id)).isFalse();
+        }
+    }
+
+    @Test
+    void filteredExportBypassesSecondLevelCache() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportMeals(true, MealExportService.FORMAT_CSV, out);
+
+        assertThat(rows).isEqualTo(25);
+        assertThat(statistics().getDomainDataRegionStatistics(Meal.CACHE_REGION).getPutCount()).isZero();
+    }
+
+    private org.hibernate.stat.Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Event.MealChangeEvent;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Dto.MealImportProgressDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class MealImportServiceTest {
+
+    // 标题唯一，用于构造整块批量插入失败的场景
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE meals (id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                    + " title VARCHAR(100) NOT NULL UNIQUE, image_url VARCHAR(500),"
+                    + " energy DECIMAL(10, 2), protein DECIMAL(10, 2), trans_fat DECIMAL(10, 2),"
+                    + " saturated_fat DECIMAL(10, 2), carbohydrate DECIMAL(10, 2),"
+                    + " added_sugar DECIMAL(10, 2), salt DECIMAL(10, 2), dietary_fiber DECIMAL(10, 2),"
+                    + " checked BOOLEAN, created_at TIMESTAMP, updated_at TIMESTAMP)";
+
+    private final List<MealChangeEvent> events = new ArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private MealImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource(
+                        "jdbc:h2:mem:import-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "sa",
+                        "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+
+        ApplicationEventPublisher publisher = event -> events.add((MealChangeEvent) event);
+        importService =
+                new MealImportService(
+                        jdbcTemplate,
+                        new DataSourceTransactionManager(dataSource),
+                        publisher,
+                        new ObjectMapper(),
+                        Runnable::run,
+                        mock(MealCacheService.class));
+        ReflectionTestUtils.setField(importService, "chunkSize", 3);
+        ReflectionTestUtils.setField(importService, "parallelism", 2);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 100);
+        ReflectionTestUtils.setField(importService, "jobRetentionMinutes", 60L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void reportsParseAndValidationErrorsWithLineNumbers() {
+        String ndjson =
+                String.join(
+                        "\n",
+                        "{\"title\":\"a\",\"energy\":100}",
+                        "not json",
+                        "",
+                        "{\"title\":\"\"}",
+                        "{\"title\":\"b\",\"protein\":-1}",
+                        "{\"title\":\"c\",\"image_url\":\"x\"}");
+
+        MealImportProgressDTO result = import_(ndjson, "ndjson", "ndjson-job");
+
+        assertThat(result.getStatus()).isEqualTo(MealImportService.STATUS_COMPLETED);
+        // 空行不计入总行数，行号按原始输入计算
+        assertThat(result.getTotalRows()).isEqualTo(5);
+        assertThat(result.getImportedRows()).isEqualTo(2);
+        assertThat(result.getFailedRows()).isEqualTo(3);
+        assertThat(result.getErrors())
+                .extracting(MealImportProgressDTO.RowError::getLine)
+                .containsExactlyInAnyOrder(2L, 4L, 5L);
+        assertThat(titles()).containsExactly("a", "c");
+    }
+
+    @Test
+    void csvRecordsMaySpanLinesAndUnclosedQuoteIsReported() {
+        String csv =
+                String.join(
+                        "\n",
+                        "title,energy",
+                        "\"multi",
+                        "line\",10",
+                        "plain,20",
+                        "\"unclosed,30");
+
+        MealImportProgressDTO result = import_(csv, "csv", null);
+
+        assertThat(result.getImportedRows()).isEqualTo(2);
+        assertThat(result.getErrors())
+                .singleElement()
+                .satisfies(error -> assertThat(error.getLine()).isEqualTo(5L));
+        assertThat(titles()).containsExactly("multi\nline", "plain");
+    }
+
+    @Test
+    void csvWithoutTitleColumnFails() {
+        assertThatThrownBy(() -> import_("energy\n10", "csv", "no-title"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("title");
+        assertThat(importService.getProgress("no-title").getStatus())
+                .isEqualTo(MealImportService.STATUS_FAILED);
+    }
+
+    @Test
+    void failedChunkRollsBackAndRetriesRowByRow() {
+        jdbcTemplate.update("INSERT INTO meals (title, checked) VALUES ('dup', false)");
+        // 第二块（第 4 到 6 行）中第 5 行与已有标题重复，整块批量插入失败回滚后逐行重试
+        String ndjson =
+                String.join(
+                        "\n",
+                        "{\"title\":\"r1\"}",
+                        "{\"title\":\"r2\"}",
+                        "{\"title\":\"r3\"}",
+                        "{\"title\":\"r4\"}",
+                        "{\"title\":\"dup\"}",
+                        "{\"title\":\"r6\"}",
+                        "{\"title\":\"r7\"}");
+
+        MealImportProgressDTO result = import_(ndjson, "ndjson", "chunk-job");
+
+        assertThat(result.getImportedRows()).isEqualTo(6);
+        assertThat(result.getErrors())
+                .extracting(MealImportProgressDTO.RowError::getLine)
+                .containsExactly(5L);
+        assertThat(titles()).containsExactly("dup", "r1", "r2", "r3", "r4", "r6", "r7");
+        // 每个提交的事务发布一次变更事件：第一块整块、第二块逐行两次、第三块整块，失败的批次不发布
+        assertThat(events).extracting(event -> event.getMealIds().size()).containsExactly(3, 1, 1, 1);
+    }
+
+    @Test
+    void rejectsDuplicateJobId() {
+        MealImportProgressDTO first = import_("{\"title\":\"a\"}", "ndjson", "same-job");
+
+        assertThatThrownBy(() -> import_("{\"title\":\"b\"}", "ndjson", "same-job"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("same-job");
+        // 第一次导入的进度不被覆盖，第二次导入没有写入
+        assertThat(importService.getProgress("same-job").getImportedRows())
+                .isEqualTo(first.getImportedRows());
+        assertThat(titles()).containsExactly("a");
+    }
+
+    private MealImportProgressDTO import_(String content, String format, String jobId) {
+        return importService.importMeals(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format, jobId);
+    }
+
+    private List<String> titles() {
+        return jdbcTemplate.queryForList("SELECT title FROM meals ORDER BY title", String.class);
+    }
+}
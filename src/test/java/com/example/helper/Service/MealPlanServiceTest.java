@@ -0,0 +1,166 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.NutrientEnum;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.NutrientMatrix;
+import com.example.helper.Dto.MealDTO;
+import com.example.helper.Dto.MealPlanRequestDTO;
+import com.example.helper.Dto.MealPlanResultDTO;
+import com.example.helper.Entity.Meal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MealPlanServiceTest {
+
+    private static final int DIMENSIONS = NutrientEnum.values().length;
+
+    private final MealNutrientMatrixService matrixService = mock(MealNutrientMatrixService.class);
+    private final MealService mealService = mock(MealService.class);
+    private MealPlanService planService;
+
+    @BeforeEach
+    void setUp() {
+        // 工作线程在调用线程上依次执行，结果只取决于随机种子和时限
+        planService = new MealPlanService(matrixService, mealService, Runnable::run);
+        ReflectionTestUtils.setField(planService, "workers", 2);
+        ReflectionTestUtils.setField(planService, "defaultTimeLimitMs", 50L);
+        ReflectionTestUtils.setField(planService, "maxTimeLimitMs", 200L);
+        when(mealService.getMealsByIds(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<Long> ids = invocation.getArgument(0);
+                            return ids.stream().map(MealPlanServiceTest::meal).toList();
+                        });
+    }
+
+    @Test
+    void findsFeasiblePlan() {
+        NutrientMatrix.Builder builder = new NutrientMatrix.Builder(DIMENSIONS);
+        for (long id = 1; id <= 20; id++) {
+            builder.add(id, false, nutrients(id * 100, 1));
+        }
+        when(matrixService.getMatrix()).thenReturn(builder.build());
+
+        // 能量恰好 600、盐不超过 3：只有少数组合满足
+        MealPlanResultDTO result =
+                planService.optimize(request(range("energy", 600, 600), range("salt", null, 3)));
+
+        assertThat(result.getFeasible()).isTrue();
+        assertThat(result.getViolations()).isEmpty();
+        assertThat(result.getTotals().get("energy")).isEqualByComparingTo("600");
+        assertThat(result.getTotals().get("salt")).isLessThanOrEqualTo(new BigDecimal("3"));
+        assertThat(result.getMeals()).extracting(MealDTO::getId).doesNotHaveDuplicates();
+        assertThat(result.getCandidateCount()).isEqualTo(20);
+        assertThat(result.getExcludedCount()).isZero();
+    }
+
+    @Test
+    void excludesMealsMissingCappedNutrient() {
+        // 1 号菜品能量极低且缺少盐数据，按 0 计算会被优先选中
+        NutrientMatrix matrix =
+                new NutrientMatrix.Builder(DIMENSIONS)
+                        .add(1, false, nutrients(100, Double.NaN))
+                        .add(2, false, nutrients(100, 2))
+                        .add(3, false, nutrients(100, 2))
+                        .add(4, false, nutrients(100, 2))
+                        .build();
+        when(matrixService.getMatrix()).thenReturn(matrix);
+
+        MealPlanResultDTO result =
+                planService.optimize(request(range("energy", 200, 200), range("salt", null, 5)));
+
+        assertThat(result.getMeals()).extracting(MealDTO::getId).doesNotContain(1L);
+        assertThat(result.getCandidateCount()).isEqualTo(3);
+        assertThat(result.getExcludedCount()).isEqualTo(1);
+        assertThat(result.getFeasible()).isTrue();
+    }
+
+    @Test
+    void keepsMealsMissingNutrientWithoutUpperLimit() {
+        NutrientMatrix matrix =
+                new NutrientMatrix.Builder(DIMENSIONS)
+                        .add(1, false, nutrients(100, Double.NaN))
+                        .add(2, false, nutrients(100, 2))
+                        .build();
+        when(matrixService.getMatrix()).thenReturn(matrix);
+
+        MealPlanResultDTO result =
+                planService.optimize(request(range("energy", 100, 300), range("salt", 1, null)));
+
+        assertThat(result.getCandidateCount()).isEqualTo(2);
+        assertThat(result.getExcludedCount()).isZero();
+    }
+
+    @Test
+    void rejectsWhenTooFewMealsRemain() {
+        NutrientMatrix matrix =
+                new NutrientMatrix.Builder(DIMENSIONS)
+                        .add(1, false, nutrients(100, Double.NaN))
+                        .add(2, false, nutrients(100, 2))
+                        .build();
+        when(matrixService.getMatrix()).thenReturn(matrix);
+
+        MealPlanRequestDTO request = request(range("salt", null, 5));
+        request.setMinMeals(2);
+
+        assertThatThrownBy(() -> planService.optimize(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("1 个菜品缺少");
+    }
+
+    @Test
+    void rejectsInvalidTargets() {
+        assertThatThrownBy(() -> planService.optimize(request(range("energy", 300, 100))))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> planService.optimize(request(range("unknown", 1, 2))))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    // 仅设置能量和盐，其他营养记为 0
+    private static double[] nutrients(double energy, double salt) {
+        double[] values = new double[DIMENSIONS];
+        values[NutrientEnum.ENERGY.ordinal()] = energy;
+        values[NutrientEnum.SALT.ordinal()] = salt;
+        return values;
+    }
+
+    @SafeVarargs
+    private static MealPlanRequestDTO request(
+            Map.Entry<String, MealPlanRequestDTO.NutrientRange>... ranges) {
+        Map<String, MealPlanRequestDTO.NutrientRange> targets = new LinkedHashMap<>();
+        for (Map.Entry<String, MealPlanRequestDTO.NutrientRange> range : ranges) {
+            targets.put(range.getKey(), range.getValue());
+        }
+        MealPlanRequestDTO request = new MealPlanRequestDTO();
+        request.setTargets(targets);
+        request.setMaxMeals(5);
+        return request;
+    }
+
+    private static Map.Entry<String, MealPlanRequestDTO.NutrientRange> range(
+            String code, Integer min, Integer max) {
+        MealPlanRequestDTO.NutrientRange range = new MealPlanRequestDTO.NutrientRange();
+        range.setMin(min == null ? null : BigDecimal.valueOf(min));
+        range.setMax(max == null ? null : BigDecimal.valueOf(max));
+        return Map.entry(code, range);
+    }
+
+    private static Meal meal(Long id) {
+        Meal meal = new Meal();
+        meal.setId(id);
+        meal.setTitle("meal-" + id);
+        return meal;
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Enum.NutrientEnum;
+import com.example.helper.Common.Enum.SelectionActionEnum;
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Common.Util.NutrientMatrix;
+import com.example.helper.Dto.SelectionResultDTO;
+import com.example.helper.Entity.Meal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MealSelectionServiceTest {
+
+    private static final String USER = "u1";
+
+    private final FakeRedis redis = new FakeRedis();
+    private final MealService mealService = mock(MealService.class);
+    private final MealNutrientMatrixService matrixService = mock(MealNutrientMatrixService.class);
+
+    // 数据库中的最大菜品ID，营养矩阵中为 1..20
+    private long maxMealId = 20;
+
+    private MealSelectionService selectionService;
+
+    @BeforeEach
+    void setUp() {
+        NutrientMatrix.Builder builder = new NutrientMatrix.Builder(NutrientEnum.values().length);
+        for (long id = 1; id <= 20; id++) {
+            builder.add(id, false, new double[NutrientEnum.values().length]);
+        }
+        when(matrixService.getMatrix()).thenReturn(builder.build());
+        when(mealService.getMaxMealId()).thenAnswer(invocation -> maxMealId);
+        when(mealService.getMealsByIds(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<Long> ids = invocation.getArgument(0);
+                            return ids.stream().filter(id -> id <= maxMealId).map(this::meal).toList();
+                        });
+        selectionService =
+                new MealSelectionService(redis, mealService, matrixService, "test:", 100, 1000, 30);
+    }
+
+    // Redis 位偏移 n 位于第 n/8 个字节的第 7 - n%8 位（高位在前），与 BitSet 的低位在前相反
+    @Test
+    void redisBitOrderMapsToMealIds() {
+        byte[] redisBytes = {(byte) 0x80, 0x01, 0x00, 0x40, (byte) 0xFF};
+
+        BitSet bits = MealSelectionService.fromRedis(redisBytes);
+
+        assertThat(bits.stream().toArray()).containsExactly(0, 15, 25, 32, 33, 34, 35, 36, 37, 38, 39);
+        assertThat(MealSelectionService.toRedis(bits)).containsExactly(redisBytes);
+        assertThat(MealSelectionService.fromRedis(new byte[0]).isEmpty()).isTrue();
+        assertThat(MealSelectionService.toRedis(new BitSet())).isEmpty();
+    }
+
+    @Test
+    void redisBitmapRoundTrips() {
+        Random random = new Random(42);
+        for (int round = 0; round < 100; round++) {
+            BitSet bits = new BitSet();
+            for (int i = random.nextInt(50); i > 0; i--) {
+                bits.set(1 + random.nextInt(5000));
+            }
+            byte[] redisBytes = MealSelectionService.toRedis(bits);
+            for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                assertThat(FakeRedis.getBit(redisBytes, id)).as("GETBIT %d", id).isEqualTo(1);
+            }
+            assertThat(MealSelectionService.fromRedis(redisBytes)).isEqualTo(bits);
+        }
+    }
+
+    @Test
+    void toggleSetsRedisBitOfMealId() {
+        assertThat(selectionService.toggle(USER, 10)).isTrue();
+
+        // 与 redis-cli SETBIT key 10 1 的结果一致
+        assertThat(redis.bitmap(USER)).containsExactly(0x00, 0x20);
+        assertThat(selectionService.getSelectedMeals(USER)).extracting(Meal::getId).containsExactly(10L);
+        assertThat(selectionService.toggle(USER, 10)).isFalse();
+        assertThat(selectionService.getVersion(USER)).isEqualTo(2);
+    }
+
+    @Test
+    void toggleRejectsIdsAboveMaxMealId() {
+        assertThatThrownBy(() -> selectionService.toggle(USER, Integer.MAX_VALUE))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("菜品不存在");
+        assertThat(redis.bitmap(USER)).isEmpty();
+
+        // 营养矩阵尚未反映新建的菜品时以主库中的最大ID为准
+        maxMealId = 25;
+        assertThat(selectionService.toggle(USER, 25)).isTrue();
+        assertThat(selectionService.getSelectedMeals(USER)).extracting(Meal::getId).containsExactly(25L);
+    }
+
+    @Test
+    void oversizedBitmapIsReadOnlyUpToMaxMealId() {
+        redis.setBit(USER, 3);
+        redis.setBit(USER, 2_000_000);
+
+        assertThat(selectionService.getSelectedMeals(USER)).extracting(Meal::getId).containsExactly(3L);
+        assertThat(redis.lastLoadedBytes).isEqualTo(3);
+    }
+
+    @Test
+    void batchScriptSetsClearsAndInvertsExistingMeals() {
+        SelectionResultDTO selected =
+                selectionService.updateSelection(
+                        USER, SelectionActionEnum.SELECT, List.of(1L, 2L, 3L, 99L), null);
+        assertThat(selected.getAffectedCount()).isEqualTo(3);
+        assertThat(selected.getSelectedIds()).containsExactly(1L, 2L, 3L);
+        assertThat(redis.args).containsExactly("1", "1", "2", "3");
+
+        SelectionResultDTO inverted =
+                selectionService.updateSelection(USER, SelectionActionEnum.INVERT, List.of(2L, 4L), null);
+        assertThat(inverted.getAffectedCount()).isEqualTo(2);
+        assertThat(inverted.getSelectedIds()).containsExactly(4L);
+        assertThat(redis.args).containsExactly("invert", "2", "4");
+
+        SelectionResultDTO deselected =
+                selectionService.updateSelection(
+                        USER, SelectionActionEnum.DESELECT, List.of(1L, 5L), null);
+        assertThat(deselected.getAffectedCount()).isEqualTo(1);
+        assertThat(deselected.getSelectedCount()).isEqualTo(2);
+        assertThat(MealSelectionService.fromRedis(redis.bitmap(USER)).stream().toArray())
+                .containsExactly(3, 4);
+        assertThat(selectionService.getVersion(USER)).isEqualTo(3);
+    }
+
+    @Test
+    void replaceScriptRetriesOnVersionConflict() {
+        when(mealService.findMealIdsByTitle(anyString())).thenReturn(List.of(1L, 2L));
+        // 第一次整体写回前，其他节点切换了菜品 7
+        redis.beforeReplace = () -> redis.setBit(USER, 7);
+
+        SelectionResultDTO result =
+                selectionService.updateSelection(USER, SelectionActionEnum.SELECT, null, "鸡");
+
+        assertThat(redis.replaceAttempts).isEqualTo(2);
+        assertThat(result.getAffectedCount()).isEqualTo(2);
+        assertThat(result.getSelectedCount()).isEqualTo(3);
+        // 重试基于最新位图，并发写入的位未被覆盖
+        assertThat(MealSelectionService.fromRedis(redis.bitmap(USER)).stream().toArray())
+                .containsExactly(1, 2, 7);
+    }
+
+    @Test
+    void replaceScriptGivesUpAfterRepeatedConflicts() {
+        when(mealService.findMealIdsByTitle(anyString())).thenReturn(List.of(1L));
+        redis.conflictEveryReplace = true;
+
+        assertThatThrownBy(
+                        () ->
+                                selectionService.updateSelection(
+                                        USER, SelectionActionEnum.SELECT, null, "鸡"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("并发修改");
+        assertThat(redis.bitmap(USER)).isEmpty();
+    }
+
+    private Meal meal(Long id) {
+        Meal meal = new Meal();
+        meal.setId(id);
+        return meal;
+    }
+
+    /** 内存中的 Redis，按 Lua 脚本的语义执行 GETBIT/SETBIT（位偏移高位在前）与版本号递增 */
+    private static class FakeRedis extends StringRedisTemplate {
+
+        private final Map<String, byte[]> values = new HashMap<>();
+
+        private List<String> args = List.of();
+        private int replaceAttempts;
+        private int lastLoadedBytes;
+        private Runnable beforeReplace;
+        private boolean conflictEveryReplace;
+
+        static int getBit(byte[] bytes, long offset) {
+            int index = (int) (offset / 8);
+            return index < bytes.length ? (bytes[index] >> (7 - offset % 8)) & 1 : 0;
+        }
+
+        byte[] bitmap(String userId) {
+            return values.getOrDefault("test:{" + userId + "}", new byte[0]);
+        }
+
+        // 其他节点的写入：SETBIT 并递增版本号
+        void setBit(String userId, long offset) {
+            setBit("test:{" + userId + "}", offset, 1);
+            incr("test:{" + userId + "}:version");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... argv) {
+            args = Arrays.stream(argv).map(String::valueOf).toList();
+            if (script == MealSelectionService.TOGGLE_SCRIPT) {
+                long bit = 1 - getBit(bitmap(keys), Long.parseLong(args.get(0)));
+                setBit(keys.get(0), Long.parseLong(args.get(0)), (int) bit);
+                return (T) List.of(bit, incr(keys.get(1)));
+            }
+            if (script == MealSelectionService.BATCH_SCRIPT) {
+                long changed = 0;
+                for (String offset : args.subList(1, args.size())) {
+                    int old = getBit(bitmap(keys), Long.parseLong(offset));
+                    int updated = "invert".equals(args.get(0)) ? 1 - old : Integer.parseInt(args.get(0));
+                    if (updated != old) {
+                        setBit(keys.get(0), Long.parseLong(offset), updated);
+                        changed++;
+                    }
+                }
+                return (T) List.of(changed, incr(keys.get(1)));
+            }
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(
+                RedisScript<T> script,
+                RedisSerializer<?> argsSerializer,
+                RedisSerializer<T> resultSerializer,
+                List<String> keys,
+                Object... argv) {
+            if (script == MealSelectionService.REPLACE_SCRIPT) {
+                replaceAttempts++;
+                if (beforeReplace != null) {
+                    beforeReplace.run();
+                    beforeReplace = null;
+                }
+                if (conflictEveryReplace) {
+                    incr(keys.get(1));
+                }
+                long expected = Long.parseLong(new String((byte[]) argv[0], StandardCharsets.UTF_8));
+                if (version(keys.get(1)) != expected) {
+                    return (T) Long.valueOf(-1);
+                }
+                byte[] bitmap = (byte[]) argv[1];
+                if (bitmap.length == 0) {
+                    values.remove(keys.get(0));
+                } else {
+                    values.put(keys.get(0), bitmap);
+                }
+                return (T) Long.valueOf(incr(keys.get(1)));
+            }
+            if (script == MealSelectionService.LOAD_SCRIPT) {
+                byte[] bitmap = bitmap(keys);
+                byte[] range =
+                        Arrays.copyOf(bitmap, Math.min(bitmap.length, Integer.parseInt((String) argv[0]) + 1));
+                lastLoadedBytes = range.length;
+                byte[] version = values.getOrDefault(keys.get(1), new byte[0]);
+                return (T) List.of(version, range, (long) bitmap.length);
+            }
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public ValueOperations<String, String> opsForValue() {
+            ValueOperations<String, String> operations = mock(ValueOperations.class);
+            when(operations.get(anyString()))
+                    .thenAnswer(
+                            invocation -> {
+                                byte[] value = values.get(invocation.<String>getArgument(0));
+                                return value == null ? null : new String(value, StandardCharsets.UTF_8);
+                            });
+            return operations;
+        }
+
+        private byte[] bitmap(List<String> keys) {
+            return values.getOrDefault(keys.get(0), new byte[0]);
+        }
+
+        private void setBit(String key, long offset, int bit) {
+            byte[] bytes = values.getOrDefault(key, new byte[0]);
+            int index = (int) (offset / 8);
+            if (index >= bytes.length) {
+                bytes = Arrays.copyOf(bytes, index + 1);
+            }
+            int mask = 1 << (7 - offset % 8);
+            bytes[index] = (byte) (bit == 1 ? bytes[index] | mask : bytes[index] & ~mask);
+            values.put(key, bytes);
+        }
+
+        private long version(String key) {
+            byte[] value = values.get(key);
+            return value == null ? 0 : Long.parseLong(new String(value, StandardCharsets.UTF_8));
+        }
+
+        private long incr(String key) {
+            long version = version(key) + 1;
+            values.put(key, String.valueOf(version).getBytes(StandardCharsets.UTF_8));
+            return version;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.helper.Service;
+
+import com.example.helper.Common.Exception.BusinessException;
+import com.example.helper.Dto.MealDTO;
+import com.example.helper.Dto.MealSyncDTO;
+import com.example.helper.Entity.Meal;
+import com.example.helper.Entity.MealChange;
+import com.example.helper.Repository.MealChangeRepository;
+import com.example.helper.Repository.MealRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MealSyncServiceTest {
+
+    private final MealRepository mealRepository = mock(MealRepository.class);
+    private final MealChangeRepository changeRepository = mock(MealChangeRepository.class);
+    private final MealCatalogVersionService catalogVersionService =
+            mock(MealCatalogVersionService.class);
+
+    // 内存中的菜品表和变更日志
+    private final TreeMap<Long, Meal> meals = new TreeMap<>();
+    private final List<MealChange> changes = new ArrayList<>();
+
+    private MealSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new MealSyncService(mealRepository, changeRepository, catalogVersionService);
+        when(mealRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+                .thenAnswer(
+                        invocation -> {
+                            long after = invocation.getArgument(0);
+                            Pageable pageable = invocation.getArgument(1);
+                            return meals.tailMap(after, false).values().stream()
+                                    .limit(pageable.getPageSize())
+                                    .toList();
+                        });
+        when(mealRepository.findByIdInBypassingCache(anyCollection()))
+                .thenAnswer(
+                        invocation -> {
+                            Collection<Long> ids = invocation.getArgument(0);
+                            return ids.stream()
+                                    .filter(meals::containsKey)
+                                    .map(meals::get)
+                                    .toList();
+                        });
+        when(changeRepository.findBetween(anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(
+                        invocation -> {
+                            long after = invocation.getArgument(0);
+                            long upTo = invocation.getArgument(1);
+                            Pageable pageable = invocation.getArgument(2);
+                            return changes.stream()
+                                    .filter(c -> c.getSeq() > after && c.getSeq() <= upTo)
+                                    .limit(pageable.getPageSize())
+                                    .toList();
+                        });
+        // 默认所有日志都已提交，水位即最后一条
+        when(catalogVersionService.getWatermark())
+                .thenAnswer(invocation -> (long) changes.size());
+    }
+
+    @Test
+    void snapshotThenResumesFromChangeLog() {
+        for (long id = 1; id <= 3; id++) {
+            create(id);
+        }
+
+        MealSyncDTO page1 = syncService.sync(null, 2);
+        assertThat(ids(page1)).containsExactly(1L, 2L);
+        assertThat(page1.getHasMore()).isTrue();
+        assertThat(page1.getReset()).isNull();
+
+        // 快照期间的变更：修改已下发的 1，删除未下发的 3
+        update(1);
+        delete(3);
+
+        MealSyncDTO page2 = syncService.sync(page1.getNextCursor(), 2);
+        assertThat(ids(page2)).isEmpty();
+        assertThat(page2.getHasMore()).isTrue();
+
+        MealSyncDTO page3 = syncService.sync(page2.getNextCursor(), 10);
+        assertThat(ids(page3)).containsExactly(1L);
+        assertThat(page3.getDeletedIds()).containsExactly(3L);
+        assertThat(page3.getHasMore()).isFalse();
+
+        // 没有新变更时游标不变
+        MealSyncDTO page4 = syncService.sync(page3.getNextCursor(), 10);
+        assertThat(ids(page4)).isEmpty();
+        assertThat(page4.getDeletedIds()).isEmpty();
+        assertThat(page4.getNextCursor()).isEqualTo(page3.getNextCursor());
+    }
+
+    @Test
+    void pagesChangesBySequenceAndDeduplicatesMeals() {
+        MealSyncDTO initial = syncService.sync(null, 10);
+        assertThat(ids(initial)).isEmpty();
+
+        create(1);
+        create(2);
+        update(1);
+        update(2);
+        create(3);
+
+        MealSyncDTO page1 = syncService.sync(initial.getNextCursor(), 3);
+        assertThat(ids(page1)).containsExactly(1L, 2L);
+        assertThat(page1.getHasMore()).isTrue();
+
+        MealSyncDTO page2 = syncService.sync(page1.getNextCursor(), 3);
+        assertThat(ids(page2)).containsExactly(2L, 3L);
+        assertThat(page2.getHasMore()).isFalse();
+    }
+
+    @Test
+    void stopsAtWatermarkUntilEarlierTransactionCommits() {
+        MealSyncDTO initial = syncService.sync(null, 10);
+        create(1);
+        create(2);
+        // seq 1 所在的事务尚未提交，水位停在 0
+        when(catalogVersionService.getWatermark()).thenReturn(0L);
+
+        MealSyncDTO pending = syncService.sync(initial.getNextCursor(), 10);
+        assertThat(ids(pending)).isEmpty();
+        assertThat(pending.getNextCursor()).isEqualTo(initial.getNextCursor());
+
+        when(catalogVersionService.getWatermark()).thenReturn(2L);
+        MealSyncDTO page = syncService.sync(pending.getNextCursor(), 10);
+        assertThat(ids(page)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void cursorBeforeCompactionResets() {
+        MealSyncDTO initial = syncService.sync(null, 10);
+        create(1);
+        create(2);
+        when(catalogVersionService.getCompactedSeq()).thenReturn(1L);
+
+        MealSyncDTO page = syncService.sync(initial.getNextCursor(), 10);
+
+        assertThat(page.getReset()).isTrue();
+        assertThat(ids(page)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void legacyCursorResets() {
+        create(1);
+        String legacy = encode("1.abc.1.abc.1");
+
+        MealSyncDTO page = syncService.sync(legacy, 10);
+
+        assertThat(page.getReset()).isTrue();
+        assertThat(ids(page)).containsExactly(1L);
+    }
+
+    @Test
+    void rejectsInvalidCursorAndLimit() {
+        assertThatThrownBy(() -> syncService.sync("not a cursor!", 10))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> syncService.sync(encode("2.x.1.0"), 10))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> syncService.sync(null, 0)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> syncService.sync(null, MealSyncService.MAX_LIMIT + 1))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private void create(long id) {
+        Meal meal = new Meal();
+        meal.setId(id);
+        meal.setTitle("meal-" + id);
+        meals.put(id, meal);
+        log(id, "CREATE");
+    }
+
+    private void update(long id) {
+        meals.get(id).setTitle("meal-" + id + "-updated");
+        log(id, "UPDATE");
+    }
+
+    private void delete(long id) {
+        meals.remove(id);
+        log(id, "DELETE");
+    }
+
+    private void log(long id, String type) {
+        MealChange change = new MealChange();
+        change.setSeq((long) changes.size() + 1);
+        change.setMealId(id);
+        change.setChangeType(type);
+        changes.add(change);
+    }
+
+    private static List<Long> ids(MealSyncDTO result) {
+        return result.getMeals().stream().map(MealDTO::getId).toList();
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+}